@@ -0,0 +1,148 @@
+package io.github.leobeaumont.Analysis;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Set of pairwise incomparable markings of nodes, possibly holding {@link CoverabilityGraph#OMEGA}, used to
+ * test quickly whether a marking is covered by one of the markings found so far.
+ * <p>
+ * Only the maximal markings are kept: a marking covered by one of them is covered by the set. Every
+ * marking is indexed by a 64-bit signature of its marked places, place {@code p} setting bit
+ * {@code p % 64}, by its number of {@code OMEGA} places and by its number of tokens outside them, so
+ * that most incomparable pairs are told apart without comparing the markings place by place.
+ * </p>
+ */
+final class Antichain {
+
+    private static final int INITIAL_CAPACITY = 16;
+    private static final int SIGNATURE_BITS = 64;
+
+    private int[][] markings = new int[INITIAL_CAPACITY][];
+    private int[] nodes = new int[INITIAL_CAPACITY];
+    private long[] signatures = new long[INITIAL_CAPACITY];
+    private int[] omegas = new int[INITIAL_CAPACITY];
+    private long[] sums = new long[INITIAL_CAPACITY];
+    private final BitSet members = new BitSet();
+    private int size;
+
+    /**
+     * Tests whether a marking is smaller than or equal to a marking of the set on every place.
+     */
+    boolean covers(int[] marking) {
+        long signature = signature(marking);
+        int omega = omegaCount(marking);
+        long sum = finiteSum(marking);
+        for (int i = 0; i < size; ++i) {
+            if ((signature & ~signatures[i]) == 0 && omegas[i] >= omega
+                    && (omegas[i] > 0 || sums[i] >= sum) && lessOrEqual(marking, markings[i])) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Adds a marking that no marking of the set covers, removing the markings it covers.
+     */
+    void add(int node, int[] marking) {
+        long signature = signature(marking);
+        int omega = omegaCount(marking);
+        long sum = finiteSum(marking);
+        for (int i = size - 1; i >= 0; --i) {
+            if ((signatures[i] & ~signature) == 0 && omega >= omegas[i]
+                    && (omega > 0 || sum >= sums[i]) && lessOrEqual(markings[i], marking)) {
+                removeAt(i);
+            }
+        }
+        if (size == markings.length) {
+            markings = Arrays.copyOf(markings, size * 2);
+            nodes = Arrays.copyOf(nodes, size * 2);
+            signatures = Arrays.copyOf(signatures, size * 2);
+            omegas = Arrays.copyOf(omegas, size * 2);
+            sums = Arrays.copyOf(sums, size * 2);
+        }
+        markings[size] = marking.clone();
+        nodes[size] = node;
+        signatures[size] = signature;
+        omegas[size] = omega;
+        sums[size] = sum;
+        members.set(node);
+        ++size;
+    }
+
+    /**
+     * Tests whether the marking of a node is in the set, that is whether it was added and no larger
+     * marking was added since.
+     */
+    boolean contains(int node) {
+        return members.get(node);
+    }
+
+    /**
+     * Returns the nodes of the maximal markings, in increasing order.
+     */
+    int[] nodes() {
+        return members.stream().toArray();
+    }
+
+    /**
+     * Returns the number of maximal markings.
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Tests whether the first marking is smaller than or equal to the second one on every place.
+     */
+    static boolean lessOrEqual(int[] smaller, int[] larger) {
+        for (int p = 0; p < smaller.length; ++p) {
+            if (smaller[p] > larger[p]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void removeAt(int i) {
+        members.clear(nodes[i]);
+        --size;
+        markings[i] = markings[size];
+        nodes[i] = nodes[size];
+        signatures[i] = signatures[size];
+        omegas[i] = omegas[size];
+        sums[i] = sums[size];
+        markings[size] = null;
+    }
+
+    private static long signature(int[] marking) {
+        long signature = 0;
+        for (int p = 0; p < marking.length; ++p) {
+            if (marking[p] > 0) {
+                signature |= 1L << (p % SIGNATURE_BITS);
+            }
+        }
+        return signature;
+    }
+
+    private static int omegaCount(int[] marking) {
+        int count = 0;
+        for (int tokens : marking) {
+            if (tokens == CoverabilityGraph.OMEGA) {
+                ++count;
+            }
+        }
+        return count;
+    }
+
+    private static long finiteSum(int[] marking) {
+        long sum = 0;
+        for (int tokens : marking) {
+            if (tokens != CoverabilityGraph.OMEGA) {
+                sum += tokens;
+            }
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,19 @@
+package io.github.leobeaumont.Analysis;
+
+/**
+ * Receives the arcs of a reachability graph as an exploration finds them, so that they can be
+ * written out or aggregated instead of kept in memory.
+ */
+@FunctionalInterface
+public interface ArcListener {
+
+    /**
+     * Handles an arc. The arcs of a state are given together, once all its successors are stored,
+     * and states are expanded in increasing order of identifier.
+     *
+     * @param source     the identifier of the state the transition is fired from
+     * @param transition the index of the fired transition
+     * @param target     the identifier of the reached state
+     */
+    void arc(int source, int transition, int target);
+}
@@ -0,0 +1,213 @@
+package io.github.leobeaumont.Analysis;
+
+import io.github.leobeaumont.Engine.CompiledNet;
+import java.util.Arrays;
+
+/**
+ * Explores the reachable markings of a {@link CompiledNet} with bitstate hashing (supertrace),
+ * in a fixed memory budget.
+ * <p>
+ * Instead of storing the visited markings, the explorer sets {@code k} bits of a large bit array
+ * for each of them, like a Bloom filter, and takes a marking whose {@code k} bits are all set for a
+ * visited one. The visited set costs a fixed number of bits whatever the number of states, but
+ * two markings may share their bits: the second one is then never explored, and neither are the
+ * states only reachable through it. The search is depth-first, and only the markings of the
+ * current path are stored.
+ * </p>
+ *
+ * <p>The coverage reported in the {@link ExplorationResult} estimates the fraction of the states
+ * that weren't lost this way. When {@code n} states are stored, a new state collides with
+ * probability {@code p = f^k}, where {@code f} is the fraction of bits set; reaching the
+ * {@code n + 1}-th stored state thus costs {@code p / (1 - p)} lost states on average, which
+ * is summed over the exploration.</p>
+ */
+public final class BitstateExplorer {
+
+    /**
+     * The number of bits set per marking when none is given.
+     */
+    public static final int DEFAULT_HASH_COUNT = 3;
+
+    private static final int WORD_SHIFT = 6;
+    private static final int MIN_BITS = Long.SIZE;
+    private static final long MAX_BITS = (long) Integer.highestOneBit(Integer.MAX_VALUE) << WORD_SHIFT;
+    private static final long SECOND_HASH = 0xC2B2AE3D27D4EB4FL;
+    private static final int HALF_LONG = 32;
+
+    private final CompiledNet net;
+    private final MarkingPacker packer;
+    private final long bitCount;
+    private final int hashCount;
+
+    /**
+     * Creates an explorer setting {@link #DEFAULT_HASH_COUNT} bits per marking.
+     *
+     * @param net         the compiled net
+     * @param memoryBytes the size of the bit array, rounded down to a power of two
+     * @throws IllegalArgumentException if {@code memoryBytes} is smaller than 8
+     */
+    public BitstateExplorer(CompiledNet net, long memoryBytes) throws IllegalArgumentException {
+        this(net, memoryBytes, DEFAULT_HASH_COUNT);
+    }
+
+    /**
+     * Creates an explorer.
+     *
+     * @param net         the compiled net
+     * @param memoryBytes the size of the bit array, rounded down to a power of two
+     * @param hashCount   the number of bits set per marking
+     * @throws IllegalArgumentException if {@code memoryBytes} is smaller than 8, or {@code hashCount}
+     *                                  is not positive
+     */
+    public BitstateExplorer(CompiledNet net, long memoryBytes, int hashCount) throws IllegalArgumentException {
+        if (memoryBytes < Long.BYTES || hashCount <= 0) {
+            throw new IllegalArgumentException(String.format(
+                "BitstateExplorer(net, %d, %d) -- The memory must be at least 8 bytes and the hash count positive.",
+                memoryBytes, hashCount));
+        }
+        this.net = net;
+        this.packer = MarkingPacker.unbounded(net.getPlaceCount());
+        this.bitCount = Math.max(MIN_BITS, Math.min(MAX_BITS, Long.highestOneBit(memoryBytes) * Byte.SIZE));
+        this.hashCount = hashCount;
+    }
+
+    /**
+     * Explores the markings reachable from the current marking of the net.
+     *
+     * @param maxStates the largest number of states to visit
+     * @return the number of states, arcs and deadlocks found, and the estimated coverage
+     * @throws IllegalArgumentException if {@code maxStates} is not positive
+     * @throws IllegalStateException    if a place would exceed {@link Integer#MAX_VALUE} tokens
+     */
+    public ExplorationResult explore(long maxStates) throws IllegalArgumentException, IllegalStateException {
+        if (maxStates <= 0) {
+            throw new IllegalArgumentException(String.format(
+                "BitstateExplorer.explore(%d) -- The argument maxStates must be positive.", maxStates));
+        }
+        long start = System.nanoTime();
+        Search search = new Search(maxStates);
+        search.run(net.getMarking());
+        return new ExplorationResult(search.states, search.arcs, search.deadlocks, search.deadlockMarking,
+            !search.full, System.nanoTime() - start, search.states / (search.states + search.lost));
+    }
+
+    /**
+     * Returns the number of bits of the bit array.
+     *
+     * @return the number of bits, a power of two
+     */
+    public long getBitCount() {
+        return bitCount;
+    }
+
+    /**
+     * State of one depth-first search: the bit array, the stack of markings and the counters.
+     */
+    private final class Search {
+
+        private final long maxStates;
+        private final long[] bits = new long[(int) (bitCount >>> WORD_SHIFT)];
+        private final int words = packer.words();
+        private final int[] marking = new int[net.getPlaceCount()];
+        private final long[] packed = new long[words];
+        private long[] stack = new long[0];
+        private int[] nextTransition = new int[0];
+        private int depth;
+        private long bitsSet;
+        private long states;
+        private long arcs;
+        private long deadlocks;
+        private int[] deadlockMarking;
+        private double lost;
+        private boolean full;
+
+        Search(long maxStates) {
+            this.maxStates = maxStates;
+        }
+
+        void run(int[] initialMarking) {
+            packer.pack(initialMarking, packed, 0);
+            visit(initialMarking);
+            int nbTransitions = net.getTransitionCount();
+            while (depth > 0 && !full) {
+                int top = depth - 1;
+                packer.unpack(stack, top * words, marking);
+                int t = nextTransition[top];
+                while (t < nbTransitions && !net.isEnabled(t, marking)) {
+                    ++t;
+                }
+                if (t == nbTransitions) {
+                    --depth;
+                    continue;
+                }
+                nextTransition[top] = t + 1;
+                ++arcs;
+                net.fire(t, marking);
+                packer.pack(marking, packed, 0);
+                visit(marking);
+            }
+        }
+
+        /**
+         * Sets the bits of the packed marking and pushes it, unless its bits were all set already or
+         * the state limit is reached.
+         */
+        private void visit(int[] current) {
+            long h1 = MarkingStore.hash(packed, 0, words);
+            long h2 = (Long.rotateLeft(h1, HALF_LONG) * SECOND_HASH) | 1;
+            long mask = bitCount - 1;
+            double collision = Math.pow((double) bitsSet / bitCount, hashCount);
+            boolean isNew = false;
+            for (int i = 0; i < hashCount && !isNew; ++i) {
+                long bit = (h1 + i * h2) & mask;
+                isNew = (bits[(int) (bit >>> WORD_SHIFT)] & 1L << bit) == 0;
+            }
+            if (!isNew) {
+                return;
+            }
+            // A state left out at the limit must not hide the states sharing its bits
+            if (states == maxStates) {
+                full = true;
+                return;
+            }
+            for (int i = 0; i < hashCount; ++i) {
+                long bit = (h1 + i * h2) & mask;
+                int word = (int) (bit >>> WORD_SHIFT);
+                long flag = 1L << bit;
+                if ((bits[word] & flag) == 0) {
+                    bits[word] |= flag;
+                    ++bitsSet;
+                }
+            }
+            lost += collision < 1 ? collision / (1 - collision) : Double.POSITIVE_INFINITY;
+            ++states;
+            if (isDead(current)) {
+                ++deadlocks;
+                if (deadlockMarking == null) {
+                    deadlockMarking = current.clone();
+                }
+                return;
+            }
+            push();
+        }
+
+        private boolean isDead(int[] current) {
+            for (int t = 0, end = net.getTransitionCount(); t < end; ++t) {
+                if (net.isEnabled(t, current)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private void push() {
+            if (depth == nextTransition.length) {
+                int capacity = Math.max(1, depth * 2);
+                stack = Arrays.copyOf(stack, capacity * words);
+                nextTransition = Arrays.copyOf(nextTransition, capacity);
+            }
+            System.arraycopy(packed, 0, stack, depth * words, words);
+            nextTransition[depth++] = 0;
+        }
+    }
+}
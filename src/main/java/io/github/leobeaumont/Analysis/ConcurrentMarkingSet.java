@@ -0,0 +1,257 @@
+package io.github.leobeaumont.Analysis;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Set of packed markings shared by exploring threads, up to a capacity.
+ * <p>
+ * Like {@link MarkingStore}, markings are appended to {@code long[]} pages and indexed by an
+ * open-addressing table of state identifiers, but every slot is claimed with a compare-and-set
+ * instead of a lock: a thread inserting a marking claims an empty slot, takes the next identifier,
+ * writes the marking to its page, then publishes the identifier. Threads probing a claimed slot
+ * wait for its publication, which only takes a copy of a few words; inserts into distinct slots
+ * never wait for each other.
+ * </p>
+ * <p>
+ * The table is split into segments chosen by the high bits of the hash, each starting small and
+ * doubling when it is three quarters full, so memory follows the number of states rather than the
+ * capacity. Inserts hold the read lock of their segment, so they run together; a segment only takes
+ * its write lock to be rehashed, which blocks the inserts into that segment alone. Since concurrent
+ * inserts can fill a table before it is rehashed, an insert probing every slot of its table without
+ * finding room releases the read lock, rehashes the segment and starts again.
+ * </p>
+ */
+public final class ConcurrentMarkingSet {
+
+    /**
+     * Returned by {@link #add(long[], int)} when a new marking doesn't fit in the set.
+     */
+    public static final int FULL = Integer.MIN_VALUE;
+
+    // Returned by insert when the table has no room left; below every identifier returned by add
+    private static final int GROW = FULL + 1;
+
+    private static final int EMPTY = 0;
+    private static final int CLAIMED = -1;
+    private static final int PAGE_SHIFT = 16;
+    private static final int PAGE_STATES = 1 << PAGE_SHIFT;
+    private static final int PAGE_MASK = PAGE_STATES - 1;
+    private static final int SEGMENT_SHIFT = 6;
+    private static final int SEGMENTS = 1 << SEGMENT_SHIFT;
+    private static final int INITIAL_SLOTS = 16;
+    private static final int LOAD_NUMERATOR = 4;
+    private static final int LOAD_DENOMINATOR = 3;
+    private static final int MAX_CAPACITY = Integer.highestOneBit(Integer.MAX_VALUE) / LOAD_NUMERATOR;
+
+    private final int words;
+    private final int capacity;
+    // Replaced under the write lock of their segment, read under its read lock
+    private final AtomicIntegerArray[] tables = new AtomicIntegerArray[SEGMENTS];
+    private final ReentrantReadWriteLock[] locks = new ReentrantReadWriteLock[SEGMENTS];
+    private final AtomicIntegerArray segmentSizes = new AtomicIntegerArray(SEGMENTS);
+    private final AtomicReferenceArray<long[]> pages;
+    private final AtomicInteger size = new AtomicInteger();
+
+    /**
+     * Creates an empty set.
+     *
+     * @param words    the number of words of a packed marking
+     * @param capacity the largest number of markings to store
+     * @throws IllegalArgumentException if {@code capacity} is not positive or too large
+     */
+    public ConcurrentMarkingSet(int words, int capacity) throws IllegalArgumentException {
+        this(words, capacity, INITIAL_SLOTS);
+    }
+
+    /**
+     * Creates an empty set whose segments start with the given number of slots.
+     *
+     * @param words        the number of words of a packed marking
+     * @param capacity     the largest number of markings to store
+     * @param initialSlots the number of slots of the table of every segment before it first grows,
+     *                     a power of two
+     * @throws IllegalArgumentException if {@code capacity} is not positive or too large, or if
+     *                                  {@code initialSlots} is not a positive power of two
+     */
+    public ConcurrentMarkingSet(int words, int capacity, int initialSlots) throws IllegalArgumentException {
+        if (capacity <= 0 || capacity > MAX_CAPACITY) {
+            throw new IllegalArgumentException(String.format(
+                "ConcurrentMarkingSet(%d, %d, %d) -- The argument capacity must be between 1 and %d.",
+                words, capacity, initialSlots, MAX_CAPACITY));
+        }
+        if (initialSlots <= 0 || Integer.bitCount(initialSlots) != 1) {
+            throw new IllegalArgumentException(String.format(
+                "ConcurrentMarkingSet(%d, %d, %d) -- The argument initialSlots must be a positive power of two.",
+                words, capacity, initialSlots));
+        }
+        this.words = words;
+        this.capacity = capacity;
+        for (int segment = 0; segment < SEGMENTS; ++segment) {
+            // Slots hold identifiers plus one, so that the zeroed array is empty
+            this.tables[segment] = new AtomicIntegerArray(initialSlots);
+            this.locks[segment] = new ReentrantReadWriteLock();
+        }
+        this.pages = new AtomicReferenceArray<long[]>((capacity + PAGE_MASK) >>> PAGE_SHIFT);
+    }
+
+    /**
+     * Adds a packed marking unless it is already present.
+     *
+     * @param packed the array holding the packed marking
+     * @param offset the index of its first word
+     * @return the identifier of the new state, {@code -1 - id} if the marking was already stored with
+     *         identifier {@code id}, or {@link #FULL} if it is new but the set is full
+     */
+    public int add(long[] packed, int offset) {
+        long hash = MarkingStore.hash(packed, offset, words);
+        int segment = (int) (hash >>> (Long.SIZE - SEGMENT_SHIFT));
+        Lock read = locks[segment].readLock();
+        while (true) {
+            int id;
+            boolean overloaded;
+            read.lock();
+            try {
+                id = insert(tables[segment], segment, (int) hash, packed, offset);
+                overloaded = id == GROW || id >= 0 && isOverloaded(segment, tables[segment]);
+            } finally {
+                read.unlock();
+            }
+            if (overloaded) {
+                grow(segment);
+            }
+            if (id != GROW) {
+                return id;
+            }
+        }
+    }
+
+    /**
+     * Finds or inserts a marking in the table of a segment, whose read lock is held.
+     * <p>
+     * Returns {@link #GROW} once every slot was probed without finding the marking or an empty slot:
+     * the other inserts filled the table, which can only grow once the read lock is released.
+     * </p>
+     */
+    private int insert(AtomicIntegerArray table, int segment, int hash, long[] packed, int offset) {
+        int tableMask = table.length() - 1;
+        int slot = hash & tableMask;
+        for (int probes = 0; probes < table.length();) {
+            int value = table.get(slot);
+            if (value == EMPTY) {
+                if (table.compareAndSet(slot, EMPTY, CLAIMED)) {
+                    return publish(table, segment, slot, packed, offset);
+                }
+            } else if (value == CLAIMED) {
+                Thread.yield();
+            } else if (matches(value - 1, packed, offset)) {
+                return -value;
+            } else {
+                slot = (slot + 1) & tableMask;
+                ++probes;
+            }
+        }
+        return GROW;
+    }
+
+    /**
+     * Stores a marking in a claimed slot, or releases the slot if the set is full.
+     */
+    private int publish(AtomicIntegerArray table, int segment, int slot, long[] packed, int offset) {
+        int id = size.getAndIncrement();
+        if (id >= capacity) {
+            size.decrementAndGet();
+            table.set(slot, EMPTY);
+            return FULL;
+        }
+        int page = id >>> PAGE_SHIFT;
+        long[] pageWords = pages.get(page);
+        if (pageWords == null) {
+            pages.compareAndSet(page, null, new long[PAGE_STATES * words]);
+            pageWords = pages.get(page);
+        }
+        System.arraycopy(packed, offset, pageWords, (id & PAGE_MASK) * words, words);
+        segmentSizes.incrementAndGet(segment);
+        // The volatile write publishes the words of the marking with its identifier
+        table.set(slot, id + 1);
+        return id;
+    }
+
+    private boolean isOverloaded(int segment, AtomicIntegerArray table) {
+        return (long) segmentSizes.get(segment) * LOAD_NUMERATOR > (long) table.length() * LOAD_DENOMINATOR;
+    }
+
+    /**
+     * Doubles the table of a segment, unless another thread already did.
+     */
+    private void grow(int segment) {
+        Lock write = locks[segment].writeLock();
+        write.lock();
+        try {
+            AtomicIntegerArray table = tables[segment];
+            if (!isOverloaded(segment, table)) {
+                return;
+            }
+            AtomicIntegerArray bigger = new AtomicIntegerArray(table.length() * 2);
+            int tableMask = bigger.length() - 1;
+            for (int i = 0; i < table.length(); ++i) {
+                int value = table.get(i);
+                if (value != EMPTY) {
+                    int id = value - 1;
+                    long[] page = pages.get(id >>> PAGE_SHIFT);
+                    int slot = (int) MarkingStore.hash(page, (id & PAGE_MASK) * words, words) & tableMask;
+                    while (bigger.get(slot) != EMPTY) {
+                        slot = (slot + 1) & tableMask;
+                    }
+                    bigger.set(slot, value);
+                }
+            }
+            tables[segment] = bigger;
+        } finally {
+            write.unlock();
+        }
+    }
+
+    private boolean matches(int id, long[] packed, int offset) {
+        long[] page = pages.get(id >>> PAGE_SHIFT);
+        int start = (id & PAGE_MASK) * words;
+        for (int w = 0; w < words; ++w) {
+            if (page[start + w] != packed[offset + w]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Copies the packed marking of a state returned by {@link #add(long[], int)}.
+     *
+     * @param id     the identifier of the state
+     * @param packed the array receiving the packed marking
+     * @param offset the index of the first word to write
+     */
+    public void get(int id, long[] packed, int offset) {
+        System.arraycopy(pages.get(id >>> PAGE_SHIFT), (id & PAGE_MASK) * words, packed, offset, words);
+    }
+
+    /**
+     * Returns the number of states.
+     *
+     * @return the number of stored markings
+     */
+    public int size() {
+        return Math.min(size.get(), capacity);
+    }
+
+    /**
+     * Returns the largest number of states.
+     *
+     * @return the capacity of the set
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+}
@@ -0,0 +1,282 @@
+package io.github.leobeaumont.Analysis;
+
+import io.github.leobeaumont.Engine.CompiledNet;
+import io.github.leobeaumont.Engine.IntArray;
+import java.util.BitSet;
+
+/**
+ * Builds the Karp–Miller {@link CoverabilityGraph} of a {@link CompiledNet} by depth-first search.
+ * <p>
+ * When a firing leads from a node to a marking strictly larger than the marking of one of its ancestors,
+ * the firing sequence between them can be repeated forever, so the places that grew are set to
+ * {@link CoverabilityGraph#OMEGA}. {@code OMEGA} enables every weighted incoming arc and stays
+ * {@code OMEGA} when tokens are added or removed, and a place that would exceed
+ * {@link Integer#MAX_VALUE} tokens becomes {@code OMEGA} instead of overflowing.
+ * </p>
+ * <p>
+ * Identical markings share one node, and on nets with weighted arcs only a node covered by the marking of
+ * another node when it is popped is not expanded: by monotony, the successors of the larger node cover its
+ * own. The maximal markings are kept in an antichain indexed by their marked places. Going depth first
+ * reaches the large markings early, so that most of the nodes pending on the stack are covered by then,
+ * which keeps the graph small on nets with many concurrent transitions, where the tree of Karp and Miller
+ * would list every interleaving.
+ * </p>
+ */
+public final class CoverabilityExplorer {
+
+    private final CompiledNet net;
+    private final MarkingPacker packer;
+    private final int[][] prePlaces;
+    private final int[][] preWeights;
+    private final int[][] postPlaces;
+    private final int[][] postWeights;
+    private final int[][] emptyPlaces;
+    private final int[][] zeroPlaces;
+    private final boolean exact;
+
+    /**
+     * Creates an explorer for a net.
+     *
+     * @param net the compiled net
+     */
+    public CoverabilityExplorer(CompiledNet net) {
+        int nbTransitions = net.getTransitionCount();
+        this.net = net;
+        this.packer = MarkingPacker.unbounded(net.getPlaceCount());
+        this.prePlaces = new int[nbTransitions][];
+        this.preWeights = new int[nbTransitions][];
+        this.postPlaces = new int[nbTransitions][];
+        this.postWeights = new int[nbTransitions][];
+        this.emptyPlaces = new int[nbTransitions][];
+        this.zeroPlaces = new int[nbTransitions][];
+        boolean weightedOnly = true;
+        for (int t = 0; t < nbTransitions; ++t) {
+            prePlaces[t] = net.getPrePlaces(t);
+            preWeights[t] = net.getPreWeights(t);
+            postPlaces[t] = net.getPostPlaces(t);
+            postWeights[t] = net.getPostWeights(t);
+            emptyPlaces[t] = net.getEmptyPlaces(t);
+            zeroPlaces[t] = net.getZeroPlaces(t);
+            weightedOnly &= emptyPlaces[t].length == 0 && zeroPlaces[t].length == 0;
+        }
+        this.exact = weightedOnly;
+    }
+
+    /**
+     * Builds the coverability graph from the current marking of the net.
+     *
+     * @param maxNodes the largest number of nodes to store
+     * @return the coverability graph, incomplete if {@code maxNodes} was reached
+     * @throws IllegalArgumentException if {@code maxNodes} is not positive
+     */
+    public CoverabilityGraph explore(int maxNodes) throws IllegalArgumentException {
+        return explore(net.getMarking(), maxNodes);
+    }
+
+    /**
+     * Builds the coverability graph from the given marking.
+     *
+     * @param initialMarking the initial marking, indexed by place, which may hold {@link CoverabilityGraph#OMEGA}
+     * @param maxNodes       the largest number of nodes to store
+     * @return the coverability graph, incomplete if {@code maxNodes} was reached
+     * @throws IllegalArgumentException if {@code maxNodes} is not positive
+     */
+    public CoverabilityGraph explore(int[] initialMarking, int maxNodes) throws IllegalArgumentException {
+        if (maxNodes <= 0) {
+            throw new IllegalArgumentException(String.format(
+                "CoverabilityExplorer.explore(marking, %d) -- The argument maxNodes must be positive.", maxNodes));
+        }
+        Search search = new Search(initialMarking, maxNodes);
+        search.run();
+        return search.toGraph();
+    }
+
+    /**
+     * Tests whether a transition is enabled in a marking holding {@link CoverabilityGraph#OMEGA}.
+     */
+    private boolean isEnabled(int t, int[] marking) {
+        for (int i = 0; i < prePlaces[t].length; ++i) {
+            if (marking[prePlaces[t][i]] < preWeights[t][i]) {
+                return false;
+            }
+        }
+        for (int p : emptyPlaces[t]) {
+            if (marking[p] == 0) {
+                return false;
+            }
+        }
+        for (int p : zeroPlaces[t]) {
+            if (marking[p] != 0 && marking[p] != CoverabilityGraph.OMEGA) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Fires an enabled transition in a marking holding {@link CoverabilityGraph#OMEGA}.
+     */
+    private void fire(int t, int[] marking) {
+        for (int i = 0; i < prePlaces[t].length; ++i) {
+            int p = prePlaces[t][i];
+            if (marking[p] != CoverabilityGraph.OMEGA) {
+                marking[p] -= preWeights[t][i];
+            }
+        }
+        for (int p : emptyPlaces[t]) {
+            marking[p] = 0;
+        }
+        for (int i = 0; i < postPlaces[t].length; ++i) {
+            int p = postPlaces[t][i];
+            if (marking[p] >= CoverabilityGraph.OMEGA - postWeights[t][i]) {
+                marking[p] = CoverabilityGraph.OMEGA;
+            } else {
+                marking[p] += postWeights[t][i];
+            }
+        }
+    }
+
+    /**
+     * State of one construction: the nodes and arcs found so far, the tree of first discovery used for the
+     * acceleration, the antichain of maximal markings, the stack of nodes to expand and the buffers.
+     */
+    private final class Search {
+
+        private final int maxNodes;
+        private final MarkingStore store = new MarkingStore(packer.words());
+        private final long[] packed = new long[packer.words()];
+        private final int[] marking;
+        private final int[] next;
+        private final int[] ancestor;
+        private final IntArray parent = new IntArray();
+        private final IntArray stack = new IntArray();
+        private final BitSet covered = new BitSet();
+        private final Antichain maximal = new Antichain();
+        private final IntArray arcSource = new IntArray();
+        private final IntArray arcTarget = new IntArray();
+        private final IntArray arcTransition = new IntArray();
+        private int node;
+        private int popped;
+
+        Search(int[] initialMarking, int maxNodes) {
+            this.maxNodes = maxNodes;
+            this.marking = new int[initialMarking.length];
+            this.next = new int[initialMarking.length];
+            this.ancestor = new int[initialMarking.length];
+            packer.pack(initialMarking, packed, 0);
+            store.add(packed, 0);
+            parent.add(-1);
+            stack.add(0);
+            maximal.add(0, initialMarking);
+        }
+
+        /**
+         * Expands the nodes of the stack until it is empty or the store is full.
+         */
+        void run() {
+            boolean full = false;
+            while (stack.size() > 0 && !full) {
+                full = !expandNext();
+            }
+        }
+
+        /**
+         * Appends the successors of the node on top of the stack, unless a node found since covers it.
+         *
+         * @return {@code false} if a new node was found while the store already holds {@code maxNodes}
+         *         nodes; the node then stays unexpanded, on the stack
+         */
+        private boolean expandNext() {
+            node = stack.removeLast();
+            ++popped;
+            if (exact && !maximal.contains(node)) {
+                covered.set(node);
+                return true;
+            }
+            int firstArc = arcTarget.size();
+            store.get(node, packed, 0);
+            packer.unpack(packed, 0, marking);
+            for (int t = 0; t < prePlaces.length; ++t) {
+                if (isEnabled(t, marking) && !addSuccessor(t)) {
+                    arcSource.truncate(firstArc);
+                    arcTarget.truncate(firstArc);
+                    arcTransition.truncate(firstArc);
+                    stack.add(node);
+                    --popped;
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Fires an enabled transition from the node being expanded, accelerates the result and appends the arc.
+         *
+         * @return {@code false} if the result is a new node and the store is full
+         */
+        private boolean addSuccessor(int t) {
+            System.arraycopy(marking, 0, next, 0, marking.length);
+            fire(t, next);
+            accelerate();
+            packer.pack(next, packed, 0);
+            int target = store.indexOf(packed, 0);
+            if (target < 0) {
+                if (store.size() == maxNodes) {
+                    return false;
+                }
+                target = store.add(packed, 0);
+                parent.add(node);
+                stack.add(target);
+                if (!maximal.covers(next)) {
+                    maximal.add(target, next);
+                }
+            }
+            arcSource.add(node);
+            arcTarget.add(target);
+            arcTransition.add(t);
+            return true;
+        }
+
+        /**
+         * Sets to {@link CoverabilityGraph#OMEGA} the places of {@code next} that grew since an ancestor
+         * it covers, from the node being expanded up to the initial node.
+         */
+        private void accelerate() {
+            for (int a = node; a >= 0; a = parent.get(a)) {
+                store.get(a, packed, 0);
+                packer.unpack(packed, 0, ancestor);
+                if (Antichain.lessOrEqual(ancestor, next)) {
+                    for (int p = 0; p < next.length; ++p) {
+                        if (ancestor[p] < next[p]) {
+                            next[p] = CoverabilityGraph.OMEGA;
+                        }
+                    }
+                }
+            }
+        }
+
+        /**
+         * Sorts the arcs by source node into compressed sparse rows.
+         */
+        CoverabilityGraph toGraph() {
+            int[] start = new int[store.size() + 1];
+            for (int i = 0; i < arcSource.size(); ++i) {
+                ++start[arcSource.get(i) + 1];
+            }
+            for (int n = 0; n < store.size(); ++n) {
+                start[n + 1] += start[n];
+            }
+            int[] fill = start.clone();
+            int[] target = new int[arcSource.size()];
+            int[] transition = new int[arcSource.size()];
+            for (int i = 0; i < arcSource.size(); ++i) {
+                int position = fill[arcSource.get(i)]++;
+                target[position] = arcTarget.get(i);
+                transition[position] = arcTransition.get(i);
+            }
+            ReachabilityGraph graph = new ReachabilityGraph(packer, store, start, target, transition,
+                stack.size() == 0 ? store.size() : popped);
+            return new CoverabilityGraph(graph, covered, maximal.nodes(), exact);
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package io.github.leobeaumont.Analysis;
+
+import java.util.BitSet;
+
+/**
+ * Karp–Miller coverability graph of a Petri net: a finite abstraction of its reachable markings, where a
+ * place that can hold arbitrarily many tokens holds {@link #OMEGA}.
+ * <p>
+ * Every reachable marking is covered by (smaller than or equal to, on every place) the marking of a node,
+ * and a place holds {@link #OMEGA} in some node if and only if it is unbounded. Nodes are numbered in
+ * order of discovery from the initial marking, which is node {@code 0}, and the arcs are kept in
+ * compressed sparse rows like those of a {@link ReachabilityGraph}. A node covered by another node when
+ * its turn comes is not expanded, since the successors of the larger node cover its own.
+ * </p>
+ * <p>
+ * The construction is exact for nets with weighted arcs only. Empty and zero arcs break the monotony the
+ * acceleration relies on, so on nets using them ({@link #isExact()} returns {@code false}) an
+ * {@link #OMEGA} place is treated as possibly empty, covered nodes are still expanded, and the places
+ * reported unbounded may in fact be bounded; the places reported bounded are.
+ * </p>
+ */
+public final class CoverabilityGraph {
+
+    /**
+     * Number of tokens of an unbounded place. A count of {@link Integer#MAX_VALUE} is read as unbounded.
+     */
+    public static final int OMEGA = Integer.MAX_VALUE;
+
+    private final ReachabilityGraph graph;
+    private final BitSet covered;
+    private final int[] maximalNodes;
+    private final boolean exact;
+
+    /**
+     * Creates a graph from the results of a coverability analysis.
+     *
+     * @param graph        the nodes and arcs, read as the states and arcs of a reachability graph
+     * @param covered      the nodes left unexpanded because a previous node covers them
+     * @param maximalNodes the nodes whose markings are maximal, in increasing order
+     * @param exact        whether the net has weighted arcs only
+     */
+    CoverabilityGraph(ReachabilityGraph graph, BitSet covered, int[] maximalNodes, boolean exact) {
+        this.graph = graph;
+        this.covered = covered;
+        this.maximalNodes = maximalNodes;
+        this.exact = exact;
+    }
+
+    /**
+     * Returns the number of nodes.
+     *
+     * @return the number of distinct markings found
+     */
+    public int getNodeCount() {
+        return graph.getStateCount();
+    }
+
+    /**
+     * Returns the number of arcs.
+     *
+     * @return the number of firings between nodes
+     */
+    public int getArcCount() {
+        return graph.getArcCount();
+    }
+
+    /**
+     * Tests whether the analysis went through every node.
+     *
+     * @return {@code false} if the analysis stopped at its node limit
+     */
+    public boolean isComplete() {
+        return graph.isComplete();
+    }
+
+    /**
+     * Tests whether the graph is exact, the net having weighted arcs only.
+     *
+     * @return {@code false} if the unbounded places reported may include bounded ones
+     */
+    public boolean isExact() {
+        return exact;
+    }
+
+    /**
+     * Returns the marking of a node.
+     *
+     * @param n the index of the node
+     * @return the marking, indexed by place, holding {@link #OMEGA} for unbounded places
+     */
+    public int[] getMarking(int n) {
+        return graph.getMarking(n);
+    }
+
+    /**
+     * Returns the successors of a node.
+     *
+     * @param n the index of the node
+     * @return the indices of the nodes reached by firing each enabled transition, empty if the node is
+     *         covered by another node
+     */
+    public int[] getSuccessors(int n) {
+        return graph.getSuccessors(n);
+    }
+
+    /**
+     * Returns the transitions fired from a node, in the order of {@link #getSuccessors(int)}.
+     *
+     * @param n the index of the node
+     * @return the indices of the transitions enabled in the node
+     */
+    public int[] getSuccessorTransitions(int n) {
+        return graph.getSuccessorTransitions(n);
+    }
+
+    /**
+     * Tests whether a node was left unexpanded because another node covers it.
+     *
+     * @param n the index of the node
+     * @return {@code true} if the node is covered by another node
+     */
+    public boolean isCovered(int n) {
+        return covered.get(n);
+    }
+
+    /**
+     * Returns the nodes whose markings are not covered by any other node: every reachable marking is
+     * covered by one of them.
+     *
+     * @return the indices of the maximal nodes, in increasing order
+     */
+    public int[] getMaximalNodes() {
+        return maximalNodes.clone();
+    }
+
+    /**
+     * Tests whether some reachable marking covers the given one, that is whether it can be reached up to
+     * extra tokens.
+     *
+     * @param marking the marking, indexed by place
+     * @return {@code true} if a node covers the marking; only conclusive when the graph is complete and
+     *         exact, otherwise {@code true} may be an over-approximation
+     */
+    public boolean covers(int[] marking) {
+        for (int n : maximalNodes) {
+            if (Antichain.lessOrEqual(marking, getMarking(n))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the largest number of tokens of a place over the nodes.
+     *
+     * @param p the index of the place
+     * @return the bound of the place, or {@link #OMEGA} if it is unbounded
+     */
+    public int getBound(int p) {
+        return graph.getBound(p);
+    }
+
+    /**
+     * Returns the places holding {@link #OMEGA} in some node.
+     *
+     * @return the indices of the unbounded places, in increasing order
+     */
+    public int[] getUnboundedPlaces() {
+        BitSet unbounded = new BitSet();
+        for (int n = 0; n < graph.getStateCount(); ++n) {
+            int[] marking = graph.getMarking(n);
+            for (int p = 0; p < marking.length; ++p) {
+                if (marking[p] == OMEGA) {
+                    unbounded.set(p);
+                }
+            }
+        }
+        return unbounded.stream().toArray();
+    }
+
+    /**
+     * Tests whether every place is bounded.
+     *
+     * @return {@code true} if no node holds {@link #OMEGA}; only conclusive when the graph is complete
+     */
+    public boolean isBounded() {
+        return getUnboundedPlaces().length == 0;
+    }
+}
@@ -0,0 +1,131 @@
+package io.github.leobeaumont.Analysis;
+
+/**
+ * Summary of a state-space exploration that doesn't keep the arcs of the graph.
+ */
+public final class ExplorationResult {
+
+    private static final double NANOS_PER_SECOND = 1e9;
+
+    private final long states;
+    private final long arcs;
+    private final long deadlocks;
+    private final int[] deadlockMarking;
+    private final boolean complete;
+    private final long elapsedNanos;
+    private final double coverage;
+
+    /**
+     * Creates the summary of an exact exploration.
+     *
+     * @param states          the number of states visited
+     * @param arcs            the number of firings explored
+     * @param deadlocks       the number of dead states found
+     * @param deadlockMarking the marking of one dead state, or {@code null} if none was found
+     * @param complete        {@code false} if the exploration stopped before visiting every reachable state
+     * @param elapsedNanos    the duration of the exploration, in nanoseconds
+     */
+    ExplorationResult(long states, long arcs, long deadlocks, int[] deadlockMarking,
+                      boolean complete, long elapsedNanos) {
+        this(states, arcs, deadlocks, deadlockMarking, complete, elapsedNanos, 1.0);
+    }
+
+    /**
+     * Creates the summary of an exploration that may have missed states.
+     *
+     * @param states          the number of states visited
+     * @param arcs            the number of firings explored
+     * @param deadlocks       the number of dead states found
+     * @param deadlockMarking the marking of one dead state, or {@code null} if none was found
+     * @param complete        {@code false} if the exploration stopped at its state limit
+     * @param elapsedNanos    the duration of the exploration, in nanoseconds
+     * @param coverage        the estimated fraction of the reachable states that were visited
+     */
+    ExplorationResult(long states, long arcs, long deadlocks, int[] deadlockMarking,
+                      boolean complete, long elapsedNanos, double coverage) {
+        this.states = states;
+        this.arcs = arcs;
+        this.deadlocks = deadlocks;
+        this.deadlockMarking = deadlockMarking;
+        this.complete = complete;
+        this.elapsedNanos = elapsedNanos;
+        this.coverage = coverage;
+    }
+
+    /**
+     * Returns the number of states visited.
+     *
+     * @return the number of distinct reachable markings found
+     */
+    public long getStateCount() {
+        return states;
+    }
+
+    /**
+     * Returns the number of firings explored, i.e. the arcs of the reachability graph.
+     *
+     * @return the number of arcs
+     */
+    public long getArcCount() {
+        return arcs;
+    }
+
+    /**
+     * Returns the number of dead states found.
+     *
+     * @return the number of visited markings where no transition is enabled
+     */
+    public long getDeadlockCount() {
+        return deadlocks;
+    }
+
+    /**
+     * Returns the marking of a dead state.
+     *
+     * @return a copy of the marking of one dead state, indexed by place, or {@code null} if none was found
+     */
+    public int[] getDeadlockMarking() {
+        return deadlockMarking == null ? null : deadlockMarking.clone();
+    }
+
+    /**
+     * Tests whether the exploration visited every reachable state.
+     *
+     * @return {@code false} if the exploration stopped at its state limit
+     */
+    public boolean isComplete() {
+        return complete;
+    }
+
+    /**
+     * Returns the estimated fraction of the reachable states that were visited.
+     * <p>
+     * Exact explorations visit every state they find, so their coverage is {@code 1}, even when they
+     * stop at their state limit; see {@link #isComplete()}. A {@link BitstateExplorer} may instead
+     * take a new state for a visited one when all its bits were set by other states.
+     * </p>
+     *
+     * @return the coverage, between {@code 0} and {@code 1}
+     */
+    public double getCoverage() {
+        return coverage;
+    }
+
+    /**
+     * Returns the duration of the exploration.
+     *
+     * @return the elapsed time, in nanoseconds
+     */
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    /**
+     * Returns the exploration speed.
+     *
+     * @return the number of states visited per second
+     */
+    public double getStatesPerSecond() {
+        return elapsedNanos == 0 ? Double.POSITIVE_INFINITY : states * NANOS_PER_SECOND / elapsedNanos;
+    }
+}
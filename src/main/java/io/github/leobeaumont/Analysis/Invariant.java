@@ -0,0 +1,77 @@
+package io.github.leobeaumont.Analysis;
+
+import java.util.Arrays;
+
+/**
+ * Semi-positive invariant of a Petri net, stored sparsely: a weighting of places whose weighted sum of
+ * tokens never changes (a P-invariant), or a number of firings per transition that leaves every marking
+ * unchanged (a T-invariant).
+ * <p>
+ * Only the non-zero coefficients are kept, in increasing order of place or transition index, and they
+ * have no common divisor.
+ * </p>
+ */
+public final class Invariant {
+
+    private final int[] support;
+    private final long[] coefficients;
+
+    /**
+     * Creates an invariant from its non-zero coefficients.
+     *
+     * @param support      the indices of the places or transitions, in increasing order
+     * @param coefficients the positive coefficients, matching {@code support}
+     */
+    Invariant(int[] support, long[] coefficients) {
+        this.support = support;
+        this.coefficients = coefficients;
+    }
+
+    /**
+     * Returns the indices of the places or transitions with a non-zero coefficient.
+     *
+     * @return the support, in increasing order
+     */
+    public int[] getSupport() {
+        return support.clone();
+    }
+
+    /**
+     * Returns the non-zero coefficients.
+     *
+     * @return the coefficients, matching {@link #getSupport()}
+     */
+    public long[] getCoefficients() {
+        return coefficients.clone();
+    }
+
+    /**
+     * Returns the coefficient of a place or transition.
+     *
+     * @param index the index of the place or transition
+     * @return the coefficient, {@code 0} outside the support
+     */
+    public long get(int index) {
+        int i = Arrays.binarySearch(support, index);
+        return i < 0 ? 0 : coefficients[i];
+    }
+
+    /**
+     * Returns the weighted sum of a vector, which a P-invariant keeps constant over the reachable markings.
+     *
+     * @param vector the marking or firing counts, indexed by place or transition
+     * @return the sum of the coefficients times the matching entries
+     * @throws IllegalStateException if the sum overflows a {@code long}
+     */
+    public long weightedSum(int[] vector) throws IllegalStateException {
+        long sum = 0;
+        try {
+            for (int i = 0; i < support.length; ++i) {
+                sum = Math.addExact(sum, Math.multiplyExact(coefficients[i], (long) vector[support[i]]));
+            }
+        } catch (ArithmeticException e) {
+            throw new IllegalStateException("Invariant.weightedSum(vector) -- The sum overflows a long.", e);
+        }
+        return sum;
+    }
+}
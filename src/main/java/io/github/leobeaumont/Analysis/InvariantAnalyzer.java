@@ -0,0 +1,291 @@
+package io.github.leobeaumont.Analysis;
+
+import io.github.leobeaumont.Engine.CompiledNet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Computes the minimal semi-positive place and transition invariants of a {@link CompiledNet} with the
+ * Farkas algorithm, and the place bounds they prove.
+ * <p>
+ * The incidence matrix comes from the weighted arcs: the effect of a transition on a place is the weight
+ * of its {@code WeightedEdgeOut} minus the weight of its {@code WeightedEdgeIn}. Zero arcs don't change
+ * the marking and are ignored. An empty arc has no constant effect, so places with an empty arc get no
+ * P-invariant coefficient and transitions with one get no T-invariant coefficient.
+ * </p>
+ * <p>
+ * Every row of the algorithm is a {@link SparseRow} holding only its non-zero entries, so memory follows
+ * the number of arcs rather than the product of the numbers of places and transitions. Columns are
+ * eliminated in the order creating the fewest rows, from sign counts kept up to date as rows come and go,
+ * and a new row is dropped when the support of another row is part of its own, so that only minimal supports
+ * are kept; a {@link RowIndex} finds the rows to combine and compare among the ones sharing a column.
+ * Entries are checked for overflow.
+ * </p>
+ */
+public final class InvariantAnalyzer {
+
+    private static final int COLUMN_SHIFT = 32;
+    private static final long INDEX_MASK = 0xFFFFFFFFL;
+
+    private final CompiledNet net;
+    private final boolean[] emptiedPlace;
+    private final boolean[] emptyingTransition;
+
+    /**
+     * Creates an analyzer for a net.
+     *
+     * @param net the compiled net
+     */
+    public InvariantAnalyzer(CompiledNet net) {
+        this.net = net;
+        this.emptiedPlace = new boolean[net.getPlaceCount()];
+        this.emptyingTransition = new boolean[net.getTransitionCount()];
+        for (int t = 0; t < net.getTransitionCount(); ++t) {
+            for (int p : net.getEmptyPlaces(t)) {
+                emptiedPlace[p] = true;
+                emptyingTransition[t] = true;
+            }
+        }
+    }
+
+    /**
+     * Computes the minimal semi-positive P-invariants: weightings of places whose weighted sum of tokens
+     * is the same in every reachable marking.
+     *
+     * @return the invariants, which generate every semi-positive P-invariant
+     * @throws IllegalStateException if a coefficient overflows a {@code long}
+     */
+    public List<Invariant> computePlaceInvariants() throws IllegalStateException {
+        return farkas(incidenceRows(true, emptiedPlace), net.getTransitionCount());
+    }
+
+    /**
+     * Computes the minimal semi-positive T-invariants: numbers of firings per transition that bring any
+     * marking enabling them in sequence back to itself.
+     *
+     * @return the invariants, which generate every semi-positive T-invariant
+     * @throws IllegalStateException if a coefficient overflows a {@code long}
+     */
+    public List<Invariant> computeTransitionInvariants() throws IllegalStateException {
+        return farkas(incidenceRows(false, emptyingTransition), net.getPlaceCount());
+    }
+
+    /**
+     * Computes the bounds of the places proved by the P-invariants of the net from its current marking.
+     *
+     * @return the largest number of tokens of every place, or {@link MarkingPacker#UNBOUNDED} if no
+     *         P-invariant covers it, ready for {@link ReachabilityExplorer#ReachabilityExplorer(CompiledNet, int[])}
+     * @throws IllegalStateException if a coefficient overflows a {@code long}
+     */
+    public int[] computePlaceBounds() throws IllegalStateException {
+        return computePlaceBounds(computePlaceInvariants());
+    }
+
+    /**
+     * Computes the bounds of the places proved by the given P-invariants from the current marking of the net.
+     * A place covered by an invariant {@code y} holds at most {@code y.M0 / y[p]} tokens.
+     *
+     * @param placeInvariants P-invariants of the net
+     * @return the largest number of tokens of every place, or {@link MarkingPacker#UNBOUNDED} if no
+     *         invariant covers it
+     * @throws IllegalStateException if a weighted sum overflows a {@code long}
+     */
+    public int[] computePlaceBounds(List<Invariant> placeInvariants) throws IllegalStateException {
+        int[] marking = net.getMarking();
+        int[] bounds = new int[marking.length];
+        Arrays.fill(bounds, MarkingPacker.UNBOUNDED);
+        for (Invariant invariant : placeInvariants) {
+            long total = invariant.weightedSum(marking);
+            int[] support = invariant.getSupport();
+            long[] coefficients = invariant.getCoefficients();
+            for (int i = 0; i < support.length; ++i) {
+                long bound = Math.min(total / coefficients[i], MarkingPacker.UNBOUNDED);
+                bounds[support[i]] = (int) Math.min(bounds[support[i]], bound);
+            }
+        }
+        return bounds;
+    }
+
+    /**
+     * Builds the rows of the incidence matrix, or of its transpose, each followed by a {@code 1} in the
+     * column of its identity block.
+     *
+     * @param byPlace  {@code true} for one row per place, {@code false} for one row per transition
+     * @param excluded the rows to leave out
+     * @return the rows that are not excluded
+     */
+    private List<SparseRow> incidenceRows(boolean byPlace, boolean[] excluded) {
+        int nbColumns = byPlace ? net.getTransitionCount() : net.getPlaceCount();
+        List<long[]> entries = new ArrayList<>();
+        for (int row = 0; row < excluded.length; ++row) {
+            entries.add(new long[0]);
+        }
+        int[] counts = new int[excluded.length];
+        for (int t = 0; t < net.getTransitionCount(); ++t) {
+            addArcs(entries, counts, byPlace, t, net.getPrePlaces(t), net.getPreWeights(t), -1);
+            addArcs(entries, counts, byPlace, t, net.getPostPlaces(t), net.getPostWeights(t), 1);
+        }
+        List<SparseRow> rows = new ArrayList<>();
+        for (int row = 0; row < excluded.length; ++row) {
+            if (!excluded[row]) {
+                rows.add(toRow(Arrays.copyOf(entries.get(row), counts[row]), nbColumns + row));
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * Appends the arcs of a transition to the entries of their rows, each holding its column in the high
+     * half and its signed weight in the low half.
+     */
+    private static void addArcs(List<long[]> entries, int[] counts, boolean byPlace, int t, int[] places,
+            int[] weights, int sign) {
+        for (int i = 0; i < places.length; ++i) {
+            int row = byPlace ? places[i] : t;
+            int column = byPlace ? t : places[i];
+            if (counts[row] == entries.get(row).length) {
+                entries.set(row, Arrays.copyOf(entries.get(row), Math.max(2, counts[row] * 2)));
+            }
+            entries.get(row)[counts[row]++] = (long) column << COLUMN_SHIFT | (long) sign * weights[i] & INDEX_MASK;
+        }
+    }
+
+    /**
+     * Sorts the entries of a row by column, sums the entries of a same column and appends the identity entry.
+     *
+     * @param entries  the entries, each holding its column in the high half and its signed weight in the low half
+     * @param identity the column of the identity entry
+     */
+    private static SparseRow toRow(long[] entries, int identity) {
+        Arrays.sort(entries);
+        int[] columns = new int[entries.length + 1];
+        long[] values = new long[entries.length + 1];
+        int count = 0;
+        for (int i = 0; i < entries.length;) {
+            int column = (int) (entries[i] >>> COLUMN_SHIFT);
+            long value = 0;
+            for (; i < entries.length && (int) (entries[i] >>> COLUMN_SHIFT) == column; ++i) {
+                value += (int) entries[i];
+            }
+            if (value != 0) {
+                columns[count] = column;
+                values[count++] = value;
+            }
+        }
+        columns[count] = identity;
+        values[count++] = 1;
+        return new SparseRow(Arrays.copyOf(columns, count), Arrays.copyOf(values, count));
+    }
+
+    /**
+     * Eliminates the columns before {@code nbColumns} one at a time by combining every row with a
+     * positive entry with every row with a negative one, keeping rows of minimal support.
+     *
+     * @return the identity parts of the final rows, as invariants
+     */
+    private static List<Invariant> farkas(List<SparseRow> initialRows, int nbColumns) throws IllegalStateException {
+        int[] positive = new int[nbColumns];
+        int[] negative = new int[nbColumns];
+        int nbAllColumns = nbColumns;
+        for (SparseRow row : initialRows) {
+            count(row, nbColumns, positive, negative, 1);
+            nbAllColumns = Math.max(nbAllColumns, row.column(row.size() - 1) + 1);
+        }
+        RowIndex index = new RowIndex(nbColumns, nbAllColumns);
+        for (SparseRow row : initialRows) {
+            index.add(row);
+        }
+        for (int column = cheapestColumn(positive, negative); column >= 0;
+                column = cheapestColumn(positive, negative)) {
+            eliminate(index, column, nbColumns, positive, negative);
+        }
+        List<SparseRow> rows = index.rows();
+        List<Invariant> invariants = new ArrayList<>(rows.size());
+        for (SparseRow row : rows) {
+            int[] support = new int[row.size()];
+            long[] coefficients = new long[row.size()];
+            for (int i = 0; i < row.size(); ++i) {
+                support[i] = row.column(i) - nbColumns;
+                coefficients[i] = row.value(i);
+            }
+            invariants.add(new Invariant(support, coefficients));
+        }
+        return invariants;
+    }
+
+    /**
+     * Adds {@code delta} to the counts of positive and negative entries of the columns of a row before
+     * {@code nbColumns}.
+     */
+    private static void count(SparseRow row, int nbColumns, int[] positive, int[] negative, int delta) {
+        for (int i = 0; i < row.size() && row.column(i) < nbColumns; ++i) {
+            if (row.value(i) > 0) {
+                positive[row.column(i)] += delta;
+            } else {
+                negative[row.column(i)] += delta;
+            }
+        }
+    }
+
+    /**
+     * Returns the non-zero column whose elimination creates the fewest rows, or {@code -1} if every
+     * column is zero.
+     */
+    private static int cheapestColumn(int[] positive, int[] negative) {
+        int best = -1;
+        long bestCost = Long.MAX_VALUE;
+        for (int c = 0; c < positive.length; ++c) {
+            if (positive[c] + negative[c] > 0) {
+                long cost = (long) positive[c] * negative[c] - positive[c] - negative[c];
+                if (cost < bestCost) {
+                    best = c;
+                    bestCost = cost;
+                }
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Replaces the rows with a non-zero entry in a column by the minimal-support combinations cancelling it,
+     * and updates the sign counts of the rows dropped and added.
+     */
+    private static void eliminate(RowIndex index, int column, int nbColumns, int[] positiveCounts,
+            int[] negativeCounts) throws IllegalStateException {
+        List<SparseRow> positives = new ArrayList<>();
+        List<SparseRow> negatives = new ArrayList<>();
+        for (SparseRow row : index.removeColumn(column)) {
+            count(row, nbColumns, positiveCounts, negativeCounts, -1);
+            if (row.get(column) > 0) {
+                positives.add(row);
+            } else {
+                negatives.add(row);
+            }
+        }
+        for (SparseRow positive : positives) {
+            for (SparseRow negative : negatives) {
+                long a = positive.get(column);
+                long b = -negative.get(column);
+                long divisor = SparseRow.gcd(a, b);
+                SparseRow combined = SparseRow.combine(b / divisor, positive, a / divisor, negative);
+                addIfMinimal(index, combined, nbColumns, positiveCounts, negativeCounts);
+            }
+        }
+    }
+
+    /**
+     * Adds a new row unless the support of another row is within its own, after removing the rows whose
+     * support contains its own, and updates the sign counts.
+     */
+    private static void addIfMinimal(RowIndex index, SparseRow row, int nbColumns, int[] positiveCounts,
+            int[] negativeCounts) {
+        if (!index.hasSubsetOf(row)) {
+            for (SparseRow dropped : index.removeSupersetsOf(row)) {
+                count(dropped, nbColumns, positiveCounts, negativeCounts, -1);
+            }
+            index.add(row);
+            count(row, nbColumns, positiveCounts, negativeCounts, 1);
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package io.github.leobeaumont.Analysis;
+
+import java.util.Arrays;
+
+/**
+ * Packs markings into fixed-size runs of {@code long} words.
+ * <p>
+ * Every place gets a bit field wide enough for its bound, and fields are laid out one after the
+ * other in 64-bit words, without straddling two words. A place without a known bound gets 31 bits,
+ * enough for any non-negative {@code int}, so the default layout stores two places per word; a
+ * 1-safe net stores 64 places per word.
+ * </p>
+ */
+public final class MarkingPacker {
+
+    /**
+     * The bound of a place whose number of tokens is not known to be bounded.
+     */
+    public static final int UNBOUNDED = Integer.MAX_VALUE;
+
+    private static final int WORD_BITS = Long.SIZE;
+
+    private final int[] bounds;
+    private final int[] word;
+    private final int[] shift;
+    private final long[] mask;
+    private final int words;
+
+    /**
+     * Creates a packer for markings of the given places.
+     *
+     * @param bounds the largest number of tokens of every place, or {@link #UNBOUNDED}
+     * @throws IllegalArgumentException if a bound is negative
+     */
+    public MarkingPacker(int[] bounds) throws IllegalArgumentException {
+        this.bounds = bounds.clone();
+        this.word = new int[bounds.length];
+        this.shift = new int[bounds.length];
+        this.mask = new long[bounds.length];
+        int currentWord = 0;
+        int usedBits = 0;
+        for (int p = 0; p < bounds.length; ++p) {
+            if (bounds[p] < 0) {
+                throw new IllegalArgumentException(String.format(
+                    "MarkingPacker(bounds) -- The bound of place %d (%d) is negative.", p, bounds[p]));
+            }
+            int bits = Math.max(1, Integer.SIZE - Integer.numberOfLeadingZeros(bounds[p]));
+            if (usedBits + bits > WORD_BITS) {
+                ++currentWord;
+                usedBits = 0;
+            }
+            word[p] = currentWord;
+            shift[p] = usedBits;
+            mask[p] = (1L << bits) - 1;
+            usedBits += bits;
+        }
+        this.words = bounds.length == 0 ? 0 : currentWord + 1;
+    }
+
+    /**
+     * Creates a packer for markings of places with unknown bounds.
+     *
+     * @param nbPlaces the number of places
+     * @return the packer, storing two places per word
+     */
+    public static MarkingPacker unbounded(int nbPlaces) {
+        int[] bounds = new int[nbPlaces];
+        Arrays.fill(bounds, UNBOUNDED);
+        return new MarkingPacker(bounds);
+    }
+
+    /**
+     * Packs a marking.
+     *
+     * @param marking the marking, indexed by place
+     * @param packed  the array receiving the packed marking
+     * @param offset  the index of the first word to write in {@code packed}
+     * @throws IllegalStateException if a place holds more tokens than its bound
+     */
+    public void pack(int[] marking, long[] packed, int offset) throws IllegalStateException {
+        for (int w = 0; w < words; ++w) {
+            packed[offset + w] = 0;
+        }
+        for (int p = 0; p < bounds.length; ++p) {
+            if (marking[p] > bounds[p]) {
+                throw new IllegalStateException(String.format(
+                    "MarkingPacker.pack -- Place %d holds %d tokens, more than its bound %d.",
+                    p, marking[p], bounds[p]));
+            }
+            packed[offset + word[p]] |= (long) marking[p] << shift[p];
+        }
+    }
+
+    /**
+     * Unpacks a marking.
+     *
+     * @param packed  the array holding the packed marking
+     * @param offset  the index of its first word in {@code packed}
+     * @param marking the array receiving the marking, indexed by place
+     */
+    public void unpack(long[] packed, int offset, int[] marking) {
+        for (int p = 0; p < bounds.length; ++p) {
+            marking[p] = (int) (packed[offset + word[p]] >>> shift[p] & mask[p]);
+        }
+    }
+
+    /**
+     * Returns the number of tokens of one place in a packed marking.
+     *
+     * @param packed the array holding the packed marking
+     * @param offset the index of its first word in {@code packed}
+     * @param p      the index of the place
+     * @return the number of tokens
+     */
+    public int get(long[] packed, int offset, int p) {
+        return (int) (packed[offset + word[p]] >>> shift[p] & mask[p]);
+    }
+
+    /**
+     * Returns the number of words of a packed marking.
+     *
+     * @return the number of words
+     */
+    public int words() {
+        return words;
+    }
+
+    /**
+     * Returns the number of places.
+     *
+     * @return the number of places
+     */
+    public int getPlaceCount() {
+        return bounds.length;
+    }
+
+    /**
+     * Returns the bound of a place.
+     *
+     * @param p the index of the place
+     * @return the largest number of tokens the place can hold, or {@link #UNBOUNDED}
+     */
+    public int getBound(int p) {
+        return bounds[p];
+    }
+}
@@ -0,0 +1,156 @@
+package io.github.leobeaumont.Analysis;
+
+import java.util.Arrays;
+
+/**
+ * Set of packed markings, numbered in insertion order.
+ * <p>
+ * The words of the markings are appended to fixed-size {@code long[]} pages, so that a state costs
+ * its packed size plus one {@code int} slot of an open-addressing hash table (linear probing,
+ * at most 3/4 full) instead of the hundreds of bytes of a boxed {@code List<Integer>} key. Pages
+ * are never copied when the store grows, and the number of states is only limited by the
+ * {@code int} identifiers.
+ * </p>
+ */
+public final class MarkingStore implements StateStore {
+
+    private static final int PAGE_SHIFT = 16;
+    private static final int PAGE_STATES = 1 << PAGE_SHIFT;
+    private static final int PAGE_MASK = PAGE_STATES - 1;
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final int MAX_CAPACITY = Integer.highestOneBit(Integer.MAX_VALUE);
+    private static final int LOAD_NUMERATOR = 3;
+    private static final int LOAD_DENOMINATOR = 4;
+    private static final long GOLDEN = 0x9E3779B97F4A7C15L;
+    private static final long MIX1 = 0xBF58476D1CE4E5B9L;
+    private static final long MIX2 = 0x94D049BB133111EBL;
+    private static final int SHIFT1 = 30;
+    private static final int SHIFT2 = 27;
+    private static final int SHIFT3 = 31;
+
+    private final int words;
+    private long[][] pages;
+    private int[] table;
+    private int size;
+
+    /**
+     * Creates an empty store of markings packed in the given number of words.
+     *
+     * @param words the number of words of a packed marking
+     */
+    public MarkingStore(int words) {
+        this.words = words;
+        this.pages = new long[1][];
+        this.table = new int[INITIAL_CAPACITY];
+        Arrays.fill(this.table, -1);
+    }
+
+    /**
+     * Hashes a packed marking.
+     *
+     * @param packed the array holding the packed marking
+     * @param offset the index of its first word
+     * @param words  the number of words
+     * @return the hash
+     */
+    static long hash(long[] packed, int offset, int words) {
+        long h = words;
+        for (int w = 0; w < words; ++w) {
+            h = (h + packed[offset + w]) * GOLDEN;
+        }
+        h = (h ^ h >>> SHIFT1) * MIX1;
+        h = (h ^ h >>> SHIFT2) * MIX2;
+        return h ^ h >>> SHIFT3;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws IllegalStateException if the hash table can't grow any more and is full
+     */
+    @Override
+    public int add(long[] packed, int offset) throws IllegalStateException {
+        int slot = find(packed, offset, hash(packed, offset, words));
+        if (table[slot] >= 0) {
+            return -1 - table[slot];
+        }
+        if (size == table.length - 1) {
+            throw new IllegalStateException("MarkingStore.add -- The store is full.");
+        }
+        int id = size++;
+        int page = id >>> PAGE_SHIFT;
+        if (page == pages.length) {
+            pages = Arrays.copyOf(pages, pages.length * 2);
+        }
+        if (pages[page] == null) {
+            pages[page] = new long[PAGE_STATES * words];
+        }
+        System.arraycopy(packed, offset, pages[page], (id & PAGE_MASK) * words, words);
+        table[slot] = id;
+        if ((long) size * LOAD_DENOMINATOR > (long) table.length * LOAD_NUMERATOR && table.length < MAX_CAPACITY) {
+            grow();
+        }
+        return id;
+    }
+
+    @Override
+    public int indexOf(long[] packed, int offset) {
+        return table[find(packed, offset, hash(packed, offset, words))];
+    }
+
+    @Override
+    public void get(int id, long[] packed, int offset) {
+        System.arraycopy(pages[id >>> PAGE_SHIFT], (id & PAGE_MASK) * words, packed, offset, words);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public int words() {
+        return words;
+    }
+
+    /**
+     * Returns the slot holding a marking, or the empty slot where it would be inserted.
+     */
+    private int find(long[] packed, int offset, long hash) {
+        int tableMask = table.length - 1;
+        int slot = (int) hash & tableMask;
+        while (table[slot] >= 0 && !matches(table[slot], packed, offset)) {
+            slot = (slot + 1) & tableMask;
+        }
+        return slot;
+    }
+
+    private boolean matches(int id, long[] packed, int offset) {
+        long[] page = pages[id >>> PAGE_SHIFT];
+        int start = (id & PAGE_MASK) * words;
+        for (int w = 0; w < words; ++w) {
+            if (page[start + w] != packed[offset + w]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Doubles the hash table and reinserts every state.
+     */
+    private void grow() {
+        int[] newTable = new int[table.length * 2];
+        Arrays.fill(newTable, -1);
+        int tableMask = newTable.length - 1;
+        for (int id = 0; id < size; ++id) {
+            long[] page = pages[id >>> PAGE_SHIFT];
+            int slot = (int) hash(page, (id & PAGE_MASK) * words, words) & tableMask;
+            while (newTable[slot] >= 0) {
+                slot = (slot + 1) & tableMask;
+            }
+            newTable[slot] = id;
+        }
+        table = newTable;
+    }
+}
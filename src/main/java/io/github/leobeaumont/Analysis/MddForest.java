@@ -0,0 +1,265 @@
+package io.github.leobeaumont.Analysis;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+
+/**
+ * Node table of quasi-reduced multi-valued decision diagrams (MDDs) encoding sets of markings.
+ * <p>
+ * Level {@code k} of a diagram is the number of tokens of place {@code k - 1}, and level {@code 0} holds
+ * the two terminal nodes {@link #EMPTY} and {@link #ONE}. A node at level {@code k} has one child at level
+ * {@code k - 1} per number of tokens, trailing {@link #EMPTY} children being dropped, and the node table
+ * (an open-addressing hash table with linear probing, at most 3/4 full) keeps a single copy of every node,
+ * so that two equal sets are the same node. Nodes are never freed. Union and difference results are kept
+ * in an {@link OperationCache}.
+ * </p>
+ */
+final class MddForest {
+
+    /**
+     * Terminal node of the empty set, and child of the markings outside a set.
+     */
+    static final int EMPTY = 0;
+
+    /**
+     * Terminal node of the set holding the empty marking, below the last place.
+     */
+    static final int ONE = 1;
+
+    private static final int UNION = 1;
+    private static final int DIFFERENCE = 2;
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final int CACHE_ENTRIES = 262144;
+    private static final int LOAD_NUMERATOR = 3;
+    private static final int LOAD_DENOMINATOR = 4;
+    private static final int HASH_MULTIPLIER = 0x9E3779B9;
+
+    private int[] levels = new int[INITIAL_CAPACITY];
+    private int[][] children = new int[INITIAL_CAPACITY][];
+    private int[] table = new int[INITIAL_CAPACITY];
+    private int size = 2;
+    private final OperationCache cache = new OperationCache(CACHE_ENTRIES);
+
+    /**
+     * Returns the unique node of a level with the given children, {@link #EMPTY} if they all are.
+     * The array may be kept by the table and must not be changed afterwards.
+     */
+    int node(int level, int[] nodeChildren) {
+        int width = nodeChildren.length;
+        while (width > 0 && nodeChildren[width - 1] == EMPTY) {
+            --width;
+        }
+        if (width == 0) {
+            return EMPTY;
+        }
+        int[] trimmed = width == nodeChildren.length ? nodeChildren : Arrays.copyOf(nodeChildren, width);
+        int slot = find(level, trimmed);
+        if (table[slot] != 0) {
+            return table[slot];
+        }
+        if (size == levels.length) {
+            levels = Arrays.copyOf(levels, size * 2);
+            children = Arrays.copyOf(children, size * 2);
+        }
+        levels[size] = level;
+        children[size] = trimmed;
+        table[slot] = size;
+        if ((long) size * LOAD_DENOMINATOR > (long) table.length * LOAD_NUMERATOR) {
+            grow();
+        }
+        return size++;
+    }
+
+    /**
+     * Returns the child of a node for a number of tokens, {@link #EMPTY} beyond its width.
+     */
+    int child(int node, int tokens) {
+        int[] nodeChildren = children[node];
+        return tokens < nodeChildren.length ? nodeChildren[tokens] : EMPTY;
+    }
+
+    /**
+     * Returns the number of children of a node, one more than its largest number of tokens.
+     */
+    int width(int node) {
+        return node <= ONE ? 0 : children[node].length;
+    }
+
+    /**
+     * Returns the number of nodes of the table, terminals included.
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Returns the union of two sets of the same level.
+     */
+    int union(int level, int a, int b) {
+        if (a == EMPTY || a == b) {
+            return b;
+        }
+        if (b == EMPTY) {
+            return a;
+        }
+        if (level == 0) {
+            return ONE;
+        }
+        int first = Math.min(a, b);
+        int second = Math.max(a, b);
+        int cached = cache.get(UNION, first, second);
+        if (cached >= 0) {
+            return cached;
+        }
+        int[] result = new int[Math.max(width(a), width(b))];
+        for (int i = 0; i < result.length; ++i) {
+            result[i] = union(level - 1, child(a, i), child(b, i));
+        }
+        int node = node(level, result);
+        cache.put(UNION, first, second, node);
+        return node;
+    }
+
+    /**
+     * Returns the markings of the first set that aren't in the second one, both of the same level.
+     */
+    int difference(int level, int a, int b) {
+        if (a == EMPTY || a == b) {
+            return EMPTY;
+        }
+        if (b == EMPTY) {
+            return a;
+        }
+        int cached = cache.get(DIFFERENCE, a, b);
+        if (cached >= 0) {
+            return cached;
+        }
+        int[] result = new int[width(a)];
+        for (int i = 0; i < result.length; ++i) {
+            result[i] = difference(level - 1, child(a, i), child(b, i));
+        }
+        int node = node(level, result);
+        cache.put(DIFFERENCE, a, b, node);
+        return node;
+    }
+
+    /**
+     * Returns the set holding a single marking, from the given level down.
+     */
+    int singleton(int[] marking, int level) {
+        int node = ONE;
+        for (int k = 1; k <= level; ++k) {
+            int[] nodeChildren = new int[marking[k - 1] + 1];
+            nodeChildren[marking[k - 1]] = node;
+            node = node(k, nodeChildren);
+        }
+        return node;
+    }
+
+    /**
+     * Returns the number of markings of a set.
+     */
+    BigInteger count(int root) {
+        return count(root, new BigInteger[size]);
+    }
+
+    private BigInteger count(int node, BigInteger[] counts) {
+        if (node <= ONE) {
+            return node == ONE ? BigInteger.ONE : BigInteger.ZERO;
+        }
+        if (counts[node] == null) {
+            BigInteger total = BigInteger.ZERO;
+            for (int c : children[node]) {
+                total = total.add(count(c, counts));
+            }
+            counts[node] = total;
+        }
+        return counts[node];
+    }
+
+    /**
+     * Returns the number of distinct nodes of a set, terminals excluded.
+     */
+    int nodeCount(int root) {
+        boolean[] seen = new boolean[size];
+        int[] stack = new int[size];
+        int top = 0;
+        int count = 0;
+        if (root > ONE) {
+            seen[root] = true;
+            stack[top++] = root;
+        }
+        while (top > 0) {
+            int node = stack[--top];
+            ++count;
+            for (int c : children[node]) {
+                if (c > ONE && !seen[c]) {
+                    seen[c] = true;
+                    stack[top++] = c;
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Tests whether a set holds a marking.
+     */
+    boolean contains(int root, int[] marking) {
+        int node = root;
+        for (int k = marking.length; k >= 1 && node != EMPTY; --k) {
+            node = marking[k - 1] < 0 ? EMPTY : child(node, marking[k - 1]);
+        }
+        return node == ONE;
+    }
+
+    /**
+     * Returns one marking of a non-empty set, the one with the fewest tokens on the last places first.
+     */
+    int[] pick(int root, int nbPlaces) {
+        int[] marking = new int[nbPlaces];
+        int node = root;
+        for (int k = nbPlaces; k >= 1; --k) {
+            int tokens = 0;
+            while (child(node, tokens) == EMPTY) {
+                ++tokens;
+            }
+            marking[k - 1] = tokens;
+            node = child(node, tokens);
+        }
+        return marking;
+    }
+
+    /**
+     * Returns the slot holding a node, or the empty slot where it would be inserted.
+     */
+    private int find(int level, int[] nodeChildren) {
+        int tableMask = table.length - 1;
+        int slot = hash(level, nodeChildren) & tableMask;
+        while (table[slot] != 0 && !(levels[table[slot]] == level
+                && Arrays.equals(children[table[slot]], nodeChildren))) {
+            slot = (slot + 1) & tableMask;
+        }
+        return slot;
+    }
+
+    private static int hash(int level, int[] nodeChildren) {
+        int h = (Arrays.hashCode(nodeChildren) + level) * HASH_MULTIPLIER;
+        return h ^ h >>> (Integer.SIZE / 2);
+    }
+
+    /**
+     * Doubles the hash table and reinserts every node.
+     */
+    private void grow() {
+        table = new int[table.length * 2];
+        int tableMask = table.length - 1;
+        for (int node = 2; node <= size; ++node) {
+            int slot = hash(levels[node], children[node]) & tableMask;
+            while (table[slot] != 0) {
+                slot = (slot + 1) & tableMask;
+            }
+            table[slot] = node;
+        }
+    }
+}
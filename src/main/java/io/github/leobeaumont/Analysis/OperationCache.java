@@ -0,0 +1,68 @@
+package io.github.leobeaumont.Analysis;
+
+/**
+ * Lossy cache of the results of decision diagram operations, keyed by a positive operation code and
+ * two {@code int} operands.
+ * <p>
+ * The cache is a direct-mapped table: a new entry overwrites the one sharing its slot, so a lookup may
+ * miss a result computed before and the operation is then computed again. This keeps the memory of the
+ * cache fixed, however many operations a construction performs.
+ * </p>
+ */
+final class OperationCache {
+
+    private static final long MIX1 = 0xBF58476D1CE4E5B9L;
+    private static final long MIX2 = 0x94D049BB133111EBL;
+    private static final int SHIFT1 = 30;
+    private static final int SHIFT2 = 27;
+    private static final int SHIFT3 = 31;
+    private static final int OPERAND_BITS = 32;
+    private static final long OPERAND_MASK = 0xFFFFFFFFL;
+
+    private final int mask;
+    private final int[] operations;
+    private final long[] operands;
+    private final int[] results;
+
+    /**
+     * Creates an empty cache of at least the given number of entries, rounded up to a power of two.
+     */
+    OperationCache(int entries) {
+        int capacity = Integer.highestOneBit(Math.max(1, entries - 1)) << 1;
+        this.mask = capacity - 1;
+        this.operations = new int[capacity];
+        this.operands = new long[capacity];
+        this.results = new int[capacity];
+    }
+
+    /**
+     * Returns the cached result of an operation, or {@code -1} if it isn't cached.
+     */
+    int get(int operation, int a, int b) {
+        long key = key(a, b);
+        int slot = slot(operation, key);
+        return operations[slot] == operation && operands[slot] == key ? results[slot] : -1;
+    }
+
+    /**
+     * Caches the result of an operation, replacing the entry sharing its slot.
+     */
+    void put(int operation, int a, int b, int result) {
+        long key = key(a, b);
+        int slot = slot(operation, key);
+        operations[slot] = operation;
+        operands[slot] = key;
+        results[slot] = result;
+    }
+
+    private static long key(int a, int b) {
+        return (long) a << OPERAND_BITS | b & OPERAND_MASK;
+    }
+
+    private int slot(int operation, long key) {
+        long h = (key + operation) * MIX1;
+        h = (h ^ h >>> SHIFT1) * MIX2;
+        h = h ^ h >>> SHIFT2;
+        return (int) (h ^ h >>> SHIFT3) & mask;
+    }
+}
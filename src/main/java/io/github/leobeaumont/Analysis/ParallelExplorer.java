@@ -0,0 +1,176 @@
+package io.github.leobeaumont.Analysis;
+
+import io.github.leobeaumont.Engine.CompiledNet;
+import io.github.leobeaumont.Engine.IntArray;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Explores the reachable markings of a {@link CompiledNet} with several threads.
+ * <p>
+ * Visited markings are packed by a {@link MarkingPacker} into a {@link ConcurrentMarkingSet}, where
+ * inserts only synchronize through compare-and-set. Each task of the {@link ForkJoinPool} expands
+ * the states of its own stack in depth-first order. Splitting follows the demand for work: as long as
+ * a worker has few queued tasks compared to the idle workers that could steal them (see
+ * {@link java.util.concurrent.ForkJoinTask#getSurplusQueuedTaskCount()}), half of its stack is forked
+ * into a new task, however small the stack, so narrow state spaces are shared as well as wide ones.
+ * The firings are counted, but the arcs aren't stored: use {@link ReachabilityExplorer} when the
+ * graph itself is needed.
+ * </p>
+ */
+public final class ParallelExplorer {
+
+    // A stack is split while its worker has at most this many more queued tasks than idle thieves
+    private static final int MAX_SURPLUS = 3;
+
+    private final CompiledNet net;
+    private final MarkingPacker packer;
+    private final ForkJoinPool pool;
+
+    /**
+     * Creates an explorer running in the common pool, for a net whose place bounds are unknown.
+     *
+     * @param net the compiled net, whose structure must not change during explorations
+     */
+    public ParallelExplorer(CompiledNet net) {
+        this(net, MarkingPacker.unbounded(net.getPlaceCount()), ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Creates an explorer running in the given pool, packing markings according to known place bounds.
+     *
+     * @param net    the compiled net, whose structure must not change during explorations
+     * @param bounds the largest number of tokens of every place, or {@link MarkingPacker#UNBOUNDED}
+     * @param pool   the pool running the exploration; its parallelism sets the number of threads
+     * @throws IllegalArgumentException if the number of bounds doesn't match the number of places,
+     *                                  or a bound is negative
+     */
+    public ParallelExplorer(CompiledNet net, int[] bounds, ForkJoinPool pool) throws IllegalArgumentException {
+        this(net, new MarkingPacker(checkLength(net, bounds)), pool);
+    }
+
+    private ParallelExplorer(CompiledNet net, MarkingPacker packer, ForkJoinPool pool) {
+        this.net = net;
+        this.packer = packer;
+        this.pool = pool;
+    }
+
+    private static int[] checkLength(CompiledNet net, int[] bounds) throws IllegalArgumentException {
+        if (bounds.length != net.getPlaceCount()) {
+            throw new IllegalArgumentException(String.format(
+                "ParallelExplorer(net, bounds, pool) -- The argument bounds has %d places instead of %d.",
+                bounds.length, net.getPlaceCount()));
+        }
+        return bounds;
+    }
+
+    /**
+     * Explores the markings reachable from the current marking of the net.
+     *
+     * @param maxStates the largest number of states to visit
+     * @return the number of states, arcs and deadlocks found, and the exploration speed
+     * @throws IllegalArgumentException if {@code maxStates} is not positive or too large
+     * @throws IllegalStateException    if a place exceeds its bound or {@link Integer#MAX_VALUE} tokens
+     */
+    public ExplorationResult explore(int maxStates) throws IllegalArgumentException, IllegalStateException {
+        long start = System.nanoTime();
+        Search search = new Search(maxStates);
+        long[] packed = new long[packer.words()];
+        packer.pack(net.getMarking(), packed, 0);
+        IntArray initial = new IntArray();
+        initial.add(search.visited.add(packed, 0));
+        pool.invoke(new Expand(search, initial));
+        return new ExplorationResult(search.visited.size(), search.arcs.sum(), search.deadlocks.sum(),
+            search.deadlockMarking.get(), !search.full.get(), System.nanoTime() - start);
+    }
+
+    /**
+     * State shared by the tasks of one exploration.
+     */
+    private final class Search {
+
+        private final ConcurrentMarkingSet visited;
+        private final LongAdder arcs = new LongAdder();
+        private final LongAdder deadlocks = new LongAdder();
+        private final AtomicReference<int[]> deadlockMarking = new AtomicReference<int[]>();
+        private final AtomicBoolean full = new AtomicBoolean();
+
+        Search(int maxStates) {
+            this.visited = new ConcurrentMarkingSet(packer.words(), maxStates);
+        }
+    }
+
+    /**
+     * Task expanding a stack of states, and forking half of it when other workers may be idle.
+     */
+    private final class Expand extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final transient Search search;
+        private final transient IntArray stack;
+
+        Expand(Search search, IntArray stack) {
+            this.search = search;
+            this.stack = stack;
+        }
+
+        @Override
+        protected void compute() {
+            long[] packed = new long[packer.words()];
+            int[] marking = new int[net.getPlaceCount()];
+            int[] next = new int[net.getPlaceCount()];
+            int[] enabled = new int[net.getTransitionCount()];
+            List<Expand> forked = new ArrayList<Expand>();
+            long arcs = 0;
+            while (stack.size() > 0 && !search.full.get()) {
+                search.visited.get(stack.removeLast(), packed, 0);
+                packer.unpack(packed, 0, marking);
+                int nbEnabled = net.enabled(marking, enabled);
+                if (nbEnabled == 0) {
+                    search.deadlocks.increment();
+                    search.deadlockMarking.compareAndSet(null, marking.clone());
+                }
+                for (int i = 0; i < nbEnabled; ++i) {
+                    System.arraycopy(marking, 0, next, 0, marking.length);
+                    net.fire(enabled[i], next);
+                    packer.pack(next, packed, 0);
+                    int id = search.visited.add(packed, 0);
+                    if (id == ConcurrentMarkingSet.FULL) {
+                        search.full.set(true);
+                    } else if (id >= 0) {
+                        stack.add(id);
+                    }
+                }
+                arcs += nbEnabled;
+                if (stack.size() > 1 && getSurplusQueuedTaskCount() <= MAX_SURPLUS) {
+                    forked.add(split());
+                }
+            }
+            search.arcs.add(arcs);
+            for (Expand task : forked) {
+                task.join();
+            }
+        }
+
+        /**
+         * Moves the bottom half of the stack to a new forked task.
+         */
+        private Expand split() {
+            int half = stack.size() / 2;
+            IntArray stolen = new IntArray();
+            for (int i = 0; i < half; ++i) {
+                stolen.add(stack.get(i));
+            }
+            stack.removeFirst(half);
+            Expand task = new Expand(search, stolen);
+            task.fork();
+            return task;
+        }
+    }
+}
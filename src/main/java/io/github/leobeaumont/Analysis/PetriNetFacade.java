@@ -0,0 +1,189 @@
+package io.github.leobeaumont.Analysis;
+
+import io.github.leobeaumont.Edges.EdgeEmpty;
+import io.github.leobeaumont.Engine.CompiledNet;
+import io.github.leobeaumont.Engine.MaximalStepSimulator;
+import io.github.leobeaumont.Engine.RandomSource;
+import io.github.leobeaumont.Engine.SimulationRun;
+import io.github.leobeaumont.Engine.StochasticSimulator;
+import io.github.leobeaumont.Engine.TimeStatistics;
+import io.github.leobeaumont.Engine.TimedScheduler;
+import io.github.leobeaumont.Nodes.Place;
+import io.github.leobeaumont.Nodes.Transition;
+import io.github.leobeaumont.PetriNET.IPretriNet;
+import java.util.List;
+
+/**
+ * Runs the simulations and analyses of the compiled engine on a Petri net.
+ * <p>
+ * Every method compiles the net again through {@link IPretriNet#compile()}, so it sees the current
+ * structure and marking of the net; the simulations copy their final marking back to the places. Keeping
+ * these methods out of {@link IPretriNet} lets the net package stay independent of the analyses.
+ * </p>
+ */
+public final class PetriNetFacade {
+
+    private final IPretriNet net;
+
+    /**
+     * Creates a facade over a net.
+     *
+     * @param net the net to simulate and analyze
+     */
+    public PetriNetFacade(IPretriNet net) {
+        this.net = net;
+    }
+
+    /**
+     * Executes several simulation steps in a row for the specified {@link Transition}, updating
+     * every connected {@link Place} once, see {@link Transition#draw(int)}.
+     *
+     * @param transition the transition to activate during the simulation steps.
+     * @param times      the number of steps, at most {@link Transition#getEnablingDegree()}.
+     * @throws IllegalArgumentException if the transition cannot be drawn {@code times} times.
+     * @throws IllegalStateException    if the number of tokens of a place would exceed {@link Integer#MAX_VALUE}.
+     */
+    public void stepSimulation(Transition transition, int times)
+            throws IllegalArgumentException, IllegalStateException {
+        if (times < 0 || times > transition.getEnablingDegree()) {
+            throw new IllegalArgumentException(String.format(
+                "PetriNetFacade.stepSimulation(transition, %d) -- The argument transition can't be drawn %d times.",
+                times, times));
+        }
+        transition.draw(times);
+    }
+
+    /**
+     * Launches the Petri net simulation for a given number of steps, keeping the set of
+     * firable transitions up to date incrementally instead of rescanning the whole net at every step.
+     *
+     * <p>
+     * The net is compiled once, and after each step only the transitions reading a place changed
+     * by the drawn transition are tested again. The final marking is copied back to the places.
+     * </p>
+     *
+     * @param steps the number of simulation steps to execute.
+     * @return the number of steps actually executed, less than {@code steps} on a deadlock.
+     * @throws IllegalStateException if the Petri net is not valid.
+     */
+    public int launchIncrementalSimulation(int steps) throws IllegalStateException {
+        CompiledNet engine = net.compile();
+        int fired = engine.launchSimulation(steps);
+        engine.writeBack();
+        return fired;
+    }
+
+    /**
+     * Launches the Petri net simulation for a given number of steps, drawing at each step a maximal
+     * set of firable transitions that don't compete for the same tokens, see {@link MaximalStepSimulator}.
+     * The final marking is copied back to the places.
+     *
+     * @param steps the number of simulation steps to execute.
+     * @return the description of the run, telling whether it stopped on a deadlock.
+     * @throws IllegalStateException if the Petri net is not valid.
+     */
+    public SimulationRun launchMaximalStepSimulation(int steps) throws IllegalStateException {
+        CompiledNet engine = net.compile();
+        SimulationRun run = new MaximalStepSimulator(engine).launchSimulation(steps, RandomSource.newSeed());
+        engine.writeBack();
+        return run;
+    }
+
+    /**
+     * Launches a continuous-time stochastic simulation, where every firable transition fires after an
+     * exponentially distributed delay of rate {@link Transition#getRate()}, see {@link StochasticSimulator}.
+     * The final marking is copied back to the places.
+     *
+     * @param endTime the simulated time at which to stop, finite.
+     * @return the simulated time, time-averaged token counts and throughputs, indexed like
+     *         {@link IPretriNet#getPlaces()} and {@link IPretriNet#getTransitions()}.
+     * @throws IllegalArgumentException if {@code endTime} is negative or infinite.
+     * @throws IllegalStateException    if the Petri net is not valid.
+     */
+    public TimeStatistics launchStochasticSimulation(double endTime)
+            throws IllegalArgumentException, IllegalStateException {
+        CompiledNet engine = net.compile();
+        TimeStatistics statistics = new StochasticSimulator(engine).launchSimulation(endTime, RandomSource.newSeed());
+        engine.writeBack();
+        return statistics;
+    }
+
+    /**
+     * Launches a timed simulation, where every firable transition fires after a delay drawn between
+     * {@link Transition#getMinDelay()} and {@link Transition#getMaxDelay()}, unless disabled in the meantime,
+     * see {@link TimedScheduler}. The final marking is copied back to the places.
+     *
+     * @param endTime   the simulated time at which to stop.
+     * @param maxEvents the maximum number of transitions to fire, bounding cycles of zero-delay transitions.
+     * @return the simulated time, time-averaged token counts and throughputs, indexed like
+     *         {@link IPretriNet#getPlaces()} and {@link IPretriNet#getTransitions()}.
+     * @throws IllegalArgumentException if {@code endTime} or {@code maxEvents} is negative, or if both
+     *                                  are unbounded.
+     * @throws IllegalStateException    if the Petri net is not valid.
+     */
+    public TimeStatistics launchTimedSimulation(double endTime, long maxEvents)
+            throws IllegalArgumentException, IllegalStateException {
+        CompiledNet engine = net.compile();
+        TimeStatistics statistics =
+            new TimedScheduler(engine).launchSimulation(endTime, maxEvents, RandomSource.newSeed());
+        engine.writeBack();
+        return statistics;
+    }
+
+    /**
+     * Builds the reachability graph of the Petri net from its current marking, see {@link ReachabilityExplorer}.
+     * Markings are packed with the place bounds proved by the place invariants, see
+     * {@link ReachabilityExplorer#withInvariantBounds(CompiledNet)}.
+     *
+     * @param maxStates the largest number of states to store.
+     * @return the reachable markings and the firings between them, with places and transitions
+     *         indexed like {@link IPretriNet#getPlaces()} and {@link IPretriNet#getTransitions()}.
+     * @throws IllegalStateException if the Petri net is not valid, or a place would exceed
+     *                               {@link Integer#MAX_VALUE} tokens.
+     */
+    public ReachabilityGraph buildReachabilityGraph(int maxStates) throws IllegalStateException {
+        return ReachabilityExplorer.withInvariantBounds(net.compile()).explore(maxStates);
+    }
+
+    /**
+     * Builds the Karp–Miller coverability graph of the Petri net from its current marking, which tells
+     * the places that can hold arbitrarily many tokens even when the net is unbounded.
+     *
+     * See {@link CoverabilityExplorer}.
+     *
+     * @param maxNodes the largest number of nodes to store.
+     * @return the markings covering every reachable marking, with unbounded places marked
+     *         {@link CoverabilityGraph#OMEGA}.
+     * @throws IllegalStateException if the Petri net is not valid.
+     */
+    public CoverabilityGraph buildCoverabilityGraph(int maxNodes) throws IllegalStateException {
+        return new CoverabilityExplorer(net.compile()).explore(maxNodes);
+    }
+
+    /**
+     * Computes the reachable markings of the Petri net from its current marking symbolically, with
+     * decision diagrams instead of one state per marking, see {@link SaturationExplorer}. Places keep the
+     * order of {@link IPretriNet#getPlaces()}, so the places of a component should be added next to each
+     * other for the decision diagrams to stay small.
+     *
+     * @param maxTokens the largest number of tokens a place may hold.
+     * @return the number of reachable markings and whether one of them is a deadlock.
+     * @throws IllegalStateException if the Petri net is not valid, or a place can hold more than
+     *                               {@code maxTokens} tokens.
+     */
+    public SymbolicStateSpace buildSymbolicStateSpace(int maxTokens) throws IllegalStateException {
+        return new SaturationExplorer(net.compile()).explore(maxTokens);
+    }
+
+    /**
+     * Computes the minimal place invariants of the Petri net from the weights of its edges.
+     * Places linked to an {@link EdgeEmpty} get no coefficient, since emptying them has no fixed effect.
+     * {@link InvariantAnalyzer#computePlaceBounds(List)} turns the invariants into bounds of the places.
+     *
+     * @return weightings of places whose weighted sum of tokens never changes.
+     * @throws IllegalStateException if the Petri net is not valid, or a coefficient overflows a {@code long}.
+     */
+    public List<Invariant> computePlaceInvariants() throws IllegalStateException {
+        return new InvariantAnalyzer(net.compile()).computePlaceInvariants();
+    }
+}
@@ -0,0 +1,267 @@
+package io.github.leobeaumont.Analysis;
+
+import io.github.leobeaumont.Engine.CompiledNet;
+import io.github.leobeaumont.Engine.IntArray;
+
+/**
+ * Builds the {@link ReachabilityGraph} of a {@link CompiledNet} by breadth-first search.
+ * <p>
+ * Markings are packed by a {@link MarkingPacker} and deduplicated by a {@link StateStore}, a
+ * {@link MarkingStore} unless another one is given, so a state costs a few bytes when the bounds of
+ * the places are known, and two places per word otherwise.
+ * Since the store numbers states in insertion order, the identifiers of the states are their order
+ * in the breadth-first queue, which is therefore implicit: expanding states {@code 0, 1, 2, ...}
+ * visits the graph level by level, and the successors are appended directly in compressed sparse rows.
+ * </p>
+ * <p>
+ * When the graph itself doesn't fit in memory, the arcs can be given to an {@link ArcListener} instead,
+ * which together with a {@link SpillingMarkingStore} bounds the heap used by the exploration.
+ * </p>
+ */
+public final class ReachabilityExplorer {
+
+    private final CompiledNet net;
+    private final MarkingPacker packer;
+
+    /**
+     * Creates an explorer for a net whose place bounds are unknown.
+     *
+     * @param net the compiled net
+     */
+    public ReachabilityExplorer(CompiledNet net) {
+        this(net, MarkingPacker.unbounded(net.getPlaceCount()));
+    }
+
+    /**
+     * Creates an explorer for a net whose place bounds are known, packing markings in fewer bits.
+     *
+     * @param net    the compiled net
+     * @param bounds the largest number of tokens of every place, or {@link MarkingPacker#UNBOUNDED}
+     * @throws IllegalArgumentException if the number of bounds doesn't match the number of places,
+     *                                  or a bound is negative
+     */
+    public ReachabilityExplorer(CompiledNet net, int[] bounds) throws IllegalArgumentException {
+        this(net, new MarkingPacker(checkLength(net, bounds)));
+    }
+
+    private ReachabilityExplorer(CompiledNet net, MarkingPacker packer) {
+        this.net = net;
+        this.packer = packer;
+    }
+
+    /**
+     * Creates an explorer packing markings with the place bounds proved by the P-invariants of the net
+     * from its current marking, see {@link InvariantAnalyzer#computePlaceBounds()}. Places no invariant
+     * covers keep 31 bits each, as do all places if a coefficient overflows.
+     *
+     * @param net the compiled net
+     * @return the explorer
+     */
+    public static ReachabilityExplorer withInvariantBounds(CompiledNet net) {
+        try {
+            return new ReachabilityExplorer(net, new InvariantAnalyzer(net).computePlaceBounds());
+        } catch (IllegalStateException e) {
+            return new ReachabilityExplorer(net);
+        }
+    }
+
+    private static int[] checkLength(CompiledNet net, int[] bounds) throws IllegalArgumentException {
+        if (bounds.length != net.getPlaceCount()) {
+            throw new IllegalArgumentException(String.format(
+                "ReachabilityExplorer(net, bounds) -- The argument bounds has %d places instead of %d.",
+                bounds.length, net.getPlaceCount()));
+        }
+        return bounds;
+    }
+
+    /**
+     * Explores the markings reachable from the current marking of the net.
+     *
+     * @param maxStates the largest number of states to store
+     * @return the reachability graph, incomplete if {@code maxStates} was reached
+     * @throws IllegalArgumentException if {@code maxStates} is not positive
+     * @throws IllegalStateException    if a place exceeds its bound or {@link Integer#MAX_VALUE} tokens
+     */
+    public ReachabilityGraph explore(int maxStates) throws IllegalArgumentException, IllegalStateException {
+        return explore(net.getMarking(), maxStates);
+    }
+
+    /**
+     * Explores the markings reachable from the given marking.
+     *
+     * @param initialMarking the initial marking, indexed by place
+     * @param maxStates      the largest number of states to store
+     * @return the reachability graph, incomplete if {@code maxStates} was reached
+     * @throws IllegalArgumentException if {@code maxStates} is not positive
+     * @throws IllegalStateException    if a place exceeds its bound or {@link Integer#MAX_VALUE} tokens
+     */
+    public ReachabilityGraph explore(int[] initialMarking, int maxStates)
+            throws IllegalArgumentException, IllegalStateException {
+        return explore(initialMarking, maxStates, new MarkingStore(packer.words()));
+    }
+
+    /**
+     * Explores the markings reachable from the given marking, storing them in the given store,
+     * for instance a {@link SpillingMarkingStore} when they may not fit in the heap.
+     *
+     * @param initialMarking the initial marking, indexed by place
+     * @param maxStates      the largest number of states to store
+     * @param store          an empty store of markings packed in {@code getPacker().words()} words
+     * @return the reachability graph, incomplete if {@code maxStates} was reached
+     * @throws IllegalArgumentException if {@code maxStates} is not positive, or the store isn't
+     *                                  empty or doesn't match the packer
+     * @throws IllegalStateException    if a place exceeds its bound or {@link Integer#MAX_VALUE} tokens
+     */
+    public ReachabilityGraph explore(int[] initialMarking, int maxStates, StateStore store)
+            throws IllegalArgumentException, IllegalStateException {
+        GraphArcs arcs = new GraphArcs();
+        Search search = search(initialMarking, maxStates, store, arcs);
+        return arcs.toGraph(store, search.expanded);
+    }
+
+    /**
+     * Explores the markings reachable from the given marking, giving the arcs to a listener instead of
+     * keeping them, so that only the store and a few buffers stay in memory.
+     *
+     * @param initialMarking the initial marking, indexed by place
+     * @param maxStates      the largest number of states to store
+     * @param store          an empty store of markings packed in {@code getPacker().words()} words
+     * @param listener       the listener receiving the arcs of every expanded state
+     * @return the summary of the exploration, incomplete if {@code maxStates} was reached
+     * @throws IllegalArgumentException if {@code maxStates} is not positive, or the store isn't
+     *                                  empty or doesn't match the packer
+     * @throws IllegalStateException    if a place exceeds its bound or {@link Integer#MAX_VALUE} tokens
+     */
+    public ExplorationResult explore(int[] initialMarking, int maxStates, StateStore store, ArcListener listener)
+            throws IllegalArgumentException, IllegalStateException {
+        long start = System.nanoTime();
+        Search search = search(initialMarking, maxStates, store, listener);
+        return new ExplorationResult(store.size(), search.arcs, search.deadlocks, search.deadlockMarking,
+            search.expanded == store.size(), System.nanoTime() - start);
+    }
+
+    private Search search(int[] initialMarking, int maxStates, StateStore store, ArcListener listener)
+            throws IllegalArgumentException, IllegalStateException {
+        if (maxStates <= 0) {
+            throw new IllegalArgumentException(String.format(
+                "ReachabilityExplorer.explore(marking, %d, store) -- The argument maxStates must be positive.",
+                maxStates));
+        }
+        if (store.size() != 0 || store.words() != packer.words()) {
+            throw new IllegalArgumentException(String.format(
+                "ReachabilityExplorer.explore(marking, %d, store) -- The store must be empty and hold %d words "
+                    + "per marking.", maxStates, packer.words()));
+        }
+        Search search = new Search(initialMarking, maxStates, store, listener);
+        while (search.expanded < store.size() && search.expandNext()) {
+            ++search.expanded;
+        }
+        return search;
+    }
+
+    /**
+     * Returns the packer of the markings, which sets the number of words of a stored marking.
+     *
+     * @return the packer
+     */
+    public MarkingPacker getPacker() {
+        return packer;
+    }
+
+    /**
+     * State of one breadth-first search: the stored markings, the counters and the buffers.
+     */
+    private final class Search {
+
+        private final int maxStates;
+        private final StateStore store;
+        private final ArcListener listener;
+        private final long[] packed;
+        private final int[] marking;
+        private final int[] next;
+        private final int[] enabled;
+        private final int[] targets;
+        private int expanded;
+        private long arcs;
+        private long deadlocks;
+        private int[] deadlockMarking;
+
+        Search(int[] initialMarking, int maxStates, StateStore store, ArcListener listener) {
+            this.maxStates = maxStates;
+            this.store = store;
+            this.listener = listener;
+            this.packed = new long[packer.words()];
+            this.marking = new int[initialMarking.length];
+            this.next = new int[initialMarking.length];
+            this.enabled = new int[net.getTransitionCount()];
+            this.targets = new int[net.getTransitionCount()];
+            packer.pack(initialMarking, packed, 0);
+            store.add(packed, 0);
+        }
+
+        /**
+         * Stores the successors of the next state of the queue, then gives its arcs to the listener.
+         *
+         * @return {@code false} if a new state was found while the store already holds
+         *         {@code maxStates} states; the state then stays unexpanded and none of its arcs is given
+         */
+        boolean expandNext() {
+            store.get(expanded, packed, 0);
+            packer.unpack(packed, 0, marking);
+            int nbEnabled = net.enabled(marking, enabled);
+            for (int i = 0; i < nbEnabled; ++i) {
+                System.arraycopy(marking, 0, next, 0, marking.length);
+                net.fire(enabled[i], next);
+                packer.pack(next, packed, 0);
+                int target = store.indexOf(packed, 0);
+                if (target < 0) {
+                    if (store.size() == maxStates) {
+                        return false;
+                    }
+                    target = store.add(packed, 0);
+                }
+                targets[i] = target;
+            }
+            for (int i = 0; i < nbEnabled; ++i) {
+                listener.arc(expanded, enabled[i], targets[i]);
+            }
+            arcs += nbEnabled;
+            if (nbEnabled == 0 && deadlocks++ == 0) {
+                deadlockMarking = marking.clone();
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Listener collecting the arcs in compressed sparse rows.
+     */
+    private final class GraphArcs implements ArcListener {
+
+        private final IntArray successorStart = new IntArray();
+        private final IntArray successorState = new IntArray();
+        private final IntArray successorTransition = new IntArray();
+
+        @Override
+        public void arc(int source, int transition, int target) {
+            startRows(source);
+            successorState.add(target);
+            successorTransition.add(transition);
+        }
+
+        /**
+         * Starts the rows of the states up to {@code source}, those without arcs being empty.
+         */
+        private void startRows(int source) {
+            while (successorStart.size() <= source) {
+                successorStart.add(successorState.size());
+            }
+        }
+
+        ReachabilityGraph toGraph(StateStore store, int expanded) {
+            startRows(store.size());
+            return new ReachabilityGraph(packer, store, successorStart.toArray(), successorState.toArray(),
+                successorTransition.toArray(), expanded);
+        }
+    }
+}
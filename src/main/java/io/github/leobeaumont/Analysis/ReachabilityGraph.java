@@ -0,0 +1,154 @@
+package io.github.leobeaumont.Analysis;
+
+import java.util.Arrays;
+
+/**
+ * Reachability graph of a Petri net: its reachable markings and the firings between them.
+ * <p>
+ * States are numbered in breadth-first order from the initial marking, which is state {@code 0}.
+ * Markings stay packed in a {@link StateStore} and are only unpacked on demand; the arcs are kept
+ * in compressed sparse rows, the successors of state {@code s} being at indices
+ * {@code [successorStart[s], successorStart[s + 1])} of two parallel arrays of target states and
+ * fired transitions.
+ * </p>
+ */
+public final class ReachabilityGraph {
+
+    private final MarkingPacker packer;
+    private final StateStore store;
+    private final int[] successorStart;
+    private final int[] successorState;
+    private final int[] successorTransition;
+    private final int expanded;
+
+    /**
+     * Creates a graph from the results of an exploration.
+     *
+     * @param packer              the packer of the markings
+     * @param store               the reachable markings
+     * @param successorStart      the start of the successors of every state, plus the total number of arcs
+     * @param successorState      the target state of every arc
+     * @param successorTransition the fired transition of every arc
+     * @param expanded            the number of states whose successors were computed
+     */
+    ReachabilityGraph(MarkingPacker packer, StateStore store, int[] successorStart,
+                      int[] successorState, int[] successorTransition, int expanded) {
+        this.packer = packer;
+        this.store = store;
+        this.successorStart = successorStart;
+        this.successorState = successorState;
+        this.successorTransition = successorTransition;
+        this.expanded = expanded;
+    }
+
+    /**
+     * Returns the number of states found.
+     *
+     * @return the number of reachable markings found
+     */
+    public int getStateCount() {
+        return store.size();
+    }
+
+    /**
+     * Returns the number of arcs.
+     *
+     * @return the number of firings between states
+     */
+    public int getArcCount() {
+        return successorStart[store.size()];
+    }
+
+    /**
+     * Tests whether the exploration found every reachable marking.
+     *
+     * @return {@code false} if the exploration stopped at its state limit
+     */
+    public boolean isComplete() {
+        return expanded == store.size();
+    }
+
+    /**
+     * Returns the marking of a state.
+     *
+     * @param s the index of the state
+     * @return the marking, indexed by place
+     */
+    public int[] getMarking(int s) {
+        long[] packed = new long[packer.words()];
+        store.get(s, packed, 0);
+        int[] marking = new int[packer.getPlaceCount()];
+        packer.unpack(packed, 0, marking);
+        return marking;
+    }
+
+    /**
+     * Returns the state of a marking.
+     *
+     * @param marking the marking, indexed by place
+     * @return the index of the state, or {@code -1} if the marking wasn't found
+     */
+    public int indexOf(int[] marking) {
+        for (int p = 0; p < marking.length; ++p) {
+            if (marking[p] > packer.getBound(p)) {
+                return -1;
+            }
+        }
+        long[] packed = new long[packer.words()];
+        packer.pack(marking, packed, 0);
+        return store.indexOf(packed, 0);
+    }
+
+    /**
+     * Returns the successors of a state.
+     *
+     * @param s the index of the state
+     * @return the indices of the states reached by firing each enabled transition
+     */
+    public int[] getSuccessors(int s) {
+        return Arrays.copyOfRange(successorState, successorStart[s], successorStart[s + 1]);
+    }
+
+    /**
+     * Returns the transitions fired from a state, in the order of {@link #getSuccessors(int)}.
+     *
+     * @param s the index of the state
+     * @return the indices of the transitions enabled in the state
+     */
+    public int[] getSuccessorTransitions(int s) {
+        return Arrays.copyOfRange(successorTransition, successorStart[s], successorStart[s + 1]);
+    }
+
+    /**
+     * Returns the states where no transition is enabled.
+     *
+     * @return the indices of the dead states, in increasing order; states that were found but not
+     *         expanded in an incomplete graph are not reported
+     */
+    public int[] getDeadlocks() {
+        int count = 0;
+        int[] deadlocks = new int[expanded];
+        for (int s = 0; s < expanded; ++s) {
+            if (successorStart[s] == successorStart[s + 1]) {
+                deadlocks[count++] = s;
+            }
+        }
+        return Arrays.copyOf(deadlocks, count);
+    }
+
+    /**
+     * Returns the largest number of tokens of a place over the states found.
+     *
+     * @param p the index of the place
+     * @return the bound of the place in the graph
+     */
+    public int getBound(int p) {
+        long[] packed = new long[packer.words()];
+        int bound = 0;
+        for (int s = 0; s < store.size(); ++s) {
+            store.get(s, packed, 0);
+            bound = Math.max(bound, packer.get(packed, 0, p));
+        }
+        return bound;
+    }
+}
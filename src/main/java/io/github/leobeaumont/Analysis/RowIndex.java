@@ -0,0 +1,155 @@
+package io.github.leobeaumont.Analysis;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Rows of the Farkas algorithm indexed by their columns, the columns from {@code first} on making their support.
+ * <p>
+ * Every column lists the rows with a non-zero entry in it, so that finding the rows to combine for a column,
+ * or the rows whose support is within or contains the support of another row, only visits the rows sharing
+ * a column with it instead of every row. Removed rows are released at once, and dropped from the list of a
+ * column the next time it is read.
+ * </p>
+ */
+final class RowIndex {
+
+    private final int first;
+    private final List<SparseRow> rows = new ArrayList<>();
+    private final int[][] postings;
+    private final int[] postingCounts;
+    private int[] supportSizes = new int[2];
+    private int[] hits = new int[2];
+
+    /**
+     * Creates an empty index.
+     *
+     * @param first     the first column of the supports
+     * @param nbColumns the number of columns
+     */
+    RowIndex(int first, int nbColumns) {
+        this.first = first;
+        this.postings = new int[nbColumns][];
+        this.postingCounts = new int[nbColumns];
+    }
+
+    /**
+     * Adds a row to the index.
+     */
+    void add(SparseRow row) {
+        int id = rows.size();
+        if (id == supportSizes.length) {
+            supportSizes = Arrays.copyOf(supportSizes, id * 2);
+            hits = Arrays.copyOf(hits, id * 2);
+        }
+        rows.add(row);
+        for (int i = 0; i < row.size(); ++i) {
+            int c = row.column(i);
+            if (postings[c] == null) {
+                postings[c] = new int[2];
+            } else if (postingCounts[c] == postings[c].length) {
+                postings[c] = Arrays.copyOf(postings[c], postingCounts[c] * 2);
+            }
+            postings[c][postingCounts[c]++] = id;
+            if (c >= first) {
+                ++supportSizes[id];
+            }
+        }
+    }
+
+    /**
+     * Removes the rows with a non-zero entry in a column.
+     *
+     * @return the removed rows
+     */
+    List<SparseRow> removeColumn(int column) {
+        List<SparseRow> dropped = new ArrayList<>();
+        int count = live(column);
+        for (int k = 0; k < count; ++k) {
+            int id = postings[column][k];
+            dropped.add(rows.set(id, null));
+        }
+        postings[column] = null;
+        postingCounts[column] = 0;
+        return dropped;
+    }
+
+    /**
+     * Tests whether the support of a row of the index is within the support of a candidate, by counting
+     * for every row the support columns it shares with the candidate.
+     */
+    boolean hasSubsetOf(SparseRow candidate) {
+        List<Integer> touched = new ArrayList<>();
+        boolean found = false;
+        for (int i = 0; i < candidate.size() && !found; ++i) {
+            int c = candidate.column(i);
+            int count = c >= first ? live(c) : 0;
+            for (int k = 0; k < count && !found; ++k) {
+                int id = postings[c][k];
+                if (hits[id]++ == 0) {
+                    touched.add(id);
+                }
+                found = hits[id] == supportSizes[id];
+            }
+        }
+        for (int id : touched) {
+            hits[id] = 0;
+        }
+        return found;
+    }
+
+    /**
+     * Removes the rows whose support contains the support of a candidate. Such a row holds every support
+     * column of the candidate, so only the rows of its least shared one are checked.
+     *
+     * @return the removed rows
+     */
+    List<SparseRow> removeSupersetsOf(SparseRow candidate) {
+        int rarest = -1;
+        int rarestCount = Integer.MAX_VALUE;
+        for (int i = 0; i < candidate.size(); ++i) {
+            int c = candidate.column(i);
+            int count = c >= first ? live(c) : Integer.MAX_VALUE;
+            if (count < rarestCount) {
+                rarest = c;
+                rarestCount = count;
+            }
+        }
+        List<SparseRow> dropped = new ArrayList<>();
+        for (int k = 0; k < rarestCount; ++k) {
+            int id = postings[rarest][k];
+            if (candidate.supportWithin(rows.get(id), first)) {
+                dropped.add(rows.set(id, null));
+            }
+        }
+        return dropped;
+    }
+
+    /**
+     * Returns the rows that aren't removed, in the order they were added.
+     */
+    List<SparseRow> rows() {
+        List<SparseRow> kept = new ArrayList<>();
+        for (SparseRow row : rows) {
+            if (row != null) {
+                kept.add(row);
+            }
+        }
+        return kept;
+    }
+
+    /**
+     * Drops the removed rows from the list of a column and returns the number of rows left in it.
+     */
+    private int live(int column) {
+        int count = 0;
+        for (int k = 0; k < postingCounts[column]; ++k) {
+            if (rows.get(postings[column][k]) != null) {
+                postings[column][count++] = postings[column][k];
+            }
+        }
+        postingCounts[column] = count;
+        return count;
+    }
+}
@@ -0,0 +1,314 @@
+package io.github.leobeaumont.Analysis;
+
+import io.github.leobeaumont.Engine.CompiledNet;
+import io.github.leobeaumont.Engine.IntArray;
+import java.util.Arrays;
+
+/**
+ * Builds the {@link SymbolicStateSpace} of a {@link CompiledNet} by saturation over multi-valued decision
+ * diagrams.
+ * <p>
+ * Every transition is an event acting on each of its places independently: it is enabled if the number
+ * of tokens of each place passes the local test of its arcs, and then changes each of them by a local
+ * function. The events are grouped by their top level, the level of their last place. Saturation builds
+ * the reachable markings bottom-up: a node is only stored once every event whose top level is its own has
+ * been fired on it to a fixed point, the firings below it going through nodes that are saturated in turn.
+ * On regular nets, where transitions act on nearby places, the diagrams stay small however many markings
+ * they hold, so places should be ordered so that those of a component are next to each other.
+ * </p>
+ * <p>
+ * The dead markings are the reachable markings minus those enabling each transition, computed on the
+ * diagrams without enumerating markings.
+ * </p>
+ */
+public final class SaturationExplorer {
+
+    private static final int FIRE = 1;
+    private static final int SATURATE = 2;
+    private static final int ENABLED = 3;
+    private static final int CACHE_ENTRIES = 262144;
+
+    private final CompiledNet net;
+    private final int[][] places;
+    private final int[][] preMax;
+    private final int[][] preSum;
+    private final boolean[][] empties;
+    private final boolean[][] zeros;
+    private final int[][] post;
+    private final int[] bottom;
+    private final int[][] eventsByTop;
+    private final boolean alwaysEnabled;
+
+    /**
+     * Creates an explorer for a net, splitting every transition into the local tests and changes of its
+     * places.
+     *
+     * @param net the compiled net
+     */
+    public SaturationExplorer(CompiledNet net) {
+        int nbTransitions = net.getTransitionCount();
+        this.net = net;
+        this.places = new int[nbTransitions][];
+        this.preMax = new int[nbTransitions][];
+        this.preSum = new int[nbTransitions][];
+        this.empties = new boolean[nbTransitions][];
+        this.zeros = new boolean[nbTransitions][];
+        this.post = new int[nbTransitions][];
+        this.bottom = new int[nbTransitions];
+        IntArray[] byTop = new IntArray[net.getPlaceCount() + 1];
+        for (int k = 0; k < byTop.length; ++k) {
+            byTop[k] = new IntArray();
+        }
+        boolean unconditional = false;
+        for (int t = 0; t < nbTransitions; ++t) {
+            splitEvent(t);
+            if (places[t].length == 0) {
+                unconditional = true;
+            } else {
+                bottom[t] = places[t][0] + 1;
+                byTop[places[t][places[t].length - 1] + 1].add(t);
+            }
+        }
+        this.eventsByTop = new int[byTop.length][];
+        for (int k = 0; k < byTop.length; ++k) {
+            eventsByTop[k] = byTop[k].toArray();
+        }
+        this.alwaysEnabled = unconditional;
+    }
+
+    /**
+     * Gathers the arcs of a transition by place.
+     */
+    private void splitEvent(int t) {
+        int[] prePlaces = net.getPrePlaces(t);
+        int[] preWeights = net.getPreWeights(t);
+        int[] postPlaces = net.getPostPlaces(t);
+        int[] postWeights = net.getPostWeights(t);
+        int[] emptyPlaces = net.getEmptyPlaces(t);
+        int[] zeroPlaces = net.getZeroPlaces(t);
+        IntArray touched = new IntArray();
+        for (int[] arcs : new int[][] {prePlaces, postPlaces, emptyPlaces, zeroPlaces}) {
+            for (int p : arcs) {
+                touched.add(p);
+            }
+        }
+        int[] sorted = touched.toArray();
+        Arrays.sort(sorted);
+        int count = 0;
+        for (int i = 0; i < sorted.length; ++i) {
+            if (i == 0 || sorted[i] != sorted[i - 1]) {
+                sorted[count++] = sorted[i];
+            }
+        }
+        places[t] = Arrays.copyOf(sorted, count);
+        preMax[t] = new int[count];
+        preSum[t] = new int[count];
+        empties[t] = new boolean[count];
+        zeros[t] = new boolean[count];
+        post[t] = new int[count];
+        for (int i = 0; i < prePlaces.length; ++i) {
+            int a = Arrays.binarySearch(places[t], prePlaces[i]);
+            preMax[t][a] = Math.max(preMax[t][a], preWeights[i]);
+            preSum[t][a] = Math.addExact(preSum[t][a], preWeights[i]);
+        }
+        for (int i = 0; i < postPlaces.length; ++i) {
+            int a = Arrays.binarySearch(places[t], postPlaces[i]);
+            post[t][a] = Math.addExact(post[t][a], postWeights[i]);
+        }
+        for (int p : emptyPlaces) {
+            empties[t][Arrays.binarySearch(places[t], p)] = true;
+        }
+        for (int p : zeroPlaces) {
+            zeros[t][Arrays.binarySearch(places[t], p)] = true;
+        }
+    }
+
+    /**
+     * Computes the markings reachable from the current marking of the net.
+     *
+     * @param maxTokens the largest number of tokens a place may hold, which bounds the exploration of
+     *                  unbounded nets
+     * @return the reachable and dead markings
+     * @throws IllegalArgumentException if {@code maxTokens} is negative
+     * @throws IllegalStateException    if a reachable marking puts more than {@code maxTokens} tokens in
+     *                                  a place
+     */
+    public SymbolicStateSpace explore(int maxTokens) throws IllegalArgumentException, IllegalStateException {
+        if (maxTokens < 0) {
+            throw new IllegalArgumentException(String.format(
+                "SaturationExplorer.explore(%d) -- The argument maxTokens is negative.", maxTokens));
+        }
+        int[] marking = net.getMarking();
+        for (int p = 0; p < marking.length; ++p) {
+            checkBound(marking[p], p, maxTokens);
+        }
+        Run run = new Run(maxTokens);
+        int top = marking.length;
+        int reachable = run.saturate(top, run.forest.singleton(marking, top));
+        int dead = alwaysEnabled ? MddForest.EMPTY : reachable;
+        for (int t = 0; t < places.length && dead != MddForest.EMPTY; ++t) {
+            if (places[t].length > 0) {
+                dead = run.forest.difference(top, dead, run.enabledPart(t, top, dead));
+            }
+        }
+        return new SymbolicStateSpace(run.forest, top, reachable, dead);
+    }
+
+    private static void checkBound(long tokens, int p, int maxTokens) throws IllegalStateException {
+        if (tokens > maxTokens) {
+            throw new IllegalStateException(String.format(
+                "SaturationExplorer.explore(%d) -- The place %d can hold more than %d tokens.",
+                maxTokens, p, maxTokens));
+        }
+    }
+
+    /**
+     * State of one construction: the node table, the operation cache and the token limit.
+     */
+    private final class Run {
+
+        private final int maxTokens;
+        private final MddForest forest = new MddForest();
+        private final OperationCache cache = new OperationCache(CACHE_ENTRIES);
+
+        Run(int maxTokens) {
+            this.maxTokens = maxTokens;
+        }
+
+        /**
+         * Returns the node holding the markings reachable from those of a node through the events whose
+         * top level is at most its level.
+         */
+        int saturate(int level, int node) {
+            if (level == 0 || node == MddForest.EMPTY) {
+                return node;
+            }
+            int cached = cache.get(SATURATE, 0, node);
+            if (cached >= 0) {
+                return cached;
+            }
+            int[] children = new int[forest.width(node)];
+            for (int i = 0; i < children.length; ++i) {
+                children[i] = saturate(level - 1, forest.child(node, i));
+            }
+            int result = forest.node(level, fixedPoint(level, children));
+            cache.put(SATURATE, 0, node, result);
+            return result;
+        }
+
+        /**
+         * Fires the events whose top level is the given one on a node being built, whose children are
+         * saturated, until no child changes.
+         *
+         * @return the children of the saturated node, possibly in a longer array
+         */
+        private int[] fixedPoint(int level, int[] nodeChildren) {
+            int[] children = nodeChildren;
+            boolean changed = true;
+            while (changed) {
+                changed = false;
+                for (int t : eventsByTop[level]) {
+                    int a = places[t].length - 1;
+                    for (int i = 0; i < children.length; ++i) {
+                        long tokens = children[i] == MddForest.EMPTY ? -1 : apply(t, a, i);
+                        int fired = tokens < 0 ? MddForest.EMPTY : fire(t, level - 1, children[i]);
+                        if (fired != MddForest.EMPTY) {
+                            int j = checked(tokens, places[t][a]);
+                            if (j >= children.length) {
+                                children = Arrays.copyOf(children, j + 1);
+                            }
+                            int union = forest.union(level - 1, children[j], fired);
+                            changed |= union != children[j];
+                            children[j] = union;
+                        }
+                    }
+                }
+            }
+            return children;
+        }
+
+        /**
+         * Returns the saturated node of the markings reached by firing an event once from those of a node,
+         * below the top level of the event.
+         */
+        private int fire(int t, int level, int node) {
+            if (node == MddForest.EMPTY || level < bottom[t]) {
+                return node;
+            }
+            int cached = cache.get(FIRE, t, node);
+            if (cached >= 0) {
+                return cached;
+            }
+            int a = Arrays.binarySearch(places[t], level - 1);
+            int[] children = new int[0];
+            for (int i = 0; i < forest.width(node); ++i) {
+                int child = forest.child(node, i);
+                long tokens = i;
+                if (child == MddForest.EMPTY) {
+                    tokens = -1;
+                } else if (a >= 0) {
+                    tokens = apply(t, a, i);
+                }
+                int fired = tokens < 0 ? MddForest.EMPTY : fire(t, level - 1, child);
+                if (fired != MddForest.EMPTY) {
+                    int j = a < 0 ? i : checked(tokens, places[t][a]);
+                    if (j >= children.length) {
+                        children = Arrays.copyOf(children, j + 1);
+                    }
+                    children[j] = forest.union(level - 1, children[j], fired);
+                }
+            }
+            int result = forest.node(level, fixedPoint(level, children));
+            cache.put(FIRE, t, node, result);
+            return result;
+        }
+
+        /**
+         * Returns the markings of a node where an event is enabled.
+         */
+        int enabledPart(int t, int level, int node) {
+            if (node == MddForest.EMPTY || level < bottom[t]) {
+                return node;
+            }
+            int cached = cache.get(ENABLED, t, node);
+            if (cached >= 0) {
+                return cached;
+            }
+            int a = Arrays.binarySearch(places[t], level - 1);
+            int[] children = new int[forest.width(node)];
+            for (int i = 0; i < children.length; ++i) {
+                if (a < 0 || isEnabled(t, a, i)) {
+                    children[i] = enabledPart(t, level - 1, forest.child(node, i));
+                }
+            }
+            int result = forest.node(level, children);
+            cache.put(ENABLED, t, node, result);
+            return result;
+        }
+
+        /**
+         * Returns the number of tokens of the {@code a}-th place of an event after firing it, or
+         * {@code -1} if the event is disabled by that place. The result may exceed {@code maxTokens}, which
+         * is only an error once the places of the other levels enable the event too.
+         */
+        private long apply(int t, int a, int tokens) {
+            if (!isEnabled(t, a, tokens)) {
+                return -1;
+            }
+            long result = empties[t][a] ? 0 : tokens - preSum[t][a];
+            return result + post[t][a];
+        }
+
+        /**
+         * Returns the number of tokens a place reaches by an enabled firing, checking the token limit.
+         */
+        private int checked(long tokens, int p) throws IllegalStateException {
+            checkBound(tokens, p, maxTokens);
+            return (int) tokens;
+        }
+
+        private boolean isEnabled(int t, int a, int tokens) {
+            return tokens >= preMax[t][a] && !(empties[t][a] && tokens == 0) && !(zeros[t][a] && tokens != 0);
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package io.github.leobeaumont.Analysis;
+
+import java.util.Arrays;
+
+/**
+ * Immutable sparse row of {@code long} integers, holding only its non-zero entries in increasing column
+ * order.
+ * <p>
+ * Arithmetic is exact: a result that doesn't fit in a {@code long} throws an
+ * {@link IllegalStateException} instead of wrapping around.
+ * </p>
+ */
+final class SparseRow {
+
+    private final int[] columns;
+    private final long[] values;
+
+    /**
+     * Creates a row from its non-zero entries, sorted by column; the arrays are kept.
+     */
+    SparseRow(int[] columns, long[] values) {
+        this.columns = columns;
+        this.values = values;
+    }
+
+    /**
+     * Returns the value of a column, {@code 0} if it isn't stored.
+     */
+    long get(int column) {
+        int i = Arrays.binarySearch(columns, column);
+        return i < 0 ? 0 : values[i];
+    }
+
+    /**
+     * Returns the number of non-zero entries.
+     */
+    int size() {
+        return columns.length;
+    }
+
+    /**
+     * Returns the column of the {@code i}-th non-zero entry.
+     */
+    int column(int i) {
+        return columns[i];
+    }
+
+    /**
+     * Returns the value of the {@code i}-th non-zero entry.
+     */
+    long value(int i) {
+        return values[i];
+    }
+
+    /**
+     * Returns {@code fa * a + fb * b}, divided by the greatest common divisor of its entries.
+     *
+     * @throws IllegalStateException if an entry overflows
+     */
+    static SparseRow combine(long fa, SparseRow a, long fb, SparseRow b) throws IllegalStateException {
+        int[] resultColumns = new int[a.size() + b.size()];
+        long[] resultValues = new long[resultColumns.length];
+        int count = 0;
+        int i = 0;
+        int j = 0;
+        try {
+            while (i < a.size() || j < b.size()) {
+                int ca = i < a.size() ? a.columns[i] : Integer.MAX_VALUE;
+                int cb = j < b.size() ? b.columns[j] : Integer.MAX_VALUE;
+                int column = Math.min(ca, cb);
+                long value = 0;
+                if (ca == column) {
+                    value = Math.multiplyExact(fa, a.values[i++]);
+                }
+                if (cb == column) {
+                    value = Math.addExact(value, Math.multiplyExact(fb, b.values[j++]));
+                }
+                if (value != 0) {
+                    resultColumns[count] = column;
+                    resultValues[count++] = value;
+                }
+            }
+        } catch (ArithmeticException e) {
+            throw new IllegalStateException("SparseRow.combine -- An entry overflows a long.", e);
+        }
+        long divisor = 0;
+        for (int k = 0; k < count; ++k) {
+            divisor = gcd(divisor, Math.abs(resultValues[k]));
+        }
+        for (int k = 0; k < count; ++k) {
+            resultValues[k] /= divisor;
+        }
+        return new SparseRow(Arrays.copyOf(resultColumns, count), Arrays.copyOf(resultValues, count));
+    }
+
+    /**
+     * Tests whether the columns from {@code first} on of this row are all columns of the other row.
+     */
+    boolean supportWithin(SparseRow other, int first) {
+        int j = 0;
+        for (int i = 0; i < columns.length; ++i) {
+            if (columns[i] < first) {
+                continue;
+            }
+            while (j < other.columns.length && other.columns[j] < columns[i]) {
+                ++j;
+            }
+            if (j == other.columns.length || other.columns[j] != columns[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the greatest common divisor of two non-negative numbers.
+     */
+    static long gcd(long a, long b) {
+        long x = a;
+        long y = b;
+        while (y != 0) {
+            long r = x % y;
+            x = y;
+            y = r;
+        }
+        return x;
+    }
+}
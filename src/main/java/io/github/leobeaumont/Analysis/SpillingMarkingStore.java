@@ -0,0 +1,430 @@
+package io.github.leobeaumont.Analysis;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Set of packed markings that keeps the recent pages on the heap and spills the older ones to a
+ * memory-mapped file, so that state spaces larger than the heap can be explored.
+ * <p>
+ * Markings are appended to pages of {@code 2^16} states, as in {@link MarkingStore}. Once the pages
+ * on the heap exceed the memory limit, the oldest one is copied to its region of a temporary file
+ * mapped with {@link FileChannel#map}, and dropped from the heap: the operating system then keeps
+ * the pages read recently in its cache and writes the others back to disk. Breadth-first
+ * explorations fit this policy well, since they insert into the newest page and expand the states
+ * in insertion order.
+ * </p>
+ *
+ * <p>
+ * The hash table is cut into chunks of {@code 2^20} slots, allocated when first written: on the heap
+ * while they fit in half of the memory limit, and mapped from a second temporary file otherwise, so
+ * the table doesn't grow the heap with the number of states either. Every slot holds the identifier
+ * of a state and the lower 32 bits of its hash: probing a slot only reads a spilled marking when the
+ * hashes match, and doubling the table moves the slots by their hash alone, reading the old table
+ * sequentially instead of the markings. Each chunk of the old table is released once its slots are
+ * moved, so the two tables together stay within the limit, and the region of a mapped chunk is
+ * reused by the next chunk to map; the chunks mapped while the old table still held the heap are
+ * moved back to the heap once it is released.
+ * </p>
+ *
+ * <p>The store must be closed to delete its files; mapped regions are only released by the
+ * garbage collector. The regions of the first tables, smaller than a chunk, are left unused in
+ * the index file.</p>
+ */
+public final class SpillingMarkingStore implements StateStore, Closeable {
+
+    private static final int PAGE_SHIFT = 16;
+    private static final int PAGE_STATES = 1 << PAGE_SHIFT;
+    private static final int PAGE_MASK = PAGE_STATES - 1;
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final int MAX_CAPACITY = Integer.highestOneBit(Integer.MAX_VALUE);
+    private static final int CHUNK_SHIFT = 20;
+    private static final int CHUNK_SLOTS = 1 << CHUNK_SHIFT;
+    private static final int CHUNK_MASK = CHUNK_SLOTS - 1;
+    private static final int LOAD_NUMERATOR = 3;
+    private static final int LOAD_DENOMINATOR = 4;
+    private static final long ID_MASK = 0xFFFFFFFFL;
+    private static final int FINGERPRINT_SHIFT = 32;
+
+    private final int words;
+    private final long pageBytes;
+    private final int maxHeapPages;
+    private final long maxHeapSlots;
+    private final Path file;
+    private final FileChannel channel;
+    private final Path indexFile;
+    private final FileChannel indexChannel;
+    private long[][] heapPages;
+    private LongBuffer[] mappedPages;
+    private int firstHeapPage;
+    private int size;
+
+    // Hash table, whose chunks are either on the heap, mapped from the index file, or not yet written
+    private int tableLength;
+    private int chunkLength;
+    private long[][] heapChunks;
+    private LongBuffer[] mappedChunks;
+    private long[] chunkRegions;
+    // Slots of the heap chunks, including those of the old table while it is rehashed
+    private long heapSlots;
+    private long peakHeapBytes;
+
+    // End of the index file, and regions of released chunks to map again before extending it
+    private long indexEnd;
+    private long[] freeRegions = new long[1];
+    private int nbFreeRegions;
+
+    /**
+     * Creates an empty store backed by new temporary files.
+     *
+     * @param words     the number of words of a packed marking
+     * @param directory the directory of the temporary files
+     * @param heapBytes the largest number of bytes to keep on the heap, half for the markings and half for
+     *                  the hash table; at least one page of markings is kept
+     * @throws IOException if a temporary file can't be created
+     */
+    public SpillingMarkingStore(int words, Path directory, long heapBytes) throws IOException {
+        this.words = words;
+        this.pageBytes = Math.max(1L, (long) PAGE_STATES * words * Long.BYTES);
+        long pagesBudget = heapBytes / 2;
+        this.maxHeapPages = (int) Math.max(1, Math.min(Integer.MAX_VALUE, pagesBudget / pageBytes));
+        this.maxHeapSlots = Math.max(0, heapBytes - pagesBudget) / Long.BYTES;
+        this.file = Files.createTempFile(directory, "markings", ".bin");
+        this.channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE,
+            StandardOpenOption.DELETE_ON_CLOSE);
+        this.indexFile = Files.createTempFile(directory, "index", ".bin");
+        this.indexChannel = FileChannel.open(indexFile, StandardOpenOption.READ, StandardOpenOption.WRITE,
+            StandardOpenOption.DELETE_ON_CLOSE);
+        this.heapPages = new long[1][];
+        this.mappedPages = new LongBuffer[1];
+        allocateTable(INITIAL_CAPACITY);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws IllegalStateException if the hash table can't grow any more and is full
+     * @throws UncheckedIOException  if a page or the hash table can't be mapped from its file
+     */
+    @Override
+    public int add(long[] packed, int offset) throws IllegalStateException, UncheckedIOException {
+        long hash = MarkingStore.hash(packed, offset, words);
+        int slot = find(packed, offset, hash);
+        long found = entryAt(slot);
+        if (found != 0) {
+            return -1 - id(found);
+        }
+        if (size == tableLength - 1) {
+            throw new IllegalStateException("SpillingMarkingStore.add -- The store is full.");
+        }
+        int id = size++;
+        int page = id >>> PAGE_SHIFT;
+        if (page == heapPages.length) {
+            heapPages = Arrays.copyOf(heapPages, heapPages.length * 2);
+            mappedPages = Arrays.copyOf(mappedPages, mappedPages.length * 2);
+        }
+        if (heapPages[page] == null) {
+            heapPages[page] = new long[PAGE_STATES * words];
+            if (page - firstHeapPage >= maxHeapPages) {
+                spill(firstHeapPage++);
+            }
+            recordHeapBytes();
+        }
+        System.arraycopy(packed, offset, heapPages[page], (id & PAGE_MASK) * words, words);
+        setEntry(slot, entry(hash, id));
+        if ((long) size * LOAD_DENOMINATOR > (long) tableLength * LOAD_NUMERATOR && tableLength < MAX_CAPACITY) {
+            grow();
+        }
+        return id;
+    }
+
+    @Override
+    public int indexOf(long[] packed, int offset) {
+        long entry = entryAt(find(packed, offset, MarkingStore.hash(packed, offset, words)));
+        return entry == 0 ? -1 : id(entry);
+    }
+
+    @Override
+    public void get(int id, long[] packed, int offset) {
+        int page = id >>> PAGE_SHIFT;
+        int start = (id & PAGE_MASK) * words;
+        if (heapPages[page] != null) {
+            System.arraycopy(heapPages[page], start, packed, offset, words);
+        } else {
+            LongBuffer mapped = mappedPages[page];
+            for (int w = 0; w < words; ++w) {
+                packed[offset + w] = mapped.get(start + w);
+            }
+        }
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public int words() {
+        return words;
+    }
+
+    /**
+     * Returns the size of the index file the chunks of the hash table not on the heap are mapped from.
+     *
+     * @return the number of bytes of the index file
+     */
+    public long getIndexBytes() {
+        return indexEnd;
+    }
+
+    /**
+     * Returns the number of pages spilled to the file.
+     *
+     * @return the number of pages of {@code 2^16} markings no longer on the heap
+     */
+    public int getSpilledPages() {
+        return firstHeapPage;
+    }
+
+    /**
+     * Returns the number of bytes of markings and of hash table held on the heap, which stays within the
+     * memory limit given at creation, apart from the single page of markings always kept.
+     *
+     * @return the number of bytes of the pages and table chunks not spilled
+     */
+    public long getHeapBytes() {
+        int lastPage = (size - 1) >>> PAGE_SHIFT;
+        long pages = size == 0 ? 0 : lastPage - firstHeapPage + 1;
+        return pages * pageBytes + heapSlots * Long.BYTES;
+    }
+
+    /**
+     * Returns the largest number of bytes of markings and of hash table held on the heap at once,
+     * including while the table was doubled.
+     *
+     * @return the peak of {@link #getHeapBytes()}
+     */
+    public long getPeakHeapBytes() {
+        return peakHeapBytes;
+    }
+
+    /**
+     * Closes and deletes the files.
+     *
+     * @throws IOException if a file can't be closed
+     */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+        indexChannel.close();
+        Files.deleteIfExists(file);
+        Files.deleteIfExists(indexFile);
+    }
+
+    /**
+     * Combines the identifier of a state, plus one so that empty slots are zero, with the lower
+     * 32 bits of its hash.
+     */
+    private static long entry(long hash, int id) {
+        return hash << FINGERPRINT_SHIFT | (id + 1L);
+    }
+
+    private static int id(long entry) {
+        return (int) (entry & ID_MASK) - 1;
+    }
+
+    private long entryAt(int slot) {
+        int c = slot >>> CHUNK_SHIFT;
+        if (heapChunks[c] != null) {
+            return heapChunks[c][slot & CHUNK_MASK];
+        }
+        return mappedChunks[c] != null ? mappedChunks[c].get(slot & CHUNK_MASK) : 0;
+    }
+
+    private void setEntry(int slot, long entry) throws UncheckedIOException {
+        int c = slot >>> CHUNK_SHIFT;
+        if (heapChunks[c] == null && mappedChunks[c] == null) {
+            allocateChunk(c);
+        }
+        if (heapChunks[c] != null) {
+            heapChunks[c][slot & CHUNK_MASK] = entry;
+        } else {
+            mappedChunks[c].put(slot & CHUNK_MASK, entry);
+        }
+    }
+
+    /**
+     * Returns the slot holding a marking, or the empty slot where it would be inserted.
+     */
+    private int find(long[] packed, int offset, long hash) {
+        int tableMask = tableLength - 1;
+        int slot = (int) hash & tableMask;
+        long fingerprint = hash & ID_MASK;
+        // Only the entries of a same home slot share the lower bits of their fingerprints
+        long entry = entryAt(slot);
+        while (entry != 0 && (entry >>> FINGERPRINT_SHIFT != fingerprint || !matches(id(entry), packed, offset))) {
+            slot = (slot + 1) & tableMask;
+            entry = entryAt(slot);
+        }
+        return slot;
+    }
+
+    private boolean matches(int id, long[] packed, int offset) {
+        int page = id >>> PAGE_SHIFT;
+        int start = (id & PAGE_MASK) * words;
+        for (int w = 0; w < words; ++w) {
+            long word = heapPages[page] != null ? heapPages[page][start + w] : mappedPages[page].get(start + w);
+            if (word != packed[offset + w]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Copies a page to its region of the file and drops it from the heap.
+     */
+    private void spill(int page) throws UncheckedIOException {
+        try {
+            MappedByteBuffer region = channel.map(FileChannel.MapMode.READ_WRITE, page * pageBytes, pageBytes);
+            LongBuffer longs = region.order(ByteOrder.nativeOrder()).asLongBuffer();
+            longs.put(heapPages[page]);
+            mappedPages[page] = longs;
+            heapPages[page] = null;
+        } catch (IOException e) {
+            throw new UncheckedIOException("SpillingMarkingStore.add -- A page can't be spilled to " + file + ".", e);
+        }
+    }
+
+    /**
+     * Allocates an empty hash table, whose chunks are allocated when first written.
+     */
+    private void allocateTable(int length) {
+        chunkLength = Math.min(length, CHUNK_SLOTS);
+        int nbChunks = length / chunkLength;
+        heapChunks = new long[nbChunks][];
+        mappedChunks = new LongBuffer[nbChunks];
+        chunkRegions = new long[nbChunks];
+        tableLength = length;
+    }
+
+    /**
+     * Allocates a chunk of the table on the heap if it fits in the memory limit, or maps it from a
+     * region of the index file otherwise.
+     */
+    private void allocateChunk(int c) throws UncheckedIOException {
+        if (heapSlots + chunkLength <= maxHeapSlots) {
+            heapChunks[c] = new long[chunkLength];
+            heapSlots += chunkLength;
+            recordHeapBytes();
+        } else {
+            mapChunk(c);
+        }
+    }
+
+    /**
+     * Maps a chunk of the table from a free region of the index file, or from a new one at its end.
+     * A reused region still holds the slots of a former chunk, so it is cleared.
+     */
+    private void mapChunk(int c) throws UncheckedIOException {
+        long chunkBytes = (long) chunkLength * Long.BYTES;
+        boolean reused = chunkLength == CHUNK_SLOTS && nbFreeRegions > 0;
+        long region = reused ? freeRegions[--nbFreeRegions] : indexEnd;
+        try {
+            MappedByteBuffer mapped = indexChannel.map(FileChannel.MapMode.READ_WRITE, region, chunkBytes);
+            mappedChunks[c] = mapped.order(ByteOrder.nativeOrder()).asLongBuffer();
+        } catch (IOException e) {
+            throw new UncheckedIOException(
+                "SpillingMarkingStore.add -- The hash table can't be mapped from " + indexFile + ".", e);
+        }
+        if (reused) {
+            for (int i = 0; i < chunkLength; ++i) {
+                mappedChunks[c].put(i, 0);
+            }
+        } else {
+            indexEnd += chunkBytes;
+        }
+        chunkRegions[c] = region;
+    }
+
+    /**
+     * Makes the region of a released mapped chunk available to the next chunk to map; the regions
+     * of chunks smaller than {@code 2^20} slots can't hold one and are left unused.
+     */
+    private void freeRegion(long region, int length) {
+        if (length == CHUNK_SLOTS) {
+            if (nbFreeRegions == freeRegions.length) {
+                freeRegions = Arrays.copyOf(freeRegions, nbFreeRegions * 2);
+            }
+            freeRegions[nbFreeRegions++] = region;
+        }
+    }
+
+    private void recordHeapBytes() {
+        peakHeapBytes = Math.max(peakHeapBytes, getHeapBytes());
+    }
+
+    /**
+     * Doubles the hash table, moving every entry by the hash bits it holds, and releasing every old
+     * chunk once its entries are moved.
+     */
+    private void grow() throws UncheckedIOException {
+        int oldChunkLength = chunkLength;
+        long[][] oldHeapChunks = heapChunks;
+        LongBuffer[] oldMappedChunks = mappedChunks;
+        long[] oldChunkRegions = chunkRegions;
+        allocateTable(tableLength * 2);
+        int tableMask = tableLength - 1;
+        for (int c = 0; c < oldHeapChunks.length; ++c) {
+            long[] heapChunk = oldHeapChunks[c];
+            LongBuffer mappedChunk = oldMappedChunks[c];
+            if (heapChunk == null && mappedChunk == null) {
+                continue;
+            }
+            for (int i = 0; i < oldChunkLength; ++i) {
+                long entry = heapChunk != null ? heapChunk[i] : mappedChunk.get(i);
+                if (entry != 0) {
+                    int slot = (int) (entry >>> FINGERPRINT_SHIFT) & tableMask;
+                    while (entryAt(slot) != 0) {
+                        slot = (slot + 1) & tableMask;
+                    }
+                    setEntry(slot, entry);
+                }
+            }
+            oldHeapChunks[c] = null;
+            oldMappedChunks[c] = null;
+            if (heapChunk != null) {
+                heapSlots -= oldChunkLength;
+            } else {
+                freeRegion(oldChunkRegions[c], oldChunkLength);
+            }
+        }
+        moveChunksToHeap();
+    }
+
+    /**
+     * Copies to the heap the mapped chunks that fit in the memory limit now that the old table is released.
+     */
+    private void moveChunksToHeap() {
+        for (int c = 0; c < mappedChunks.length && heapSlots + chunkLength <= maxHeapSlots; ++c) {
+            if (mappedChunks[c] != null) {
+                long[] chunk = new long[chunkLength];
+                mappedChunks[c].get(chunk);
+                heapChunks[c] = chunk;
+                heapSlots += chunkLength;
+                recordHeapBytes();
+                mappedChunks[c] = null;
+                freeRegion(chunkRegions[c], chunkLength);
+            }
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package io.github.leobeaumont.Analysis;
+
+/**
+ * Set of packed markings, numbered in insertion order, used by the explorers to remember the
+ * visited states.
+ */
+public interface StateStore {
+
+    /**
+     * Adds a packed marking unless it is already present.
+     *
+     * @param packed the array holding the packed marking
+     * @param offset the index of its first word
+     * @return the identifier of the new state, or {@code -1 - id} if the marking was already stored
+     *         with identifier {@code id}
+     */
+    int add(long[] packed, int offset);
+
+    /**
+     * Returns the identifier of a packed marking.
+     *
+     * @param packed the array holding the packed marking
+     * @param offset the index of its first word
+     * @return the identifier of the state, or {@code -1} if the marking is not stored
+     */
+    int indexOf(long[] packed, int offset);
+
+    /**
+     * Copies the packed marking of a state.
+     *
+     * @param id     the identifier of the state
+     * @param packed the array receiving the packed marking
+     * @param offset the index of the first word to write
+     */
+    void get(int id, long[] packed, int offset);
+
+    /**
+     * Returns the number of states.
+     *
+     * @return the number of stored markings
+     */
+    int size();
+
+    /**
+     * Returns the number of words of a packed marking.
+     *
+     * @return the number of words
+     */
+    int words();
+}
@@ -0,0 +1,394 @@
+package io.github.leobeaumont.Analysis;
+
+import io.github.leobeaumont.Engine.CompiledNet;
+import io.github.leobeaumont.Engine.IntArray;
+import java.util.Arrays;
+
+/**
+ * Builds a reduced {@link ReachabilityGraph} of a {@link CompiledNet} by breadth-first search, firing in
+ * every state only the enabled transitions of a stubborn set instead of all of them.
+ * <p>
+ * Independent transitions can fire in any order and reach the same marking, so exploring a single order
+ * is enough: the stubborn set of a state contains one enabled transition and, closing over the structure
+ * of the net, every transition that could disable it or fail to commute with it (condition D1), and for
+ * every disabled transition of the set, every transition able to fix one place that disables it
+ * (condition D2). The dependencies come from the places shared by the arcs of two transitions: a
+ * weighted incoming arc reads and decreases its place, an empty arc reads and resets it, a zero arc
+ * reads it and an outgoing arc increases it. Every enabled transition is tried as the seed of the set,
+ * and the set with the fewest enabled transitions is kept.
+ * </p>
+ * <p>
+ * The reduced graph keeps every deadlock of the net, and its dead states are deadlocks of the net. Given
+ * visible places, it also keeps every reachable combination of their token counts: a set firing a
+ * transition that changes a visible place then holds all of them, and a state whose reduced successors
+ * include an already stored state is expanded fully, so that no transition is ignored forever.
+ * </p>
+ */
+public final class StubbornSetExplorer {
+
+    private final CompiledNet net;
+    private final MarkingPacker packer;
+    private final int[][] prePlaces;
+    private final int[][] preWeights;
+    private final int[][] emptyPlaces;
+    private final int[][] zeroPlaces;
+    private final int[][] increasers;
+    private final int[][] decreasers;
+    private final int[][] conflicts;
+
+    /**
+     * Creates an explorer for a net, deriving the dependencies between its transitions.
+     *
+     * @param net the compiled net
+     */
+    public StubbornSetExplorer(CompiledNet net) {
+        int nbTransitions = net.getTransitionCount();
+        int nbPlaces = net.getPlaceCount();
+        this.net = net;
+        this.packer = MarkingPacker.unbounded(nbPlaces);
+        this.prePlaces = new int[nbTransitions][];
+        this.preWeights = new int[nbTransitions][];
+        this.emptyPlaces = new int[nbTransitions][];
+        this.zeroPlaces = new int[nbTransitions][];
+        int[][] postPlaces = new int[nbTransitions][];
+        IntArray[] increasing = newLists(nbPlaces);
+        IntArray[] decreasing = newLists(nbPlaces);
+        IntArray[] resetting = newLists(nbPlaces);
+        IntArray[] testing = newLists(nbPlaces);
+        for (int t = 0; t < nbTransitions; ++t) {
+            prePlaces[t] = net.getPrePlaces(t);
+            preWeights[t] = net.getPreWeights(t);
+            emptyPlaces[t] = net.getEmptyPlaces(t);
+            zeroPlaces[t] = net.getZeroPlaces(t);
+            postPlaces[t] = net.getPostPlaces(t);
+            addTo(decreasing, prePlaces[t], t);
+            addTo(decreasing, emptyPlaces[t], t);
+            addTo(resetting, emptyPlaces[t], t);
+            addTo(testing, zeroPlaces[t], t);
+            addTo(increasing, postPlaces[t], t);
+        }
+        this.increasers = toArrays(increasing);
+        this.decreasers = toArrays(decreasing);
+        this.conflicts = new int[nbTransitions][];
+        for (int t = 0; t < nbTransitions; ++t) {
+            IntArray dependent = new IntArray();
+            addAll(dependent, decreasing, prePlaces[t]);
+            addAll(dependent, decreasing, emptyPlaces[t]);
+            addAll(dependent, increasing, emptyPlaces[t]);
+            addAll(dependent, increasing, zeroPlaces[t]);
+            addAll(dependent, testing, postPlaces[t]);
+            addAll(dependent, resetting, postPlaces[t]);
+            conflicts[t] = distinct(dependent.toArray());
+        }
+    }
+
+    private static IntArray[] newLists(int count) {
+        IntArray[] lists = new IntArray[count];
+        for (int i = 0; i < count; ++i) {
+            lists[i] = new IntArray();
+        }
+        return lists;
+    }
+
+    private static void addTo(IntArray[] lists, int[] places, int t) {
+        for (int p : places) {
+            lists[p].add(t);
+        }
+    }
+
+    private static void addAll(IntArray target, IntArray[] lists, int[] places) {
+        for (int p : places) {
+            for (int i = 0; i < lists[p].size(); ++i) {
+                target.add(lists[p].get(i));
+            }
+        }
+    }
+
+    private static int[][] toArrays(IntArray[] lists) {
+        int[][] arrays = new int[lists.length][];
+        for (int i = 0; i < lists.length; ++i) {
+            arrays[i] = distinct(lists[i].toArray());
+        }
+        return arrays;
+    }
+
+    private static int[] distinct(int[] values) {
+        if (values.length == 0) {
+            return values;
+        }
+        Arrays.sort(values);
+        int count = 1;
+        for (int i = 1; i < values.length; ++i) {
+            if (values[i] != values[count - 1]) {
+                values[count++] = values[i];
+            }
+        }
+        return Arrays.copyOf(values, count);
+    }
+
+    /**
+     * Explores a reduced state space from the current marking of the net, keeping its deadlocks.
+     *
+     * @param maxStates the largest number of states to store
+     * @return the reduced reachability graph, incomplete if {@code maxStates} was reached
+     * @throws IllegalArgumentException if {@code maxStates} is not positive
+     * @throws IllegalStateException    if a place exceeds {@link Integer#MAX_VALUE} tokens
+     */
+    public ReachabilityGraph explore(int maxStates) throws IllegalArgumentException, IllegalStateException {
+        return explore(maxStates, new int[0]);
+    }
+
+    /**
+     * Explores a reduced state space from the current marking of the net, keeping its deadlocks and every
+     * reachable combination of the token counts of the visible places.
+     *
+     * @param maxStates     the largest number of states to store
+     * @param visiblePlaces the indices of the places whose reachable token counts must be kept
+     * @return the reduced reachability graph, incomplete if {@code maxStates} was reached
+     * @throws IllegalArgumentException if {@code maxStates} is not positive, or a visible place doesn't exist
+     * @throws IllegalStateException    if a place exceeds {@link Integer#MAX_VALUE} tokens
+     */
+    public ReachabilityGraph explore(int maxStates, int[] visiblePlaces)
+            throws IllegalArgumentException, IllegalStateException {
+        if (maxStates <= 0) {
+            throw new IllegalArgumentException(String.format(
+                "StubbornSetExplorer.explore(%d, visiblePlaces) -- The argument maxStates must be positive.",
+                maxStates));
+        }
+        IntArray visible = new IntArray();
+        for (int p : visiblePlaces) {
+            if (p < 0 || p >= net.getPlaceCount()) {
+                throw new IllegalArgumentException(String.format(
+                    "StubbornSetExplorer.explore(%d, visiblePlaces) -- The visible place %d doesn't exist.",
+                    maxStates, p));
+            }
+            for (int t : increasers[p]) {
+                visible.add(t);
+            }
+            for (int t : decreasers[p]) {
+                visible.add(t);
+            }
+        }
+        Search search = new Search(maxStates, distinct(visible.toArray()), visiblePlaces.length > 0);
+        while (search.expanded < search.store.size() && search.expandNext()) {
+            ++search.expanded;
+        }
+        return search.toGraph();
+    }
+
+    /**
+     * State of one breadth-first search: the stored markings, the arcs found so far, the stubborn set
+     * being closed and the buffers.
+     */
+    private final class Search {
+
+        private final int maxStates;
+        private final int[] visibleChangers;
+        private final boolean proviso;
+        private final boolean[] visibleChanger;
+        private final MarkingStore store = new MarkingStore(packer.words());
+        private final long[] packed = new long[packer.words()];
+        private final int[] marking;
+        private final int[] next;
+        private final int[] enabled;
+        private final int[] enabledStamp;
+        private final int[] setStamp;
+        private final int[] bestSet;
+        private final IntArray work = new IntArray();
+        private final IntArray successorStart = new IntArray();
+        private final IntArray successorState = new IntArray();
+        private final IntArray successorTransition = new IntArray();
+        private boolean revisited;
+        private int enabledMark;
+        private int setMark;
+        private int expanded;
+
+        Search(int maxStates, int[] visibleChangers, boolean proviso) {
+            int nbTransitions = net.getTransitionCount();
+            this.maxStates = maxStates;
+            this.visibleChangers = visibleChangers;
+            this.proviso = proviso;
+            this.visibleChanger = new boolean[nbTransitions];
+            for (int t : visibleChangers) {
+                visibleChanger[t] = true;
+            }
+            this.marking = net.getMarking();
+            this.next = new int[marking.length];
+            this.enabled = new int[nbTransitions];
+            this.enabledStamp = new int[nbTransitions];
+            this.setStamp = new int[nbTransitions];
+            this.bestSet = new int[nbTransitions];
+            packer.pack(marking, packed, 0);
+            store.add(packed, 0);
+        }
+
+        /**
+         * Appends the successors of the next state of the queue through its stubborn set.
+         *
+         * @return {@code false} if a new state was found while the store already holds
+         *         {@code maxStates} states; the state then stays unexpanded
+         */
+        boolean expandNext() {
+            int firstArc = successorState.size();
+            store.get(expanded, packed, 0);
+            packer.unpack(packed, 0, marking);
+            int nbEnabled = net.enabled(marking, enabled);
+            int nbFired = nbEnabled == 0 ? 0 : stubbornSet(nbEnabled);
+            revisited = false;
+            for (int i = 0; i < nbFired; ++i) {
+                if (!fire(bestSet[i])) {
+                    return abort(firstArc);
+                }
+            }
+            if (proviso && revisited && nbFired < nbEnabled) {
+                successorState.truncate(firstArc);
+                successorTransition.truncate(firstArc);
+                for (int i = 0; i < nbEnabled; ++i) {
+                    if (!fire(enabled[i])) {
+                        return abort(firstArc);
+                    }
+                }
+            }
+            successorStart.add(firstArc);
+            return true;
+        }
+
+        private boolean abort(int firstArc) {
+            successorState.truncate(firstArc);
+            successorTransition.truncate(firstArc);
+            return false;
+        }
+
+        /**
+         * Fires a transition from the state being expanded and appends the arc, noting in
+         * {@code revisited} whether the result was already stored.
+         *
+         * @return {@code false} if the result is a new state and the store is full
+         */
+        private boolean fire(int t) {
+            System.arraycopy(marking, 0, next, 0, marking.length);
+            net.fire(t, next);
+            packer.pack(next, packed, 0);
+            int target = store.indexOf(packed, 0);
+            if (target >= 0) {
+                revisited = true;
+            } else {
+                if (store.size() == maxStates) {
+                    return false;
+                }
+                target = store.add(packed, 0);
+            }
+            successorState.add(target);
+            successorTransition.add(t);
+            return true;
+        }
+
+        /**
+         * Computes a stubborn set from every enabled seed, keeping in {@code bestSet} the enabled
+         * transitions of the smallest one.
+         *
+         * @return the number of enabled transitions in {@code bestSet}
+         */
+        private int stubbornSet(int nbEnabled) {
+            ++enabledMark;
+            for (int i = 0; i < nbEnabled; ++i) {
+                enabledStamp[enabled[i]] = enabledMark;
+            }
+            int best = nbEnabled;
+            System.arraycopy(enabled, 0, bestSet, 0, nbEnabled);
+            for (int i = 0; i < nbEnabled && best > 1; ++i) {
+                ++setMark;
+                int size = close(enabled[i], best);
+                if (size < best) {
+                    best = size;
+                    int count = 0;
+                    for (int j = 0; j < nbEnabled; ++j) {
+                        if (setStamp[enabled[j]] == setMark) {
+                            bestSet[count++] = enabled[j];
+                        }
+                    }
+                }
+            }
+            return best;
+        }
+
+        /**
+         * Closes the stubborn set of a seed under conditions D1 and D2, and under the visibility condition
+         * when some places are visible.
+         *
+         * @return the number of enabled transitions of the set, or {@code limit} if it reached it
+         */
+        private int close(int seed, int limit) {
+            int size = 0;
+            boolean visibleAdded = false;
+            work.truncate(0);
+            include(seed);
+            while (work.size() > 0) {
+                int t = work.removeLast();
+                if (enabledStamp[t] == enabledMark) {
+                    if (++size >= limit) {
+                        return limit;
+                    }
+                    includeAll(conflicts[t]);
+                    if (visibleChanger[t] && !visibleAdded) {
+                        visibleAdded = true;
+                        includeAll(visibleChangers);
+                    }
+                } else {
+                    includeAll(scapegoat(t));
+                }
+            }
+            return size;
+        }
+
+        private void include(int t) {
+            if (setStamp[t] != setMark) {
+                setStamp[t] = setMark;
+                work.add(t);
+            }
+        }
+
+        private void includeAll(int[] transitions) {
+            for (int t : transitions) {
+                include(t);
+            }
+        }
+
+        /**
+         * Returns the transitions that can fix the cheapest place disabling a transition: the producers of
+         * a place lacking tokens, or the consumers of a place tested for zero.
+         */
+        private int[] scapegoat(int t) {
+            int[] best = null;
+            for (int i = 0; i < prePlaces[t].length; ++i) {
+                int p = prePlaces[t][i];
+                if (marking[p] < preWeights[t][i] && (best == null || increasers[p].length < best.length)) {
+                    best = increasers[p];
+                }
+            }
+            for (int p : emptyPlaces[t]) {
+                if (marking[p] == 0 && (best == null || increasers[p].length < best.length)) {
+                    best = increasers[p];
+                }
+            }
+            for (int p : zeroPlaces[t]) {
+                if (marking[p] != 0 && (best == null || decreasers[p].length < best.length)) {
+                    best = decreasers[p];
+                }
+            }
+            return best;
+        }
+
+        ReachabilityGraph toGraph() {
+            int[] start = new int[store.size() + 1];
+            for (int s = 0; s < expanded; ++s) {
+                start[s] = successorStart.get(s);
+            }
+            for (int s = expanded; s <= store.size(); ++s) {
+                start[s] = successorState.size();
+            }
+            return new ReachabilityGraph(packer, store, start, successorState.toArray(),
+                successorTransition.toArray(), expanded);
+        }
+    }
+}
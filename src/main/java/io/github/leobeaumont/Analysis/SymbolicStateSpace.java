@@ -0,0 +1,95 @@
+package io.github.leobeaumont.Analysis;
+
+import java.math.BigInteger;
+
+/**
+ * Reachable markings of a Petri net, encoded symbolically by a {@link SaturationExplorer} as a decision
+ * diagram, together with its dead markings.
+ * <p>
+ * The sets are never enumerated: counting markings walks the nodes of the diagram once, so nets with far
+ * more markings than fit in memory can still be counted and queried.
+ * </p>
+ */
+public final class SymbolicStateSpace {
+
+    private final MddForest forest;
+    private final int nbPlaces;
+    private final int reachable;
+    private final int dead;
+
+    /**
+     * Creates a state space from the roots of its sets.
+     *
+     * @param forest    the node table holding the sets
+     * @param nbPlaces  the number of places, which is the number of levels of the sets
+     * @param reachable the root of the reachable markings
+     * @param dead      the root of the reachable markings where no transition is enabled
+     */
+    SymbolicStateSpace(MddForest forest, int nbPlaces, int reachable, int dead) {
+        this.forest = forest;
+        this.nbPlaces = nbPlaces;
+        this.reachable = reachable;
+        this.dead = dead;
+    }
+
+    /**
+     * Returns the number of reachable markings.
+     *
+     * @return the number of reachable markings, the initial one included
+     */
+    public BigInteger getStateCount() {
+        return forest.count(reachable);
+    }
+
+    /**
+     * Returns the number of decision diagram nodes encoding the reachable markings.
+     *
+     * @return the number of nodes, terminals excluded
+     */
+    public int getNodeCount() {
+        return forest.nodeCount(reachable);
+    }
+
+    /**
+     * Tests whether a marking is reachable.
+     *
+     * @param marking the marking, indexed by place
+     * @return {@code true} if the marking is reachable
+     * @throws IllegalArgumentException if the number of places of the marking doesn't match the net
+     */
+    public boolean contains(int[] marking) throws IllegalArgumentException {
+        if (marking.length != nbPlaces) {
+            throw new IllegalArgumentException(String.format(
+                "SymbolicStateSpace.contains(marking) -- The argument marking has %d places instead of %d.",
+                marking.length, nbPlaces));
+        }
+        return forest.contains(reachable, marking);
+    }
+
+    /**
+     * Tests whether a reachable marking enables no transition.
+     *
+     * @return {@code true} if the net can deadlock
+     */
+    public boolean hasDeadlock() {
+        return dead != MddForest.EMPTY;
+    }
+
+    /**
+     * Returns the number of reachable markings where no transition is enabled.
+     *
+     * @return the number of dead markings
+     */
+    public BigInteger getDeadlockCount() {
+        return forest.count(dead);
+    }
+
+    /**
+     * Returns a reachable marking where no transition is enabled.
+     *
+     * @return a dead marking, indexed by place, or {@code null} if there is none
+     */
+    public int[] getDeadlockMarking() {
+        return hasDeadlock() ? forest.pick(dead, nbPlaces) : null;
+    }
+}
@@ -1,5 +1,7 @@
 package io.github.leobeaumont.Edges;
 
+import io.github.leobeaumont.Nodes.Node;
+
 /**
  * Represents a directed connection between a {@code Place} and a {@code Transition}.
  * <p>
@@ -15,6 +17,9 @@ package io.github.leobeaumont.Edges;
  */
 public abstract class Edge {
 
+    private int id = -1;
+    private StructureListener structureListener;
+
     /**
      * Activates this edge.
      * <p>
@@ -24,4 +29,62 @@ public abstract class Edge {
      */
    
     public abstract void activate();
+
+    /**
+     * Disconnects this edge from both its nodes.
+     * <p>
+     * Both endpoints are set to {@code null}, and the nodes are informed
+     * that they lost this edge.
+     * </p>
+     */
+    public abstract void detach();
+
+    /**
+     * Returns the position of this edge in the edge list of the net owning it.
+     *
+     * @return the identifier, or {@code -1} if none was assigned
+     */
+    public int getId() {
+        return id;
+    }
+
+    /**
+     * Sets the identifier of this edge.
+     * <p>
+     * This method is meant to be called by the net owning the edge.
+     * </p>
+     *
+     * @param id the identifier to set
+     */
+    public void setId(int id) {
+        this.id = id;
+    }
+
+    /**
+     * Sets the listener informed whenever the origin, arrival or weight of this edge is set.
+     * <p>
+     * This method is meant to be called by the net owning the edge; an edge informs only the
+     * last listener set.
+     * </p>
+     *
+     * @param listener the listener, or {@code null} for none
+     */
+    public void setStructureListener(StructureListener listener) {
+        this.structureListener = listener;
+    }
+
+    /**
+     * Records that an endpoint or the weight of this edge changed.
+     * <p>
+     * Subclasses call it once the new value is set and the nodes were informed.
+     * </p>
+     *
+     * @param previousOrigin  the origin of this edge before the change
+     * @param previousArrival the arrival of this edge before the change
+     */
+    protected void structureChanged(Node previousOrigin, Node previousArrival) {
+        if (structureListener != null) {
+            structureListener.structureChanged(this, previousOrigin, previousArrival);
+        }
+    }
 }
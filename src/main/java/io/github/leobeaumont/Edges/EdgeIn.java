@@ -56,11 +56,29 @@ public abstract class EdgeIn extends Edge {
 
     /**
      * Sets the origin {@link Place} of this edge.
+     * <p>
+     * This method automatically updates the connections of both the
+     * previous and new {@link Place} instances to maintain consistency.
+     * </p>
      *
      * @param origin the {@link Place} to set as the origin
      */
     public void setOrigin(Place origin) {
+        Place previous = this.origin;
+
+        // Inform previous origin it lost an EdgeIn
+        if (this.origin != null) {
+            this.origin.removeEdgeIn(this);
+        }
+
         this.origin = origin;
+
+        // Inform new origin it has a new EdgeIn
+        if (origin != null) {
+            origin.newEdgeIn(this);
+        }
+
+        structureChanged(previous, this.arrival);
     }
 
     /**
@@ -82,6 +100,8 @@ public abstract class EdgeIn extends Edge {
      * @param arrival the {@link Transition} to set as the arrival
      */
     public void setArrival(Transition arrival) {
+        Transition previous = this.arrival;
+
         // Inform previous arrival it lost an EdgeIn
         if (this.arrival != null) {
             this.arrival.removeEdgeIn(this);
@@ -90,6 +110,18 @@ public abstract class EdgeIn extends Edge {
         this.arrival = arrival;
 
         // Inform new arrival it has a new EdgeIn
-        arrival.newEdgeIn(this);
+        if (arrival != null) {
+            arrival.newEdgeIn(this);
+        }
+
+        structureChanged(this.origin, previous);
+    }
+
+    /**
+     * Disconnects this edge from its origin {@link Place} and arrival {@link Transition}.
+     */
+    public void detach() {
+        this.setOrigin(null);
+        this.setArrival(null);
     }
 }
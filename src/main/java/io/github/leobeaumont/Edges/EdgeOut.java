@@ -52,6 +52,8 @@ public abstract class EdgeOut extends Edge {
      * @param origin the {@link Transition} to set as the origin
      */
     public void setOrigin(Transition origin) {
+        Transition previous = this.origin;
+
         // Inform previous origin it lost an EdgeOut
         if (this.origin != null) {
             this.origin.removeEdgeOut(this);
@@ -60,7 +62,11 @@ public abstract class EdgeOut extends Edge {
         this.origin = origin;
 
         // Inform new origin it has a new EdgeOut
-        origin.newEdgeOut(this);
+        if (origin != null) {
+            origin.newEdgeOut(this);
+        }
+
+        structureChanged(previous, this.arrival);
     }
 
     /**
@@ -74,10 +80,36 @@ public abstract class EdgeOut extends Edge {
 
     /**
      * Sets the arrival {@link Place} of this edge.
+     * <p>
+     * This method automatically updates the connections of both the
+     * previous and new {@link Place} instances to maintain consistency.
+     * </p>
      *
      * @param arrival the {@link Place} to set as the arrival
      */
     public void setArrival(Place arrival) {
+        Place previous = this.arrival;
+
+        // Inform previous arrival it lost an EdgeOut
+        if (this.arrival != null) {
+            this.arrival.removeEdgeOut(this);
+        }
+
         this.arrival = arrival;
+
+        // Inform new arrival it has a new EdgeOut
+        if (arrival != null) {
+            arrival.newEdgeOut(this);
+        }
+
+        structureChanged(this.origin, previous);
+    }
+
+    /**
+     * Disconnects this edge from its origin {@link Transition} and arrival {@link Place}.
+     */
+    public void detach() {
+        this.setOrigin(null);
+        this.setArrival(null);
     }
 }
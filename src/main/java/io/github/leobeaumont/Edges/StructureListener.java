@@ -0,0 +1,28 @@
+package io.github.leobeaumont.Edges;
+
+import io.github.leobeaumont.Nodes.Node;
+
+/**
+ * Receives the structural changes of the edges it is registered on.
+ * <p>
+ * A Petri net registers a listener on its edges to learn when one of them is reconnected,
+ * so that only that net drops what it derived from its structure.
+ * </p>
+ */
+public interface StructureListener {
+
+    /**
+     * Called after the origin, the arrival or the weight of an edge changed, once the edge and
+     * its nodes are consistent again.
+     * <p>
+     * The edge already has its new endpoints; the endpoints it had before the change are
+     * given, so that anything keyed on them can be found again. They are the current ones
+     * when only the weight changed.
+     * </p>
+     *
+     * @param edge            the reconnected edge
+     * @param previousOrigin  the origin of the edge before the change, possibly {@code null}
+     * @param previousArrival the arrival of the edge before the change, possibly {@code null}
+     */
+    void structureChanged(Edge edge, Node previousOrigin, Node previousArrival);
+}
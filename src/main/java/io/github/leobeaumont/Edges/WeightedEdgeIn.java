@@ -86,10 +86,14 @@ public class WeightedEdgeIn extends EdgeIn {
 
     /**
      * Sets the weight of this edge.
+     * <p>
+     * A change of weight is a structural change: the listener of the edge is informed.
+     * </p>
      *
      * @param weight the weight to set
      */
     public void setWeight(int weight) {
         this.weight = weight;
+        structureChanged(this.getOrigin(), this.getArrival());
     }
 }
@@ -70,10 +70,14 @@ public class WeightedEdgeOut extends EdgeOut {
 
     /**
      * Sets the weight of this edge.
+     * <p>
+     * A change of weight is a structural change: the listener of the edge is informed.
+     * </p>
      *
      * @param weight the weight to set
      */
     public void setWeight(int weight) {
         this.weight = weight;
+        structureChanged(this.getOrigin(), this.getArrival());
     }
 }
@@ -0,0 +1,1281 @@
+package io.github.leobeaumont.Engine;
+
+import io.github.leobeaumont.Edges.EdgeEmpty;
+import io.github.leobeaumont.Edges.EdgeIn;
+import io.github.leobeaumont.Edges.EdgeOut;
+import io.github.leobeaumont.Edges.EdgeZero;
+import io.github.leobeaumont.Edges.WeightedEdgeIn;
+import io.github.leobeaumont.Edges.WeightedEdgeOut;
+import io.github.leobeaumont.Nodes.Node;
+import io.github.leobeaumont.Nodes.Place;
+import io.github.leobeaumont.Nodes.Transition;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Flat, array-based simulation engine compiled from a Petri net.
+ * <p>
+ * A {@code CompiledNet} replaces the object graph of a net (places, transitions and edges)
+ * with an {@code int[]} marking and CSR-packed arc tables: for every transition {@code t},
+ * its arcs of a given kind are stored in the index range {@code [start[t], start[t + 1])}
+ * of the matching place and weight arrays. Four kinds of arcs are kept:
+ * </p>
+ * <ul>
+ *   <li>{@code pre}: {@link WeightedEdgeIn}, enabled if the place holds at least the weight,
+ *       firing removes the weight;</li>
+ *   <li>{@code post}: {@link WeightedEdgeOut}, firing adds the weight;</li>
+ *   <li>{@code empty}: {@link EdgeEmpty}, enabled if the place holds a token,
+ *       firing empties the place;</li>
+ *   <li>{@code zero}: {@link EdgeZero}, enabled if the place holds no token.</li>
+ * </ul>
+ * <p>
+ * Firing applies the incoming arcs before the outgoing ones, exactly like
+ * {@link Transition#draw()}. The structure is immutable once compiled; only the marking changes.
+ * Use {@link #writeBack()} to copy the marking back to the {@link Place} objects.
+ * </p>
+ */
+public final class CompiledNet {
+
+    // Position of each kind of arcs in the tables given to the constructor
+    private static final int PRE = 0;
+    private static final int POST = 1;
+    private static final int EMPTY = 2;
+    private static final int ZERO = 3;
+
+    private final Place[] places;
+    private final Transition[] transitions;
+
+    private final int[] currentMarking;
+    private final double[] rates;
+    private final double[] minDelays;
+    private final double[] maxDelays;
+    private final int[] priorities;
+    private final double[] weights;
+
+    private final int[] preStart;
+    private final int[] prePlace;
+    private final int[] preWeight;
+    private final int[] postStart;
+    private final int[] postPlace;
+    private final int[] postWeight;
+    private final int[] emptyStart;
+    private final int[] emptyPlace;
+    private final int[] zeroStart;
+    private final int[] zeroPlace;
+
+    private final int[] readerStart;
+    private final int[] readers;
+
+    // Indices of the nodes whose identifier isn't their index, built at the first lookup of one of them
+    private volatile Map<Node, Integer> placeIndex;
+    private volatile Map<Node, Integer> transitionIndex;
+
+    private CompiledNet(Place[] places, Transition[] transitions, int[] marking, ArcTable[] arcs) {
+        this.places = places;
+        this.transitions = transitions;
+        this.currentMarking = marking;
+        this.rates = new double[transitions.length];
+        this.minDelays = new double[transitions.length];
+        this.maxDelays = new double[transitions.length];
+        this.priorities = new int[transitions.length];
+        this.weights = new double[transitions.length];
+        for (int t = 0; t < transitions.length; ++t) {
+            if (transitions[t] != null) {
+                this.rates[t] = transitions[t].getRate();
+                this.minDelays[t] = transitions[t].getMinDelay();
+                this.maxDelays[t] = transitions[t].getMaxDelay();
+                this.priorities[t] = transitions[t].getPriority();
+                this.weights[t] = transitions[t].getWeight();
+            } else {
+                this.rates[t] = Transition.DEFAULT_RATE;
+                this.weights[t] = Transition.DEFAULT_WEIGHT;
+            }
+        }
+
+        ArcTable pre = arcs[PRE];
+        ArcTable post = arcs[POST];
+        ArcTable empty = arcs[EMPTY];
+        ArcTable zero = arcs[ZERO];
+        this.preStart = pre.start;
+        this.prePlace = pre.place;
+        this.preWeight = pre.weight;
+        this.postStart = post.start;
+        this.postPlace = post.place;
+        this.postWeight = post.weight;
+        this.emptyStart = empty.start;
+        this.emptyPlace = empty.place;
+        this.zeroStart = zero.start;
+        this.zeroPlace = zero.place;
+
+        // Reverse index: for every place, the transitions whose enabling depends on it
+        this.readerStart = new int[places.length + 1];
+        ArcTable[] reads = {pre, empty, zero};
+        for (ArcTable table : reads) {
+            for (int p : table.place) {
+                ++readerStart[p + 1];
+            }
+        }
+        for (int p = 1; p <= places.length; ++p) {
+            readerStart[p] += readerStart[p - 1];
+        }
+        this.readers = new int[readerStart[places.length]];
+        int[] cursor = Arrays.copyOf(readerStart, places.length);
+        for (ArcTable table : reads) {
+            table.fillReaders(readers, cursor);
+        }
+    }
+
+    /**
+     * Compiles the places and transitions of a Petri net into a flat engine.
+     * <p>
+     * Places are numbered in the order of {@code places}; places that are only reachable through
+     * the edges of a transition are appended after them. Transitions are numbered in the order of
+     * {@code transitions}. The arcs are read from each transition's
+     * {@link Transition#getEdgesIn()} and {@link Transition#getEdgesOut()} lists, which are the ones
+     * used by {@link Transition#draw()}.
+     * </p>
+     * <p>
+     * The index of a listed place is its identifier, so a place is found in O(1) when its identifier
+     * matches its position, as after {@code IPretriNet.compile()}. Places with another identifier,
+     * such as unlisted places, are looked up in an identity map built at the first of them.
+     * </p>
+     *
+     * @param places      the places of the net
+     * @param transitions the transitions of the net
+     * @return the compiled engine, whose marking is a copy of the current tokens of the places
+     * @throws IllegalStateException if an edge of a transition is not connected to a place
+     * @throws IllegalArgumentException if an edge type is not supported
+     */
+    public static CompiledNet compile(List<Place> places, List<Transition> transitions)
+            throws IllegalStateException, IllegalArgumentException {
+        PlaceOrder order = new PlaceOrder(places.size());
+        for (Place place : places) {
+            order.register(place);
+        }
+
+        List<Transition> transitionList = transitions;
+        int nbTransitions = transitionList.size();
+        ArcTable pre = new ArcTable(nbTransitions);
+        ArcTable post = new ArcTable(nbTransitions);
+        ArcTable empty = new ArcTable(nbTransitions);
+        ArcTable zero = new ArcTable(nbTransitions);
+
+        // First pass: count the arcs of every kind and number the unlisted places
+        for (int t = 0; t < nbTransitions; ++t) {
+            Transition transition = transitionList.get(t);
+            for (EdgeIn edge : transition.getEdgesIn()) {
+                order.register(edge.getOrigin());
+                kindOf(edge, pre, empty, zero).count(t);
+            }
+            for (EdgeOut edge : transition.getEdgesOut()) {
+                order.register(edge.getArrival());
+                kindOf(edge, post).count(t);
+            }
+        }
+
+        pre.allocate();
+        post.allocate();
+        empty.allocate();
+        zero.allocate();
+
+        // Second pass: fill the CSR tables
+        for (int t = 0; t < nbTransitions; ++t) {
+            Transition transition = transitionList.get(t);
+            for (EdgeIn edge : transition.getEdgesIn()) {
+                int p = order.positionOf(edge.getOrigin());
+                int weight = edge instanceof WeightedEdgeIn ? ((WeightedEdgeIn) edge).getWeight() : 0;
+                kindOf(edge, pre, empty, zero).put(t, p, weight);
+            }
+            for (EdgeOut edge : transition.getEdgesOut()) {
+                int p = order.positionOf(edge.getArrival());
+                kindOf(edge, post).put(t, p, ((WeightedEdgeOut) edge).getWeight());
+            }
+        }
+
+        Place[] placeArray = order.toArray();
+        int[] marking = new int[placeArray.length];
+        for (int p = 0; p < placeArray.length; ++p) {
+            marking[p] = placeArray[p].getNbTokens();
+        }
+
+        Transition[] transitionArray = transitionList.toArray(new Transition[nbTransitions]);
+        return new CompiledNet(placeArray, transitionArray, marking, new ArcTable[] {pre, post, empty, zero});
+    }
+
+    /**
+     * Creates an engine directly from arc arrays, without any {@link Place} or {@link Transition} object.
+     * <p>
+     * Every kind of arc is given as {@code {transitions, places, weights}}: the {@code i}-th arc connects
+     * {@code transitions[i]} and {@code places[i]} with weight {@code weights[i]}. The weights are
+     * ignored (and may be omitted) for empty and zero arcs. The arrays are trusted: indices must be in
+     * range and weights non-negative. Since there is no place object, {@link #writeBack()} does nothing
+     * and {@link #getPlace(int)} returns {@code null}.
+     * </p>
+     *
+     * @param marking       the initial marking, indexed by place (not copied)
+     * @param nbTransitions the number of transitions
+     * @param pre           the weighted incoming arcs
+     * @param post          the weighted outgoing arcs
+     * @param empty         the empty arcs
+     * @param zero          the zero arcs
+     * @return the engine
+     */
+    public static CompiledNet fromArcs(int[] marking, int nbTransitions,
+                                       int[][] pre, int[][] post, int[][] empty, int[][] zero) {
+        ArcTable[] arcs = {
+            ArcTable.of(nbTransitions, pre),
+            ArcTable.of(nbTransitions, post),
+            ArcTable.of(nbTransitions, empty),
+            ArcTable.of(nbTransitions, zero),
+        };
+        return new CompiledNet(new Place[marking.length], new Transition[nbTransitions], marking, arcs);
+    }
+
+    private static ArcTable kindOf(EdgeIn edge, ArcTable pre, ArcTable empty, ArcTable zero) {
+        if (edge instanceof WeightedEdgeIn) {
+            return pre;
+        } else if (edge instanceof EdgeEmpty) {
+            return empty;
+        } else if (edge instanceof EdgeZero) {
+            return zero;
+        }
+        throw new IllegalArgumentException(String.format(
+            "CompiledNet.compile(places, transitions) -- The edge type (%s) is not supported.",
+            edge.getClass().getSimpleName()));
+    }
+
+    private static ArcTable kindOf(EdgeOut edge, ArcTable post) {
+        if (edge instanceof WeightedEdgeOut) {
+            return post;
+        }
+        throw new IllegalArgumentException(String.format(
+            "CompiledNet.compile(places, transitions) -- The edge type (%s) is not supported.",
+            edge.getClass().getSimpleName()));
+    }
+
+    /**
+     * Determines whether a transition can be drawn in the current marking.
+     *
+     * @param t the index of the transition
+     * @return {@code true} if every incoming arc of the transition is activable
+     */
+    public boolean isEnabled(int t) {
+        return isEnabled(t, this.currentMarking);
+    }
+
+    /**
+     * Determines whether a transition can be drawn in the given marking.
+     * <p>
+     * This method only reads the compiled structure, so it can be called concurrently on
+     * distinct markings.
+     * </p>
+     *
+     * @param t       the index of the transition
+     * @param marking the marking to test, indexed by place
+     * @return {@code true} if every incoming arc of the transition is activable
+     */
+    public boolean isEnabled(int t, int[] marking) {
+        for (int a = preStart[t], end = preStart[t + 1]; a < end; ++a) {
+            if (marking[prePlace[a]] < preWeight[a]) {
+                return false;
+            }
+        }
+        for (int a = emptyStart[t], end = emptyStart[t + 1]; a < end; ++a) {
+            if (marking[emptyPlace[a]] <= 0) {
+                return false;
+            }
+        }
+        for (int a = zeroStart[t], end = zeroStart[t + 1]; a < end; ++a) {
+            if (marking[zeroPlace[a]] != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Determines whether a transition can be drawn in a shared marking.
+     * <p>
+     * Every place is read once; the caller must prevent concurrent changes of the places of the
+     * transition for the result to be exact.
+     * </p>
+     */
+    boolean isEnabled(int t, AtomicIntegerArray marking) {
+        for (int a = preStart[t], end = preStart[t + 1]; a < end; ++a) {
+            if (marking.get(prePlace[a]) < preWeight[a]) {
+                return false;
+            }
+        }
+        for (int a = emptyStart[t], end = emptyStart[t + 1]; a < end; ++a) {
+            if (marking.get(emptyPlace[a]) <= 0) {
+                return false;
+            }
+        }
+        for (int a = zeroStart[t], end = zeroStart[t + 1]; a < end; ++a) {
+            if (marking.get(zeroPlace[a]) != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the enabling degree of a transition in the current marking.
+     *
+     * @param t the index of the transition
+     * @return the number of times the transition can be drawn in a row
+     * @see #enablingDegree(int, int[])
+     */
+    public int enablingDegree(int t) {
+        return enablingDegree(t, this.currentMarking);
+    }
+
+    /**
+     * Returns the enabling degree of a transition: the number of times it can be drawn in a row,
+     * computed in O(arcs) from its arcs and the given marking.
+     * <p>
+     * A weighted arc of weight {@code w} from a place holding {@code m} tokens, to which the
+     * transition gives back {@code o} tokens, allows {@code 1 + (m - w) / (w - o)} firings when
+     * {@code m >= w}. An empty arc allows one firing, since the place is then empty, unless the
+     * transition refills it; a zero arc allows one firing if the transition fills the place, and
+     * any number otherwise.
+     * </p>
+     *
+     * @param t       the index of the transition
+     * @param marking the marking to test
+     * @return the enabling degree, {@code 0} if the transition is disabled, or {@link Integer#MAX_VALUE}
+     *         if no arc bounds the number of firings
+     */
+    public int enablingDegree(int t, int[] marking) {
+        long degree = Integer.MAX_VALUE;
+        for (int a = preStart[t], end = preStart[t + 1]; a < end; ++a) {
+            int p = prePlace[a];
+            long consumed = preWeight[a] - outputWeight(t, p);
+            if (marking[p] < preWeight[a]) {
+                return 0;
+            } else if (consumed > 0) {
+                degree = Math.min(degree, 1 + (marking[p] - preWeight[a]) / consumed);
+            }
+        }
+        for (int a = emptyStart[t], end = emptyStart[t + 1]; a < end; ++a) {
+            int p = emptyPlace[a];
+            if (marking[p] <= 0) {
+                return 0;
+            } else if (outputWeight(t, p) == 0) {
+                degree = 1;
+            }
+        }
+        for (int a = zeroStart[t], end = zeroStart[t + 1]; a < end; ++a) {
+            int p = zeroPlace[a];
+            if (marking[p] != 0) {
+                return 0;
+            } else if (outputWeight(t, p) > 0) {
+                degree = 1;
+            }
+        }
+        return (int) degree;
+    }
+
+    /**
+     * Returns the total weight of the outgoing arcs from a transition to a place.
+     */
+    private long outputWeight(int t, int p) {
+        long weight = 0;
+        for (int a = postStart[t], end = postStart[t + 1]; a < end; ++a) {
+            if (postPlace[a] == p) {
+                weight += postWeight[a];
+            }
+        }
+        return weight;
+    }
+
+    /**
+     * Returns the total weight of the weighted incoming arcs from a place to a transition.
+     */
+    private long inputWeight(int t, int p) {
+        long weight = 0;
+        for (int a = preStart[t], end = preStart[t + 1]; a < end; ++a) {
+            if (prePlace[a] == p) {
+                weight += preWeight[a];
+            }
+        }
+        return weight;
+    }
+
+    /**
+     * Tests whether a place is the origin of an empty arc of a transition.
+     */
+    private boolean isEmptied(int t, int p) {
+        for (int a = emptyStart[t], end = emptyStart[t + 1]; a < end; ++a) {
+            if (emptyPlace[a] == p) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Tests whether a place is the origin of a weighted incoming or an empty arc of a transition.
+     */
+    private boolean isConsumed(int t, int p) {
+        for (int a = preStart[t], end = preStart[t + 1]; a < end; ++a) {
+            if (prePlace[a] == p) {
+                return true;
+            }
+        }
+        for (int a = emptyStart[t], end = emptyStart[t + 1]; a < end; ++a) {
+            if (emptyPlace[a] == p) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Fires a transition on the current marking.
+     *
+     * @param t the index of the transition
+     * @throws IllegalArgumentException if the transition can't be drawn
+     */
+    public void fire(int t) throws IllegalArgumentException {
+        if (!isEnabled(t)) {
+            throw new IllegalArgumentException(String.format(
+                "CompiledNet.fire(%d) -- The transition can't be drawn.", t));
+        }
+        fire(t, this.currentMarking);
+    }
+
+    /**
+     * Fires a transition on the given marking, without checking that it is enabled.
+     *
+     * @param t       the index of the transition
+     * @param marking the marking to update, indexed by place
+     * @throws IllegalStateException if the number of tokens of a place would exceed {@link Integer#MAX_VALUE};
+     *                               the marking is then left partially updated
+     */
+    public void fire(int t, int[] marking) throws IllegalStateException {
+        for (int a = preStart[t], end = preStart[t + 1]; a < end; ++a) {
+            marking[prePlace[a]] -= preWeight[a];
+        }
+        for (int a = emptyStart[t], end = emptyStart[t + 1]; a < end; ++a) {
+            marking[emptyPlace[a]] = 0;
+        }
+        for (int a = postStart[t], end = postStart[t + 1]; a < end; ++a) {
+            marking[postPlace[a]] = addTokens(marking[postPlace[a]], postWeight[a], postPlace[a], "CompiledNet.fire");
+        }
+    }
+
+    /**
+     * Fires a transition several times in a row on the current marking.
+     *
+     * @param t     the index of the transition
+     * @param times the number of firings
+     * @throws IllegalArgumentException if {@code times} is negative or exceeds the enabling degree
+     * @throws IllegalStateException    if the number of tokens of a place would exceed {@link Integer#MAX_VALUE}
+     * @see #fire(int, int, int[])
+     */
+    public void fire(int t, int times) throws IllegalArgumentException, IllegalStateException {
+        fire(t, times, this.currentMarking);
+    }
+
+    /**
+     * Fires a transition several times in a row on the given marking, in a single pass over its arcs.
+     * <p>
+     * Instead of testing and firing the transition {@code times} times, every place is updated once
+     * with the total effect of the firings: a place consumed by a weighted arc of weight {@code w}
+     * and refilled with {@code o} tokens changes by {@code times * (o - w)}, a place emptied by an
+     * empty arc ends with {@code o} tokens, and any other output place gains {@code times * o} tokens.
+     * </p>
+     *
+     * @param t       the index of the transition
+     * @param times   the number of firings, at most {@link #enablingDegree(int, int[])}
+     * @param marking the marking to update, indexed by place
+     * @throws IllegalArgumentException if {@code times} is negative or exceeds the enabling degree
+     * @throws IllegalStateException    if the number of tokens of a place would exceed {@link Integer#MAX_VALUE};
+     *                                  the marking is then left partially updated
+     */
+    public void fire(int t, int times, int[] marking) throws IllegalArgumentException, IllegalStateException {
+        if (times < 0 || times > enablingDegree(t, marking)) {
+            throw new IllegalArgumentException(String.format(
+                "CompiledNet.fire(%d, %d, marking) -- The transition can't be drawn %d times.", t, times, times));
+        }
+        if (times == 0) {
+            return;
+        }
+        for (int a = preStart[t], end = preStart[t + 1]; a < end; ++a) {
+            int p = prePlace[a];
+            long change = times * (outputWeight(t, p) - preWeight[a]);
+            marking[p] = checkedTokens(marking[p] + change, marking[p], change, p, "CompiledNet.fire");
+        }
+        for (int a = emptyStart[t], end = emptyStart[t + 1]; a < end; ++a) {
+            int p = emptyPlace[a];
+            marking[p] = checkedTokens(outputWeight(t, p), 0, outputWeight(t, p), p, "CompiledNet.fire");
+        }
+        for (int a = postStart[t], end = postStart[t + 1]; a < end; ++a) {
+            int p = postPlace[a];
+            if (!isConsumed(t, p)) {
+                long change = (long) times * postWeight[a];
+                marking[p] = checkedTokens(marking[p] + change, marking[p], change, p, "CompiledNet.fire");
+            }
+        }
+    }
+
+    /**
+     * Fires a transition on a shared marking, without checking that it is enabled.
+     * <p>
+     * Every output place is checked before the marking is changed, so a failing firing leaves it
+     * unchanged; the caller must prevent concurrent changes of the places of the transition.
+     * </p>
+     *
+     * @param caller the method firing the transition, for the error message
+     * @throws IllegalStateException if the number of tokens of a place would exceed {@link Integer#MAX_VALUE}
+     */
+    void fire(int t, AtomicIntegerArray marking, String caller) throws IllegalStateException {
+        for (int a = postStart[t], end = postStart[t + 1]; a < end; ++a) {
+            int p = postPlace[a];
+            long remaining = isEmptied(t, p) ? 0 : marking.get(p) - inputWeight(t, p);
+            checkedTokens(remaining + postWeight[a], (int) remaining, postWeight[a], p, caller);
+        }
+        for (int a = preStart[t], end = preStart[t + 1]; a < end; ++a) {
+            marking.addAndGet(prePlace[a], -preWeight[a]);
+        }
+        for (int a = emptyStart[t], end = emptyStart[t + 1]; a < end; ++a) {
+            marking.set(emptyPlace[a], 0);
+        }
+        for (int a = postStart[t], end = postStart[t + 1]; a < end; ++a) {
+            marking.addAndGet(postPlace[a], postWeight[a]);
+        }
+    }
+
+    /**
+     * Adds tokens to a place, failing instead of overflowing.
+     *
+     * @param tokens the current number of tokens of the place
+     * @param amount the number of tokens to add, non-negative
+     * @param p      the index of the place, for the error message
+     * @param caller the method adding the tokens, for the error message
+     * @return the new number of tokens
+     * @throws IllegalStateException if the result would exceed {@link Integer#MAX_VALUE}
+     */
+    static int addTokens(int tokens, int amount, int p, String caller) throws IllegalStateException {
+        if (tokens > Integer.MAX_VALUE - amount) {
+            throw new IllegalStateException(String.format(
+                "%s -- The number of tokens of place %d (%d) overflows when adding %d.", caller, p, tokens, amount));
+        }
+        return tokens + amount;
+    }
+
+    /**
+     * Narrows a number of tokens computed in {@code long}, failing instead of overflowing.
+     *
+     * @param result the new number of tokens
+     * @param tokens the current number of tokens of the place, for the error message
+     * @param amount the number of tokens added, for the error message
+     * @param p      the index of the place, for the error message
+     * @param caller the method adding the tokens, for the error message
+     * @return the new number of tokens
+     * @throws IllegalStateException if the result exceeds {@link Integer#MAX_VALUE}
+     */
+    static int checkedTokens(long result, int tokens, long amount, int p, String caller)
+            throws IllegalStateException {
+        if (result > Integer.MAX_VALUE) {
+            throw new IllegalStateException(String.format(
+                "%s -- The number of tokens of place %d (%d) overflows when adding %d.", caller, p, tokens, amount));
+        }
+        return (int) result;
+    }
+
+    /**
+     * Returns the distinct places connected to a transition by any kind of arc.
+     *
+     * @param t the index of the transition
+     * @return the indices of the places, in increasing order
+     */
+    int[] getConnectedPlaces(int t) {
+        int[] connected = new int[preStart[t + 1] - preStart[t] + postStart[t + 1] - postStart[t]
+            + emptyStart[t + 1] - emptyStart[t] + zeroStart[t + 1] - zeroStart[t]];
+        int size = 0;
+        for (int a = preStart[t]; a < preStart[t + 1]; ++a) {
+            connected[size++] = prePlace[a];
+        }
+        for (int a = postStart[t]; a < postStart[t + 1]; ++a) {
+            connected[size++] = postPlace[a];
+        }
+        for (int a = emptyStart[t]; a < emptyStart[t + 1]; ++a) {
+            connected[size++] = emptyPlace[a];
+        }
+        for (int a = zeroStart[t]; a < zeroStart[t + 1]; ++a) {
+            connected[size++] = zeroPlace[a];
+        }
+        return distinctSorted(connected);
+    }
+
+    /**
+     * Sorts an array and removes its duplicates.
+     *
+     * @param values the values, sorted in place
+     * @return the distinct values in increasing order
+     */
+    static int[] distinctSorted(int[] values) {
+        Arrays.sort(values);
+        int size = 0;
+        for (int i = 0; i < values.length; ++i) {
+            if (size == 0 || values[i] != values[size - 1]) {
+                values[size++] = values[i];
+            }
+        }
+        return Arrays.copyOf(values, size);
+    }
+
+    /**
+     * Returns the indices of every transition that can currently be drawn.
+     *
+     * @return the enabled transitions, in increasing index order
+     */
+    public int[] enabled() {
+        int[] buffer = new int[transitions.length];
+        int size = enabled(this.currentMarking, buffer);
+        int[] result = new int[size];
+        System.arraycopy(buffer, 0, result, 0, size);
+        return result;
+    }
+
+    /**
+     * Collects the transitions enabled in the given marking.
+     *
+     * @param marking the marking to test
+     * @param buffer  the array receiving the enabled transitions (length at least the number of transitions)
+     * @return the number of enabled transitions written into {@code buffer}
+     */
+    public int enabled(int[] marking, int[] buffer) {
+        int size = 0;
+        for (int t = 0; t < transitions.length; ++t) {
+            if (isEnabled(t, marking)) {
+                buffer[size++] = t;
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Executes a simulation for a specified number of steps on the current marking.
+     * <p>At each step, an enabled transition is drawn by priority and weight, then fired.</p>
+     *
+     * @param steps the number of steps to simulate
+     * @return the number of steps actually fired (less than {@code steps} if the net deadlocked)
+     * @see #simulate(int[], int, RandomSource)
+     */
+    public int launchSimulation(int steps) {
+        return launchSimulation(steps, RandomSource.newSeed()).getFired();
+    }
+
+    /**
+     * Executes a reproducible simulation for a specified number of steps on the current marking.
+     *
+     * @param steps the number of steps to simulate
+     * @param seed  the seed of the random source selecting the transitions
+     * @return the description of the run, which {@link #replay(SimulationRun)} can reproduce
+     */
+    public SimulationRun launchSimulation(int steps, long seed) {
+        int[] initialMarking = this.currentMarking.clone();
+        int fired = simulate(this.currentMarking, steps, RandomSource.seeded(seed));
+        return new SimulationRun(seed, steps, fired, initialMarking, this.currentMarking);
+    }
+
+    /**
+     * Replays a run: resets the current marking to the initial marking of the run, then simulates
+     * the same number of steps with the same seed.
+     *
+     * @param run the run to replay, recorded on this net or on a net with the same structure
+     * @return the description of the replayed run, identical to {@code run}
+     * @throws IllegalArgumentException if the marking of the run doesn't match the number of places
+     */
+    public SimulationRun replay(SimulationRun run) throws IllegalArgumentException {
+        setMarking(run.getInitialMarking());
+        return launchSimulation(run.getSteps(), run.getSeed());
+    }
+
+    /**
+     * Executes a simulation for a specified number of steps on the given marking.
+     * <p>
+     * The enabled transitions are kept in the selector of {@link #newSelector()}: after each firing,
+     * only the transitions reading a place changed by the fired transition are tested again, instead
+     * of every transition of the net. A transition is drawn among the enabled transitions of the
+     * highest priority, in proportion to its weight. This method only reads the compiled structure,
+     * so independent simulations can run concurrently on distinct markings.
+     * </p>
+     *
+     * @param marking the marking to update, indexed by place
+     * @param steps   the number of steps to simulate
+     * @param random  the random source used to select the transitions
+     * @return the number of steps actually fired (less than {@code steps} if the net deadlocked)
+     */
+    public int simulate(int[] marking, int steps, RandomSource random) {
+        TransitionSelector enabled = newSelector();
+        for (int t = 0; t < transitions.length; ++t) {
+            if (isEnabled(t, marking)) {
+                enabled.set(t, true);
+            }
+        }
+        return simulate(marking, steps, random, enabled, new int[transitions.length], 1);
+    }
+
+    /**
+     * Executes a simulation on the given marking, with a selector holding exactly its enabled transitions.
+     * <p>
+     * The {@code i}-th step marks the transitions it tests again with {@code firstStamp + i}, which
+     * no transition may be marked with yet.
+     * </p>
+     */
+    int simulate(int[] marking, int steps, RandomSource random, TransitionSelector enabled,
+                 int[] stamps, int firstStamp) {
+        for (int i = 0; i < steps; ++i) {
+            if (enabled.isEmpty()) {
+                return i;
+            }
+            int t = enabled.pick(random);
+            fire(t, marking);
+            updateEnabled(t, marking, enabled, stamps, firstStamp + i);
+        }
+        return steps;
+    }
+
+    /**
+     * Tests again the transitions reading a place changed by {@code t}.
+     * <p>
+     * A transition reading several changed places is only tested once per call:
+     * {@code stamps[u] == stamp} marks it as already visited.
+     * </p>
+     */
+    private void updateEnabled(int t, int[] marking, TransitionSelector enabled, int[] stamps, int stamp) {
+        updateReaders(prePlace, preStart[t], preStart[t + 1], marking, enabled, stamps, stamp);
+        updateReaders(emptyPlace, emptyStart[t], emptyStart[t + 1], marking, enabled, stamps, stamp);
+        updateReaders(postPlace, postStart[t], postStart[t + 1], marking, enabled, stamps, stamp);
+    }
+
+    private void updateReaders(int[] arcPlace, int from, int to, int[] marking,
+                               TransitionSelector enabled, int[] stamps, int stamp) {
+        for (int a = from; a < to; ++a) {
+            updateReaders(arcPlace[a], marking, enabled, stamps, stamp);
+        }
+    }
+
+    /**
+     * Tests again the transitions reading a place, skipping those already marked with {@code stamp}.
+     */
+    void updateReaders(int p, int[] marking, TransitionSelector enabled, int[] stamps, int stamp) {
+        for (int r = readerStart[p], end = readerStart[p + 1]; r < end; ++r) {
+            int u = readers[r];
+            if (stamps[u] != stamp) {
+                stamps[u] = stamp;
+                enabled.set(u, isEnabled(u, marking));
+            }
+        }
+    }
+
+    /**
+     * Returns the transitions whose enabling depends on a place, i.e. the transitions with an
+     * incoming edge (weighted, empty or zero) starting from it.
+     *
+     * @param p the index of the place
+     * @return the indices of the reading transitions
+     */
+    public int[] getReaders(int p) {
+        return Arrays.copyOfRange(readers, readerStart[p], readerStart[p + 1]);
+    }
+
+    /**
+     * Returns the firing rate of a transition, copied from {@link Transition#getRate()} when compiled.
+     *
+     * @param t the index of the transition
+     * @return the rate
+     */
+    public double getRate(int t) {
+        return rates[t];
+    }
+
+    /**
+     * Sets the firing rate of a transition in the engine; the {@link Transition} object is unchanged.
+     *
+     * @param t    the index of the transition
+     * @param rate the rate
+     * @throws IllegalArgumentException if {@code rate} is negative or not finite
+     */
+    public void setRate(int t, double rate) throws IllegalArgumentException {
+        if (!(rate >= 0) || Double.isInfinite(rate)) {
+            throw new IllegalArgumentException(String.format(
+                "CompiledNet.setRate(%d, %s) -- The argument rate must be a finite non-negative number.", t, rate));
+        }
+        rates[t] = rate;
+    }
+
+    /**
+     * Returns the smallest firing delay of a transition, copied from {@link Transition#getMinDelay()}
+     * when compiled.
+     *
+     * @param t the index of the transition
+     * @return the smallest delay
+     */
+    public double getMinDelay(int t) {
+        return minDelays[t];
+    }
+
+    /**
+     * Returns the largest firing delay of a transition, copied from {@link Transition#getMaxDelay()}
+     * when compiled.
+     *
+     * @param t the index of the transition
+     * @return the largest delay
+     */
+    public double getMaxDelay(int t) {
+        return maxDelays[t];
+    }
+
+    /**
+     * Sets the interval of the firing delay of a transition in the engine; the {@link Transition}
+     * object is unchanged.
+     *
+     * @param t        the index of the transition
+     * @param minDelay the smallest delay
+     * @param maxDelay the largest delay
+     * @throws IllegalArgumentException if the delays are negative, not finite, or not in order
+     */
+    public void setDelay(int t, double minDelay, double maxDelay) throws IllegalArgumentException {
+        if (!(minDelay >= 0) || !(maxDelay >= minDelay) || Double.isInfinite(maxDelay)) {
+            throw new IllegalArgumentException(String.format(
+                "CompiledNet.setDelay(%d, %s, %s) -- The arguments must be finite non-negative numbers "
+                    + "in increasing order.", t, minDelay, maxDelay));
+        }
+        minDelays[t] = minDelay;
+        maxDelays[t] = maxDelay;
+    }
+
+    /**
+     * Returns the priority of a transition, copied from {@link Transition#getPriority()} when compiled.
+     *
+     * @param t the index of the transition
+     * @return the priority
+     */
+    public int getPriority(int t) {
+        return priorities[t];
+    }
+
+    /**
+     * Sets the priority of a transition in the engine; the {@link Transition} object is unchanged.
+     *
+     * @param t        the index of the transition
+     * @param priority the priority; higher priorities are drawn first
+     */
+    public void setPriority(int t, int priority) {
+        priorities[t] = priority;
+    }
+
+    /**
+     * Returns the selection weight of a transition, copied from {@link Transition#getWeight()} when compiled.
+     *
+     * @param t the index of the transition
+     * @return the weight
+     */
+    public double getWeight(int t) {
+        return weights[t];
+    }
+
+    /**
+     * Sets the selection weight of a transition in the engine; the {@link Transition} object is unchanged.
+     *
+     * @param t      the index of the transition
+     * @param weight the weight
+     * @throws IllegalArgumentException if {@code weight} is not a finite positive number
+     */
+    public void setWeight(int t, double weight) throws IllegalArgumentException {
+        if (!(weight > 0) || Double.isInfinite(weight)) {
+            throw new IllegalArgumentException(String.format(
+                "CompiledNet.setWeight(%d, %s) -- The argument weight must be a finite positive number.", t, weight));
+        }
+        weights[t] = weight;
+    }
+
+    /**
+     * Creates an empty selector drawing the transitions of this net by priority and weight.
+     * <p>
+     * When every transition has the same priority and weight, the draw is uniform and the O(1)
+     * {@link EnabledSet} is returned; otherwise a {@link PrioritySelector} is built.
+     * </p>
+     *
+     * @return the selector, with no enabled transition
+     */
+    public TransitionSelector newSelector() {
+        for (int t = 1; t < transitions.length; ++t) {
+            if (priorities[t] != priorities[0] || weights[t] != weights[0]) {
+                return new PrioritySelector(priorities, weights);
+            }
+        }
+        return new EnabledSet(transitions.length);
+    }
+
+    /**
+     * Returns the transitions whose enabling may change when a transition fires, itself included:
+     * the transitions reading a place whose tokens it changes.
+     *
+     * @param t the index of the transition
+     * @return the indices of the dependent transitions, in increasing order
+     */
+    public int[] getDependents(int t) {
+        int[] changed = getChangedPlaces(t);
+        int size = 1;
+        for (int p : changed) {
+            size += readerStart[p + 1] - readerStart[p];
+        }
+        int[] dependents = new int[size];
+        dependents[0] = t;
+        int k = 1;
+        for (int p : changed) {
+            int count = readerStart[p + 1] - readerStart[p];
+            System.arraycopy(readers, readerStart[p], dependents, k, count);
+            k += count;
+        }
+        return distinctSorted(dependents);
+    }
+
+    /**
+     * Returns the distinct places whose tokens a transition changes: the places of its weighted
+     * incoming, empty and weighted outgoing arcs.
+     *
+     * @param t the index of the transition
+     * @return the indices of the places, in increasing order
+     */
+    int[] getChangedPlaces(int t) {
+        int nbPre = preStart[t + 1] - preStart[t];
+        int nbEmpty = emptyStart[t + 1] - emptyStart[t];
+        int nbPost = postStart[t + 1] - postStart[t];
+        int[] changed = new int[nbPre + nbEmpty + nbPost];
+        System.arraycopy(prePlace, preStart[t], changed, 0, nbPre);
+        System.arraycopy(emptyPlace, emptyStart[t], changed, nbPre, nbEmpty);
+        System.arraycopy(postPlace, postStart[t], changed, nbPre + nbEmpty, nbPost);
+        return distinctSorted(changed);
+    }
+
+    /**
+     * Returns the places of the weighted incoming arcs ({@link WeightedEdgeIn}) of a transition.
+     *
+     * @param t the index of the transition
+     * @return the indices of the places, matching {@link #getPreWeights(int)}
+     */
+    public int[] getPrePlaces(int t) {
+        return Arrays.copyOfRange(prePlace, preStart[t], preStart[t + 1]);
+    }
+
+    /**
+     * Returns the weights of the weighted incoming arcs of a transition.
+     *
+     * @param t the index of the transition
+     * @return the weights, matching {@link #getPrePlaces(int)}
+     */
+    public int[] getPreWeights(int t) {
+        return Arrays.copyOfRange(preWeight, preStart[t], preStart[t + 1]);
+    }
+
+    /**
+     * Returns the places of the weighted outgoing arcs ({@link WeightedEdgeOut}) of a transition.
+     *
+     * @param t the index of the transition
+     * @return the indices of the places, matching {@link #getPostWeights(int)}
+     */
+    public int[] getPostPlaces(int t) {
+        return Arrays.copyOfRange(postPlace, postStart[t], postStart[t + 1]);
+    }
+
+    /**
+     * Returns the weights of the weighted outgoing arcs of a transition.
+     *
+     * @param t the index of the transition
+     * @return the weights, matching {@link #getPostPlaces(int)}
+     */
+    public int[] getPostWeights(int t) {
+        return Arrays.copyOfRange(postWeight, postStart[t], postStart[t + 1]);
+    }
+
+    /**
+     * Returns the places of the empty arcs ({@link EdgeEmpty}) of a transition.
+     *
+     * @param t the index of the transition
+     * @return the indices of the places
+     */
+    public int[] getEmptyPlaces(int t) {
+        return Arrays.copyOfRange(emptyPlace, emptyStart[t], emptyStart[t + 1]);
+    }
+
+    /**
+     * Returns the places of the zero arcs ({@link EdgeZero}) of a transition.
+     *
+     * @param t the index of the transition
+     * @return the indices of the places
+     */
+    public int[] getZeroPlaces(int t) {
+        return Arrays.copyOfRange(zeroPlace, zeroStart[t], zeroStart[t + 1]);
+    }
+
+    /**
+     * Copies the current marking back to the {@link Place} objects of the net.
+     */
+    public void writeBack() {
+        for (int p = 0; p < places.length; ++p) {
+            if (places[p] != null) {
+                places[p].setNbTokens(currentMarking[p]);
+            }
+        }
+    }
+
+    /**
+     * Returns the number of places of the compiled net.
+     *
+     * @return the number of places
+     */
+    public int getPlaceCount() {
+        return places.length;
+    }
+
+    /**
+     * Returns the number of transitions of the compiled net.
+     *
+     * @return the number of transitions
+     */
+    public int getTransitionCount() {
+        return transitions.length;
+    }
+
+    /**
+     * Returns the place compiled at the given index.
+     *
+     * @param p the index of the place
+     * @return the {@link Place}, or {@code null} if the engine was built from arc arrays
+     */
+    public Place getPlace(int p) {
+        return places[p];
+    }
+
+    /**
+     * Returns the transition compiled at the given index.
+     *
+     * @param t the index of the transition
+     * @return the {@link Transition}, or {@code null} if the engine was built from arc arrays
+     */
+    public Transition getTransition(int t) {
+        return transitions[t];
+    }
+
+    /**
+     * Returns the index of a place in this engine.
+     * <p>
+     * When the net was compiled through {@code IPretriNet.compile()}, the index of a listed place
+     * is its identifier and the lookup runs in O(1); otherwise it goes through an identity map of
+     * the places, built at the first such lookup.
+     * </p>
+     *
+     * @param place the place to look for
+     * @return the index of the place, or {@code -1} if it was not compiled
+     */
+    public int indexOf(Place place) {
+        if (isAtId(places, place)) {
+            return place.getId();
+        }
+        if (placeIndex == null) {
+            placeIndex = positions(places);
+        }
+        return placeIndex.getOrDefault(place, -1);
+    }
+
+    /**
+     * Returns the index of a transition in this engine.
+     * <p>
+     * When the net was compiled through {@code IPretriNet.compile()}, the index of a transition
+     * is its identifier and the lookup runs in O(1); otherwise it goes through an identity map of
+     * the transitions, built at the first such lookup.
+     * </p>
+     *
+     * @param transition the transition to look for
+     * @return the index of the transition, or {@code -1} if it was not compiled
+     */
+    public int indexOf(Transition transition) {
+        if (isAtId(transitions, transition)) {
+            return transition.getId();
+        }
+        if (transitionIndex == null) {
+            transitionIndex = positions(transitions);
+        }
+        return transitionIndex.getOrDefault(transition, -1);
+    }
+
+    private static boolean isAtId(Node[] nodes, Node node) {
+        int id = node.getId();
+        return id >= 0 && id < nodes.length && nodes[id] == node;
+    }
+
+    private static Map<Node, Integer> positions(Node[] nodes) {
+        Map<Node, Integer> positions = new IdentityHashMap<>(nodes.length);
+        for (int i = 0; i < nodes.length; ++i) {
+            if (nodes[i] != null) {
+                positions.put(nodes[i], i);
+            }
+        }
+        return positions;
+    }
+
+    /**
+     * Returns the number of tokens of a place in the current marking.
+     *
+     * @param p the index of the place
+     * @return the number of tokens
+     */
+    public int getTokens(int p) {
+        return currentMarking[p];
+    }
+
+    /**
+     * Sets the number of tokens of a place in the current marking.
+     *
+     * @param p        the index of the place
+     * @param nbTokens the number of tokens to set
+     */
+    public void setTokens(int p, int nbTokens) {
+        currentMarking[p] = nbTokens;
+    }
+
+    /**
+     * Replaces the current marking.
+     *
+     * @param marking the marking to copy, indexed by place
+     * @throws IllegalArgumentException if the marking doesn't match the number of places
+     */
+    public void setMarking(int[] marking) throws IllegalArgumentException {
+        if (marking.length != currentMarking.length) {
+            throw new IllegalArgumentException(String.format(
+                "CompiledNet.setMarking(marking) -- The marking has %d places instead of %d.",
+                marking.length, currentMarking.length));
+        }
+        System.arraycopy(marking, 0, currentMarking, 0, marking.length);
+    }
+
+    /**
+     * Returns a copy of the current marking.
+     *
+     * @return the number of tokens of every place, indexed by place
+     */
+    public int[] getMarking() {
+        return currentMarking.clone();
+    }
+
+    /**
+     * Places numbered while compiling a net. A place is first looked for at the index of its identifier,
+     * and the places found elsewhere are looked up in an identity map built at the first of them.
+     */
+    private static final class PlaceOrder {
+
+        private final List<Place> order;
+        private Map<Place, Integer> positions;
+
+        PlaceOrder(int capacity) {
+            this.order = new ArrayList<>(capacity);
+        }
+
+        /**
+         * Numbers a place after the others unless it is numbered already.
+         *
+         * @throws IllegalStateException if the place is {@code null}
+         */
+        void register(Place place) throws IllegalStateException {
+            if (place == null) {
+                throw new IllegalStateException(
+                    "CompiledNet.compile(places, transitions) -- An edge is not connected to a place.");
+            }
+            if (positionOf(place) < 0) {
+                if (positions != null) {
+                    positions.put(place, order.size());
+                }
+                order.add(place);
+            }
+        }
+
+        int positionOf(Place place) {
+            int id = place.getId();
+            if (id >= 0 && id < order.size() && order.get(id) == place) {
+                return id;
+            }
+            if (positions == null) {
+                positions = new IdentityHashMap<>();
+                for (int p = 0; p < order.size(); ++p) {
+                    positions.put(order.get(p), p);
+                }
+            }
+            return positions.getOrDefault(place, -1);
+        }
+
+        Place[] toArray() {
+            return order.toArray(new Place[order.size()]);
+        }
+    }
+
+    /**
+     * CSR table filled in two passes while compiling one kind of arc.
+     */
+    private static final class ArcTable {
+
+        private final int[] start;
+        private int[] place;
+        private int[] weight;
+        private int[] cursor;
+
+        ArcTable(int nbTransitions) {
+            this.start = new int[nbTransitions + 1];
+        }
+
+        static ArcTable of(int nbTransitions, int[][] arcs) {
+            int[] arcTransitions = arcs[0];
+            int[] arcPlaces = arcs[1];
+            int[] arcWeights = arcs.length > 2 ? arcs[2] : null;
+
+            ArcTable table = new ArcTable(nbTransitions);
+            for (int t : arcTransitions) {
+                table.count(t);
+            }
+            table.allocate();
+            for (int i = 0; i < arcTransitions.length; ++i) {
+                table.put(arcTransitions[i], arcPlaces[i], arcWeights == null ? 0 : arcWeights[i]);
+            }
+            return table;
+        }
+
+        void count(int t) {
+            ++start[t + 1];
+        }
+
+        void allocate() {
+            for (int t = 1; t < start.length; ++t) {
+                start[t] += start[t - 1];
+            }
+            int size = start[start.length - 1];
+            place = new int[size];
+            weight = new int[size];
+            cursor = new int[start.length - 1];
+            System.arraycopy(start, 0, cursor, 0, cursor.length);
+        }
+
+        void put(int t, int p, int w) {
+            int a = cursor[t]++;
+            place[a] = p;
+            weight[a] = w;
+        }
+
+        void fillReaders(int[] readers, int[] readerCursor) {
+            for (int t = 0; t < start.length - 1; ++t) {
+                for (int a = start[t]; a < start[t + 1]; ++a) {
+                    readers[readerCursor[place[a]]++] = t;
+                }
+            }
+        }
+    }
+}
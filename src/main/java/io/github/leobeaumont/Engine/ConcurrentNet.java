@@ -0,0 +1,279 @@
+package io.github.leobeaumont.Engine;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Marking of a {@link CompiledNet} shared by several threads firing transitions concurrently.
+ * <p>
+ * Token counts are kept in an {@link AtomicIntegerArray}, so they can be read at any time without
+ * locking. Firing a transition is atomic: the places are split into lock stripes (place index modulo
+ * the number of stripes), and {@link #tryFire(int)} locks the stripes of every place connected to
+ * the transition, in increasing stripe order so that two transitions can't wait for each other,
+ * before checking that the transition is enabled and updating the tokens. Transitions whose places
+ * fall into disjoint stripes fire in parallel; no global lock is ever taken, except to read a
+ * consistent snapshot of the whole marking.
+ * </p>
+ *
+ * <p>The enabled transitions are kept in an {@link EnabledSet}, guarded by its own monitor, which is
+ * only held for O(1) updates and draws. A transition's membership is only decided while the stripes of
+ * all its places are locked, and every change of a place is followed by a new decision for the
+ * transitions reading it, so the set matches the marking once the threads stop. {@link #fireAny}
+ * therefore costs the number of dependent transitions of the fired one, not the number of transitions.</p>
+ *
+ * <p>The compiled structure is only read, and its own current marking is left untouched until
+ * {@link #writeBack()} is called.</p>
+ */
+public final class ConcurrentNet {
+
+    private static final int DEFAULT_STRIPES = 64;
+
+    private final CompiledNet net;
+    private final AtomicIntegerArray tokens;
+    private final ReentrantLock[] locks;
+
+    // Stripes to lock before firing each transition, in increasing order
+    private final int[][] transitionStripes;
+
+    // Transitions whose enabling may change when each transition fires, and the enabled ones
+    private final int[][] dependents;
+    private final EnabledSet enabled;
+
+    /**
+     * Creates a shared marking initialized with the current marking of a net, with the default
+     * number of lock stripes.
+     *
+     * @param net the compiled net
+     */
+    public ConcurrentNet(CompiledNet net) {
+        this(net, DEFAULT_STRIPES);
+    }
+
+    /**
+     * Creates a shared marking initialized with the current marking of a net.
+     *
+     * @param net       the compiled net
+     * @param nbStripes the number of lock stripes; more stripes means fewer false conflicts
+     *                  between transitions with disjoint places
+     * @throws IllegalArgumentException if {@code nbStripes} is not positive
+     */
+    public ConcurrentNet(CompiledNet net, int nbStripes) throws IllegalArgumentException {
+        if (nbStripes <= 0) {
+            throw new IllegalArgumentException(String.format(
+                "ConcurrentNet(net, nbStripes) -- The argument nbStripes must be positive: %d.", nbStripes));
+        }
+        this.net = net;
+        this.tokens = new AtomicIntegerArray(net.getMarking());
+        this.locks = new ReentrantLock[Math.min(nbStripes, Math.max(1, net.getPlaceCount()))];
+        for (int i = 0; i < this.locks.length; ++i) {
+            this.locks[i] = new ReentrantLock();
+        }
+
+        this.transitionStripes = new int[net.getTransitionCount()][];
+        for (int t = 0; t < this.transitionStripes.length; ++t) {
+            int[] stripes = net.getConnectedPlaces(t);
+            for (int i = 0; i < stripes.length; ++i) {
+                stripes[i] = stripeOf(stripes[i]);
+            }
+            this.transitionStripes[t] = CompiledNet.distinctSorted(stripes);
+        }
+
+        this.dependents = new int[net.getTransitionCount()][];
+        this.enabled = new EnabledSet(net.getTransitionCount());
+        for (int t = 0; t < this.dependents.length; ++t) {
+            this.dependents[t] = net.getDependents(t);
+            this.enabled.set(t, net.isEnabled(t, tokens));
+        }
+    }
+
+    /**
+     * Atomically fires a transition if it is enabled.
+     *
+     * @param t the index of the transition
+     * @return {@code true} if the transition was fired
+     * @throws IllegalStateException if the number of tokens of a place would exceed {@link Integer#MAX_VALUE};
+     *                               the marking is then left unchanged
+     */
+    public boolean tryFire(int t) throws IllegalStateException {
+        int[] stripes = transitionStripes[t];
+        lock(stripes);
+        try {
+            if (!net.isEnabled(t, tokens)) {
+                setEnabled(t, false);
+                return false;
+            }
+            net.fire(t, tokens, "ConcurrentNet.tryFire");
+        } finally {
+            unlock(stripes);
+        }
+        refresh(dependents[t]);
+        return true;
+    }
+
+    /**
+     * Atomically fires a transition.
+     *
+     * @param t the index of the transition
+     * @throws IllegalArgumentException if the transition can't be drawn
+     */
+    public void fire(int t) throws IllegalArgumentException {
+        if (!tryFire(t)) {
+            throw new IllegalArgumentException(String.format(
+                "ConcurrentNet.fire(%d) -- The transition can't be drawn.", t));
+        }
+    }
+
+    /**
+     * Determines whether a transition can be drawn, without locking.
+     * <p>The answer may be outdated as soon as it is returned; use {@link #tryFire(int)} to fire.</p>
+     *
+     * @param t the index of the transition
+     * @return {@code true} if the transition looked enabled
+     */
+    public boolean isEnabled(int t) {
+        return net.isEnabled(t, tokens);
+    }
+
+    /**
+     * Fires one enabled transition, chosen uniformly at random among the enabled transitions.
+     *
+     * @param random the random source choosing the transition
+     * @return the index of the fired transition, or {@code -1} if no transition was enabled
+     */
+    public int fireAny(RandomSource random) {
+        while (true) {
+            int t;
+            synchronized (enabled) {
+                if (enabled.isEmpty()) {
+                    return -1;
+                }
+                t = enabled.pick(random);
+            }
+            // A failed attempt removes the transition, which another thread just disabled
+            if (tryFire(t)) {
+                return t;
+            }
+        }
+    }
+
+    /**
+     * Fires transitions until {@code steps} have been fired or none is enabled.
+     * <p>Meant to be called by each worker thread with its own random source.</p>
+     *
+     * @param steps  the number of steps to fire
+     * @param random the random source of the calling thread
+     * @return the number of steps actually fired
+     */
+    public int simulate(int steps, RandomSource random) {
+        for (int i = 0; i < steps; ++i) {
+            if (fireAny(random) < 0) {
+                return i;
+            }
+        }
+        return steps;
+    }
+
+    /**
+     * Atomically adds tokens to a place, e.g. when a new job enters a workflow.
+     *
+     * @param p      the index of the place
+     * @param amount the number of tokens to add
+     * @throws IllegalArgumentException if {@code amount} is negative
+     * @throws IllegalStateException    if the number of tokens would exceed {@link Integer#MAX_VALUE}
+     */
+    public void addTokens(int p, int amount) throws IllegalArgumentException, IllegalStateException {
+        if (amount < 0) {
+            throw new IllegalArgumentException(String.format(
+                "ConcurrentNet.addTokens(%d, %d) -- The argument amount is negative.", p, amount));
+        }
+        // Locked, so that a transition testing this place for zero doesn't fire on a stale value
+        ReentrantLock lock = locks[stripeOf(p)];
+        lock.lock();
+        try {
+            tokens.set(p, CompiledNet.addTokens(tokens.get(p), amount, p, "ConcurrentNet.addTokens"));
+        } finally {
+            lock.unlock();
+        }
+        refresh(net.getReaders(p));
+    }
+
+    /**
+     * Returns the number of tokens of a place, without locking.
+     *
+     * @param p the index of the place
+     * @return the current number of tokens
+     */
+    public int getTokens(int p) {
+        return tokens.get(p);
+    }
+
+    /**
+     * Returns a consistent snapshot of the marking, taken while every stripe is locked.
+     *
+     * @return the marking, indexed by place
+     */
+    public int[] getMarking() {
+        for (ReentrantLock lock : locks) {
+            lock.lock();
+        }
+        try {
+            int[] marking = new int[tokens.length()];
+            for (int p = 0; p < marking.length; ++p) {
+                marking[p] = tokens.get(p);
+            }
+            return marking;
+        } finally {
+            for (int i = locks.length - 1; i >= 0; --i) {
+                locks[i].unlock();
+            }
+        }
+    }
+
+    /**
+     * Copies a snapshot of the marking to the compiled net, then to its {@code Place} objects.
+     */
+    public void writeBack() {
+        int[] marking = getMarking();
+        for (int p = 0; p < marking.length; ++p) {
+            net.setTokens(p, marking[p]);
+        }
+        net.writeBack();
+    }
+
+    /**
+     * Decides again whether transitions are enabled, each while the stripes of its places are locked.
+     */
+    private void refresh(int[] transitions) {
+        for (int u : transitions) {
+            int[] stripes = transitionStripes[u];
+            lock(stripes);
+            try {
+                setEnabled(u, net.isEnabled(u, tokens));
+            } finally {
+                unlock(stripes);
+            }
+        }
+    }
+
+    private void setEnabled(int t, boolean isEnabled) {
+        synchronized (enabled) {
+            enabled.set(t, isEnabled);
+        }
+    }
+
+    private int stripeOf(int p) {
+        return p % locks.length;
+    }
+
+    private void lock(int[] stripes) {
+        for (int stripe : stripes) {
+            locks[stripe].lock();
+        }
+    }
+
+    private void unlock(int[] stripes) {
+        for (int i = stripes.length - 1; i >= 0; --i) {
+            locks[stripes[i]].unlock();
+        }
+    }
+}
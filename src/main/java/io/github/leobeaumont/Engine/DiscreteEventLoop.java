@@ -0,0 +1,135 @@
+package io.github.leobeaumont.Engine;
+
+/**
+ * Event loop shared by the simulators where every enabled transition fires after a delay.
+ * <p>
+ * Every enabled transition with a finite delay holds a scheduled firing time in an
+ * {@link IndexedPriorityQueue}; the next event is the head of the queue, so the clock jumps from
+ * event to event and no tick is ever spent polling the enabled transitions. A transition keeps
+ * its scheduled time as long as it stays enabled (enabling memory), loses it when it is disabled,
+ * and draws a new delay when it fires or becomes enabled again. After an event, only the
+ * dependents of the fired transition (see {@link CompiledNet#getDependents(int)}) are examined,
+ * so each event costs O(d log |T|) where {@code d} is the number of dependent transitions.
+ * </p>
+ *
+ * <p>The enabled transitions are kept in an {@link EnabledSet} updated with the queue, so a run ends in
+ * a deadlock only when no transition is enabled, not when the enabled ones never fire.</p>
+ *
+ * <p>Time-averaged token counts are accumulated lazily: the area under the token count of a place
+ * is only updated when the place changes.</p>
+ */
+final class DiscreteEventLoop {
+
+    /**
+     * Draws the firing delays of the transitions.
+     */
+    interface Delays {
+
+        /**
+         * Draws the delay before a newly enabled transition fires.
+         *
+         * @param t      the index of the transition
+         * @param random the random source
+         * @return the delay, or {@link Double#POSITIVE_INFINITY} if the transition never fires
+         */
+        double draw(int t, RandomSource random);
+    }
+
+    private final CompiledNet net;
+    private final Delays delays;
+
+    // Places changed by each transition, and transitions whose enabling they affect
+    private final int[][] changedPlaces;
+    private final int[][] dependents;
+
+    /**
+     * Creates an event loop and builds the dependency graph of the net.
+     *
+     * @param net    the compiled net
+     * @param delays the delays of the transitions
+     */
+    DiscreteEventLoop(CompiledNet net, Delays delays) {
+        this.net = net;
+        this.delays = delays;
+        int nbTransitions = net.getTransitionCount();
+        this.changedPlaces = new int[nbTransitions][];
+        this.dependents = new int[nbTransitions][];
+        for (int t = 0; t < nbTransitions; ++t) {
+            this.changedPlaces[t] = net.getChangedPlaces(t);
+            this.dependents[t] = net.getDependents(t);
+        }
+    }
+
+    /**
+     * Simulates the net from the given marking until a time limit, a number of events, or a deadlock.
+     *
+     * @param marking   the marking to update, indexed by place
+     * @param endTime   the simulated time at which to stop, possibly infinite
+     * @param maxEvents the maximum number of transitions to fire
+     * @param random    the random source drawing the delays
+     * @return the statistics of the run
+     */
+    TimeStatistics run(int[] marking, double endTime, long maxEvents, RandomSource random) {
+        int nbTransitions = dependents.length;
+        IndexedPriorityQueue queue = new IndexedPriorityQueue(nbTransitions);
+        EnabledSet enabled = new EnabledSet(nbTransitions);
+        for (int t = 0; t < nbTransitions; ++t) {
+            schedule(t, 0.0, marking, queue, enabled, random, true);
+        }
+
+        double[] area = new double[marking.length];
+        double[] lastChange = new double[marking.length];
+        long[] firings = new long[nbTransitions];
+        double now = 0.0;
+        long events = 0;
+        while (events < maxEvents && !queue.isEmpty()) {
+            int t = queue.peek();
+            double next = queue.getKey(t);
+            if (next > endTime) {
+                break;
+            }
+            for (int p : changedPlaces[t]) {
+                area[p] += marking[p] * (next - lastChange[p]);
+                lastChange[p] = next;
+            }
+            now = next;
+            net.fire(t, marking);
+            ++firings[t];
+            ++events;
+            for (int u : dependents[t]) {
+                schedule(u, now, marking, queue, enabled, random, u == t);
+            }
+        }
+
+        // The last marking lasts until the time limit, unless the run was cut by the number of events
+        boolean deadlocked = enabled.isEmpty();
+        double time = events == maxEvents || Double.isInfinite(endTime) ? now : endTime;
+        double[] meanTokens = new double[marking.length];
+        for (int p = 0; p < marking.length; ++p) {
+            area[p] += marking[p] * (time - lastChange[p]);
+            meanTokens[p] = time > 0 ? area[p] / time : marking[p];
+        }
+        return new TimeStatistics(time, events, deadlocked, meanTokens, firings, marking);
+    }
+
+    /**
+     * Updates the enabling and the scheduled firing time of a transition after an event.
+     *
+     * @param redraw {@code true} to draw a new time even if the transition was already scheduled
+     */
+    private void schedule(int t, double now, int[] marking, IndexedPriorityQueue queue, EnabledSet enabled,
+                          RandomSource random, boolean redraw) {
+        boolean isEnabled = net.isEnabled(t, marking);
+        enabled.set(t, isEnabled);
+        if (!isEnabled) {
+            queue.remove(t);
+        } else if (redraw || !queue.contains(t)) {
+            double delay = delays.draw(t, random);
+            if (Double.isInfinite(delay)) {
+                queue.remove(t);
+            } else {
+                queue.update(t, now + delay);
+            }
+        }
+    }
+}
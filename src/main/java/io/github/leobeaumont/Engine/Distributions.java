@@ -0,0 +1,112 @@
+package io.github.leobeaumont.Engine;
+
+/**
+ * Samplers of discrete distributions built on a {@link RandomSource}.
+ */
+final class Distributions {
+
+    // Below this mean, inversion by sequential search is faster than rejection
+    private static final double INVERSION_LIMIT = 10.0;
+
+    // Constants of the PTRS algorithm (Hörmann, "The transformed rejection method for generating
+    // Poisson random variables", 1993)
+    private static final double B_OFFSET = 0.931;
+    private static final double B_SLOPE = 2.53;
+    private static final double A_OFFSET = -0.059;
+    private static final double A_SLOPE = 0.02483;
+    private static final double INV_ALPHA_OFFSET = 1.1239;
+    private static final double INV_ALPHA_SLOPE = 1.1328;
+    private static final double INV_ALPHA_SHIFT = 3.4;
+    private static final double VR_OFFSET = 0.9277;
+    private static final double VR_SLOPE = 3.6224;
+    private static final double K_SHIFT = 0.43;
+    private static final double US_ACCEPT = 0.07;
+    private static final double US_REJECT = 0.013;
+    private static final double HALF = 0.5;
+
+    // log(k!) is tabulated below this value, and computed with Stirling's series above
+    private static final int LOG_FACTORIAL_TABLE = 32;
+    private static final double[] LOG_FACTORIALS = new double[LOG_FACTORIAL_TABLE];
+    private static final double HALF_LOG_TWO_PI = Math.log(2 * Math.PI) / 2;
+    private static final double STIRLING_1 = 1.0 / 12;
+    private static final double STIRLING_2 = 1.0 / 360;
+    private static final double STIRLING_3 = 1.0 / 1260;
+
+    static {
+        for (int k = 1; k < LOG_FACTORIAL_TABLE; ++k) {
+            LOG_FACTORIALS[k] = LOG_FACTORIALS[k - 1] + Math.log(k);
+        }
+    }
+
+    private Distributions() {
+    }
+
+    /**
+     * Samples a Poisson distribution exactly.
+     *
+     * @param random the random source
+     * @param mean   the mean, non-negative
+     * @return the count
+     */
+    static long poisson(RandomSource random, double mean) {
+        if (mean <= 0) {
+            return 0;
+        }
+        if (mean < INVERSION_LIMIT) {
+            return poissonInversion(random, mean);
+        }
+        return poissonRejection(random, mean);
+    }
+
+    private static long poissonInversion(RandomSource random, double mean) {
+        double u = random.nextDouble();
+        double probability = Math.exp(-mean);
+        double cumulative = probability;
+        long k = 0;
+        while (u > cumulative && probability > 0) {
+            ++k;
+            probability *= mean / k;
+            cumulative += probability;
+        }
+        return k;
+    }
+
+    private static long poissonRejection(RandomSource random, double mean) {
+        double logMean = Math.log(mean);
+        double b = B_OFFSET + B_SLOPE * Math.sqrt(mean);
+        double a = A_OFFSET + A_SLOPE * b;
+        double invAlpha = INV_ALPHA_OFFSET + INV_ALPHA_SLOPE / (b - INV_ALPHA_SHIFT);
+        double vr = VR_OFFSET - VR_SLOPE / (b - 2);
+        while (true) {
+            double u = random.nextDouble() - HALF;
+            double v = random.nextDouble();
+            double us = HALF - Math.abs(u);
+            long k = (long) Math.floor((2 * a / us + b) * u + mean + K_SHIFT);
+            if (us >= US_ACCEPT && v <= vr) {
+                return k;
+            }
+            if (k < 0 || us < US_REJECT && v > us) {
+                continue;
+            }
+            if (Math.log(v * invAlpha / (a / (us * us) + b)) <= -mean + k * logMean - logFactorial(k)) {
+                return k;
+            }
+        }
+    }
+
+    /**
+     * Returns {@code log(k!)}.
+     *
+     * @param k a non-negative integer
+     * @return the logarithm of the factorial of {@code k}
+     */
+    static double logFactorial(long k) {
+        if (k < LOG_FACTORIAL_TABLE) {
+            return LOG_FACTORIALS[(int) k];
+        }
+        double x = k + 1.0;
+        double inverse2 = 1.0 / (x * x);
+        return (x - HALF) * Math.log(x) - x + HALF_LOG_TWO_PI
+            + (STIRLING_1 - (STIRLING_2 - STIRLING_3 * inverse2) * inverse2) / x;
+    }
+}
@@ -0,0 +1,137 @@
+package io.github.leobeaumont.Engine;
+
+import java.util.Arrays;
+
+/**
+ * Set of enabled transition indices with constant-time updates and random selection.
+ * <p>
+ * Members are kept densely packed in an array, and a position table maps every transition
+ * to its slot (or {@code -1} if absent). Removing a member moves the last member into its slot,
+ * so {@link #add(int)}, {@link #remove(int)}, {@link #contains(int)} and {@link #pick(RandomSource)}
+ * all run in O(1).
+ * </p>
+ */
+public final class EnabledSet implements TransitionSelector {
+
+    private final int[] members;
+    private final int[] position;
+    private int size;
+
+    /**
+     * Creates an empty set able to hold transitions {@code 0} to {@code capacity - 1}.
+     *
+     * @param capacity the number of transitions
+     */
+    public EnabledSet(int capacity) {
+        this.members = new int[capacity];
+        this.position = new int[capacity];
+        Arrays.fill(this.position, -1);
+    }
+
+    /**
+     * Adds a transition to the set; does nothing if it is already present.
+     *
+     * @param t the index of the transition
+     */
+    public void add(int t) {
+        if (position[t] < 0) {
+            position[t] = size;
+            members[size++] = t;
+        }
+    }
+
+    /**
+     * Removes a transition from the set; does nothing if it is absent.
+     *
+     * @param t the index of the transition
+     */
+    public void remove(int t) {
+        int slot = position[t];
+        if (slot >= 0) {
+            int last = members[--size];
+            members[slot] = last;
+            position[last] = slot;
+            position[t] = -1;
+        }
+    }
+
+    /**
+     * Adds or removes a transition depending on whether it is enabled.
+     *
+     * @param t       the index of the transition
+     * @param enabled {@code true} to add the transition, {@code false} to remove it
+     */
+    @Override
+    public void set(int t, boolean enabled) {
+        if (enabled) {
+            add(t);
+        } else {
+            remove(t);
+        }
+    }
+
+    /**
+     * Tests whether a transition belongs to the set.
+     *
+     * @param t the index of the transition
+     * @return {@code true} if the transition is present
+     */
+    @Override
+    public boolean contains(int t) {
+        return position[t] >= 0;
+    }
+
+    /**
+     * Returns a member chosen uniformly at random.
+     *
+     * @param random the random source
+     * @return the index of the chosen transition
+     * @throws IllegalStateException if the set is empty
+     */
+    @Override
+    public int pick(RandomSource random) throws IllegalStateException {
+        if (size == 0) {
+            throw new IllegalStateException("EnabledSet.pick(random) -- The set is empty.");
+        }
+        return members[random.nextInt(size)];
+    }
+
+    /**
+     * Returns the member stored in a given slot.
+     *
+     * @param slot the slot, between {@code 0} and {@link #size()} excluded
+     * @return the index of the transition stored in the slot
+     */
+    public int get(int slot) {
+        return members[slot];
+    }
+
+    /**
+     * Returns the number of members.
+     *
+     * @return the size of the set
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Tests whether the set is empty.
+     *
+     * @return {@code true} if no transition is enabled
+     */
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Removes every member.
+     */
+    public void clear() {
+        for (int i = 0; i < size; ++i) {
+            position[members[i]] = -1;
+        }
+        size = 0;
+    }
+}
@@ -0,0 +1,150 @@
+package io.github.leobeaumont.Engine;
+
+/**
+ * Binary indexed tree of non-negative weights, supporting weighted random selection.
+ * <p>
+ * Changing a weight, computing a prefix sum and finding the index where a cumulative weight is
+ * reached all run in O(log n), which makes a weighted random choice among {@code n} items as cheap
+ * as updating one of them. Since floating-point updates accumulate rounding errors in the partial
+ * sums, the tree is rebuilt exactly from the stored weights after every {@code n} updates, which
+ * only adds a constant amortized cost.
+ * </p>
+ */
+public final class FenwickTree {
+
+    private final double[] values;
+    private final double[] tree;
+    private final int highestBit;
+    private int updates;
+
+    /**
+     * Creates a tree of {@code size} zero weights.
+     *
+     * @param size the number of items
+     */
+    public FenwickTree(int size) {
+        this.values = new double[size];
+        this.tree = new double[size + 1];
+        this.highestBit = size == 0 ? 0 : Integer.highestOneBit(size);
+    }
+
+    /**
+     * Sets the weight of an item.
+     *
+     * @param i      the index of the item
+     * @param weight the new weight
+     * @throws IllegalArgumentException if {@code weight} is negative or not finite
+     */
+    public void set(int i, double weight) throws IllegalArgumentException {
+        if (!(weight >= 0) || Double.isInfinite(weight)) {
+            throw new IllegalArgumentException(String.format(
+                "FenwickTree.set(%d, %s) -- The argument weight must be a finite non-negative number.", i, weight));
+        }
+        double delta = weight - values[i];
+        if (delta == 0) {
+            return;
+        }
+        values[i] = weight;
+        if (++updates >= values.length) {
+            rebuild();
+            return;
+        }
+        for (int k = i + 1; k < tree.length; k += k & -k) {
+            tree[k] += delta;
+        }
+    }
+
+    /**
+     * Returns the weight of an item.
+     *
+     * @param i the index of the item
+     * @return the weight
+     */
+    public double get(int i) {
+        return values[i];
+    }
+
+    /**
+     * Returns the sum of the weights of the items {@code 0} to {@code i - 1}.
+     *
+     * @param i the number of items to sum
+     * @return the prefix sum
+     */
+    public double prefixSum(int i) {
+        double sum = 0;
+        for (int k = i; k > 0; k -= k & -k) {
+            sum += tree[k];
+        }
+        return sum;
+    }
+
+    /**
+     * Returns the sum of all the weights.
+     *
+     * @return the total weight
+     */
+    public double total() {
+        return prefixSum(values.length);
+    }
+
+    /**
+     * Returns the first item whose cumulative weight exceeds a target, i.e. the smallest {@code i}
+     * such that {@code prefixSum(i + 1) > target}. Drawing {@code target} uniformly in
+     * {@code [0, total())} selects every item with a probability proportional to its weight.
+     * <p>
+     * Items of zero weight are never returned, except when the target is beyond the total weight,
+     * in which case the last item of positive weight is returned.
+     * </p>
+     *
+     * @param target the cumulative weight to reach
+     * @return the index of the item, or {@code -1} if every weight is zero
+     */
+    public int find(double target) {
+        int position = 0;
+        double remaining = target;
+        for (int bit = highestBit; bit > 0; bit >>= 1) {
+            int next = position + bit;
+            if (next < tree.length && tree[next] <= remaining) {
+                position = next;
+                remaining -= tree[next];
+            }
+        }
+        // Rounding can land on a zero weight at the edge of a run of items: move to a neighbour
+        int i = Math.min(position, values.length - 1);
+        while (i >= 0 && values[i] == 0) {
+            --i;
+        }
+        if (i < 0) {
+            i = position;
+            while (i < values.length && values[i] == 0) {
+                ++i;
+            }
+        }
+        return i < values.length ? i : -1;
+    }
+
+    /**
+     * Returns the number of items.
+     *
+     * @return the size of the tree
+     */
+    public int size() {
+        return values.length;
+    }
+
+    /**
+     * Recomputes every partial sum from the weights, in O(n).
+     */
+    private void rebuild() {
+        updates = 0;
+        for (int k = 1; k < tree.length; ++k) {
+            tree[k] = values[k - 1];
+        }
+        for (int k = 1; k < tree.length; ++k) {
+            int parent = k + (k & -k);
+            if (parent < tree.length) {
+                tree[parent] += tree[k];
+            }
+        }
+    }
+}
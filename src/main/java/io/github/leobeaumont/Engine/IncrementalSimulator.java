@@ -0,0 +1,92 @@
+package io.github.leobeaumont.Engine;
+
+import io.github.leobeaumont.Nodes.Place;
+import io.github.leobeaumont.Nodes.Transition;
+import java.util.Arrays;
+
+/**
+ * Runs successive simulations of a {@link CompiledNet} on the marking of its places, keeping the
+ * enabled transitions from one run to the next.
+ * <p>
+ * The selector of {@link CompiledNet#newSelector()} and the visit marks of the transitions are
+ * built once. Before each run the tokens of the places are read again, and only the transitions
+ * reading a place that changed since the previous run are tested again, so a run costs its steps
+ * and one pass over the places instead of a compilation and a test of every transition.
+ * </p>
+ *
+ * <p>A simulator keeps scratch arrays between runs, so it must not be shared between threads.</p>
+ */
+public final class IncrementalSimulator {
+
+    private final CompiledNet net;
+    private final int[] marking;
+    private final TransitionSelector enabled;
+
+    // Visit marks of the transitions tested again, see CompiledNet#simulate
+    private final int[] stamps;
+    private int stamp;
+
+    /**
+     * Creates a simulator starting from the current marking of a compiled net.
+     *
+     * @param net the compiled net
+     */
+    public IncrementalSimulator(CompiledNet net) {
+        this.net = net;
+        this.marking = net.getMarking();
+        this.enabled = net.newSelector();
+        this.stamps = new int[net.getTransitionCount()];
+        for (int t = 0; t < this.stamps.length; ++t) {
+            if (net.isEnabled(t, this.marking)) {
+                this.enabled.set(t, true);
+            }
+        }
+    }
+
+    /**
+     * Tests whether the transitions still have the priorities and weights the net was compiled with,
+     * which the selector draws with.
+     *
+     * @return {@code true} if the simulator can still be used for the transitions of the net
+     */
+    public boolean isCurrent() {
+        for (int t = 0; t < stamps.length; ++t) {
+            Transition transition = net.getTransition(t);
+            if (transition != null
+                && (transition.getPriority() != net.getPriority(t) || transition.getWeight() != net.getWeight(t))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Simulates a number of steps from the tokens of the places, then copies the final marking back
+     * to the places.
+     *
+     * @param steps  the number of steps to simulate
+     * @param random the random source used to select the transitions
+     * @return the number of steps actually fired (less than {@code steps} if the net deadlocked)
+     * @see CompiledNet#simulate(int[], int, RandomSource)
+     */
+    public int simulate(int steps, RandomSource random) {
+        if (steps > Integer.MAX_VALUE - stamp - 2) {
+            Arrays.fill(stamps, 0);
+            stamp = 0;
+        }
+        ++stamp;
+        for (int p = 0; p < marking.length; ++p) {
+            Place place = net.getPlace(p);
+            if (place != null && place.getNbTokens() != marking[p]) {
+                marking[p] = place.getNbTokens();
+                net.updateReaders(p, marking, enabled, stamps, stamp);
+            }
+        }
+
+        int fired = net.simulate(marking, steps, random, enabled, stamps, stamp + 1);
+        stamp += Math.max(fired, 0);
+        net.setMarking(marking);
+        net.writeBack();
+        return fired;
+    }
+}
@@ -0,0 +1,187 @@
+package io.github.leobeaumont.Engine;
+
+import java.util.Arrays;
+
+/**
+ * Binary min-heap of items {@code 0} to {@code capacity - 1}, keyed by a {@code double}, whose
+ * keys can be changed in place.
+ * <p>
+ * A position table maps every item to its slot in the heap (or {@code -1} if absent), so
+ * {@link #update(int, double)} and {@link #remove(int)} run in O(log n) and {@link #peek()},
+ * {@link #contains(int)} and {@link #getKey(int)} in O(1). Items are ordered by key, then by
+ * index, so items with equal keys come out in increasing order.
+ * </p>
+ */
+public final class IndexedPriorityQueue {
+
+    private final int[] heap;
+    private final int[] position;
+    private final double[] keys;
+    private int size;
+
+    /**
+     * Creates an empty queue able to hold items {@code 0} to {@code capacity - 1}.
+     *
+     * @param capacity the number of items
+     */
+    public IndexedPriorityQueue(int capacity) {
+        this.heap = new int[capacity];
+        this.position = new int[capacity];
+        this.keys = new double[capacity];
+        Arrays.fill(this.position, -1);
+    }
+
+    /**
+     * Inserts an item, or changes its key if it is already present.
+     *
+     * @param item the item
+     * @param key  the new key
+     */
+    public void update(int item, double key) {
+        int slot = position[item];
+        if (slot < 0) {
+            slot = size++;
+            heap[slot] = item;
+            position[item] = slot;
+            keys[item] = key;
+            siftUp(slot);
+        } else {
+            double previous = keys[item];
+            keys[item] = key;
+            if (key < previous) {
+                siftUp(slot);
+            } else {
+                siftDown(slot);
+            }
+        }
+    }
+
+    /**
+     * Removes an item; does nothing if it is absent.
+     *
+     * @param item the item
+     */
+    public void remove(int item) {
+        int slot = position[item];
+        if (slot < 0) {
+            return;
+        }
+        int last = heap[--size];
+        position[item] = -1;
+        if (slot < size) {
+            heap[slot] = last;
+            position[last] = slot;
+            siftUp(slot);
+            siftDown(position[last]);
+        }
+    }
+
+    /**
+     * Returns the item with the smallest key, the smallest such item on a tie.
+     *
+     * @return the item
+     * @throws IllegalStateException if the queue is empty
+     */
+    public int peek() throws IllegalStateException {
+        if (size == 0) {
+            throw new IllegalStateException("IndexedPriorityQueue.peek() -- The queue is empty.");
+        }
+        return heap[0];
+    }
+
+    /**
+     * Removes and returns the item with the smallest key, the smallest such item on a tie.
+     *
+     * @return the item
+     * @throws IllegalStateException if the queue is empty
+     */
+    public int poll() throws IllegalStateException {
+        int item = peek();
+        remove(item);
+        return item;
+    }
+
+    /**
+     * Tests whether an item is in the queue.
+     *
+     * @param item the item
+     * @return {@code true} if the item is present
+     */
+    public boolean contains(int item) {
+        return position[item] >= 0;
+    }
+
+    /**
+     * Returns the key of an item.
+     *
+     * @param item the item, which must be present
+     * @return its key
+     */
+    public double getKey(int item) {
+        return keys[item];
+    }
+
+    /**
+     * Returns the number of items in the queue.
+     *
+     * @return the size of the queue
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Tests whether the queue is empty.
+     *
+     * @return {@code true} if no item is present
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Tests whether an item comes before another one: its key is smaller, or equal with a smaller index.
+     */
+    private boolean precedes(int item, int other) {
+        return keys[item] < keys[other] || keys[item] == keys[other] && item < other;
+    }
+
+    private void siftUp(int from) {
+        int slot = from;
+        int item = heap[slot];
+        while (slot > 0) {
+            int parent = (slot - 1) >>> 1;
+            int parentItem = heap[parent];
+            if (!precedes(item, parentItem)) {
+                break;
+            }
+            heap[slot] = parentItem;
+            position[parentItem] = slot;
+            slot = parent;
+        }
+        heap[slot] = item;
+        position[item] = slot;
+    }
+
+    private void siftDown(int from) {
+        int slot = from;
+        int item = heap[slot];
+        int half = size >>> 1;
+        while (slot < half) {
+            int child = 2 * slot + 1;
+            int right = child + 1;
+            if (right < size && precedes(heap[right], heap[child])) {
+                child = right;
+            }
+            int childItem = heap[child];
+            if (!precedes(childItem, item)) {
+                break;
+            }
+            heap[slot] = childItem;
+            position[childItem] = slot;
+            slot = child;
+        }
+        heap[slot] = item;
+        position[item] = slot;
+    }
+}
@@ -0,0 +1,99 @@
+package io.github.leobeaumont.Engine;
+
+import java.util.Arrays;
+
+/**
+ * Growable array of {@code int}s, without boxing.
+ * <p>
+ * Used wherever indices are collected before their number is known, such as the arcs of a net being
+ * built or the states of an exploration.
+ * </p>
+ */
+public final class IntArray {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private int[] values = new int[INITIAL_CAPACITY];
+    private int size;
+
+    /**
+     * Appends a value, doubling the capacity when needed.
+     *
+     * @param value the value to append
+     */
+    public void add(int value) {
+        if (size == values.length) {
+            values = Arrays.copyOf(values, size * 2);
+        }
+        values[size++] = value;
+    }
+
+    /**
+     * Appends all the values of an array.
+     *
+     * @param array the values to append
+     */
+    public void addAll(int[] array) {
+        if (size + array.length > values.length) {
+            values = Arrays.copyOf(values, Math.max(size + array.length, size * 2));
+        }
+        System.arraycopy(array, 0, values, size, array.length);
+        size += array.length;
+    }
+
+    /**
+     * Returns the value at an index.
+     *
+     * @param i the index, smaller than {@link #size()}
+     * @return the value
+     */
+    public int get(int i) {
+        return values[i];
+    }
+
+    /**
+     * Removes and returns the last value.
+     *
+     * @return the value removed
+     */
+    public int removeLast() {
+        return values[--size];
+    }
+
+    /**
+     * Removes the first values, shifting the others down.
+     *
+     * @param count the number of values to remove
+     */
+    public void removeFirst(int count) {
+        System.arraycopy(values, count, values, 0, size - count);
+        size -= count;
+    }
+
+    /**
+     * Drops the values from an index on.
+     *
+     * @param newSize the number of values to keep
+     */
+    public void truncate(int newSize) {
+        size = newSize;
+    }
+
+    /**
+     * Returns the number of values.
+     *
+     * @return the size of the array
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns a copy of the values.
+     *
+     * @return the values, in order
+     */
+    public int[] toArray() {
+        return Arrays.copyOf(values, size);
+    }
+}
@@ -0,0 +1,262 @@
+package io.github.leobeaumont.Engine;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+/**
+ * Simulates a {@link CompiledNet} with maximal-step semantics: at each step, a maximal set of
+ * enabled transitions that don't conflict with each other is fired at once.
+ * <p>
+ * Transitions conflict when they can't all fire from the same marking in some order with the
+ * same result. At each step, the enabled transitions are visited in a random order and kept
+ * greedily if they don't conflict with the transitions already kept:
+ * </p>
+ * <ul>
+ *   <li>weighted incoming arcs share the tokens of their place: together they can't consume more
+ *       than the place holds;</li>
+ *   <li>an empty arc claims its place exclusively: no other kept transition may read it or
+ *       produce into it;</li>
+ *   <li>a zero arc forbids the other kept transitions to produce into its place.</li>
+ * </ul>
+ * <p>
+ * A transition rejected once can't be accepted later, since claims only grow during a step, so
+ * the set kept is maximal. The step then checks that no place overflows and applies, place by
+ * place, the consumed and produced tokens, so a failing step leaves the marking unchanged. On
+ * large nets, testing the enabled transitions and applying the step run in parallel on the
+ * common fork/join pool; the greedy selection is a single pass over the arcs of the enabled
+ * transitions.
+ * </p>
+ *
+ * <p>A simulator keeps scratch arrays between steps, so it must not be shared between threads.</p>
+ */
+public final class MaximalStepSimulator {
+
+    // Below these sizes, splitting the work costs more than it saves
+    private static final int PARALLEL_TRANSITIONS = 4096;
+    private static final int PARALLEL_PLACES = 4096;
+
+    private static final byte CONSUMED = 1;
+    private static final byte EMPTIED = 2;
+    private static final byte TESTED = 4;
+    private static final byte PRODUCED = 8;
+
+    private final CompiledNet net;
+
+    // Arcs of every transition, copied once from the compiled net
+    private final int[][] prePlaces;
+    private final int[][] preWeights;
+    private final int[][] postPlaces;
+    private final int[][] postWeights;
+    private final int[][] emptyPlaces;
+    private final int[][] zeroPlaces;
+
+    // Claims of the current step, only valid for the places listed in touched
+    private final int[] consumed;
+    private final long[] produced;
+    private final byte[] claims;
+    private final int[] touched;
+    private int nbTouched;
+
+    /**
+     * Creates a simulator for a compiled net.
+     *
+     * @param net the compiled net
+     */
+    public MaximalStepSimulator(CompiledNet net) {
+        this.net = net;
+        int nbTransitions = net.getTransitionCount();
+        this.prePlaces = new int[nbTransitions][];
+        this.preWeights = new int[nbTransitions][];
+        this.postPlaces = new int[nbTransitions][];
+        this.postWeights = new int[nbTransitions][];
+        this.emptyPlaces = new int[nbTransitions][];
+        this.zeroPlaces = new int[nbTransitions][];
+        for (int t = 0; t < nbTransitions; ++t) {
+            this.prePlaces[t] = net.getPrePlaces(t);
+            this.preWeights[t] = net.getPreWeights(t);
+            this.postPlaces[t] = net.getPostPlaces(t);
+            this.postWeights[t] = net.getPostWeights(t);
+            this.emptyPlaces[t] = net.getEmptyPlaces(t);
+            this.zeroPlaces[t] = net.getZeroPlaces(t);
+        }
+
+        int nbPlaces = net.getPlaceCount();
+        this.consumed = new int[nbPlaces];
+        this.produced = new long[nbPlaces];
+        this.claims = new byte[nbPlaces];
+        this.touched = new int[nbPlaces];
+    }
+
+    /**
+     * Fires one maximal step on the given marking.
+     *
+     * @param marking the marking to update, indexed by place
+     * @param random  the random source ordering the enabled transitions
+     * @return the transitions fired during the step, empty if none was enabled
+     * @throws IllegalStateException if the number of tokens of a place would exceed {@link Integer#MAX_VALUE};
+     *                               the marking is then left unchanged
+     */
+    public int[] step(int[] marking, RandomSource random) throws IllegalStateException {
+        int[] enabled = enabled(marking);
+
+        // Fisher-Yates shuffle, so that conflicts are resolved fairly
+        for (int i = enabled.length - 1; i > 0; --i) {
+            int j = random.nextInt(i + 1);
+            int swap = enabled[i];
+            enabled[i] = enabled[j];
+            enabled[j] = swap;
+        }
+
+        int nbSelected = 0;
+        for (int t : enabled) {
+            if (canClaim(t, marking)) {
+                claim(t);
+                enabled[nbSelected++] = t;
+            }
+        }
+
+        apply(marking);
+        return Arrays.copyOf(enabled, nbSelected);
+    }
+
+    /**
+     * Fires maximal steps on the given marking until {@code steps} have been fired or none
+     * is enabled.
+     *
+     * @param marking the marking to update, indexed by place
+     * @param steps   the number of steps to fire
+     * @param random  the random source ordering the enabled transitions
+     * @return the number of steps actually fired
+     * @throws IllegalStateException if the number of tokens of a place would exceed {@link Integer#MAX_VALUE};
+     *                               the marking is then left as before the failing step
+     */
+    public int simulate(int[] marking, int steps, RandomSource random) throws IllegalStateException {
+        for (int i = 0; i < steps; ++i) {
+            if (step(marking, random).length == 0) {
+                return i;
+            }
+        }
+        return steps;
+    }
+
+    /**
+     * Fires maximal steps on the current marking of the net.
+     *
+     * @param steps the number of steps to fire
+     * @param seed  the seed of the random source ordering the enabled transitions
+     * @return the description of the run, whose fired count is a number of steps
+     * @throws IllegalStateException if the number of tokens of a place would exceed {@link Integer#MAX_VALUE};
+     *                               the marking of the net is then left unchanged
+     */
+    public SimulationRun launchSimulation(int steps, long seed) throws IllegalStateException {
+        int[] initialMarking = net.getMarking();
+        int[] marking = initialMarking.clone();
+        int fired = simulate(marking, steps, RandomSource.seeded(seed));
+        net.setMarking(marking);
+        return new SimulationRun(seed, steps, fired, initialMarking, marking);
+    }
+
+    private int[] enabled(int[] marking) {
+        int nbTransitions = prePlaces.length;
+        if (nbTransitions >= PARALLEL_TRANSITIONS) {
+            return IntStream.range(0, nbTransitions).parallel().filter(t -> net.isEnabled(t, marking)).toArray();
+        }
+        int[] buffer = new int[nbTransitions];
+        return Arrays.copyOf(buffer, net.enabled(marking, buffer));
+    }
+
+    /**
+     * Tests whether an enabled transition can fire together with the transitions already claimed.
+     */
+    private boolean canClaim(int t, int[] marking) {
+        for (int a = 0; a < prePlaces[t].length; ++a) {
+            int p = prePlaces[t][a];
+            if ((claims[p] & EMPTIED) != 0 || marking[p] - consumed[p] < preWeights[t][a]) {
+                return false;
+            }
+        }
+        for (int p : emptyPlaces[t]) {
+            if (claims[p] != 0) {
+                return false;
+            }
+        }
+        for (int p : zeroPlaces[t]) {
+            if ((claims[p] & (EMPTIED | PRODUCED)) != 0) {
+                return false;
+            }
+        }
+        for (int p : postPlaces[t]) {
+            if ((claims[p] & (EMPTIED | TESTED)) != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void claim(int t) {
+        for (int a = 0; a < prePlaces[t].length; ++a) {
+            consumed[touch(prePlaces[t][a], CONSUMED)] += preWeights[t][a];
+        }
+        for (int p : emptyPlaces[t]) {
+            touch(p, EMPTIED);
+        }
+        for (int p : zeroPlaces[t]) {
+            touch(p, TESTED);
+        }
+        for (int a = 0; a < postPlaces[t].length; ++a) {
+            produced[touch(postPlaces[t][a], PRODUCED)] += postWeights[t][a];
+        }
+    }
+
+    private int touch(int p, byte claim) {
+        if (claims[p] == 0) {
+            touched[nbTouched++] = p;
+        }
+        claims[p] |= claim;
+        return p;
+    }
+
+    /**
+     * Checks that no place overflows, then applies the claimed consumptions and productions and clears
+     * the claims. If a place would overflow, the claims are cleared without changing the marking.
+     */
+    private void apply(int[] marking) throws IllegalStateException {
+        try {
+            forEachTouched(p -> CompiledNet.checkedTokens(remaining(p, marking) + produced[p],
+                remaining(p, marking), produced[p], p, "MaximalStepSimulator.step"));
+        } catch (IllegalStateException e) {
+            forEachTouched(this::clear);
+            nbTouched = 0;
+            throw e;
+        }
+        forEachTouched(p -> {
+            marking[p] = (int) (remaining(p, marking) + produced[p]);
+            clear(p);
+        });
+        nbTouched = 0;
+    }
+
+    private void forEachTouched(IntConsumer action) {
+        if (nbTouched >= PARALLEL_PLACES) {
+            IntStream.range(0, nbTouched).parallel().forEach(i -> action.accept(touched[i]));
+        } else {
+            for (int i = 0; i < nbTouched; ++i) {
+                action.accept(touched[i]);
+            }
+        }
+    }
+
+    /**
+     * Returns the tokens of a claimed place left after the consumptions of the step.
+     */
+    private int remaining(int p, int[] marking) {
+        return (claims[p] & EMPTIED) != 0 ? 0 : marking[p] - consumed[p];
+    }
+
+    private void clear(int p) {
+        consumed[p] = 0;
+        produced[p] = 0;
+        claims[p] = 0;
+    }
+}
@@ -0,0 +1,165 @@
+package io.github.leobeaumont.Engine;
+
+/**
+ * Aggregated statistics of a batch of independent simulations.
+ * <p>
+ * Means and variances are accumulated with Welford's online algorithm, and partial results
+ * computed in parallel are combined with the pairwise update of Chan et al., so no final marking
+ * has to be kept in memory.
+ * </p>
+ */
+public final class MonteCarloResult {
+
+    private long runs;
+    private final double[] tokenMean;
+    private final double[] tokenM2;
+
+    private long deadlocks;
+    private double deadlockStepsMean;
+    private double deadlockStepsM2;
+
+    /**
+     * Creates an empty result.
+     *
+     * @param nbPlaces the number of places of the simulated net
+     */
+    MonteCarloResult(int nbPlaces) {
+        this.tokenMean = new double[nbPlaces];
+        this.tokenM2 = new double[nbPlaces];
+    }
+
+    /**
+     * Accounts for one finished run.
+     *
+     * @param finalMarking the marking at the end of the run
+     * @param fired        the number of steps fired
+     * @param deadlocked   {@code true} if the run stopped because no transition was enabled
+     */
+    void add(int[] finalMarking, int fired, boolean deadlocked) {
+        ++runs;
+        for (int p = 0; p < finalMarking.length; ++p) {
+            double delta = finalMarking[p] - tokenMean[p];
+            tokenMean[p] += delta / runs;
+            tokenM2[p] += delta * (finalMarking[p] - tokenMean[p]);
+        }
+        if (deadlocked) {
+            ++deadlocks;
+            double delta = fired - deadlockStepsMean;
+            deadlockStepsMean += delta / deadlocks;
+            deadlockStepsM2 += delta * (fired - deadlockStepsMean);
+        }
+    }
+
+    /**
+     * Accounts for the runs of another result.
+     *
+     * @param other the result to merge into this one
+     */
+    void merge(MonteCarloResult other) {
+        long total = runs + other.runs;
+        if (other.runs == 0) {
+            return;
+        }
+        for (int p = 0; p < tokenMean.length; ++p) {
+            double delta = other.tokenMean[p] - tokenMean[p];
+            tokenMean[p] += delta * other.runs / total;
+            tokenM2[p] += other.tokenM2[p] + delta * delta * runs * other.runs / total;
+        }
+        runs = total;
+
+        long totalDeadlocks = deadlocks + other.deadlocks;
+        if (other.deadlocks > 0) {
+            double delta = other.deadlockStepsMean - deadlockStepsMean;
+            deadlockStepsMean += delta * other.deadlocks / totalDeadlocks;
+            deadlockStepsM2 += other.deadlockStepsM2 + delta * delta * deadlocks * other.deadlocks / totalDeadlocks;
+            deadlocks = totalDeadlocks;
+        }
+    }
+
+    /**
+     * Returns the number of runs.
+     *
+     * @return the number of runs
+     */
+    public long getRuns() {
+        return runs;
+    }
+
+    /**
+     * Returns the mean number of tokens of a place at the end of the runs.
+     *
+     * @param p the index of the place
+     * @return the mean final number of tokens
+     */
+    public double getMean(int p) {
+        return tokenMean[p];
+    }
+
+    /**
+     * Returns the sample variance of the number of tokens of a place at the end of the runs.
+     *
+     * @param p the index of the place
+     * @return the variance, or {@code 0} if there was a single run
+     */
+    public double getVariance(int p) {
+        return runs > 1 ? tokenM2[p] / (runs - 1) : 0;
+    }
+
+    /**
+     * Returns the mean final number of tokens of every place.
+     *
+     * @return the means, indexed by place
+     */
+    public double[] getMeans() {
+        return tokenMean.clone();
+    }
+
+    /**
+     * Returns the sample variance of the final number of tokens of every place.
+     *
+     * @return the variances, indexed by place
+     */
+    public double[] getVariances() {
+        double[] variances = new double[tokenM2.length];
+        for (int p = 0; p < variances.length; ++p) {
+            variances[p] = getVariance(p);
+        }
+        return variances;
+    }
+
+    /**
+     * Returns the number of runs that stopped before their last step because no transition was enabled.
+     *
+     * @return the number of deadlocked runs
+     */
+    public long getDeadlocks() {
+        return deadlocks;
+    }
+
+    /**
+     * Returns the fraction of runs that deadlocked.
+     *
+     * @return the estimated deadlock probability within the simulated number of steps
+     */
+    public double getDeadlockProbability() {
+        return runs > 0 ? (double) deadlocks / runs : 0;
+    }
+
+    /**
+     * Returns the mean number of steps fired by the deadlocked runs.
+     *
+     * @return the mean number of steps to deadlock, or {@link Double#NaN} if no run deadlocked
+     */
+    public double getMeanStepsToDeadlock() {
+        return deadlocks > 0 ? deadlockStepsMean : Double.NaN;
+    }
+
+    /**
+     * Returns the sample variance of the number of steps fired by the deadlocked runs.
+     *
+     * @return the variance of the number of steps to deadlock, or {@code 0} if less than two runs deadlocked
+     */
+    public double getVarianceStepsToDeadlock() {
+        return deadlocks > 1 ? deadlockStepsM2 / (deadlocks - 1) : 0;
+    }
+}
@@ -0,0 +1,122 @@
+package io.github.leobeaumont.Engine;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Runs many independent random simulations of a {@link CompiledNet} in parallel.
+ * <p>
+ * Every run starts from a snapshot of the current marking of the net, simulates on its own copy
+ * and uses its own {@link RandomSource}; the compiled structure is only read, so the runs share
+ * nothing but the net. The runs are split into contiguous ranges, a few per worker, and each range
+ * accumulates its own {@link MonteCarloResult} before the partial results are merged in range order.
+ * </p>
+ *
+ * <p>The runs only depend on the seed of the batch, not on the executor or the thread that ran them:
+ * run {@code i} is seeded with the {@code (i + 1)}-th value of {@code new SplittableRandom(seed).nextLong()},
+ * so any single run can be reproduced with {@link CompiledNet#launchSimulation(int, long)}.</p>
+ */
+public final class MonteCarloRunner {
+
+    // Ranges per worker, so that a slow range doesn't leave the other workers idle
+    private static final int RANGES_PER_WORKER = 4;
+
+    private final CompiledNet net;
+    private final ExecutorService executor;
+    private final int parallelism;
+
+    /**
+     * Creates a runner using the common fork/join pool.
+     *
+     * @param net the net to simulate
+     */
+    public MonteCarloRunner(CompiledNet net) {
+        this(net, ForkJoinPool.commonPool(), ForkJoinPool.getCommonPoolParallelism());
+    }
+
+    /**
+     * Creates a runner using the given executor.
+     *
+     * @param net         the net to simulate
+     * @param executor    the executor running the simulations; it is not shut down by the runner
+     * @param parallelism the number of workers of the executor
+     * @throws IllegalArgumentException if {@code parallelism} is not positive
+     */
+    public MonteCarloRunner(CompiledNet net, ExecutorService executor, int parallelism)
+            throws IllegalArgumentException {
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException(String.format(
+                "MonteCarloRunner(net, executor, parallelism) -- The argument parallelism must be positive: %d.",
+                parallelism));
+        }
+        this.net = net;
+        this.executor = executor;
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Runs independent simulations from the current marking of the net, which is left unchanged.
+     *
+     * @param nbRuns the number of simulations
+     * @param steps  the maximum number of steps of each simulation
+     * @param seed   the seed of the batch
+     * @return the aggregated statistics of the final markings
+     * @throws IllegalArgumentException if {@code nbRuns} is not positive or {@code steps} is negative
+     * @throws IllegalStateException    if a simulation failed or the batch was interrupted
+     */
+    public MonteCarloResult run(int nbRuns, int steps, long seed)
+            throws IllegalArgumentException, IllegalStateException {
+        if (nbRuns <= 0 || steps < 0) {
+            throw new IllegalArgumentException(String.format(
+                "MonteCarloRunner.run(nbRuns, steps, seed) -- Invalid arguments: %d runs of %d steps.",
+                nbRuns, steps));
+        }
+        int[] initialMarking = net.getMarking();
+        long[] seeds = new long[nbRuns];
+        SplittableRandom seeder = new SplittableRandom(seed);
+        for (int i = 0; i < nbRuns; ++i) {
+            seeds[i] = seeder.nextLong();
+        }
+
+        int nbRanges = Math.min(nbRuns, parallelism * RANGES_PER_WORKER);
+        List<Future<MonteCarloResult>> partials = new ArrayList<Future<MonteCarloResult>>(nbRanges);
+        for (int range = 0; range < nbRanges; ++range) {
+            int from = (int) ((long) nbRuns * range / nbRanges);
+            int to = (int) ((long) nbRuns * (range + 1) / nbRanges);
+            partials.add(executor.submit(() -> simulateRange(initialMarking, steps, seeds, from, to)));
+        }
+
+        MonteCarloResult result = new MonteCarloResult(initialMarking.length);
+        for (Future<MonteCarloResult> partial : partials) {
+            result.merge(await(partial));
+        }
+        return result;
+    }
+
+    private MonteCarloResult simulateRange(int[] initialMarking, int steps, long[] seeds, int from, int to) {
+        MonteCarloResult partial = new MonteCarloResult(initialMarking.length);
+        int[] marking = new int[initialMarking.length];
+        for (int i = from; i < to; ++i) {
+            System.arraycopy(initialMarking, 0, marking, 0, marking.length);
+            int fired = net.simulate(marking, steps, RandomSource.seeded(seeds[i]));
+            partial.add(marking, fired, fired < steps);
+        }
+        return partial;
+    }
+
+    private static MonteCarloResult await(Future<MonteCarloResult> partial) throws IllegalStateException {
+        try {
+            return partial.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("MonteCarloRunner.run -- The batch was interrupted.", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("MonteCarloRunner.run -- A simulation failed.", e.getCause());
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package io.github.leobeaumont.Engine;
+
+import java.util.Arrays;
+
+/**
+ * Set of enabled transitions drawn by strict priority, then in proportion to their weights.
+ * <p>
+ * A transition is only drawn when no enabled transition has a higher priority; among the enabled
+ * transitions of the highest priority, each one is drawn with a probability proportional to its
+ * weight. Every priority level keeps the weights of its enabled members in a {@link FenwickTree},
+ * and a last tree counts the enabled members of every level, so that adding or removing a
+ * transition, changing a weight, and drawing a transition all run in O(log n).
+ * </p>
+ */
+public final class PrioritySelector implements TransitionSelector {
+
+    private final double[] weights;
+    private final int[] levelOf;
+    private final int[] slotOf;
+    private final int[][] members;
+    private final FenwickTree[] levels;
+    private final FenwickTree enabledCounts;
+    private final boolean[] enabled;
+    private int size;
+
+    /**
+     * Creates an empty selector for transitions with the given priorities and weights.
+     *
+     * @param priorities the priority of every transition; higher priorities are drawn first
+     * @param weights    the selection weight of every transition
+     * @throws IllegalArgumentException if the arrays have different lengths, or a weight is not a
+     *                                  finite positive number
+     */
+    public PrioritySelector(int[] priorities, double[] weights) throws IllegalArgumentException {
+        if (priorities.length != weights.length) {
+            throw new IllegalArgumentException(String.format(
+                "PrioritySelector(priorities, weights) -- The arguments have different lengths (%d and %d).",
+                priorities.length, weights.length));
+        }
+        for (int t = 0; t < weights.length; ++t) {
+            checkWeight("PrioritySelector(priorities, weights)", t, weights[t]);
+        }
+        int nbTransitions = priorities.length;
+        this.weights = weights.clone();
+        this.levelOf = new int[nbTransitions];
+        this.slotOf = new int[nbTransitions];
+        this.enabled = new boolean[nbTransitions];
+
+        // Level 0 holds the highest priority
+        int[] sorted = priorities.clone();
+        Arrays.sort(sorted);
+        int[] distinct = new int[sorted.length];
+        int nbLevels = 0;
+        for (int i = sorted.length - 1; i >= 0; --i) {
+            if (nbLevels == 0 || sorted[i] != distinct[nbLevels - 1]) {
+                distinct[nbLevels++] = sorted[i];
+            }
+        }
+        int[] levelSizes = new int[nbLevels];
+        for (int t = 0; t < nbTransitions; ++t) {
+            int level = levelIndex(distinct, nbLevels, priorities[t]);
+            levelOf[t] = level;
+            slotOf[t] = levelSizes[level]++;
+        }
+        this.members = new int[nbLevels][];
+        this.levels = new FenwickTree[nbLevels];
+        for (int level = 0; level < nbLevels; ++level) {
+            members[level] = new int[levelSizes[level]];
+            levels[level] = new FenwickTree(levelSizes[level]);
+        }
+        for (int t = 0; t < nbTransitions; ++t) {
+            members[levelOf[t]][slotOf[t]] = t;
+        }
+        this.enabledCounts = new FenwickTree(nbLevels);
+    }
+
+    /**
+     * Finds a priority in the distinct priorities, sorted in decreasing order.
+     */
+    private static int levelIndex(int[] distinct, int nbLevels, int priority) {
+        int low = 0;
+        int high = nbLevels - 1;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (distinct[middle] > priority) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private static void checkWeight(String method, int t, double weight) throws IllegalArgumentException {
+        if (!(weight > 0) || Double.isInfinite(weight)) {
+            throw new IllegalArgumentException(String.format(
+                "%s -- The weight of transition %d (%s) must be a finite positive number.", method, t, weight));
+        }
+    }
+
+    /**
+     * Adds or removes a transition depending on whether it is enabled.
+     *
+     * @param t         the index of the transition
+     * @param isEnabled {@code true} to add the transition, {@code false} to remove it
+     */
+    @Override
+    public void set(int t, boolean isEnabled) {
+        if (enabled[t] == isEnabled) {
+            return;
+        }
+        enabled[t] = isEnabled;
+        int level = levelOf[t];
+        levels[level].set(slotOf[t], isEnabled ? weights[t] : 0);
+        enabledCounts.set(level, enabledCounts.get(level) + (isEnabled ? 1 : -1));
+        size += isEnabled ? 1 : -1;
+    }
+
+    @Override
+    public boolean contains(int t) {
+        return enabled[t];
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Returns the number of enabled transitions.
+     *
+     * @return the size of the set
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Draws an enabled transition of the highest priority, in proportion to its weight.
+     *
+     * @param random the random source
+     * @return the index of the chosen transition
+     * @throws IllegalStateException if the set is empty
+     */
+    @Override
+    public int pick(RandomSource random) throws IllegalStateException {
+        if (size == 0) {
+            throw new IllegalStateException("PrioritySelector.pick(random) -- The set is empty.");
+        }
+        int level = enabledCounts.find(0);
+        FenwickTree tree = levels[level];
+        return members[level][tree.find(random.nextDouble() * tree.total())];
+    }
+
+    /**
+     * Returns the selection weight of a transition.
+     *
+     * @param t the index of the transition
+     * @return the weight
+     */
+    public double getWeight(int t) {
+        return weights[t];
+    }
+
+    /**
+     * Changes the selection weight of a transition, enabled or not.
+     *
+     * @param t      the index of the transition
+     * @param weight the new weight
+     * @throws IllegalArgumentException if {@code weight} is not a finite positive number
+     */
+    public void setWeight(int t, double weight) throws IllegalArgumentException {
+        checkWeight("PrioritySelector.setWeight(t, weight)", t, weight);
+        weights[t] = weight;
+        if (enabled[t]) {
+            levels[levelOf[t]].set(slotOf[t], weight);
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package io.github.leobeaumont.Engine;
+
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Source of random numbers used to select the transitions to fire.
+ * <p>
+ * A source is created once per simulation run and is not meant to be shared between threads.
+ * A source created by {@link #seeded(long)} always produces the same sequence for the same seed,
+ * which is what makes a {@link SimulationRun} replayable.
+ * </p>
+ */
+public interface RandomSource {
+
+    /**
+     * Returns a pseudorandom integer between {@code 0} (included) and {@code bound} (excluded).
+     *
+     * @param bound the upper bound, must be positive
+     * @return the next integer
+     */
+    int nextInt(int bound);
+
+    /**
+     * Returns a pseudorandom number between {@code 0.0} (included) and {@code 1.0} (excluded).
+     *
+     * @return the next number
+     */
+    double nextDouble();
+
+    /**
+     * Returns an exponentially distributed delay.
+     *
+     * @param rate the rate of the distribution, must be positive
+     * @return the delay, of mean {@code 1 / rate}
+     */
+    default double nextExponential(double rate) {
+        return -Math.log(1.0 - nextDouble()) / rate;
+    }
+
+    /**
+     * Returns a Poisson-distributed count.
+     *
+     * @param mean the mean of the distribution, non-negative
+     * @return the count
+     */
+    default long nextPoisson(double mean) {
+        return Distributions.poisson(this, mean);
+    }
+
+    /**
+     * Creates a deterministic source backed by a {@link java.util.SplittableRandom}.
+     *
+     * @param seed the seed
+     * @return the source
+     */
+    static RandomSource seeded(long seed) {
+        return new SplittableRandomSource(seed);
+    }
+
+    /**
+     * Wraps a caller-supplied generator.
+     *
+     * @param random the generator to use
+     * @return the source
+     */
+    static RandomSource of(Random random) {
+        return new RandomSource() {
+            @Override
+            public int nextInt(int bound) {
+                return random.nextInt(bound);
+            }
+
+            @Override
+            public double nextDouble() {
+                return random.nextDouble();
+            }
+        };
+    }
+
+    /**
+     * Returns a new seed, different at every call, for runs that don't specify one.
+     *
+     * @return the seed
+     */
+    static long newSeed() {
+        return ThreadLocalRandom.current().nextLong();
+    }
+}
@@ -0,0 +1,89 @@
+package io.github.leobeaumont.Engine;
+
+/**
+ * Describes a finished simulation run, with everything needed to replay it.
+ * <p>
+ * A run is determined by its initial marking, its number of steps and its seed: replaying it on
+ * the same net (see {@link CompiledNet#replay(SimulationRun)}) fires exactly the same transitions
+ * and reaches the same final marking.
+ * </p>
+ */
+public final class SimulationRun {
+
+    private final long seed;
+    private final int steps;
+    private final int fired;
+    private final int[] initialMarking;
+    private final int[] finalMarking;
+
+    /**
+     * Creates a run descriptor.
+     *
+     * @param seed           the seed of the {@link RandomSource} used by the run
+     * @param steps          the number of steps requested
+     * @param fired          the number of steps actually fired
+     * @param initialMarking the marking before the run, indexed by place
+     * @param finalMarking   the marking after the run, indexed by place
+     */
+    public SimulationRun(long seed, int steps, int fired, int[] initialMarking, int[] finalMarking) {
+        this.seed = seed;
+        this.steps = steps;
+        this.fired = fired;
+        this.initialMarking = initialMarking.clone();
+        this.finalMarking = finalMarking.clone();
+    }
+
+    /**
+     * Returns the seed of the run.
+     *
+     * @return the seed
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Returns the number of steps requested.
+     *
+     * @return the number of steps
+     */
+    public int getSteps() {
+        return steps;
+    }
+
+    /**
+     * Returns the number of steps actually fired.
+     *
+     * @return the number of fired steps, less than {@link #getSteps()} if the net deadlocked
+     */
+    public int getFired() {
+        return fired;
+    }
+
+    /**
+     * Tests whether the run stopped because no transition could be drawn.
+     *
+     * @return {@code true} if the net deadlocked before the last step
+     */
+    public boolean isDeadlocked() {
+        return fired < steps;
+    }
+
+    /**
+     * Returns the marking before the run.
+     *
+     * @return a copy of the initial marking, indexed by place
+     */
+    public int[] getInitialMarking() {
+        return initialMarking.clone();
+    }
+
+    /**
+     * Returns the marking after the run.
+     *
+     * @return a copy of the final marking, indexed by place
+     */
+    public int[] getFinalMarking() {
+        return finalMarking.clone();
+    }
+}
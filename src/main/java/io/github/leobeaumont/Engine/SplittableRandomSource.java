@@ -0,0 +1,30 @@
+package io.github.leobeaumont.Engine;
+
+import java.util.SplittableRandom;
+
+/**
+ * {@link RandomSource} backed by a {@link SplittableRandom}.
+ */
+final class SplittableRandomSource implements RandomSource {
+
+    private final SplittableRandom random;
+
+    /**
+     * Creates a source producing the sequence determined by a seed.
+     *
+     * @param seed the seed
+     */
+    SplittableRandomSource(long seed) {
+        this.random = new SplittableRandom(seed);
+    }
+
+    @Override
+    public int nextInt(int bound) {
+        return random.nextInt(bound);
+    }
+
+    @Override
+    public double nextDouble() {
+        return random.nextDouble();
+    }
+}
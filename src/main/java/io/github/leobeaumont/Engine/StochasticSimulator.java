@@ -0,0 +1,73 @@
+package io.github.leobeaumont.Engine;
+
+/**
+ * Continuous-time simulator of a {@link CompiledNet} whose transitions fire at exponentially
+ * distributed delays, using the next-reaction method of Gibson and Bruck.
+ * <p>
+ * Every enabled transition with a positive rate (see {@link CompiledNet#getRate(int)}) holds a
+ * putative firing time in an {@link IndexedPriorityQueue}; the next event is the head of the queue.
+ * Since a transition fires at its rate as long as it is enabled, the putative time of a transition
+ * that stays enabled remains valid: after an event, only the fired transition and the transitions
+ * whose enabling changed need a new time. The dependency graph of {@link CompiledNet#getDependents(int)},
+ * built once, lists them, so each event costs O(d log |T|) where {@code d} is the number of
+ * dependent transitions.
+ * </p>
+ *
+ * <p>Rates changed during a simulation are ignored until the affected transitions are scheduled
+ * again. A simulator only reads the compiled net, so it can be shared by threads simulating
+ * distinct markings.</p>
+ */
+public final class StochasticSimulator {
+
+    private final CompiledNet net;
+    private final DiscreteEventLoop loop;
+
+    /**
+     * Creates a simulator for a compiled net and builds its dependency graph.
+     *
+     * @param net the compiled net
+     */
+    public StochasticSimulator(CompiledNet net) {
+        this.net = net;
+        this.loop = new DiscreteEventLoop(net, (t, random) -> {
+            double rate = net.getRate(t);
+            return rate > 0 ? random.nextExponential(rate) : Double.POSITIVE_INFINITY;
+        });
+    }
+
+    /**
+     * Simulates the net from the given marking until a time limit, a number of events, or a deadlock.
+     *
+     * @param marking   the marking to update, indexed by place
+     * @param endTime   the simulated time at which to stop, possibly infinite if {@code maxEvents} is
+     *                  not {@link Long#MAX_VALUE}
+     * @param maxEvents the maximum number of transitions to fire
+     * @param random    the random source drawing the delays
+     * @return the statistics of the run
+     * @throws IllegalArgumentException if {@code endTime} or {@code maxEvents} is negative, or if both
+     *                                  are unbounded
+     */
+    public TimeStatistics simulate(int[] marking, double endTime, long maxEvents, RandomSource random)
+            throws IllegalArgumentException {
+        if (!(endTime >= 0) || maxEvents < 0 || Double.isInfinite(endTime) && maxEvents == Long.MAX_VALUE) {
+            throw new IllegalArgumentException(String.format(
+                "StochasticSimulator.simulate -- Invalid limits: time %s, %d events.", endTime, maxEvents));
+        }
+        return loop.run(marking, endTime, maxEvents, random);
+    }
+
+    /**
+     * Simulates the net from its current marking, which is updated at the end.
+     *
+     * @param endTime the simulated time at which to stop
+     * @param seed    the seed of the random source drawing the delays
+     * @return the statistics of the run
+     * @throws IllegalArgumentException if {@code endTime} is negative or infinite
+     */
+    public TimeStatistics launchSimulation(double endTime, long seed) throws IllegalArgumentException {
+        int[] marking = net.getMarking();
+        TimeStatistics statistics = simulate(marking, endTime, Long.MAX_VALUE, RandomSource.seeded(seed));
+        net.setMarking(marking);
+        return statistics;
+    }
+}
@@ -0,0 +1,388 @@
+package io.github.leobeaumont.Engine;
+
+import java.util.Arrays;
+
+/**
+ * Approximate continuous-time simulator of a {@link CompiledNet} for places holding many tokens,
+ * using tau-leaping.
+ * <p>
+ * The stochastic model is the one of {@link StochasticSimulator}: an enabled transition fires at
+ * its rate. Instead of firing one transition per event, a leap of length {@code tau} fires every
+ * transition a Poisson-distributed number of times of mean {@code rate * tau}, assuming the set of
+ * enabled transitions doesn't change during the leap. The step size is chosen with the method of
+ * Cao, Gillespie and Petzold (2006), so that the expected change of every consumed place stays
+ * below a fraction {@code epsilon} of its tokens.
+ * </p>
+ *
+ * <p>Some transitions are critical and are never leaped:</p>
+ * <ul>
+ *   <li>transitions with an empty or a zero arc, whose effect isn't proportional to their number
+ *       of firings;</li>
+ *   <li>transitions that can fire less than {@code criticalThreshold} times in a row from the
+ *       current marking.</li>
+ * </ul>
+ * <p>
+ * At most one critical transition fires per leap, exactly, at an exponentially distributed time
+ * computed from their total rate. If a leap would still empty a place below zero, it is rejected
+ * and retried with half the step size. When leaps become too short to pay off, the simulator falls
+ * back to a batch of exact steps. Token counts are computed in {@code long} and checked against
+ * {@link Integer#MAX_VALUE}, so an overflow is reported instead of wrapping around.
+ * </p>
+ */
+public final class TauLeapingSimulator {
+
+    /**
+     * Default bound on the relative change of a place during one leap.
+     */
+    public static final double DEFAULT_EPSILON = 0.03;
+
+    /**
+     * Default minimal number of consecutive firings for a transition to be leaped.
+     */
+    public static final int DEFAULT_CRITICAL_THRESHOLD = 10;
+
+    // Leaps shorter than this many mean exact steps are replaced by exact steps
+    private static final double EXACT_STEPS_THRESHOLD = 10.0;
+    private static final int EXACT_STEPS_BATCH = 100;
+
+    private final CompiledNet net;
+    private final double epsilon;
+    private final int criticalThreshold;
+
+    private final int[][] prePlaces;
+    private final int[][] preWeights;
+    private final int[][] postPlaces;
+    private final int[][] postWeights;
+
+    // Transitions with an empty or a zero arc
+    private final boolean[] alwaysCritical;
+
+    /**
+     * Creates a simulator with the default step-size control.
+     *
+     * @param net the compiled net
+     */
+    public TauLeapingSimulator(CompiledNet net) {
+        this(net, DEFAULT_EPSILON, DEFAULT_CRITICAL_THRESHOLD);
+    }
+
+    /**
+     * Creates a simulator.
+     *
+     * @param net               the compiled net
+     * @param epsilon           the bound on the relative change of a place during one leap, in {@code (0, 1)}
+     * @param criticalThreshold the minimal number of consecutive firings for a transition to be leaped
+     * @throws IllegalArgumentException if {@code epsilon} is not in {@code (0, 1)} or the threshold is negative
+     */
+    public TauLeapingSimulator(CompiledNet net, double epsilon, int criticalThreshold)
+            throws IllegalArgumentException {
+        if (!(epsilon > 0 && epsilon < 1) || criticalThreshold < 0) {
+            throw new IllegalArgumentException(String.format(
+                "TauLeapingSimulator(net, %s, %d) -- Invalid step-size control.", epsilon, criticalThreshold));
+        }
+        this.net = net;
+        this.epsilon = epsilon;
+        this.criticalThreshold = criticalThreshold;
+
+        int nbTransitions = net.getTransitionCount();
+        this.prePlaces = new int[nbTransitions][];
+        this.preWeights = new int[nbTransitions][];
+        this.postPlaces = new int[nbTransitions][];
+        this.postWeights = new int[nbTransitions][];
+        this.alwaysCritical = new boolean[nbTransitions];
+        for (int t = 0; t < nbTransitions; ++t) {
+            this.prePlaces[t] = net.getPrePlaces(t);
+            this.preWeights[t] = net.getPreWeights(t);
+            this.postPlaces[t] = net.getPostPlaces(t);
+            this.postWeights[t] = net.getPostWeights(t);
+            this.alwaysCritical[t] = net.getEmptyPlaces(t).length > 0 || net.getZeroPlaces(t).length > 0;
+        }
+    }
+
+    /**
+     * Simulates the net from the given marking until a time limit or a deadlock.
+     *
+     * @param marking the marking to update, indexed by place
+     * @param endTime the simulated time at which to stop, finite
+     * @param random  the random source
+     * @return the statistics of the run; time averages are integrated over the leaps
+     * @throws IllegalArgumentException if {@code endTime} is negative or infinite
+     * @throws IllegalStateException    if the number of tokens of a place overflows
+     */
+    public TimeStatistics simulate(int[] marking, double endTime, RandomSource random)
+            throws IllegalArgumentException, IllegalStateException {
+        if (!(endTime >= 0) || Double.isInfinite(endTime)) {
+            throw new IllegalArgumentException(String.format(
+                "TauLeapingSimulator.simulate -- The time limit must be finite and non-negative: %s.", endTime));
+        }
+        Run run = new Run(marking, random);
+        while (run.now < endTime && run.step(endTime)) {
+            continue;
+        }
+        boolean deadlocked = run.now < endTime;
+        double[] meanTokens = new double[marking.length];
+        for (int p = 0; p < marking.length; ++p) {
+            run.area[p] += marking[p] * (endTime - run.now);
+            meanTokens[p] = endTime > 0 ? run.area[p] / endTime : marking[p];
+        }
+        return new TimeStatistics(endTime, run.events, deadlocked, meanTokens, run.firings, marking);
+    }
+
+    /**
+     * Simulates the net from its current marking, which is updated at the end.
+     *
+     * @param endTime the simulated time at which to stop, finite
+     * @param seed    the seed of the random source
+     * @return the statistics of the run
+     * @throws IllegalArgumentException if {@code endTime} is negative or infinite
+     * @throws IllegalStateException    if the number of tokens of a place overflows
+     */
+    public TimeStatistics launchSimulation(double endTime, long seed)
+            throws IllegalArgumentException, IllegalStateException {
+        int[] marking = net.getMarking();
+        TimeStatistics statistics = simulate(marking, endTime, RandomSource.seeded(seed));
+        net.setMarking(marking);
+        return statistics;
+    }
+
+    /**
+     * Returns how many times in a row a transition can fire from a marking, considering its
+     * weighted incoming arcs only.
+     *
+     * @param t       the index of the transition
+     * @param marking the marking
+     * @return the number of consecutive firings, {@link Long#MAX_VALUE} if unbounded
+     */
+    private long consecutiveFirings(int t, int[] marking) {
+        long firings = Long.MAX_VALUE;
+        for (int a = 0; a < prePlaces[t].length; ++a) {
+            if (preWeights[t][a] > 0) {
+                firings = Math.min(firings, marking[prePlaces[t][a]] / preWeights[t][a]);
+            }
+        }
+        return firings;
+    }
+
+    /**
+     * State of one simulation run.
+     */
+    private final class Run {
+
+        private final int[] marking;
+        private final RandomSource random;
+        private final double[] area;
+        private final long[] firings;
+        private final double[] rates;
+        private final boolean[] critical;
+        private final long[] leapFirings;
+        private final long[] nextMarking;
+        private final double[] drift;
+        private final double[] spread;
+        private double now;
+        private long events;
+
+        Run(int[] marking, RandomSource random) {
+            int nbTransitions = prePlaces.length;
+            this.marking = marking;
+            this.random = random;
+            this.area = new double[marking.length];
+            this.firings = new long[nbTransitions];
+            this.rates = new double[nbTransitions];
+            this.critical = new boolean[nbTransitions];
+            this.leapFirings = new long[nbTransitions];
+            this.nextMarking = new long[marking.length];
+            this.drift = new double[marking.length];
+            this.spread = new double[marking.length];
+        }
+
+        /**
+         * Advances the simulation by one leap or one batch of exact steps.
+         *
+         * @return {@code false} if no transition can fire any more
+         */
+        boolean step(double endTime) {
+            double totalRate = 0;
+            double criticalRate = 0;
+            for (int t = 0; t < rates.length; ++t) {
+                rates[t] = net.isEnabled(t, marking) ? net.getRate(t) : 0;
+                critical[t] = alwaysCritical[t] || consecutiveFirings(t, marking) < criticalThreshold;
+                totalRate += rates[t];
+                if (critical[t]) {
+                    criticalRate += rates[t];
+                }
+            }
+            if (totalRate <= 0) {
+                return false;
+            }
+
+            double leap = leapSize();
+            if (leap < EXACT_STEPS_THRESHOLD / totalRate) {
+                exactSteps(endTime);
+                return true;
+            }
+
+            double criticalTime = criticalRate > 0 ? random.nextExponential(criticalRate) : Double.POSITIVE_INFINITY;
+            while (true) {
+                double tau = Math.min(Math.min(leap, criticalTime), endTime - now);
+                int criticalTransition = tau == criticalTime ? pick(criticalRate, true) : -1;
+                if (tryLeap(tau, criticalTransition)) {
+                    return true;
+                }
+                leap = tau / 2;
+            }
+        }
+
+        /**
+         * Computes the leap size bounding the expected change of every place consumed by a
+         * non-critical transition (Cao, Gillespie and Petzold, 2006).
+         */
+        private double leapSize() {
+            Arrays.fill(drift, 0);
+            Arrays.fill(spread, 0);
+            boolean[] consumed = new boolean[marking.length];
+            for (int t = 0; t < rates.length; ++t) {
+                if (critical[t] || rates[t] <= 0) {
+                    continue;
+                }
+                accumulate(prePlaces[t], preWeights[t], -rates[t], consumed);
+                accumulate(postPlaces[t], postWeights[t], rates[t], null);
+            }
+
+            double leap = Double.POSITIVE_INFINITY;
+            for (int p = 0; p < marking.length; ++p) {
+                if (consumed[p]) {
+                    double bound = Math.max(epsilon * marking[p], 1.0);
+                    leap = Math.min(leap, bound / Math.abs(drift[p]));
+                    leap = Math.min(leap, bound * bound / spread[p]);
+                }
+            }
+            return leap;
+        }
+
+        private void accumulate(int[] places, int[] weights, double rate, boolean[] consumed) {
+            for (int a = 0; a < places.length; ++a) {
+                int p = places[a];
+                drift[p] += weights[a] * rate;
+                spread[p] += (double) weights[a] * weights[a] * Math.abs(rate);
+                if (consumed != null && weights[a] > 0) {
+                    consumed[p] = true;
+                }
+            }
+        }
+
+        /**
+         * Picks an enabled transition with a probability proportional to its rate.
+         *
+         * @param totalRate    the total rate of the candidates
+         * @param criticalOnly {@code true} to only consider the critical transitions
+         */
+        private int pick(double totalRate, boolean criticalOnly) {
+            double target = random.nextDouble() * totalRate;
+            int last = -1;
+            for (int t = 0; t < rates.length; ++t) {
+                if (rates[t] > 0 && (critical[t] || !criticalOnly)) {
+                    last = t;
+                    target -= rates[t];
+                    if (target < 0) {
+                        return t;
+                    }
+                }
+            }
+            return last;
+        }
+
+        /**
+         * Fires the critical transition, if any, then leaps the non-critical ones.
+         *
+         * @return {@code false} if the leap was rejected because a place would become negative
+         */
+        private boolean tryLeap(double tau, int criticalTransition) {
+            for (int p = 0; p < marking.length; ++p) {
+                nextMarking[p] = marking[p];
+            }
+            int[] afterCritical = null;
+            if (criticalTransition >= 0) {
+                afterCritical = marking.clone();
+                net.fire(criticalTransition, afterCritical);
+                for (int p = 0; p < marking.length; ++p) {
+                    nextMarking[p] = afterCritical[p];
+                }
+            }
+
+            for (int t = 0; t < rates.length; ++t) {
+                leapFirings[t] = critical[t] ? 0 : random.nextPoisson(rates[t] * tau);
+                if (leapFirings[t] > 0) {
+                    apply(t, leapFirings[t]);
+                }
+            }
+            for (int p = 0; p < marking.length; ++p) {
+                if (nextMarking[p] < 0) {
+                    return false;
+                }
+                if (nextMarking[p] > Integer.MAX_VALUE) {
+                    throw new IllegalStateException(String.format(
+                        "TauLeapingSimulator.simulate -- The number of tokens of place %d overflows: %d.",
+                        p, nextMarking[p]));
+                }
+            }
+
+            for (int p = 0; p < marking.length; ++p) {
+                area[p] += marking[p] * tau;
+                marking[p] = (int) nextMarking[p];
+            }
+            for (int t = 0; t < rates.length; ++t) {
+                firings[t] += leapFirings[t];
+                events += leapFirings[t];
+            }
+            if (criticalTransition >= 0) {
+                ++firings[criticalTransition];
+                ++events;
+            }
+            now += tau;
+            return true;
+        }
+
+        private void apply(int t, long count) {
+            for (int a = 0; a < prePlaces[t].length; ++a) {
+                nextMarking[prePlaces[t][a]] -= count * preWeights[t][a];
+            }
+            for (int a = 0; a < postPlaces[t].length; ++a) {
+                nextMarking[postPlaces[t][a]] += count * postWeights[t][a];
+            }
+        }
+
+        /**
+         * Fires a batch of exact steps with Gillespie's direct method, which suits the small token
+         * counts that make leaps too short.
+         */
+        private void exactSteps(double endTime) {
+            for (int i = 0; i < EXACT_STEPS_BATCH; ++i) {
+                double totalRate = 0;
+                for (int t = 0; t < rates.length; ++t) {
+                    rates[t] = net.isEnabled(t, marking) ? net.getRate(t) : 0;
+                    totalRate += rates[t];
+                }
+                if (totalRate <= 0) {
+                    return;
+                }
+                double next = now + random.nextExponential(totalRate);
+                if (next >= endTime) {
+                    for (int p = 0; p < marking.length; ++p) {
+                        area[p] += marking[p] * (endTime - now);
+                    }
+                    now = endTime;
+                    return;
+                }
+
+                int fired = pick(totalRate, false);
+                for (int p = 0; p < marking.length; ++p) {
+                    area[p] += marking[p] * (next - now);
+                }
+                net.fire(fired, marking);
+                ++firings[fired];
+                ++events;
+                now = next;
+            }
+        }
+    }
+}
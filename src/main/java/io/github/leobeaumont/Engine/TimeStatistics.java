@@ -0,0 +1,110 @@
+package io.github.leobeaumont.Engine;
+
+/**
+ * Statistics of a continuous-time simulation run.
+ */
+public final class TimeStatistics {
+
+    private final double time;
+    private final long events;
+    private final boolean deadlocked;
+    private final double[] meanTokens;
+    private final long[] firings;
+    private final int[] finalMarking;
+
+    /**
+     * Creates the statistics of a run.
+     *
+     * @param time         the simulated time covered by the statistics
+     * @param events       the number of transitions fired
+     * @param deadlocked   {@code true} if the run stopped because no transition could fire
+     * @param meanTokens   the time-averaged number of tokens of every place
+     * @param firings      the number of firings of every transition
+     * @param finalMarking the marking at the end of the run
+     */
+    TimeStatistics(double time, long events, boolean deadlocked, double[] meanTokens, long[] firings,
+                   int[] finalMarking) {
+        this.time = time;
+        this.events = events;
+        this.deadlocked = deadlocked;
+        this.meanTokens = meanTokens;
+        this.firings = firings;
+        this.finalMarking = finalMarking.clone();
+    }
+
+    /**
+     * Returns the simulated time covered by the run: the time limit, or the time of the last event
+     * if the run was stopped by its number of events or had no time limit.
+     *
+     * @return the simulated time
+     */
+    public double getTime() {
+        return time;
+    }
+
+    /**
+     * Returns the number of transitions fired.
+     *
+     * @return the number of events
+     */
+    public long getEvents() {
+        return events;
+    }
+
+    /**
+     * Tests whether the run stopped because no transition could fire any more.
+     *
+     * @return {@code true} if the net deadlocked
+     */
+    public boolean isDeadlocked() {
+        return deadlocked;
+    }
+
+    /**
+     * Returns the time-averaged number of tokens of a place.
+     *
+     * @param p the index of the place
+     * @return the mean number of tokens over the simulated time
+     */
+    public double getMeanTokens(int p) {
+        return meanTokens[p];
+    }
+
+    /**
+     * Returns the time-averaged number of tokens of every place.
+     *
+     * @return the means, indexed by place
+     */
+    public double[] getMeanTokens() {
+        return meanTokens.clone();
+    }
+
+    /**
+     * Returns the number of times a transition fired.
+     *
+     * @param t the index of the transition
+     * @return the number of firings
+     */
+    public long getFirings(int t) {
+        return firings[t];
+    }
+
+    /**
+     * Returns the throughput of a transition.
+     *
+     * @param t the index of the transition
+     * @return the number of firings per unit of simulated time, {@code 0} if no time elapsed
+     */
+    public double getThroughput(int t) {
+        return time > 0 ? firings[t] / time : 0;
+    }
+
+    /**
+     * Returns the marking at the end of the run.
+     *
+     * @return a copy of the final marking, indexed by place
+     */
+    public int[] getFinalMarking() {
+        return finalMarking.clone();
+    }
+}
@@ -0,0 +1,76 @@
+package io.github.leobeaumont.Engine;
+
+/**
+ * Discrete-event simulator of a timed {@link CompiledNet}, where each transition fires after a
+ * delay drawn uniformly between its smallest and largest delays (see {@link CompiledNet#getMinDelay(int)}).
+ * <p>
+ * When a transition becomes enabled, its firing is scheduled at the current time plus its delay
+ * in an {@link IndexedPriorityQueue}; the simulated clock then jumps to the earliest pending
+ * firing. A transition that stays enabled keeps its scheduled firing, and one that is disabled
+ * before firing loses it. After an event, only the transitions reading a place changed by the
+ * fired transition are examined, so the enabled transitions are never polled at every tick.
+ * Transitions scheduled at the same time fire in the order of their indices.
+ * </p>
+ *
+ * <p>Transitions with a zero delay fire as soon as they are enabled, without advancing the clock;
+ * a cycle of such transitions would fire forever at the same time, which is why the simulations
+ * are bounded by a number of events. A scheduler only reads the compiled net, so it can be shared
+ * by threads simulating distinct markings.</p>
+ */
+public final class TimedScheduler {
+
+    private final CompiledNet net;
+    private final DiscreteEventLoop loop;
+
+    /**
+     * Creates a scheduler for a compiled net and builds its dependency graph.
+     *
+     * @param net the compiled net
+     */
+    public TimedScheduler(CompiledNet net) {
+        this.net = net;
+        this.loop = new DiscreteEventLoop(net, (t, random) -> {
+            double minDelay = net.getMinDelay(t);
+            double maxDelay = net.getMaxDelay(t);
+            return maxDelay > minDelay ? minDelay + (maxDelay - minDelay) * random.nextDouble() : minDelay;
+        });
+    }
+
+    /**
+     * Simulates the net from the given marking until a time limit, a number of events, or a deadlock.
+     *
+     * @param marking   the marking to update, indexed by place
+     * @param endTime   the simulated time at which to stop, possibly infinite if {@code maxEvents} is
+     *                  not {@link Long#MAX_VALUE}
+     * @param maxEvents the maximum number of transitions to fire
+     * @param random    the random source drawing the delays in their intervals
+     * @return the statistics of the run
+     * @throws IllegalArgumentException if {@code endTime} or {@code maxEvents} is negative, or if both
+     *                                  are unbounded
+     */
+    public TimeStatistics simulate(int[] marking, double endTime, long maxEvents, RandomSource random)
+            throws IllegalArgumentException {
+        if (!(endTime >= 0) || maxEvents < 0 || Double.isInfinite(endTime) && maxEvents == Long.MAX_VALUE) {
+            throw new IllegalArgumentException(String.format(
+                "TimedScheduler.simulate -- Invalid limits: time %s, %d events.", endTime, maxEvents));
+        }
+        return loop.run(marking, endTime, maxEvents, random);
+    }
+
+    /**
+     * Simulates the net from its current marking, which is updated at the end.
+     *
+     * @param endTime   the simulated time at which to stop
+     * @param maxEvents the maximum number of transitions to fire
+     * @param seed      the seed of the random source drawing the delays in their intervals
+     * @return the statistics of the run
+     * @throws IllegalArgumentException if {@code endTime} or {@code maxEvents} is negative, or if both
+     *                                  are unbounded
+     */
+    public TimeStatistics launchSimulation(double endTime, long maxEvents, long seed) throws IllegalArgumentException {
+        int[] marking = net.getMarking();
+        TimeStatistics statistics = simulate(marking, endTime, maxEvents, RandomSource.seeded(seed));
+        net.setMarking(marking);
+        return statistics;
+    }
+}
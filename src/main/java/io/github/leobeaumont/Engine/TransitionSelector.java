@@ -0,0 +1,39 @@
+package io.github.leobeaumont.Engine;
+
+/**
+ * Set of enabled transitions from which a simulation draws the next transition to fire.
+ */
+public interface TransitionSelector {
+
+    /**
+     * Adds or removes a transition depending on whether it is enabled.
+     *
+     * @param t       the index of the transition
+     * @param enabled {@code true} to add the transition, {@code false} to remove it
+     */
+    void set(int t, boolean enabled);
+
+    /**
+     * Tests whether a transition belongs to the set.
+     *
+     * @param t the index of the transition
+     * @return {@code true} if the transition is present
+     */
+    boolean contains(int t);
+
+    /**
+     * Tests whether the set is empty.
+     *
+     * @return {@code true} if no transition is enabled
+     */
+    boolean isEmpty();
+
+    /**
+     * Draws a member at random.
+     *
+     * @param random the random source
+     * @return the index of the chosen transition
+     * @throws IllegalStateException if the set is empty
+     */
+    int pick(RandomSource random) throws IllegalStateException;
+}
@@ -1,7 +1,6 @@
 package io.github.leobeaumont.Nodes;
 
-public class Node {
-    /**
+/**
  * Represents a node in a PetriNet.
  * <p>
  * This class defines the basic structure of a node within a Petri net.
@@ -13,5 +12,36 @@ public class Node {
  * subclasses such as {@code Place} or {@code Transition}
  * must provide specific implementations.
  * </p>
+ *
+ * <p>
+ * Every node carries an integer identifier assigned by the net that owns it. Places and
+ * transitions are numbered separately and densely, from {@code 0} to the number of nodes
+ * of that kind minus one, so that per-node data can be stored in primitive arrays.
+ * A node that does not belong to any net has the identifier {@code -1}.
+ * </p>
  */
+public class Node {
+
+    private int id = -1;
+
+    /**
+     * Returns the identifier assigned to this node by its net.
+     *
+     * @return the identifier, or {@code -1} if none was assigned
+     */
+    public int getId() {
+        return id;
+    }
+
+    /**
+     * Sets the identifier of this node.
+     * <p>
+     * This method is meant to be called by the net owning the node.
+     * </p>
+     *
+     * @param id the identifier to set
+     */
+    public void setId(int id) {
+        this.id = id;
+    }
 }
@@ -1,21 +1,34 @@
 package io.github.leobeaumont.Nodes;
 
+import io.github.leobeaumont.Edges.EdgeIn;
+import io.github.leobeaumont.Edges.EdgeOut;
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * Represents a place in a Petri net, used to store and manage tokens.
  * <p>
  * A {@code Place} holds a non-negative number of tokens and provides
  * methods to add or remove tokens safely.
  * </p>
+ * <p>
+ * A place also keeps the edges connected to it, so that the transitions reading
+ * (consuming, testing or emptying) and writing its tokens can be found without
+ * scanning the whole net. These lists are maintained by {@link EdgeIn#setOrigin(Place)}
+ * and {@link EdgeOut#setArrival(Place)}.
+ * </p>
  */
 public class Place extends Node {
 
     private int nbTokens;
+    private List<EdgeIn> edgesIn;
+    private List<EdgeOut> edgesOut;
 
     /**
      * Creates a new {@code Place} with zero tokens.
      */
     public Place() {
-        setNbTokens(0);
+        this(0);
     }
 
     /**
@@ -28,6 +41,25 @@ public class Place extends Node {
      * @param nbTokens the initial number of tokens (defaults to 0 if negative)
      */
     public Place(int nbTokens) {
+        // ArrayList is the best choice for iteration speed and memory usage
+        this(nbTokens, new ArrayList<EdgeIn>(), new ArrayList<EdgeOut>());
+    }
+
+    /**
+     * Creates a new {@code Place} whose edge lists are pre-sized for the given number of edges.
+     *
+     * @param nbTokens   the initial number of tokens (defaults to 0 if negative)
+     * @param nbEdgesIn  the expected number of {@link EdgeIn}s starting from this place
+     * @param nbEdgesOut the expected number of {@link EdgeOut}s arriving at this place
+     */
+    public Place(int nbTokens, int nbEdgesIn, int nbEdgesOut) {
+        this(nbTokens, new ArrayList<EdgeIn>(nbEdgesIn), new ArrayList<EdgeOut>(nbEdgesOut));
+    }
+
+    private Place(int nbTokens, List<EdgeIn> edgesIn, List<EdgeOut> edgesOut) {
+        this.edgesIn = edgesIn;
+        this.edgesOut = edgesOut;
+
         if (nbTokens >= 0) {
             setNbTokens(nbTokens);
         } else {
@@ -63,13 +95,18 @@ public class Place extends Node {
      *
      * @param amount the number of tokens to add
      * @throws IllegalArgumentException if {@code amount} is negative
+     * @throws IllegalStateException    if the number of tokens would exceed {@link Integer#MAX_VALUE}
      */
-    public void addTokens(int amount) {
+    public void addTokens(int amount) throws IllegalArgumentException, IllegalStateException {
         if (amount < 0) {
             throw new IllegalArgumentException(String.format(
                 "Place.addTokens(%d) -- The argument amount (%d) is negative", amount, amount));
         }
 
+        if (this.nbTokens > Integer.MAX_VALUE - amount) {
+            throw new IllegalStateException(String.format(
+                "Place.addTokens(%d) -- The number of tokens (%d) would overflow", amount, this.nbTokens));
+        }
         this.nbTokens += amount;
     }
 
@@ -90,4 +127,82 @@ public class Place extends Node {
     public void setNbTokens(int nbTokens) {
         this.nbTokens = nbTokens;
     }
+
+    /**
+     * Registers an {@link EdgeIn} starting from this place.
+     *
+     * @param edge the {@link EdgeIn} to add
+     */
+    public void newEdgeIn(EdgeIn edge) {
+        this.getEdgesIn().add(edge);
+    }
+
+    /**
+     * Unregisters an {@link EdgeIn} starting from this place.
+     *
+     * @param edge the {@link EdgeIn} to remove
+     */
+    public void removeEdgeIn(EdgeIn edge) {
+        this.getEdgesIn().remove(edge);
+    }
+
+    /**
+     * Registers an {@link EdgeOut} arriving at this place.
+     *
+     * @param edge the {@link EdgeOut} to add
+     */
+    public void newEdgeOut(EdgeOut edge) {
+        this.getEdgesOut().add(edge);
+    }
+
+    /**
+     * Unregisters an {@link EdgeOut} arriving at this place.
+     *
+     * @param edge the {@link EdgeOut} to remove
+     */
+    public void removeEdgeOut(EdgeOut edge) {
+        this.getEdgesOut().remove(edge);
+    }
+
+    /**
+     * Returns the {@link EdgeIn}s starting from this place.
+     * <p>
+     * Their arrival transitions are the ones consuming, testing or emptying the tokens of this place.
+     * </p>
+     *
+     * @return the list of {@link EdgeIn}
+     */
+    public List<EdgeIn> getEdgesIn() {
+        return edgesIn;
+    }
+
+    /**
+     * Sets the list of {@link EdgeIn}s starting from this place.
+     *
+     * @param edgesIn the list of {@link EdgeIn} to set
+     */
+    public void setEdgesIn(List<EdgeIn> edgesIn) {
+        this.edgesIn = edgesIn;
+    }
+
+    /**
+     * Returns the {@link EdgeOut}s arriving at this place.
+     * <p>
+     * Their origin transitions are the ones producing tokens in this place.
+     * </p>
+     *
+     * @return the list of {@link EdgeOut}
+     */
+    public List<EdgeOut> getEdgesOut() {
+        return edgesOut;
+    }
+
+    /**
+     * Sets the list of {@link EdgeOut}s arriving at this place.
+     *
+     * @param edgesOut the list of {@link EdgeOut} to set
+     */
+    public void setEdgesOut(List<EdgeOut> edgesOut) {
+        this.edgesOut = edgesOut;
+    }
 }
@@ -5,8 +5,12 @@ import java.util.Iterator;
 import java.util.List;
 
 import io.github.leobeaumont.Edges.Edge;
+import io.github.leobeaumont.Edges.EdgeEmpty;
 import io.github.leobeaumont.Edges.EdgeIn;
 import io.github.leobeaumont.Edges.EdgeOut;
+import io.github.leobeaumont.Edges.EdgeZero;
+import io.github.leobeaumont.Edges.WeightedEdgeIn;
+import io.github.leobeaumont.Edges.WeightedEdgeOut;
 
 /**
  * Represents a transition in a Petri net, responsible for moving tokens
@@ -14,8 +18,23 @@ import io.github.leobeaumont.Edges.EdgeOut;
  */
 public class Transition extends Node {
 
+    /**
+     * The firing rate of a transition that wasn't given one.
+     */
+    public static final double DEFAULT_RATE = 1.0;
+
+    /**
+     * The selection weight of a transition that wasn't given one.
+     */
+    public static final double DEFAULT_WEIGHT = 1.0;
+
     private List<EdgeIn> edgesIn;
     private List<EdgeOut> edgesOut;
+    private double rate = DEFAULT_RATE;
+    private double minDelay;
+    private double maxDelay;
+    private int priority;
+    private double weight = DEFAULT_WEIGHT;
 
     /**
      * Creates a new {@code Transition} with empty input and output edge lists.
@@ -26,6 +45,17 @@ public class Transition extends Node {
         edgesOut = new ArrayList<EdgeOut>();
     }
 
+    /**
+     * Creates a new {@code Transition} whose edge lists are pre-sized for the given number of edges.
+     *
+     * @param nbEdgesIn  the expected number of incoming edges
+     * @param nbEdgesOut the expected number of outgoing edges
+     */
+    public Transition(int nbEdgesIn, int nbEdgesOut) {
+        edgesIn = new ArrayList<EdgeIn>(nbEdgesIn);
+        edgesOut = new ArrayList<EdgeOut>(nbEdgesOut);
+    }
+
     /**
      * Determines whether this transition can be drawn (activated).
      * <p>
@@ -72,6 +102,316 @@ public class Transition extends Node {
         }
     }
 
+    /**
+     * Draws (activates) the transition several times in a row, updating every connected place once.
+     * <p>
+     * The edges between the transition and a place are taken together: a place consumed by
+     * {@link WeightedEdgeIn}s of total weight {@code w} and refilled with {@code o} tokens changes by
+     * {@code times * (o - w)}, a place emptied by an {@link EdgeEmpty} ends with {@code o} tokens,
+     * and any other output place gains {@code times * o} tokens, which is the result of
+     * {@code times} calls to {@link #draw()}.
+     * </p>
+     *
+     * @param times the number of draws, at most {@link #getEnablingDegree()}
+     * @throws IllegalArgumentException if {@code times} is negative or exceeds the enabling degree
+     * @throws IllegalStateException    if the number of tokens of a place would exceed {@link Integer#MAX_VALUE}
+     */
+    public void draw(int times) throws IllegalArgumentException, IllegalStateException {
+        if (times < 0 || times > this.getEnablingDegree()) {
+            throw new IllegalArgumentException(String.format(
+                "Transition.draw(%d) -- The transition can't be drawn %d times.", times, times));
+        }
+        if (times == 0) {
+            return;
+        }
+
+        for (EdgeIn edge : this.getEdgesIn()) {
+            Place place = edge.getOrigin();
+            if (!isFirstEdgeIn(edge) || !isConsumed(place)) {
+                continue;
+            }
+            if (isEmptied(place)) {
+                place.setNbTokens(0);
+                place.setNbTokens(checkedTokens(place, outputWeight(place)));
+            } else {
+                long change = times * (outputWeight(place) - inputWeight(place));
+                place.setNbTokens(checkedTokens(place, change));
+            }
+        }
+        for (EdgeOut edge : this.getEdgesOut()) {
+            Place place = edge.getArrival();
+            if (isFirstEdgeOut(edge) && !isConsumed(place)) {
+                long change = times * outputWeight(place);
+                place.setNbTokens(checkedTokens(place, change));
+            }
+        }
+    }
+
+    /**
+     * Returns the enabling degree of this transition: the number of times it can be drawn in a row.
+     * <p>
+     * The edges between the transition and a place are taken together. {@link WeightedEdgeIn}s of
+     * total weight {@code w} from a place holding {@code m} tokens, to which the transition gives
+     * back {@code o} tokens, allow {@code 1 + (m - w) / (w - o)} draws when {@code m >= w}.
+     * An {@link EdgeEmpty} allows one draw unless the transition refills its place with enough tokens
+     * for the next draw; an {@link EdgeZero} allows one draw if the transition fills its place, and
+     * any number otherwise.
+     * </p>
+     *
+     * @return the enabling degree, {@code 0} if the transition can't be drawn, or
+     *         {@link Integer#MAX_VALUE} if no edge bounds the number of draws
+     */
+    public int getEnablingDegree() {
+        long degree = Integer.MAX_VALUE;
+        for (EdgeIn edge : this.getEdgesIn()) {
+            if (!edge.isActivable()) {
+                return 0;
+            }
+        }
+        for (EdgeIn edge : this.getEdgesIn()) {
+            Place place = edge.getOrigin();
+            if (!isFirstEdgeIn(edge)) {
+                continue;
+            }
+            long consumed = inputWeight(place);
+            long output = outputWeight(place);
+            if (place.getNbTokens() < consumed) {
+                return 0;
+            }
+            if (isEmptied(place)) {
+                if (output == 0 || output < consumed) {
+                    degree = 1;
+                }
+            } else if (consumed > output) {
+                degree = Math.min(degree, 1 + (place.getNbTokens() - consumed) / (consumed - output));
+            } else if (isZeroTested(place) && output > consumed) {
+                degree = 1;
+            }
+        }
+        return (int) degree;
+    }
+
+    /**
+     * Returns the total weight of the {@link WeightedEdgeIn}s from a place to this transition.
+     */
+    private long inputWeight(Place place) {
+        long total = 0;
+        for (EdgeIn edge : this.getEdgesIn()) {
+            if (edge.getOrigin() == place && edge instanceof WeightedEdgeIn) {
+                total += ((WeightedEdgeIn) edge).getWeight();
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Returns the total weight of the {@link WeightedEdgeOut}s from this transition to a place.
+     */
+    private long outputWeight(Place place) {
+        long total = 0;
+        for (EdgeOut edge : this.getEdgesOut()) {
+            if (edge.getArrival() == place && edge instanceof WeightedEdgeOut) {
+                total += ((WeightedEdgeOut) edge).getWeight();
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Tests whether an incoming edge is the first one of this transition from its place.
+     */
+    private boolean isFirstEdgeIn(EdgeIn edge) {
+        for (EdgeIn other : this.getEdgesIn()) {
+            if (other.getOrigin() == edge.getOrigin()) {
+                return other == edge;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Tests whether an outgoing edge is the first one of this transition to its place.
+     */
+    private boolean isFirstEdgeOut(EdgeOut edge) {
+        for (EdgeOut other : this.getEdgesOut()) {
+            if (other.getArrival() == edge.getArrival()) {
+                return other == edge;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Tests whether a place is the origin of a {@link WeightedEdgeIn} or an {@link EdgeEmpty} of this transition.
+     */
+    private boolean isConsumed(Place place) {
+        for (EdgeIn edge : this.getEdgesIn()) {
+            if (edge.getOrigin() == place && (edge instanceof WeightedEdgeIn || edge instanceof EdgeEmpty)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Tests whether a place is the origin of an {@link EdgeEmpty} of this transition.
+     */
+    private boolean isEmptied(Place place) {
+        for (EdgeIn edge : this.getEdgesIn()) {
+            if (edge.getOrigin() == place && edge instanceof EdgeEmpty) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Tests whether a place is the origin of an {@link EdgeZero} of this transition.
+     */
+    private boolean isZeroTested(Place place) {
+        for (EdgeIn edge : this.getEdgesIn()) {
+            if (edge.getOrigin() == place && edge instanceof EdgeZero) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the number of tokens of a place after a change, failing instead of overflowing.
+     */
+    private static int checkedTokens(Place place, long change) throws IllegalStateException {
+        long result = place.getNbTokens() + change;
+        if (result > Integer.MAX_VALUE) {
+            throw new IllegalStateException(String.format(
+                "Transition.draw -- The number of tokens (%d) would overflow when adding %d",
+                place.getNbTokens(), change));
+        }
+        return (int) result;
+    }
+
+    /**
+     * Returns the firing rate of this transition.
+     * <p>
+     * In stochastic simulations, an enabled transition fires after an exponentially distributed
+     * delay whose mean is the inverse of its rate.
+     * </p>
+     *
+     * @return the rate, {@link #DEFAULT_RATE} unless set
+     */
+    public double getRate() {
+        return this.rate;
+    }
+
+    /**
+     * Sets the firing rate of this transition.
+     *
+     * @param rate the rate; {@code 0} means the transition never fires in stochastic simulations
+     * @throws IllegalArgumentException if {@code rate} is negative or not finite
+     */
+    public void setRate(double rate) throws IllegalArgumentException {
+        if (!(rate >= 0) || Double.isInfinite(rate)) {
+            throw new IllegalArgumentException(String.format(
+                "Transition.setRate(%s) -- The argument rate must be a finite non-negative number.", rate));
+        }
+        this.rate = rate;
+    }
+
+    /**
+     * Returns the smallest firing delay of this transition.
+     * <p>
+     * In timed simulations, an enabled transition fires after a delay drawn uniformly between its
+     * smallest and largest delays, unless it is disabled in the meantime.
+     * </p>
+     *
+     * @return the smallest delay, {@code 0} unless set
+     */
+    public double getMinDelay() {
+        return this.minDelay;
+    }
+
+    /**
+     * Returns the largest firing delay of this transition.
+     *
+     * @return the largest delay, {@code 0} unless set
+     */
+    public double getMaxDelay() {
+        return this.maxDelay;
+    }
+
+    /**
+     * Sets a deterministic firing delay for this transition.
+     *
+     * @param delay the delay; {@code 0} makes the transition fire as soon as it is enabled
+     * @throws IllegalArgumentException if {@code delay} is negative or not finite
+     */
+    public void setDelay(double delay) throws IllegalArgumentException {
+        setDelay(delay, delay);
+    }
+
+    /**
+     * Sets the interval of the firing delay of this transition.
+     *
+     * @param min the smallest delay
+     * @param max the largest delay
+     * @throws IllegalArgumentException if the delays are negative, not finite, or not in order
+     */
+    public void setDelay(double min, double max) throws IllegalArgumentException {
+        if (!(min >= 0) || !(max >= min) || Double.isInfinite(max)) {
+            throw new IllegalArgumentException(String.format(
+                "Transition.setDelay(%s, %s) -- The arguments must be finite non-negative numbers in increasing order.",
+                min, max));
+        }
+        this.minDelay = min;
+        this.maxDelay = max;
+    }
+
+    /**
+     * Returns the priority of this transition.
+     * <p>
+     * In step simulations, a transition is only drawn when no drawable transition has a higher
+     * priority; among the drawable transitions of the highest priority, each one is drawn with a
+     * probability proportional to its weight.
+     * </p>
+     *
+     * @return the priority, {@code 0} unless set
+     */
+    public int getPriority() {
+        return this.priority;
+    }
+
+    /**
+     * Sets the priority of this transition.
+     *
+     * @param priority the priority; higher priorities are drawn first
+     */
+    public void setPriority(int priority) {
+        this.priority = priority;
+    }
+
+    /**
+     * Returns the selection weight of this transition among the drawable transitions of its priority.
+     *
+     * @return the weight, {@link #DEFAULT_WEIGHT} unless set
+     */
+    public double getWeight() {
+        return this.weight;
+    }
+
+    /**
+     * Sets the selection weight of this transition.
+     *
+     * @param weight the weight
+     * @throws IllegalArgumentException if {@code weight} is not a finite positive number
+     */
+    public void setWeight(double weight) throws IllegalArgumentException {
+        if (!(weight > 0) || Double.isInfinite(weight)) {
+            throw new IllegalArgumentException(String.format(
+                "Transition.setWeight(%s) -- The argument weight must be a finite positive number.", weight));
+        }
+        this.weight = weight;
+    }
+
     /**
      * Adds an incoming edge to this transition.
      *
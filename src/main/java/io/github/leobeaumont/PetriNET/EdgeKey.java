@@ -0,0 +1,47 @@
+package io.github.leobeaumont.PetriNET;
+
+import io.github.leobeaumont.Nodes.Node;
+import java.util.HashSet;
+
+/**
+ * Key representing a pair (origin, arrival) of nodes.
+ * <p>
+ * This class is used to detect duplicate edges efficiently by storing
+ * keys in a {@link HashSet} or as the keys of a hash index. Two {@code EdgeKey}
+ * instances are considered equal if and only if both their origin and arrival
+ * nodes are the same objects.
+ * </p>
+ */
+final class EdgeKey {
+
+    private final Node origin;
+    private final Node arrival;
+
+    /**
+     * Creates a new edge key.
+     *
+     * @param origin  the origin node of the edge
+     * @param arrival the arrival node of the edge
+     */
+    EdgeKey(Node origin, Node arrival) {
+        this.origin = origin;
+        this.arrival = arrival;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof EdgeKey)) {
+            return false;
+        }
+        EdgeKey k = (EdgeKey) o;
+        return origin == k.origin && arrival == k.arrival;
+    }
+
+    @Override
+    public int hashCode() {
+        return java.util.Objects.hash(origin, arrival);
+    }
+}
@@ -3,6 +3,9 @@ package io.github.leobeaumont.PetriNET;
 import java.util.List;
 
 import io.github.leobeaumont.Edges.Edge;
+import io.github.leobeaumont.Engine.CompiledNet;
+import io.github.leobeaumont.Engine.RandomSource;
+import io.github.leobeaumont.Engine.SimulationRun;
 import io.github.leobeaumont.Nodes.Place;
 import io.github.leobeaumont.Nodes.Transition;
 
@@ -12,6 +15,10 @@ import io.github.leobeaumont.Nodes.Transition;
  * This interface specifies all necessary methods for managing and simulating
  * the behavior of a Petri net, including manipulation of places, transitions, and edges.
  * </p>
+ * <p>
+ * The simulations and analyses running on the compiled engine are built on {@link #compile()} by
+ * {@code io.github.leobeaumont.Analysis.PetriNetFacade}, so every implementation shares them.
+ * </p>
  */
 public interface IPretriNet {
 
@@ -29,6 +36,13 @@ public interface IPretriNet {
      */
     void addPlace(int nbTokens);
 
+    /**
+     * Adds an existing {@link Place} to the Petri net and assigns it the next place identifier.
+     *
+     * @param place the place to add.
+     */
+    void addPlace(Place place);
+
     /**
      * Adds a new incoming {@link Edge} from a {@link Place} to a {@link Transition}.
      *
@@ -69,6 +83,13 @@ public interface IPretriNet {
      */
     void addTransition();
 
+    /**
+     * Adds an existing {@link Transition} to the Petri net and assigns it the next transition identifier.
+     *
+     * @param transition the transition to add.
+     */
+    void addTransition(Transition transition);
+
     /**
      * Removes a {@link Place} from the Petri net.
      *
@@ -119,4 +140,69 @@ public interface IPretriNet {
      * @param steps the number of simulation steps to execute.
      */
     void launchSimulation(int steps);
+
+    /**
+     * Launches a reproducible Petri net simulation for a given number of steps.
+     *
+     * @param steps the number of simulation steps to execute.
+     * @param seed  the seed of the random source selecting the transitions.
+     * @return the description of the run.
+     */
+    SimulationRun launchSimulation(int steps, long seed);
+
+    /**
+     * Launches the Petri net simulation for a given number of steps with a caller-supplied random source.
+     *
+     * @param steps  the number of simulation steps to execute.
+     * @param random the random source, used for the whole run.
+     * @return the number of steps actually executed.
+     */
+    int launchSimulation(int steps, RandomSource random);
+
+    /**
+     * Replays a run recorded by {@link #launchSimulation(int, long)}, starting from its initial marking.
+     *
+     * @param run the run to replay.
+     * @return the description of the replayed run.
+     */
+    SimulationRun replay(SimulationRun run);
+
+    /**
+     * Compiles the Petri net into a flat, array-based {@link CompiledNet} engine.
+     * <p>
+     * The engine holds a copy of the current marking; call {@link CompiledNet#writeBack()}
+     * to copy its final marking back to the {@link Place} objects.
+     * </p>
+     *
+     * @return the compiled engine.
+     */
+    CompiledNet compile();
+
+    /**
+     * Returns the list of {@link Edge}s of the Petri net.
+     *
+     * @return the edges of the net.
+     */
+    List<Edge> getEdges();
+
+    /**
+     * Returns the list of {@link Place}s of the Petri net.
+     *
+     * @return the places of the net.
+     */
+    List<Place> getPlaces();
+
+    /**
+     * Returns the number of tokens of every {@link Place}.
+     *
+     * @return the marking, indexed like {@link #getPlaces()}.
+     */
+    int[] getMarking();
+
+    /**
+     * Returns the list of {@link Transition}s of the Petri net.
+     *
+     * @return the transitions of the net.
+     */
+    List<Transition> getTransitions();
 }
@@ -4,7 +4,7 @@ import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
-import java.util.Random;
+import java.util.Set;
 
 import io.github.leobeaumont.Edges.Edge;
 import io.github.leobeaumont.Edges.EdgeEmpty;
@@ -13,6 +13,10 @@ import io.github.leobeaumont.Edges.EdgeOut;
 import io.github.leobeaumont.Edges.EdgeZero;
 import io.github.leobeaumont.Edges.WeightedEdgeIn;
 import io.github.leobeaumont.Edges.WeightedEdgeOut;
+import io.github.leobeaumont.Engine.CompiledNet;
+import io.github.leobeaumont.Engine.IncrementalSimulator;
+import io.github.leobeaumont.Engine.RandomSource;
+import io.github.leobeaumont.Engine.SimulationRun;
 import io.github.leobeaumont.Nodes.Node;
 import io.github.leobeaumont.Nodes.Place;
 import io.github.leobeaumont.Nodes.Transition;
@@ -43,6 +47,13 @@ public class PetriNet1 implements IPretriNet {  // This version allows users to
     private List<Place> places;
     private List<Transition> transitions;
 
+    // Last validity verdict, reused until the structure changes
+    private final ValidityCache validity = new ValidityCache();
+
+    // Simulator reused by launchSimulation until the modification count of the structure changes
+    private IncrementalSimulator simulator;
+    private int simulatorModCount;
+
     /**
      * Constructs an empty Petri net.
      * <p>Uses {@link ArrayList} for internal collections since it provides
@@ -80,6 +91,17 @@ public class PetriNet1 implements IPretriNet {  // This version allows users to
      */
     public void addPlace(int nbTokens) {
         Place place = new Place(nbTokens);
+        this.addPlace(place);
+    }
+
+    /**
+     * Adds an existing place to the Petri net and assigns it the next place identifier.
+     *
+     * @param place the place to add
+     */
+    public void addPlace(Place place) {
+        this.validity.invalidate();
+        place.setId(this.places.size());
         this.places.add(place);
     }
 
@@ -92,7 +114,7 @@ public class PetriNet1 implements IPretriNet {  // This version allows users to
      */
     public void addEdge(int weight, Place origin, Transition arrival) {
         WeightedEdgeIn edge = new WeightedEdgeIn(origin, arrival, weight);
-        this.edges.add(edge);
+        this.appendEdge(edge);
     }
 
     /**
@@ -104,7 +126,7 @@ public class PetriNet1 implements IPretriNet {  // This version allows users to
      */
     public void addEdge(int weight, Transition origin, Place arrival) {
         WeightedEdgeOut edge = new WeightedEdgeOut(origin, arrival, weight);
-        this.edges.add(edge);
+        this.appendEdge(edge);
     }
 
     /**
@@ -114,7 +136,7 @@ public class PetriNet1 implements IPretriNet {  // This version allows users to
      */
     public void addWeightedEdgeIn(int weight) {
         WeightedEdgeIn edge = new WeightedEdgeIn(weight);
-        this.edges.add(edge);
+        this.appendEdge(edge);
     }
 
     /**
@@ -124,7 +146,7 @@ public class PetriNet1 implements IPretriNet {  // This version allows users to
      */
     public void addWeightedEdgeOut(int weight) {
         WeightedEdgeOut edge = new WeightedEdgeOut(weight);
-        this.edges.add(edge);
+        this.appendEdge(edge);
     }
 
     /**
@@ -135,7 +157,7 @@ public class PetriNet1 implements IPretriNet {  // This version allows users to
      */
     public void addEdgeEmpty(Place origin, Transition arrival) {
         EdgeEmpty edge = new EdgeEmpty(origin, arrival);
-        this.edges.add(edge);
+        this.appendEdge(edge);
     }
 
     /**
@@ -143,7 +165,7 @@ public class PetriNet1 implements IPretriNet {  // This version allows users to
      */
     public void addEdgeEmpty() {
         EdgeEmpty edge = new EdgeEmpty();
-        this.edges.add(edge);
+        this.appendEdge(edge);
     }
 
     /**
@@ -154,7 +176,7 @@ public class PetriNet1 implements IPretriNet {  // This version allows users to
      */
     public void addEdgeZero(Place origin, Transition arrival) {
         EdgeZero edge = new EdgeZero(origin, arrival);
-        this.edges.add(edge);
+        this.appendEdge(edge);
     }
 
     /**
@@ -162,7 +184,7 @@ public class PetriNet1 implements IPretriNet {  // This version allows users to
      */
     public void addEdgeZero() {
         EdgeZero edge = new EdgeZero();
-        this.edges.add(edge);
+        this.appendEdge(edge);
     }
 
     /**
@@ -170,34 +192,155 @@ public class PetriNet1 implements IPretriNet {  // This version allows users to
      */
     public void addTransition() {
         Transition transition = new Transition();
+        this.addTransition(transition);
+    }
+
+    /**
+     * Adds an existing transition to the Petri net and assigns it the next transition identifier.
+     *
+     * @param transition the transition to add
+     */
+    public void addTransition(Transition transition) {
+        this.validity.invalidate();
+        transition.setId(this.transitions.size());
         this.transitions.add(transition);
     }
 
     /**
-     * Removes the specified place from the Petri net.
+     * Removes the specified place from the Petri net, together with every edge connected to it.
+     * <p>The last place of the list takes the slot of the removed one, so the removal runs in O(1)
+     * plus the degree of the place.</p>
      *
      * @param place the place to remove
      */
     public void removePlace(Place place) {
-        this.places.remove(place);
+        int index = indexOf(this.places, place, place.getId());
+        if (index < 0) {
+            return;
+        }
+        this.validity.invalidate();
+
+        // Copy the lists, as detaching an edge removes it from them
+        for (EdgeIn edge : new ArrayList<EdgeIn>(place.getEdgesIn())) {
+            this.removeIncidentEdge(edge);
+        }
+        for (EdgeOut edge : new ArrayList<EdgeOut>(place.getEdgesOut())) {
+            this.removeIncidentEdge(edge);
+        }
+
+        swapRemove(this.places, index);
+        place.setId(-1);
     }
 
     /**
-     * Removes the specified edge from the Petri net.
+     * Removes the specified edge from the Petri net and disconnects it from its place and transition.
+     * <p>The last edge of the list takes the slot of the removed one, so the removal runs in O(1)
+     * plus the degree of its nodes.</p>
      *
      * @param edge the edge to remove
      */
     public void removeEdge(Edge edge) {
-        this.edges.remove(edge);
+        int index = indexOf(this.edges, edge, edge.getId());
+        if (index >= 0) {
+            this.validity.invalidate();
+            this.removeEdgeAt(index);
+            edge.detach();
+        }
     }
 
     /**
-     * Removes the specified transition from the Petri net.
+     * Removes the specified transition from the Petri net, together with every edge connected to it.
+     * <p>The last transition of the list takes the slot of the removed one, so the removal runs in O(1)
+     * plus the degree of the transition.</p>
      *
      * @param transition the transition to remove
      */
     public void removeTransition(Transition transition) {
-        this.transitions.remove(transition);
+        int index = indexOf(this.transitions, transition, transition.getId());
+        if (index < 0) {
+            return;
+        }
+        this.validity.invalidate();
+
+        // Copy the lists, as detaching an edge removes it from them
+        for (EdgeIn edge : new ArrayList<EdgeIn>(transition.getEdgesIn())) {
+            this.removeIncidentEdge(edge);
+        }
+        for (EdgeOut edge : new ArrayList<EdgeOut>(transition.getEdgesOut())) {
+            this.removeIncidentEdge(edge);
+        }
+
+        swapRemove(this.transitions, index);
+        transition.setId(-1);
+    }
+
+    /**
+     * Appends an edge to the edge list and assigns it the next edge identifier.
+     *
+     * @param edge the edge to append
+     */
+    private void appendEdge(Edge edge) {
+        this.validity.invalidate();
+        edge.setId(this.edges.size());
+        this.edges.add(edge);
+    }
+
+    /**
+     * Removes the edge at the given position by moving the last edge into its slot.
+     *
+     * @param index the position of the edge in the edge list
+     */
+    private void removeEdgeAt(int index) {
+        Edge edge = this.edges.get(index);
+        Edge last = this.edges.remove(this.edges.size() - 1);
+        if (index < this.edges.size()) {
+            this.edges.set(index, last);
+            last.setId(index);
+        }
+        edge.setId(-1);
+    }
+
+    /**
+     * Removes an edge connected to a node being removed, whether or not it is listed in the net.
+     *
+     * @param edge the edge to remove
+     */
+    private void removeIncidentEdge(Edge edge) {
+        int index = indexOf(this.edges, edge, edge.getId());
+        if (index >= 0) {
+            this.removeEdgeAt(index);
+        }
+        edge.detach();
+    }
+
+    /**
+     * Finds the position of an element, trusting its identifier when it matches.
+     *
+     * @param list    the list to search
+     * @param element the element to find
+     * @param id      the identifier of the element
+     * @return the position of the element, or {@code -1} if it is not in the list
+     */
+    private static int indexOf(List<?> list, Object element, int id) {
+        if (id >= 0 && id < list.size() && list.get(id) == element) {
+            return id;
+        }
+        return list.indexOf(element);
+    }
+
+    /**
+     * Removes the node at the given position by moving the last node into its slot.
+     *
+     * @param nodes the list of nodes
+     * @param index the position of the node to remove
+     * @param <T>   the type of node
+     */
+    private static <T extends Node> void swapRemove(List<T> nodes, int index) {
+        T last = nodes.remove(nodes.size() - 1);
+        if (index < nodes.size()) {
+            nodes.set(index, last);
+            last.setId(index);
+        }
     }
 
     /**
@@ -254,35 +397,55 @@ public class PetriNet1 implements IPretriNet {  // This version allows users to
     /**
      * Validates the Petri net structure.
      * <ul>
+     *   <li>Two input edges, or two output edges, can't have the same origin and arrival.</li>
      *   <li>Each transition must have at least one incoming or outgoing edge.</li>
      *   <li>Each edge must have both an origin and an arrival node.</li>
      * </ul>
+     * <p>The verdict is cached until the structure changes, see {@link #getValidityViolation()}.</p>
      *
      * @return {@code true} if the Petri net is valid, {@code false} otherwise
      */
     public boolean isValid() {
+        return this.getValidityViolation() == null;
+    }
+
+    /**
+     * Returns the first rule of {@link #isValid()} broken by the Petri net.
+     * <p>The structure is only checked again after a structural change: adding or removing a node
+     * or an edge, replacing a list, or reconnecting an edge with {@code setOrigin} or {@code setArrival}.
+     * Changing token counts or weights keeps the cached verdict.</p>
+     *
+     * @return a description of the first violation, or {@code null} if the Petri net is valid
+     */
+    public String getValidityViolation() {
+        if (!this.validity.isFresh(this.edges, this.transitions)) {
+            this.validity.store(this.findViolation(), this.edges, this.transitions);
+        }
+        return this.validity.getViolation();
+    }
+
+    /**
+     * Checks every rule of {@link #isValid()} on the current structure.
+     *
+     * @return a description of the first violation, or {@code null} if the Petri net is valid
+     */
+    private String findViolation() {
         // Two edges can't have the same origin and arrival
         if (this.hasDuplicateEdges()) {
-            return false;
+            return "two edges have the same origin and arrival";
         }
 
         // A transition must have at least one edge connected
-        Iterator<Transition> iterTransitions = this.transitions.iterator();
-        while (iterTransitions.hasNext()) {
-            Transition transition = iterTransitions.next();
-
-            List<EdgeIn> edgesIn = transition.getEdgesIn();
-            List<EdgeOut> edgesOut = transition.getEdgesOut();
-
-            if (edgesIn.isEmpty() && edgesOut.isEmpty()) {
-                return false;
+        for (int i = 0; i < this.transitions.size(); ++i) {
+            Transition transition = this.transitions.get(i);
+            if (transition.getEdgesIn().isEmpty() && transition.getEdgesOut().isEmpty()) {
+                return String.format("transition %d has no edge", i);
             }
         }
 
         // An edge must have an origin and an arrival
-        Iterator<Edge> iterEdges = this.edges.iterator();
-        while (iterEdges.hasNext()) {
-            Edge edge = iterEdges.next();
+        for (int i = 0; i < this.edges.size(); ++i) {
+            Edge edge = this.edges.get(i);
 
             boolean hasOrigin = false;
             boolean hasArrival = false;
@@ -296,16 +459,16 @@ public class PetriNet1 implements IPretriNet {  // This version allows users to
                 hasOrigin = eOut.getOrigin() != null;
                 hasArrival = eOut.getArrival() != null;
             } else {
-                return false;
+                return String.format("edge %d is neither an input nor an output edge", i);
             }
 
             if (!hasOrigin || !hasArrival) {
-                return false;
+                return String.format("edge %d is not connected at both ends", i);
             }
         }
 
         // If all checks pass
-        return true;
+        return null;
     }
 
     /**
@@ -329,31 +492,97 @@ public class PetriNet1 implements IPretriNet {  // This version allows users to
 
     /**
      * Executes a simulation for a specified number of steps.
-     * <p>At each step, a random drawable transition is selected and drawn.</p>
+     * <p>At each step, a drawable transition is drawn by priority and weight.</p>
      *
      * @param steps the number of steps to simulate
      */
     public void launchSimulation(int steps) {
+        this.launchSimulation(steps, RandomSource.newSeed());
+    }
+
+    /**
+     * Executes a reproducible simulation for a specified number of steps.
+     *
+     * @param steps the number of steps to simulate
+     * @param seed  the seed of the random source selecting the transitions
+     * @return the description of the run, with markings indexed like {@link #getPlaces()},
+     *         which {@link #replay(SimulationRun)} can reproduce
+     */
+    public SimulationRun launchSimulation(int steps, long seed) {
+        int[] initialMarking = this.getMarking();
+        int fired = this.launchSimulation(steps, RandomSource.seeded(seed));
+        return new SimulationRun(seed, steps, fired, initialMarking, this.getMarking());
+    }
+
+    /**
+     * Executes a simulation for a specified number of steps, selecting the transitions with the
+     * given random source.
+     * <p>Each step draws a transition among the drawable transitions of the highest
+     * {@link Transition#getPriority()}, in proportion to its {@link Transition#getWeight()}, see
+     * {@link CompiledNet#simulate(int[], int, RandomSource)}. The final marking is copied back to
+     * the places. The compiled net and its enabled transitions are kept by an {@link IncrementalSimulator}
+     * for the next call, until the structure of the net changes.</p>
+     *
+     * @param steps  the number of steps to simulate
+     * @param random the random source, used for the whole run
+     * @return the number of steps actually drawn (less than {@code steps} if no transition could be drawn)
+     */
+    public int launchSimulation(int steps, RandomSource random) {
         if (!isValid()) {
-            throw new IllegalStateException("PetriNet.launchSimulation(steps) -- The Petri net is not valid.");
+            throw new IllegalStateException(
+                "PetriNet.launchSimulation(steps) -- The Petri net is not valid: " + this.getValidityViolation() + ".");
         }
-        for (int i = 0; i < steps; ++i) {
-            // Get every drawable transition
-            List<Transition> drawable = this.drawable();
-
-            // If no transition can be fired, stop the simulation
-            if (drawable.isEmpty()) {
-                System.out.println("No drawable transitions available. Stopping simulation.");
-                return;
-            }
+        if (this.simulator == null || this.simulatorModCount != this.validity.getModCount()
+            || !this.simulator.isCurrent()) {
+            this.simulator = new IncrementalSimulator(this.compile());
+            this.simulatorModCount = this.validity.getModCount();
+        }
+        int fired = this.simulator.simulate(steps, random);
 
-            // Select a drawable transition at random
-            Random random = new Random();
-            Transition randomTransition = drawable.get(random.nextInt(drawable.size()));
+        // If no transition could be fired, the simulation stopped early
+        if (fired < steps) {
+            System.out.println("No drawable transitions available. Stopping simulation.");
+        }
+        return fired;
+    }
 
-            // Step the simulation
-            this.stepSimulation(randomTransition);
+    /**
+     * Replays a run: resets the places to the initial marking of the run, then simulates
+     * the same number of steps with the same seed.
+     *
+     * @param run the run to replay, recorded on this net or on a net with the same structure
+     * @return the description of the replayed run, identical to {@code run}
+     * @throws IllegalArgumentException if the marking of the run doesn't match the number of places
+     */
+    public SimulationRun replay(SimulationRun run) throws IllegalArgumentException {
+        int[] initialMarking = run.getInitialMarking();
+        if (initialMarking.length != this.places.size()) {
+            throw new IllegalArgumentException(String.format(
+                "PetriNet.replay(run) -- The run has %d places instead of %d.",
+                initialMarking.length, this.places.size()));
+        }
+        for (int i = 0; i < initialMarking.length; ++i) {
+            this.places.get(i).setNbTokens(initialMarking[i]);
         }
+        return this.launchSimulation(run.getSteps(), run.getSeed());
+    }
+
+    /**
+     * Compiles the Petri net into a flat, array-based {@link CompiledNet} engine.
+     * <p>Simulating the compiled engine avoids walking the object graph at every step.
+     * Identifiers are compacted first, so that the index of every node in the engine is its identifier.
+     * Call {@link CompiledNet#writeBack()} to copy its final marking back to the places.</p>
+     *
+     * @return the compiled engine
+     * @throws IllegalStateException if the Petri net is not valid
+     */
+    public CompiledNet compile() throws IllegalStateException {
+        if (!isValid()) {
+            throw new IllegalStateException(
+                "PetriNet.compile() -- The Petri net is not valid: " + this.getValidityViolation() + ".");
+        }
+        this.compactIds();
+        return CompiledNet.compile(this.getPlaces(), this.getTransitions());
     }
 
     /**
@@ -367,8 +596,8 @@ public class PetriNet1 implements IPretriNet {  // This version allows users to
      *         {@code false} otherwise
      */
     public boolean hasDuplicateEdges() {
-        java.util.HashSet<EdgeKey> seenInputs = new java.util.HashSet<>();
-        java.util.HashSet<EdgeKey> seenOutputs = new java.util.HashSet<>();
+        Set<EdgeKey> seenInputs = new HashSet<EdgeKey>();
+        Set<EdgeKey> seenOutputs = new HashSet<EdgeKey>();
 
         for (Edge edge : edges) {
             if (edge instanceof EdgeIn) {
@@ -410,7 +639,11 @@ public class PetriNet1 implements IPretriNet {  // This version allows users to
      * @param edges the new list of {@link Edge} objects to assign
      */
     public void setEdges(List<Edge> edges) {
+        this.validity.invalidate();
         this.edges = edges;
+        for (int i = 0; i < edges.size(); ++i) {
+            edges.get(i).setId(i);
+        }
     }
 
     /**
@@ -422,13 +655,28 @@ public class PetriNet1 implements IPretriNet {  // This version allows users to
         return places;
     }
 
+    /**
+     * Returns the number of tokens of every place.
+     *
+     * @return the marking, indexed like {@link #getPlaces()}
+     */
+    public int[] getMarking() {
+        int[] marking = new int[this.places.size()];
+        for (int i = 0; i < marking.length; ++i) {
+            marking[i] = this.places.get(i).getNbTokens();
+        }
+        return marking;
+    }
+
     /**
      * Sets the list of places in the Petri net.
      *
      * @param places the new list of {@link Place} objects to assign
      */
     public void setPlaces(List<Place> places) {
+        this.validity.invalidate();
         this.places = places;
+        renumber(this.places, 0);
     }
 
     /**
@@ -446,48 +694,33 @@ public class PetriNet1 implements IPretriNet {  // This version allows users to
      * @param transitions the new list of {@link Transition} objects to assign
      */
     public void setTransitions(List<Transition> transitions) {
+        this.validity.invalidate();
         this.transitions = transitions;
+        renumber(this.transitions, 0);
     }
 
-     /**
-     * Internal key representing a pair (origin, arrival) of nodes.
-     * <p>
-     * This class is used to detect duplicate edges efficiently by storing
-     * keys in a {@link HashSet}. Two {@code EdgeKey} instances are considered
-     * equal if and only if both their origin and arrival nodes are equal.
-     * </p>
-     */
-    private static final class EdgeKey {
-
-        private final Node origin;
-        private final Node arrival;
-
-        /**
-         * Creates a new edge key.
-         *
-         * @param origin  the origin node of the edge
-         * @param arrival the arrival node of the edge
-         */
-        EdgeKey(Node origin, Node arrival) {
-            this.origin = origin;
-            this.arrival = arrival;
-        }
-
-        @Override
-        public boolean equals(Object o) {
-            if (this == o) {
-                return true;
-            }
-            if (!(o instanceof EdgeKey)) {
-                return false;
-            }
-            EdgeKey k = (EdgeKey) o;
-            return origin.equals(k.origin) && arrival.equals(k.arrival);
+    /**
+     * Reassigns the identifiers of every place, transition and edge so that they match their
+     * position in {@link #getPlaces()}, {@link #getTransitions()} and {@link #getEdges()}.
+     * <p>Call this after modifying the lists directly.</p>
+     */
+    public void compactIds() {
+        renumber(this.places, 0);
+        renumber(this.transitions, 0);
+        for (int i = 0; i < this.edges.size(); ++i) {
+            this.edges.get(i).setId(i);
         }
+    }
 
-        @Override
-        public int hashCode() {
-            return java.util.Objects.hash(origin, arrival);
+    /**
+     * Sets the identifier of every node from position {@code from} to its position in the list.
+     *
+     * @param nodes the nodes to renumber
+     * @param from  the first position to renumber
+     */
+    private static void renumber(List<? extends Node> nodes, int from) {
+        for (int i = from; i < nodes.size(); ++i) {
+            nodes.get(i).setId(i);
         }
     }
 }
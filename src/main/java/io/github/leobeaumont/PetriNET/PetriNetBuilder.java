@@ -0,0 +1,380 @@
+package io.github.leobeaumont.PetriNET;
+
+import io.github.leobeaumont.Edges.Edge;
+import io.github.leobeaumont.Edges.EdgeEmpty;
+import io.github.leobeaumont.Edges.EdgeZero;
+import io.github.leobeaumont.Edges.WeightedEdgeIn;
+import io.github.leobeaumont.Edges.WeightedEdgeOut;
+import io.github.leobeaumont.Engine.CompiledNet;
+import io.github.leobeaumont.Engine.IntArray;
+import io.github.leobeaumont.Nodes.Place;
+import io.github.leobeaumont.Nodes.Transition;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Builds a Petri net in bulk from primitive arrays.
+ * <p>
+ * Places and transitions are referred to by the integer identifiers returned when they are
+ * added, and edges are given as arrays of identifiers. Nothing is checked while adding,
+ * apart from the lengths of the arrays: the whole structure is validated once by
+ * {@link #build()} or {@link #buildCompiled()}, which then allocate every collection with
+ * its final size.
+ * </p>
+ *
+ * <p>A built net is valid in the sense of {@link PetriNet2#isValid()}:
+ * <ul>
+ *   <li>every identifier refers to an added place or transition;</li>
+ *   <li>token counts and weights are non-negative;</li>
+ *   <li>there is at most one incoming edge (weighted, empty or zero) and at most one
+ *       outgoing edge between a place and a transition;</li>
+ *   <li>every transition has at least one edge.</li>
+ * </ul>
+ */
+public class PetriNetBuilder {
+
+    private static final int IN = 0;
+    private static final int OUT = 1;
+    private static final int EMPTY = 2;
+    private static final int ZERO = 3;
+    private static final String[] KIND_NAMES = {"input", "output", "empty", "zero"};
+
+    private final IntArray tokens;
+    private int nbTransitions;
+
+    // For every kind of edge: the transition, place and weight of each edge
+    private final IntArray[] edgeTransitions;
+    private final IntArray[] edgePlaces;
+    private final IntArray[] edgeWeights;
+
+    /**
+     * Creates an empty builder.
+     */
+    public PetriNetBuilder() {
+        this.tokens = new IntArray();
+        this.edgeTransitions = new IntArray[KIND_NAMES.length];
+        this.edgePlaces = new IntArray[KIND_NAMES.length];
+        this.edgeWeights = new IntArray[KIND_NAMES.length];
+        for (int kind = 0; kind < KIND_NAMES.length; ++kind) {
+            this.edgeTransitions[kind] = new IntArray();
+            this.edgePlaces[kind] = new IntArray();
+            this.edgeWeights[kind] = new IntArray();
+        }
+    }
+
+    /**
+     * Adds a place with the specified number of tokens.
+     *
+     * @param nbTokens the initial number of tokens
+     * @return the identifier of the place
+     */
+    public int addPlace(int nbTokens) {
+        this.tokens.add(nbTokens);
+        return this.tokens.size() - 1;
+    }
+
+    /**
+     * Adds one place per entry of {@code nbTokens}.
+     *
+     * @param nbTokens the initial number of tokens of each place
+     * @return the identifier of the first added place; the others follow consecutively
+     */
+    public int addPlaces(int[] nbTokens) {
+        int first = this.tokens.size();
+        this.tokens.addAll(nbTokens);
+        return first;
+    }
+
+    /**
+     * Adds a transition.
+     *
+     * @return the identifier of the transition
+     */
+    public int addTransition() {
+        return this.nbTransitions++;
+    }
+
+    /**
+     * Adds the specified number of transitions.
+     *
+     * @param count the number of transitions to add
+     * @return the identifier of the first added transition; the others follow consecutively
+     */
+    public int addTransitions(int count) {
+        int first = this.nbTransitions;
+        this.nbTransitions += count;
+        return first;
+    }
+
+    /**
+     * Adds a weighted input edge (from a place to a transition).
+     *
+     * @param place      the identifier of the origin place
+     * @param transition the identifier of the arrival transition
+     * @param weight     the edge weight
+     */
+    public void addEdgeIn(int place, int transition, int weight) {
+        this.addEdge(IN, place, transition, weight);
+    }
+
+    /**
+     * Adds weighted input edges (from places to transitions).
+     *
+     * @param places      the identifier of the origin place of each edge
+     * @param transitions the identifier of the arrival transition of each edge
+     * @param weights     the weight of each edge
+     * @throws IllegalArgumentException if the arrays don't have the same length
+     */
+    public void addEdgesIn(int[] places, int[] transitions, int[] weights) throws IllegalArgumentException {
+        this.addEdges(IN, places, transitions, weights);
+    }
+
+    /**
+     * Adds a weighted output edge (from a transition to a place).
+     *
+     * @param transition the identifier of the origin transition
+     * @param place      the identifier of the arrival place
+     * @param weight     the edge weight
+     */
+    public void addEdgeOut(int transition, int place, int weight) {
+        this.addEdge(OUT, place, transition, weight);
+    }
+
+    /**
+     * Adds weighted output edges (from transitions to places).
+     *
+     * @param transitions the identifier of the origin transition of each edge
+     * @param places      the identifier of the arrival place of each edge
+     * @param weights     the weight of each edge
+     * @throws IllegalArgumentException if the arrays don't have the same length
+     */
+    public void addEdgesOut(int[] transitions, int[] places, int[] weights) throws IllegalArgumentException {
+        this.addEdges(OUT, places, transitions, weights);
+    }
+
+    /**
+     * Adds an empty (inhibitor) edge from a place to a transition.
+     *
+     * @param place      the identifier of the origin place
+     * @param transition the identifier of the arrival transition
+     */
+    public void addEdgeEmpty(int place, int transition) {
+        this.addEdge(EMPTY, place, transition, 0);
+    }
+
+    /**
+     * Adds empty (inhibitor) edges from places to transitions.
+     *
+     * @param places      the identifier of the origin place of each edge
+     * @param transitions the identifier of the arrival transition of each edge
+     * @throws IllegalArgumentException if the arrays don't have the same length
+     */
+    public void addEdgesEmpty(int[] places, int[] transitions) throws IllegalArgumentException {
+        this.addEdges(EMPTY, places, transitions, new int[places.length]);
+    }
+
+    /**
+     * Adds a zero-type (test) edge from a place to a transition.
+     *
+     * @param place      the identifier of the origin place
+     * @param transition the identifier of the arrival transition
+     */
+    public void addEdgeZero(int place, int transition) {
+        this.addEdge(ZERO, place, transition, 0);
+    }
+
+    /**
+     * Adds zero-type (test) edges from places to transitions.
+     *
+     * @param places      the identifier of the origin place of each edge
+     * @param transitions the identifier of the arrival transition of each edge
+     * @throws IllegalArgumentException if the arrays don't have the same length
+     */
+    public void addEdgesZero(int[] places, int[] transitions) throws IllegalArgumentException {
+        this.addEdges(ZERO, places, transitions, new int[places.length]);
+    }
+
+    /**
+     * Validates the structure and builds a {@link PetriNet2}.
+     * <p>
+     * The identifier of every created place, transition and edge is its position in the net,
+     * and edges are listed in the order they were added, input edges first.
+     * </p>
+     *
+     * @return the new Petri net
+     * @throws IllegalStateException if the structure is not valid
+     */
+    public PetriNet2 build() throws IllegalStateException {
+        this.validate();
+
+        // Count the degree of every node to pre-size its edge lists
+        int nbPlaces = this.tokens.size();
+        int[] placeIn = new int[nbPlaces];
+        int[] placeOut = new int[nbPlaces];
+        int[] transitionIn = new int[this.nbTransitions];
+        int[] transitionOut = new int[this.nbTransitions];
+        int nbEdges = 0;
+        for (int kind = 0; kind < KIND_NAMES.length; ++kind) {
+            IntArray kindPlaces = this.edgePlaces[kind];
+            IntArray kindTransitions = this.edgeTransitions[kind];
+            int[] placeDegree = kind == OUT ? placeOut : placeIn;
+            int[] transitionDegree = kind == OUT ? transitionOut : transitionIn;
+            for (int i = 0; i < kindPlaces.size(); ++i) {
+                ++placeDegree[kindPlaces.get(i)];
+                ++transitionDegree[kindTransitions.get(i)];
+            }
+            nbEdges += this.edgePlaces[kind].size();
+        }
+
+        List<Place> places = new ArrayList<Place>(nbPlaces);
+        for (int p = 0; p < nbPlaces; ++p) {
+            places.add(new Place(this.tokens.get(p), placeIn[p], placeOut[p]));
+        }
+        List<Transition> transitions = new ArrayList<Transition>(this.nbTransitions);
+        for (int t = 0; t < this.nbTransitions; ++t) {
+            transitions.add(new Transition(transitionIn[t], transitionOut[t]));
+        }
+
+        List<Edge> edges = new ArrayList<Edge>(nbEdges);
+        for (int kind : new int[] {IN, EMPTY, ZERO, OUT}) {
+            for (int i = 0; i < this.edgePlaces[kind].size(); ++i) {
+                Place place = places.get(this.edgePlaces[kind].get(i));
+                Transition transition = transitions.get(this.edgeTransitions[kind].get(i));
+                edges.add(newEdge(kind, place, transition, this.edgeWeights[kind].get(i)));
+            }
+        }
+
+        PetriNet2 net = new PetriNet2();
+        net.setPlaces(places);
+        net.setTransitions(transitions);
+        net.setEdges(edges);
+        return net;
+    }
+
+    /**
+     * Validates the structure and builds a {@link CompiledNet} directly from the arrays,
+     * without creating any place, transition or edge object.
+     *
+     * @return the compiled engine; place and transition indices are the builder identifiers
+     * @throws IllegalStateException if the structure is not valid
+     */
+    public CompiledNet buildCompiled() throws IllegalStateException {
+        this.validate();
+        return CompiledNet.fromArcs(this.tokens.toArray(), this.nbTransitions,
+            this.arcs(IN), this.arcs(OUT), this.arcs(EMPTY), this.arcs(ZERO));
+    }
+
+    private int[][] arcs(int kind) {
+        return new int[][] {
+            this.edgeTransitions[kind].toArray(),
+            this.edgePlaces[kind].toArray(),
+            this.edgeWeights[kind].toArray(),
+        };
+    }
+
+    private static Edge newEdge(int kind, Place place, Transition transition, int weight) {
+        switch (kind) {
+            case IN:
+                return new WeightedEdgeIn(place, transition, weight);
+            case OUT:
+                return new WeightedEdgeOut(transition, place, weight);
+            case EMPTY:
+                return new EdgeEmpty(place, transition);
+            default:
+                return new EdgeZero(place, transition);
+        }
+    }
+
+    private void addEdge(int kind, int place, int transition, int weight) {
+        this.edgePlaces[kind].add(place);
+        this.edgeTransitions[kind].add(transition);
+        this.edgeWeights[kind].add(weight);
+    }
+
+    private void addEdges(int kind, int[] places, int[] transitions, int[] weights) throws IllegalArgumentException {
+        if (places.length != transitions.length || places.length != weights.length) {
+            throw new IllegalArgumentException(String.format(
+                "PetriNetBuilder.addEdges -- The arrays have different lengths (%d, %d, %d).",
+                places.length, transitions.length, weights.length));
+        }
+        this.edgePlaces[kind].addAll(places);
+        this.edgeTransitions[kind].addAll(transitions);
+        this.edgeWeights[kind].addAll(weights);
+    }
+
+    /**
+     * Checks the whole structure once.
+     *
+     * @throws IllegalStateException describing the first violation found
+     */
+    private void validate() throws IllegalStateException {
+        for (int p = 0; p < this.tokens.size(); ++p) {
+            if (this.tokens.get(p) < 0) {
+                throw invalid("place %d has a negative number of tokens (%d)", p, this.tokens.get(p));
+            }
+        }
+
+        boolean[] connected = new boolean[this.nbTransitions];
+        for (int kind = 0; kind < KIND_NAMES.length; ++kind) {
+            this.validateEdges(kind, connected);
+        }
+        for (int t = 0; t < this.nbTransitions; ++t) {
+            if (!connected[t]) {
+                throw invalid("transition %d has no edge", t);
+            }
+        }
+
+        this.validateNoDuplicate(new int[] {IN, EMPTY, ZERO});
+        this.validateNoDuplicate(new int[] {OUT});
+    }
+
+    private void validateEdges(int kind, boolean[] connected) throws IllegalStateException {
+        for (int i = 0; i < this.edgePlaces[kind].size(); ++i) {
+            int place = this.edgePlaces[kind].get(i);
+            int transition = this.edgeTransitions[kind].get(i);
+            int weight = this.edgeWeights[kind].get(i);
+            if (place < 0 || place >= this.tokens.size()) {
+                throw invalid("%s edge %d refers to an unknown place (%d)", KIND_NAMES[kind], i, place);
+            }
+            if (transition < 0 || transition >= this.nbTransitions) {
+                throw invalid("%s edge %d refers to an unknown transition (%d)", KIND_NAMES[kind], i, transition);
+            }
+            if (weight < 0) {
+                throw invalid("%s edge %d has a negative weight (%d)", KIND_NAMES[kind], i, weight);
+            }
+            connected[transition] = true;
+        }
+    }
+
+    /**
+     * Checks that no (place, transition) pair appears twice among the edges of the given kinds,
+     * by sorting the pairs packed into {@code long}s.
+     */
+    private void validateNoDuplicate(int[] kinds) throws IllegalStateException {
+        int size = 0;
+        for (int kind : kinds) {
+            size += this.edgePlaces[kind].size();
+        }
+        long[] keys = new long[size];
+        int k = 0;
+        for (int kind : kinds) {
+            for (int i = 0; i < this.edgePlaces[kind].size(); ++i) {
+                keys[k++] = ((long) this.edgePlaces[kind].get(i) << Integer.SIZE)
+                    | this.edgeTransitions[kind].get(i);
+            }
+        }
+        Arrays.sort(keys);
+        for (int i = 1; i < size; ++i) {
+            if (keys[i] == keys[i - 1]) {
+                throw invalid("several %s edges connect place %d and transition %d",
+                    kinds.length == 1 ? "output" : "input", keys[i] >>> Integer.SIZE, (int) keys[i]);
+            }
+        }
+    }
+
+    private static IllegalStateException invalid(String format, Object... args) {
+        return new IllegalStateException(
+            "PetriNetBuilder.build() -- The Petri net is not valid: " + String.format(format, args) + ".");
+    }
+}
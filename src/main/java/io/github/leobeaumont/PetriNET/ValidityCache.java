@@ -0,0 +1,115 @@
+package io.github.leobeaumont.PetriNET;
+
+import io.github.leobeaumont.Edges.Edge;
+import io.github.leobeaumont.Edges.StructureListener;
+import io.github.leobeaumont.Nodes.Node;
+import io.github.leobeaumont.Nodes.Transition;
+import java.util.List;
+
+/**
+ * Remembers the last validity verdict of a Petri net until its structure changes.
+ * <p>
+ * The verdict is stale as soon as one of the following differs from when it was stored:
+ * the modification count of the net, or the sizes of the edge and transition lists, which
+ * catches direct changes to the lists returned by the getters. The modification count is
+ * increased by {@link #invalidate()} in every structural mutator, by the {@code setOrigin},
+ * {@code setArrival} and {@code setWeight} of the edges of the net, and whenever a new verdict is
+ * stored: the cache listens to every edge it checked, so reconnecting an edge of another net leaves
+ * this verdict alone. Anything else derived from the structure can be kept as long as
+ * {@link #getModCount()} is unchanged. A net that derives more
+ * from the endpoints of its edges is informed through the listener given at construction.
+ * </p>
+ */
+final class ValidityCache implements StructureListener {
+
+    private final StructureListener next;
+
+    private int modCount;
+
+    private boolean stored;
+    private int storedModCount;
+    private int storedEdgeCount;
+    private int storedTransitionCount;
+    private String violation;
+
+    /**
+     * Creates a cache informing nothing else of the reconnected edges.
+     */
+    ValidityCache() {
+        this(null);
+    }
+
+    /**
+     * Creates a cache forwarding the reconnections of the edges it listens to.
+     *
+     * @param next the listener informed after the verdict is dropped, or {@code null} for none
+     */
+    ValidityCache(StructureListener next) {
+        this.next = next;
+    }
+
+    /**
+     * Records a structural change of the net.
+     */
+    void invalidate() {
+        ++modCount;
+    }
+
+    @Override
+    public void structureChanged(Edge edge, Node previousOrigin, Node previousArrival) {
+        invalidate();
+        if (next != null) {
+            next.structureChanged(edge, previousOrigin, previousArrival);
+        }
+    }
+
+    /**
+     * Tests whether the stored verdict still describes the net.
+     *
+     * @param edges       the current edge list of the net
+     * @param transitions the current transition list of the net
+     * @return {@code true} if the stored verdict can be reused
+     */
+    boolean isFresh(List<Edge> edges, List<Transition> transitions) {
+        return stored
+            && storedModCount == modCount
+            && storedEdgeCount == edges.size()
+            && storedTransitionCount == transitions.size();
+    }
+
+    /**
+     * Stores a verdict for the current structure and listens to the edges it was computed from.
+     *
+     * @param firstViolation the first violation found, or {@code null} if the net is valid
+     * @param edges          the current edge list of the net
+     * @param transitions    the current transition list of the net
+     */
+    void store(String firstViolation, List<Edge> edges, List<Transition> transitions) {
+        this.violation = firstViolation;
+        this.stored = true;
+        this.storedModCount = ++modCount;
+        this.storedEdgeCount = edges.size();
+        this.storedTransitionCount = transitions.size();
+        for (Edge edge : edges) {
+            edge.setStructureListener(this);
+        }
+    }
+
+    /**
+     * Returns the modification count of the net, which changes with its structure.
+     *
+     * @return the modification count
+     */
+    int getModCount() {
+        return modCount;
+    }
+
+    /**
+     * Returns the stored verdict.
+     *
+     * @return the first violation found, or {@code null} if the net was valid
+     */
+    String getViolation() {
+        return violation;
+    }
+}
@@ -0,0 +1,79 @@
+package io.github.leobeaumont;
+
+import io.github.leobeaumont.Analysis.BitstateExplorer;
+import io.github.leobeaumont.Analysis.ExplorationResult;
+import io.github.leobeaumont.Engine.CompiledNet;
+import io.github.leobeaumont.PetriNET.PetriNetBuilder;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for the {@link BitstateExplorer} class.
+ */
+public class BitstateExplorerTest {
+
+    private static final int CYCLES = 8;
+    private static final int CYCLE_STATES = 6561;
+    private static final int MEMORY_BYTES = 1024 * 1024;
+    private static final int MAX_STATES = 1_000_000;
+    private static final double EXACT_COVERAGE = 0.999;
+    private static final int TINY_BYTES = 256;
+    private static final int TINY_HASHES = 2;
+    private static final double LOSSY_COVERAGE = 0.5;
+    private static final int TOKENS = 3;
+    private static final int SMALL_BYTES = 1024;
+    private static final int LIMIT = 100;
+    private static final int TOO_FEW_BYTES = 4;
+
+    /**
+     * Tests that a large bit array visits every state with a coverage close to one, and that
+     * a tiny one loses states and reports it.
+     */
+    @Test
+    void testCoverage() {
+        CompiledNet engine = TestNets.buildCycles(CYCLES);
+
+        ExplorationResult exact = new BitstateExplorer(engine, MEMORY_BYTES).explore(MAX_STATES);
+        assertEquals(CYCLE_STATES, exact.getStateCount());
+        assertEquals(CYCLES * CYCLE_STATES, exact.getArcCount());
+        assertTrue(exact.isComplete());
+        assertTrue(exact.getCoverage() > EXACT_COVERAGE);
+
+        BitstateExplorer tiny = new BitstateExplorer(engine, TINY_BYTES, TINY_HASHES);
+        assertEquals(TINY_BYTES * Byte.SIZE, tiny.getBitCount());
+        ExplorationResult lossy = tiny.explore(MAX_STATES);
+        assertTrue(lossy.getStateCount() < CYCLE_STATES);
+        assertTrue(lossy.getCoverage() < LOSSY_COVERAGE);
+    }
+
+    /**
+     * Tests the deadlocks, the state limit and the invalid arguments.
+     */
+    @Test
+    void testDeadlocksAndLimit() {
+        PetriNetBuilder builder = new PetriNetBuilder();
+        builder.addPlaces(new int[] {TOKENS, 0});
+        builder.addTransition();
+        builder.addEdgeIn(0, 0, 1);
+        builder.addEdgeOut(0, 1, 1);
+        CompiledNet engine = builder.buildCompiled();
+
+        ExplorationResult result = new BitstateExplorer(engine, SMALL_BYTES).explore(LIMIT);
+        assertEquals(TOKENS + 1, result.getStateCount());
+        assertEquals(1, result.getDeadlockCount());
+        assertArrayEquals(new int[] {0, TOKENS}, result.getDeadlockMarking());
+
+        ExplorationResult truncated = new BitstateExplorer(TestNets.buildCycles(CYCLES), MEMORY_BYTES).explore(LIMIT);
+        assertFalse(truncated.isComplete());
+        assertEquals(LIMIT, truncated.getStateCount());
+
+        assertThrows(IllegalArgumentException.class, () -> new BitstateExplorer(engine, TOO_FEW_BYTES));
+        assertThrows(IllegalArgumentException.class, () -> new BitstateExplorer(engine, SMALL_BYTES, 0));
+        assertThrows(IllegalArgumentException.class, () -> new BitstateExplorer(engine, SMALL_BYTES).explore(0));
+    }
+}
@@ -0,0 +1,374 @@
+package io.github.leobeaumont;
+
+import io.github.leobeaumont.Analysis.PetriNetFacade;
+import io.github.leobeaumont.Engine.CompiledNet;
+import io.github.leobeaumont.Engine.EnabledSet;
+import io.github.leobeaumont.Engine.SimulationRun;
+import io.github.leobeaumont.Nodes.Place;
+import io.github.leobeaumont.Nodes.Transition;
+import io.github.leobeaumont.PetriNET.PetriNet1;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for the {@link CompiledNet} class.
+ * <p>
+ * These tests check that the compiled engine follows the same firing rules as the
+ * object model for every edge type.
+ * </p>
+ */
+public class CompiledNetTest {
+
+    private static final int TOKENS = 5;
+    private static final int MAX_STEPS = 10;
+    private static final int CHAIN_FIRINGS = 4;
+    private static final int MAX_CHAIN_STEPS = 100;
+    private static final int SET_CAPACITY = 4;
+    private static final int LAST_MEMBER = 3;
+    private static final int MEMBERS = 3;
+    private static final int UNLISTED_TOKENS = 3;
+    private static final int RUN_STEPS = 50;
+    private static final long SEED = 42L;
+    private static final long OTHER_SEED = 7L;
+    private static final int SHORT_STEPS = 3;
+    private static final int BATCH_TOKENS = 10;
+    private static final int BATCH_WEIGHT = 3;
+    private static final int REFILLED_TOKENS = 5;
+    private static final int REFILLED_PLACE = 3;
+    private static final int BATCH_DEGREE = 4;
+    private static final int[] BATCHED_MARKING = {2, 8, 0, 1};
+    private static final int FEW_TOKENS = 3;
+    private static final int MARGIN = 10;
+    private static final int PRODUCED = 3;
+    private static final int FIRINGS = 3;
+    private static final int TOO_MANY_FIRINGS = 1000;
+    private static final int DUPLICATE_TOKENS = 4;
+    private static final int DUPLICATE_DEGREE = 3;
+
+    private PetriNet1 petriNet;
+    private Place p1;
+    private Place p2;
+    private Transition t1;
+
+    /**
+     * Builds a net where {@code t1} consumes two tokens from {@code p1} and produces one in {@code p2}.
+     */
+    private void buildWeightedNet() {
+        petriNet = new PetriNet1();
+        p1 = new Place(TOKENS);
+        p2 = new Place(0);
+        t1 = new Transition();
+
+        petriNet.getPlaces().add(p1);
+        petriNet.getPlaces().add(p2);
+        petriNet.getTransitions().add(t1);
+        petriNet.addEdge(2, p1, t1);
+        petriNet.addEdge(1, t1, p2);
+    }
+
+    /**
+     * Tests that places and transitions are numbered in the order of the net.
+     */
+    @Test
+    void testCompileIndices() {
+        buildWeightedNet();
+        CompiledNet engine = petriNet.compile();
+
+        assertEquals(2, engine.getPlaceCount());
+        assertEquals(1, engine.getTransitionCount());
+        assertEquals(0, engine.indexOf(p1));
+        assertEquals(1, engine.indexOf(p2));
+        assertEquals(0, engine.indexOf(t1));
+        assertEquals(-1, engine.indexOf(new Place()));
+        assertArrayEquals(new int[] {TOKENS, 0}, engine.getMarking());
+    }
+
+    /**
+     * Tests that weighted edges consume and produce tokens, and that the marking is only
+     * copied to the places by {@link CompiledNet#writeBack()}.
+     */
+    @Test
+    void testWeightedFiringAndWriteBack() {
+        buildWeightedNet();
+        CompiledNet engine = petriNet.compile();
+
+        engine.fire(0);
+        engine.fire(0);
+        assertArrayEquals(new int[] {1, 2}, engine.getMarking());
+        assertFalse(engine.isEnabled(0));
+        assertThrows(IllegalArgumentException.class, () -> engine.fire(0));
+
+        assertEquals(TOKENS, p1.getNbTokens());
+        engine.writeBack();
+        assertEquals(1, p1.getNbTokens());
+        assertEquals(2, p2.getNbTokens());
+    }
+
+    /**
+     * Tests the empty and zero edges: an empty edge needs a token and empties its place,
+     * a zero edge needs an empty place and leaves it untouched.
+     */
+    @Test
+    void testEmptyAndZeroEdges() {
+        buildWeightedNet();
+        Transition t2 = new Transition();
+        petriNet.getTransitions().add(t2);
+        petriNet.addEdgeEmpty(p1, t2);
+        petriNet.addEdgeZero(p2, t2);
+        CompiledNet engine = petriNet.compile();
+
+        assertTrue(engine.isEnabled(1));
+        engine.fire(1);
+        assertArrayEquals(new int[] {0, 0}, engine.getMarking());
+        assertFalse(engine.isEnabled(1));
+        assertEquals(0, engine.enabled().length);
+    }
+
+    /**
+     * Tests that a simulation stops when no transition can be drawn and reports the fired steps.
+     */
+    @Test
+    void testLaunchSimulationStopsOnDeadlock() {
+        buildWeightedNet();
+        CompiledNet engine = petriNet.compile();
+
+        assertEquals(2, engine.launchSimulation(MAX_STEPS));
+        engine.writeBack();
+        assertEquals(1, p1.getNbTokens());
+        assertEquals(2, p2.getNbTokens());
+    }
+
+    /**
+     * Tests that the incremental simulation enables a transition as soon as a place it reads
+     * receives tokens, and drains a chain of places completely.
+     */
+    @Test
+    void testIncrementalSimulationFollowsChain() {
+        buildWeightedNet();
+        Place p3 = new Place();
+        Transition t2 = new Transition();
+        petriNet.getPlaces().add(p3);
+        petriNet.getTransitions().add(t2);
+        petriNet.addEdge(1, p2, t2);
+        petriNet.addEdge(1, t2, p3);
+
+        assertEquals(CHAIN_FIRINGS, new PetriNetFacade(petriNet).launchIncrementalSimulation(MAX_CHAIN_STEPS));
+
+        assertEquals(1, p1.getNbTokens());
+        assertEquals(0, p2.getNbTokens());
+        assertEquals(2, p3.getNbTokens());
+    }
+
+    /**
+     * Tests that removing a member of an {@link EnabledSet} keeps the other members reachable.
+     */
+    @Test
+    void testEnabledSetSwapRemove() {
+        EnabledSet set = new EnabledSet(SET_CAPACITY);
+        set.add(0);
+        set.add(2);
+        set.add(LAST_MEMBER);
+        set.add(2);
+        assertEquals(MEMBERS, set.size());
+
+        set.remove(0);
+        set.remove(1);
+        assertEquals(2, set.size());
+        assertFalse(set.contains(0));
+        assertTrue(set.contains(2));
+        assertTrue(set.contains(LAST_MEMBER));
+        assertEquals(2 + LAST_MEMBER, set.get(0) + set.get(1));
+
+        set.clear();
+        assertTrue(set.isEmpty());
+    }
+
+    /**
+     * Tests that places are found by their identifier, and by a scan when it doesn't match their
+     * position or when they are not listed in the net.
+     */
+    @Test
+    void testCompileIdentifiers() {
+        buildWeightedNet();
+        Place unlisted = new Place(UNLISTED_TOKENS);
+        Transition t2 = new Transition();
+        petriNet.getTransitions().add(t2);
+        petriNet.addEdge(1, unlisted, t2);
+        petriNet.addEdge(1, t2, p1);
+
+        CompiledNet stale = CompiledNet.compile(petriNet.getPlaces(), petriNet.getTransitions());
+        assertEquals(0, stale.indexOf(p1));
+        assertEquals(1, stale.indexOf(p2));
+        assertEquals(2, stale.indexOf(unlisted));
+
+        CompiledNet engine = petriNet.compile();
+        assertEquals(1, p2.getId());
+        assertEquals(2, engine.indexOf(unlisted));
+        assertArrayEquals(new int[] {TOKENS, 0, UNLISTED_TOKENS}, engine.getMarking());
+        engine.fire(1);
+        assertArrayEquals(new int[] {TOKENS + 1, 0, UNLISTED_TOKENS - 1}, engine.getMarking());
+    }
+
+    /**
+     * Tests that an invalid net can't be compiled.
+     */
+    @Test
+    void testCompileInvalidNet() {
+        petriNet = new PetriNet1();
+        petriNet.addTransition();
+
+        assertThrows(IllegalStateException.class, () -> petriNet.compile());
+    }
+
+    /**
+     * Tests that a seeded run can be replayed on the engine and on the object model.
+     */
+    @Test
+    void testSeededRunReplay() {
+        buildWeightedNet();
+        Transition back = new Transition();
+        petriNet.getTransitions().add(back);
+        petriNet.addEdge(1, p2, back);
+        petriNet.addEdge(1, back, p1);
+        CompiledNet engine = petriNet.compile();
+
+        SimulationRun run = engine.launchSimulation(RUN_STEPS, SEED);
+        SimulationRun replayed = engine.replay(run);
+        assertEquals(run.getFired(), replayed.getFired());
+        assertArrayEquals(run.getFinalMarking(), replayed.getFinalMarking());
+        assertArrayEquals(new int[] {TOKENS, 0}, run.getInitialMarking());
+
+        SimulationRun objectRun = petriNet.launchSimulation(RUN_STEPS, OTHER_SEED);
+        petriNet.launchSimulation(SHORT_STEPS);
+        assertArrayEquals(objectRun.getFinalMarking(), petriNet.replay(objectRun).getFinalMarking());
+        assertArrayEquals(objectRun.getFinalMarking(), petriNet.getMarking());
+        assertTrue(objectRun.isDeadlocked());
+    }
+
+    /**
+     * Builds a net where {@code t0} consumes three tokens from {@code p0} and gives one back,
+     * produces two tokens in {@code p1}, tests that {@code p2} is empty, and empties then refills {@code p3}.
+     */
+    private PetriNet1 buildBatchNet() {
+        PetriNet1 net = new PetriNet1();
+        net.addPlace(BATCH_TOKENS);
+        net.addPlace(0);
+        net.addPlace(0);
+        net.addPlace(REFILLED_TOKENS);
+        net.addTransition();
+        List<Place> places = net.getPlaces();
+        Transition t0 = net.getTransitions().get(0);
+        net.addEdge(BATCH_WEIGHT, places.get(0), t0);
+        net.addEdge(1, t0, places.get(0));
+        net.addEdge(2, t0, places.get(1));
+        net.addEdgeZero(places.get(2), t0);
+        net.addEdgeEmpty(places.get(REFILLED_PLACE), t0);
+        net.addEdge(1, t0, places.get(REFILLED_PLACE));
+        return net;
+    }
+
+    /**
+     * Builds a net where {@code t0} takes one token from {@code p0} through each of two parallel
+     * edges and gives one back.
+     */
+    private PetriNet1 buildDuplicateNet() {
+        PetriNet1 net = new PetriNet1();
+        net.addPlace(DUPLICATE_TOKENS);
+        net.addTransition();
+        Place p0 = net.getPlaces().get(0);
+        Transition t0 = net.getTransitions().get(0);
+        net.addEdge(1, p0, t0);
+        net.addEdge(1, p0, t0);
+        net.addEdge(1, t0, p0);
+        return net;
+    }
+
+    /**
+     * Tests that drawing a transition k times in one pass matches k single draws when parallel edges
+     * connect it to the same place.
+     */
+    @Test
+    void testBatchedDrawWithDuplicateEdges() {
+        PetriNet1 single = buildDuplicateNet();
+        Transition singleT0 = single.getTransitions().get(0);
+        assertEquals(DUPLICATE_DEGREE, singleT0.getEnablingDegree());
+        for (int i = 0; i < DUPLICATE_DEGREE; ++i) {
+            singleT0.draw();
+        }
+        assertEquals(0, singleT0.getEnablingDegree());
+
+        for (int times = 0; times <= DUPLICATE_DEGREE; ++times) {
+            PetriNet1 batched = buildDuplicateNet();
+            Transition batchedT0 = batched.getTransitions().get(0);
+            batchedT0.draw(times);
+            assertArrayEquals(new int[] {DUPLICATE_TOKENS - times}, batched.getMarking());
+        }
+
+        PetriNet1 batched = buildDuplicateNet();
+        Transition batchedT0 = batched.getTransitions().get(0);
+        assertThrows(IllegalArgumentException.class, () -> batchedT0.draw(DUPLICATE_DEGREE + 1));
+        batchedT0.draw(DUPLICATE_DEGREE);
+        assertArrayEquals(single.getMarking(), batched.getMarking());
+    }
+
+    /**
+     * Tests that firing a transition k times in one pass matches k single firings, on the engine
+     * and on the object model.
+     */
+    @Test
+    void testBatchedFiring() {
+        PetriNet1 single = buildBatchNet();
+        Transition singleT0 = single.getTransitions().get(0);
+        assertEquals(BATCH_DEGREE, singleT0.getEnablingDegree());
+        for (int i = 0; i < BATCH_DEGREE; ++i) {
+            single.stepSimulation(singleT0);
+        }
+        assertEquals(0, singleT0.getEnablingDegree());
+
+        PetriNet1 batched = buildBatchNet();
+        Transition batchedT0 = batched.getTransitions().get(0);
+        PetriNetFacade facade = new PetriNetFacade(batched);
+        assertThrows(IllegalArgumentException.class, () -> facade.stepSimulation(batchedT0, BATCH_DEGREE + 1));
+        facade.stepSimulation(batchedT0, BATCH_DEGREE);
+        assertArrayEquals(BATCHED_MARKING, single.getMarking());
+        assertArrayEquals(single.getMarking(), batched.getMarking());
+
+        CompiledNet engine = buildBatchNet().compile();
+        assertEquals(BATCH_DEGREE, engine.enablingDegree(0));
+        engine.fire(0, 0);
+        engine.fire(0, BATCH_DEGREE);
+        assertArrayEquals(single.getMarking(), engine.getMarking());
+        assertThrows(IllegalArgumentException.class, () -> engine.fire(0, 1));
+        assertThrows(IllegalArgumentException.class, () -> engine.fire(0, -1));
+    }
+
+    /**
+     * Tests the enabling degree bounds of empty and zero arcs, and the overflow check of batched firings.
+     */
+    @Test
+    void testEnablingDegreeBounds() {
+        int[][] none = {{}, {}, {}};
+        CompiledNet emptying = CompiledNet.fromArcs(new int[] {FEW_TOKENS, 0}, 1,
+            none, new int[][] {{0}, {1}, {1}}, new int[][] {{0}, {0}}, none);
+        assertEquals(1, emptying.enablingDegree(0));
+
+        CompiledNet filling = CompiledNet.fromArcs(new int[] {0}, 1,
+            none, new int[][] {{0}, {0}, {1}}, none, new int[][] {{0}, {0}});
+        assertEquals(1, filling.enablingDegree(0));
+
+        CompiledNet source = CompiledNet.fromArcs(new int[] {Integer.MAX_VALUE - MARGIN, 1}, 1,
+            none, new int[][] {{0}, {0}, {PRODUCED}}, none, new int[][] {{0}, {1}});
+        assertEquals(0, source.enablingDegree(0));
+        source.setTokens(1, 0);
+        assertEquals(Integer.MAX_VALUE, source.enablingDegree(0));
+        source.fire(0, FIRINGS);
+        assertEquals(Integer.MAX_VALUE - 1, source.getTokens(0));
+        assertThrows(IllegalStateException.class, () -> source.fire(0, TOO_MANY_FIRINGS));
+    }
+}
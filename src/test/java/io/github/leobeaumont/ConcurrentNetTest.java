@@ -0,0 +1,111 @@
+package io.github.leobeaumont;
+
+import io.github.leobeaumont.Engine.CompiledNet;
+import io.github.leobeaumont.Engine.ConcurrentNet;
+import io.github.leobeaumont.Engine.RandomSource;
+import io.github.leobeaumont.Nodes.Place;
+import io.github.leobeaumont.Nodes.Transition;
+import io.github.leobeaumont.PetriNET.PetriNet1;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Unit tests for the {@link ConcurrentNet} class.
+ */
+public class ConcurrentNetTest {
+
+    private static final int TOKENS = 3;
+    private static final int WORKERS = 4;
+    private static final int STEPS = 20000;
+
+    private PetriNet1 petriNet;
+    private Place p1;
+    private Place p2;
+
+    /**
+     * Builds a ring where {@code t1} moves a token from {@code p1} to {@code p2} and {@code t2}
+     * moves it back, so the total number of tokens never changes.
+     */
+    private CompiledNet buildRing(int nbTokens) {
+        petriNet = new PetriNet1();
+        p1 = new Place(nbTokens);
+        p2 = new Place(0);
+        Transition t1 = new Transition();
+        Transition t2 = new Transition();
+        petriNet.addPlace(p1);
+        petriNet.addPlace(p2);
+        petriNet.addTransition(t1);
+        petriNet.addTransition(t2);
+        petriNet.addEdge(1, p1, t1);
+        petriNet.addEdge(1, t1, p2);
+        petriNet.addEdge(1, p2, t2);
+        petriNet.addEdge(1, t2, p1);
+        return petriNet.compile();
+    }
+
+    /**
+     * Tests that concurrent workers never lose or create tokens and never drive a place negative.
+     */
+    @Test
+    void testConcurrentFiringConservesTokens() throws InterruptedException {
+        ConcurrentNet shared = new ConcurrentNet(buildRing(TOKENS));
+        List<Thread> workers = new ArrayList<Thread>();
+        for (int w = 0; w < WORKERS; ++w) {
+            RandomSource random = RandomSource.seeded(w);
+            workers.add(new Thread(() -> shared.simulate(STEPS, random)));
+        }
+        for (Thread worker : workers) {
+            worker.start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+
+        int[] marking = shared.getMarking();
+        assertEquals(TOKENS, marking[0] + marking[1]);
+        shared.writeBack();
+        assertEquals(TOKENS, p1.getNbTokens() + p2.getNbTokens());
+    }
+
+    /**
+     * Tests that firing respects the enabling rules and that added tokens enable transitions.
+     */
+    @Test
+    void testFireAndAddTokens() {
+        ConcurrentNet shared = new ConcurrentNet(buildRing(0), 1);
+
+        assertFalse(shared.tryFire(0));
+        assertThrows(IllegalArgumentException.class, () -> shared.fire(1));
+        assertEquals(-1, shared.fireAny(RandomSource.seeded(0)));
+
+        shared.addTokens(0, 2);
+        shared.fire(0);
+        assertArrayEquals(new int[] {1, 1}, shared.getMarking());
+        shared.fire(1);
+        shared.fire(0);
+        shared.fire(0);
+        assertEquals(1, shared.fireAny(RandomSource.seeded(0)));
+        assertArrayEquals(new int[] {1, 1}, shared.getMarking());
+        assertThrows(IllegalArgumentException.class, () -> shared.addTokens(0, -1));
+    }
+
+    /**
+     * Tests that a firing which would overflow a place fails without consuming its inputs.
+     */
+    @Test
+    void testOverflowingFiringLeavesMarkingUnchanged() {
+        ConcurrentNet shared = new ConcurrentNet(buildRing(1), 1);
+        shared.addTokens(1, Integer.MAX_VALUE);
+
+        assertThrows(IllegalStateException.class, () -> shared.tryFire(0));
+        assertArrayEquals(new int[] {1, Integer.MAX_VALUE}, shared.getMarking());
+        shared.fire(1);
+        assertArrayEquals(new int[] {2, Integer.MAX_VALUE - 1}, shared.getMarking());
+    }
+}
@@ -0,0 +1,145 @@
+package io.github.leobeaumont;
+
+import io.github.leobeaumont.Analysis.CoverabilityExplorer;
+import io.github.leobeaumont.Analysis.CoverabilityGraph;
+import io.github.leobeaumont.Analysis.PetriNetFacade;
+import io.github.leobeaumont.Engine.CompiledNet;
+import io.github.leobeaumont.PetriNET.PetriNetBuilder;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for the {@link CoverabilityExplorer} and {@link CoverabilityGraph} classes.
+ */
+public class CoverabilityExplorerTest {
+
+    private static final int OMEGA = CoverabilityGraph.OMEGA;
+    private static final int MAX_NODES = 100;
+    private static final int MANY_TOKENS = 1000;
+    private static final int[] CYCLE_NODES = {0, 1, 2, 3};
+    private static final int[] NEXT_PLACES = {1, 0, 3, 2};
+    private static final int CYCLE_STATES = 4;
+    private static final int CYCLE_ARCS = 8;
+    private static final int PRODUCERS = 20;
+    private static final int MAX_PRODUCER_NODES = 10_000;
+    private static final int FEW_NODES = 1000;
+
+    /**
+     * Builds a transition {@code t0} that puts its token back in {@code p0} and adds one to {@code p1}.
+     */
+    private PetriNetBuilder producer() {
+        PetriNetBuilder builder = new PetriNetBuilder();
+        builder.addPlaces(new int[] {1, 0});
+        builder.addTransition();
+        builder.addEdgeIn(0, 0, 1);
+        builder.addEdgesOut(new int[] {0, 0}, new int[] {0, 1}, new int[] {1, 1});
+        return builder;
+    }
+
+    /**
+     * Tests that a place filled forever is reported unbounded, and the others keep their bound.
+     */
+    @Test
+    void testUnboundedPlace() {
+        CoverabilityGraph graph = new PetriNetFacade(producer().build()).buildCoverabilityGraph(MAX_NODES);
+
+        assertEquals(2, graph.getNodeCount());
+        assertEquals(2, graph.getArcCount());
+        assertTrue(graph.isComplete());
+        assertTrue(graph.isExact());
+        assertArrayEquals(new int[] {1, 0}, graph.getMarking(0));
+        int n = graph.getSuccessors(0)[0];
+        assertArrayEquals(new int[] {1, OMEGA}, graph.getMarking(n));
+        assertArrayEquals(new int[] {n}, graph.getSuccessors(n));
+        assertArrayEquals(new int[] {0}, graph.getSuccessorTransitions(n));
+        assertFalse(graph.isBounded());
+        assertArrayEquals(new int[] {1}, graph.getUnboundedPlaces());
+        assertEquals(1, graph.getBound(0));
+        assertEquals(OMEGA, graph.getBound(1));
+        assertTrue(graph.covers(new int[] {1, MANY_TOKENS}));
+        assertFalse(graph.covers(new int[] {2, 0}));
+    }
+
+    /**
+     * Tests that the graph of a bounded net is its reachability graph.
+     */
+    @Test
+    void testBoundedNet() {
+        PetriNetBuilder builder = new PetriNetBuilder();
+        builder.addPlaces(new int[] {1, 0, 1, 0});
+        builder.addTransitions(CYCLE_NODES.length);
+        builder.addEdgesIn(CYCLE_NODES, CYCLE_NODES, new int[] {1, 1, 1, 1});
+        builder.addEdgesOut(CYCLE_NODES, NEXT_PLACES, new int[] {1, 1, 1, 1});
+        CoverabilityGraph graph = new CoverabilityExplorer(builder.buildCompiled()).explore(MAX_NODES);
+
+        assertEquals(CYCLE_STATES, graph.getNodeCount());
+        assertEquals(CYCLE_ARCS, graph.getArcCount());
+        assertTrue(graph.isBounded());
+        assertEquals(1, graph.getBound(CYCLE_NODES.length - 1));
+        assertEquals(CYCLE_STATES, graph.getMaximalNodes().length);
+        for (int n = 0; n < graph.getNodeCount(); ++n) {
+            assertFalse(graph.isCovered(n));
+        }
+    }
+
+    /**
+     * Tests that many concurrent producers are summed up by a few nodes instead of every interleaving.
+     */
+    @Test
+    void testConcurrentProducers() {
+        PetriNetBuilder builder = new PetriNetBuilder();
+        builder.addPlaces(new int[PRODUCERS]);
+        builder.addTransitions(PRODUCERS);
+        for (int i = 0; i < PRODUCERS; ++i) {
+            builder.addEdgeOut(i, i, 1);
+        }
+        CoverabilityGraph graph = new CoverabilityExplorer(builder.buildCompiled()).explore(MAX_PRODUCER_NODES);
+
+        assertTrue(graph.isComplete());
+        assertTrue(graph.getNodeCount() < FEW_NODES);
+        assertEquals(PRODUCERS, graph.getUnboundedPlaces().length);
+        int[] maximal = graph.getMaximalNodes();
+        assertEquals(1, maximal.length);
+        for (int tokens : graph.getMarking(maximal[0])) {
+            assertEquals(OMEGA, tokens);
+        }
+        int covered = 0;
+        for (int n = 0; n < graph.getNodeCount(); ++n) {
+            covered += graph.isCovered(n) ? 1 : 0;
+        }
+        assertTrue(covered > 0);
+    }
+
+    /**
+     * Tests that a net with zero arcs is flagged as over-approximated.
+     */
+    @Test
+    void testZeroArcs() {
+        CompiledNet engine = CompiledNet.fromArcs(new int[] {0}, 1, new int[][] {{}, {}, {}},
+            new int[][] {{0}, {0}, {1}}, new int[][] {{}, {}}, new int[][] {{0}, {0}});
+        CoverabilityGraph graph = new CoverabilityExplorer(engine).explore(MAX_NODES);
+
+        assertFalse(graph.isExact());
+        assertTrue(graph.isComplete());
+        assertArrayEquals(new int[] {0}, graph.getUnboundedPlaces());
+    }
+
+    /**
+     * Tests the node limit and the invalid arguments.
+     */
+    @Test
+    void testNodeLimit() {
+        CompiledNet engine = producer().buildCompiled();
+        CoverabilityGraph graph = new CoverabilityExplorer(engine).explore(1);
+
+        assertEquals(1, graph.getNodeCount());
+        assertFalse(graph.isComplete());
+        assertEquals(0, graph.getArcCount());
+        assertThrows(IllegalArgumentException.class, () -> new CoverabilityExplorer(engine).explore(0));
+    }
+}
@@ -0,0 +1,120 @@
+package io.github.leobeaumont;
+
+import io.github.leobeaumont.Edges.Edge;
+import io.github.leobeaumont.Engine.IncrementalSimulator;
+import io.github.leobeaumont.Engine.RandomSource;
+import io.github.leobeaumont.Nodes.Place;
+import io.github.leobeaumont.Nodes.Transition;
+import io.github.leobeaumont.PetriNET.PetriNet1;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for the {@link IncrementalSimulator} class, and for its reuse by
+ * {@link PetriNet1#launchSimulation(int, RandomSource)}.
+ */
+public class IncrementalSimulatorTest {
+
+    private static final int STEPS = 10;
+    private static final int TOKENS = 3;
+    private static final int HEAVY_TOKENS = 4;
+    private static final long SEED = 5L;
+
+    private PetriNet1 petriNet;
+
+    /**
+     * Builds a net where {@code t0} moves the tokens of {@code p0} to {@code p1} one by one,
+     * and {@code t1} moves them to {@code p2} instead.
+     */
+    private PetriNet1 buildFork(int nbTokens) {
+        petriNet = new PetriNet1();
+        petriNet.addPlace(nbTokens);
+        petriNet.addPlace(0);
+        petriNet.addPlace(0);
+        petriNet.addTransition();
+        petriNet.addTransition();
+        List<Place> places = petriNet.getPlaces();
+        List<Transition> transitions = petriNet.getTransitions();
+        petriNet.addEdge(1, places.get(0), transitions.get(0));
+        petriNet.addEdge(1, transitions.get(0), places.get(1));
+        petriNet.addEdge(1, places.get(0), transitions.get(1));
+        petriNet.addEdge(1, transitions.get(1), places.get(2));
+        return petriNet;
+    }
+
+    /**
+     * Tests that successive runs see the tokens set on the places between them.
+     */
+    @Test
+    void testRunsSeeTokenChanges() {
+        PetriNet1 net = buildFork(TOKENS);
+        RandomSource random = RandomSource.seeded(SEED);
+        Place p0 = net.getPlaces().get(0);
+
+        assertEquals(TOKENS, net.launchSimulation(STEPS, random));
+        assertEquals(0, net.launchSimulation(STEPS, random));
+        net.setTokens(p0, 2);
+        assertEquals(2, net.launchSimulation(STEPS, random));
+        p0.setNbTokens(1);
+        assertEquals(1, net.launchSimulation(STEPS, random));
+
+        int[] marking = net.getMarking();
+        assertEquals(0, marking[0]);
+        assertEquals(TOKENS + 2 + 1, marking[1] + marking[2]);
+    }
+
+    /**
+     * Tests that successive runs see the changes of weights, edges and priorities made between them.
+     */
+    @Test
+    void testRunsSeeStructureChanges() {
+        PetriNet1 net = buildFork(0);
+        RandomSource random = RandomSource.seeded(SEED);
+        List<Place> places = net.getPlaces();
+        List<Transition> transitions = net.getTransitions();
+        assertEquals(0, net.launchSimulation(STEPS, random));
+
+        transitions.get(1).setPriority(1);
+        net.setTokens(places.get(0), 1);
+        assertEquals(1, net.launchSimulation(STEPS, random));
+        assertArrayEquals(new int[] {0, 0, 1}, net.getMarking());
+
+        Edge consumed = net.getEdges().get(2);
+        net.setWeight(consumed, 2);
+        net.setTokens(places.get(0), HEAVY_TOKENS);
+        assertEquals(2, net.launchSimulation(STEPS, random));
+        assertArrayEquals(new int[] {0, 0, 1 + 2}, net.getMarking());
+
+        assertEquals(0, net.launchSimulation(STEPS, random));
+        Transition back = new Transition();
+        net.addTransition(back);
+        net.addEdge(1, places.get(2), back);
+        net.addEdge(1, back, places.get(0));
+        assertTrue(net.launchSimulation(STEPS, random) > 0);
+    }
+
+    /**
+     * Tests that a simulator keeps firing from the marking it wrote back, and tells when the
+     * transitions no longer match the compiled net.
+     */
+    @Test
+    void testSimulatorWritesBackAndTracksTransitions() {
+        PetriNet1 net = buildFork(TOKENS);
+        IncrementalSimulator simulator = new IncrementalSimulator(net.compile());
+        RandomSource random = RandomSource.seeded(SEED);
+
+        assertEquals(1, simulator.simulate(1, random));
+        assertEquals(TOKENS - 1, net.getPlaces().get(0).getNbTokens());
+        assertEquals(TOKENS - 1, simulator.simulate(STEPS, random));
+        assertEquals(0, net.getPlaces().get(0).getNbTokens());
+
+        assertTrue(simulator.isCurrent());
+        net.getTransitions().get(0).setWeight(2);
+        assertFalse(simulator.isCurrent());
+    }
+}
@@ -0,0 +1,222 @@
+package io.github.leobeaumont;
+
+import io.github.leobeaumont.Analysis.Invariant;
+import io.github.leobeaumont.Analysis.InvariantAnalyzer;
+import io.github.leobeaumont.Analysis.MarkingPacker;
+import io.github.leobeaumont.Analysis.ReachabilityExplorer;
+import io.github.leobeaumont.Analysis.ReachabilityGraph;
+import io.github.leobeaumont.Engine.CompiledNet;
+import io.github.leobeaumont.PetriNET.PetriNetBuilder;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for the {@link InvariantAnalyzer} and {@link Invariant} classes.
+ */
+public class InvariantAnalyzerTest {
+
+    private static final int PHILOSOPHERS = 3;
+    private static final int PHILOSOPHER_TRANSITIONS = 3;
+    private static final int MAX_STATES = 10_000;
+    private static final int TOKENS = 4;
+    private static final int WEIGHTED_TOTAL = 6;
+    private static final int RESET_TRANSITIONS = 3;
+    private static final int RESET_TOKENS = 3;
+    private static final int RING = 500;
+    private static final int BENCHMARK_RING = 5_000;
+    private static final int NUMERATOR = 1_000_000_007;
+    private static final int DENOMINATOR = 999_999_937;
+    private static final int CHAIN = 3;
+    private static final long NANOS_PER_MILLI = 1_000_000L;
+
+    /**
+     * Checks the invariants of a ring of places passing a single token around: one P-invariant and one
+     * T-invariant covering the whole ring, and a bound of one token per place.
+     */
+    private void assertRingInvariants(int ring) {
+        PetriNetBuilder builder = new PetriNetBuilder();
+        int[] tokens = new int[ring];
+        tokens[0] = 1;
+        builder.addPlaces(tokens);
+        builder.addTransitions(ring);
+        for (int i = 0; i < ring; ++i) {
+            builder.addEdgeIn(i, i, 1);
+            builder.addEdgeOut(i, (i + 1) % ring, 1);
+        }
+        InvariantAnalyzer analyzer = new InvariantAnalyzer(builder.buildCompiled());
+
+        List<Invariant> places = analyzer.computePlaceInvariants();
+        assertEquals(1, places.size());
+        assertEquals(ring, places.get(0).getSupport().length);
+        for (int bound : analyzer.computePlaceBounds(places)) {
+            assertEquals(1, bound);
+        }
+        assertEquals(ring, analyzer.computeTransitionInvariants().get(0).getSupport().length);
+    }
+
+    /**
+     * Returns the change of the marking made by firing every transition as many times as an invariant says.
+     */
+    private long[] effect(CompiledNet engine, Invariant invariant) {
+        long[] change = new long[engine.getPlaceCount()];
+        for (int t = 0; t < engine.getTransitionCount(); ++t) {
+            int[] places = engine.getPrePlaces(t);
+            int[] weights = engine.getPreWeights(t);
+            for (int i = 0; i < places.length; ++i) {
+                change[places[i]] -= invariant.get(t) * weights[i];
+            }
+            places = engine.getPostPlaces(t);
+            weights = engine.getPostWeights(t);
+            for (int i = 0; i < places.length; ++i) {
+                change[places[i]] += invariant.get(t) * weights[i];
+            }
+        }
+        return change;
+    }
+
+    /**
+     * Tests that the P-invariants of the philosophers are constant over the reachable markings and prove
+     * the bounds found by an explicit exploration.
+     */
+    @Test
+    void testPhilosopherPlaceInvariants() {
+        CompiledNet engine = TestNets.philosophers(PHILOSOPHERS).buildCompiled();
+        InvariantAnalyzer analyzer = new InvariantAnalyzer(engine);
+        List<Invariant> invariants = analyzer.computePlaceInvariants();
+        ReachabilityGraph graph = new ReachabilityExplorer(engine).explore(MAX_STATES);
+
+        assertEquals(2 * PHILOSOPHERS, invariants.size());
+        for (Invariant invariant : invariants) {
+            long total = invariant.weightedSum(engine.getMarking());
+            for (int s = 0; s < graph.getStateCount(); ++s) {
+                assertEquals(total, invariant.weightedSum(graph.getMarking(s)));
+            }
+        }
+        int[] bounds = analyzer.computePlaceBounds(invariants);
+        for (int p = 0; p < bounds.length; ++p) {
+            assertEquals(graph.getBound(p), bounds[p]);
+        }
+        assertEquals(graph.getStateCount(),
+            new ReachabilityExplorer(engine, bounds).explore(MAX_STATES).getStateCount());
+
+        ReachabilityExplorer packed = ReachabilityExplorer.withInvariantBounds(engine);
+        assertEquals(1, packed.getPacker().words());
+        assertTrue(new ReachabilityExplorer(engine).getPacker().words() > 1);
+        assertEquals(graph.getStateCount(), packed.explore(MAX_STATES).getStateCount());
+    }
+
+    /**
+     * Tests that every philosopher's eating cycle is a T-invariant.
+     */
+    @Test
+    void testPhilosopherTransitionInvariants() {
+        CompiledNet engine = TestNets.philosophers(PHILOSOPHERS).buildCompiled();
+        List<Invariant> invariants = new InvariantAnalyzer(engine).computeTransitionInvariants();
+
+        assertEquals(PHILOSOPHERS, invariants.size());
+        for (Invariant invariant : invariants) {
+            assertEquals(PHILOSOPHER_TRANSITIONS, invariant.getSupport().length);
+            assertArrayEquals(new long[engine.getPlaceCount()], effect(engine, invariant));
+        }
+    }
+
+    /**
+     * Tests the coefficients of a weighted cycle: {@code t0} turns two tokens of {@code p0} into one of
+     * {@code p1}, {@code t1} turns it back.
+     */
+    @Test
+    void testWeightedCycle() {
+        PetriNetBuilder builder = new PetriNetBuilder();
+        builder.addPlaces(new int[] {TOKENS, 1});
+        builder.addTransitions(2);
+        builder.addEdgeIn(0, 0, 2);
+        builder.addEdgeOut(0, 1, 1);
+        builder.addEdgeIn(1, 1, 1);
+        builder.addEdgeOut(1, 0, 2);
+        InvariantAnalyzer analyzer = new InvariantAnalyzer(builder.buildCompiled());
+
+        List<Invariant> places = analyzer.computePlaceInvariants();
+        assertEquals(1, places.size());
+        assertArrayEquals(new int[] {0, 1}, places.get(0).getSupport());
+        assertArrayEquals(new long[] {1, 2}, places.get(0).getCoefficients());
+        assertEquals(WEIGHTED_TOTAL, places.get(0).weightedSum(new int[] {TOKENS, 1}));
+        assertArrayEquals(new int[] {WEIGHTED_TOTAL, WEIGHTED_TOTAL / 2}, analyzer.computePlaceBounds());
+        List<Invariant> transitions = analyzer.computeTransitionInvariants();
+        assertEquals(1, transitions.size());
+        assertArrayEquals(new long[] {1, 1}, transitions.get(0).getCoefficients());
+    }
+
+    /**
+     * Tests that producers, and places and transitions with empty arcs, are left unbounded and out of
+     * the invariants: {@code t0} and {@code t1} move a token between {@code p0} and {@code p2}, {@code t2}
+     * empties {@code p1}.
+     */
+    @Test
+    void testUnboundedAndEmptyArcs() {
+        CompiledNet producer = CompiledNet.fromArcs(new int[] {0}, 1, new int[][] {{}, {}, {}},
+            new int[][] {{0}, {0}, {1}}, new int[][] {{}, {}}, new int[][] {{}, {}});
+        InvariantAnalyzer analyzer = new InvariantAnalyzer(producer);
+        assertTrue(analyzer.computePlaceInvariants().isEmpty());
+        assertArrayEquals(new int[] {MarkingPacker.UNBOUNDED}, analyzer.computePlaceBounds());
+
+        CompiledNet reset = CompiledNet.fromArcs(new int[] {2, 0, 1}, RESET_TRANSITIONS,
+            new int[][] {{0, 1, 2}, {0, 2, 0}, {1, 1, 1}}, new int[][] {{0, 1, 2}, {2, 0, 0}, {1, 1, 1}},
+            new int[][] {{2}, {1}}, new int[][] {{}, {}});
+        analyzer = new InvariantAnalyzer(reset);
+        List<Invariant> places = analyzer.computePlaceInvariants();
+        assertEquals(1, places.size());
+        assertArrayEquals(new int[] {0, 2}, places.get(0).getSupport());
+        assertArrayEquals(new int[] {RESET_TOKENS, MarkingPacker.UNBOUNDED, RESET_TOKENS},
+            analyzer.computePlaceBounds());
+        List<Invariant> transitions = analyzer.computeTransitionInvariants();
+        assertEquals(1, transitions.size());
+        assertArrayEquals(new int[] {0, 1}, transitions.get(0).getSupport());
+    }
+
+    /**
+     * Tests that a ring of hundreds of places is handled with sparse rows.
+     */
+    @Test
+    void testLargeRing() {
+        assertRingInvariants(RING);
+    }
+
+    /**
+     * Times the analysis of a ring of {@code BENCHMARK_RING} places; run with {@code -Dbenchmark=true}.
+     */
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void benchmarkRing() {
+        long start = System.nanoTime();
+        assertRingInvariants(BENCHMARK_RING);
+        System.out.println("InvariantAnalyzer: ring of " + BENCHMARK_RING + " places in "
+            + (System.nanoTime() - start) / NANOS_PER_MILLI + " ms");
+    }
+
+    /**
+     * Tests that coefficients overflowing a long are reported, and leave the places unbounded when packing
+     * markings: along the chain, each place is worth {@code NUMERATOR / DENOMINATOR} times the previous one.
+     */
+    @Test
+    void testOverflow() {
+        PetriNetBuilder builder = new PetriNetBuilder();
+        builder.addPlaces(new int[CHAIN + 1]);
+        builder.addTransitions(CHAIN);
+        for (int i = 0; i < CHAIN; ++i) {
+            builder.addEdgeIn(i, i, NUMERATOR);
+            builder.addEdgeOut(i, i + 1, DENOMINATOR);
+        }
+        CompiledNet engine = builder.buildCompiled();
+        InvariantAnalyzer analyzer = new InvariantAnalyzer(engine);
+
+        assertThrows(IllegalStateException.class, () -> analyzer.computePlaceInvariants());
+        assertEquals(new ReachabilityExplorer(engine).getPacker().words(),
+            ReachabilityExplorer.withInvariantBounds(engine).getPacker().words());
+    }
+}
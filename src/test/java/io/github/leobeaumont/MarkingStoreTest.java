@@ -0,0 +1,75 @@
+package io.github.leobeaumont;
+
+import io.github.leobeaumont.Analysis.MarkingPacker;
+import io.github.leobeaumont.Analysis.MarkingStore;
+import java.util.Arrays;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Unit tests for the {@link MarkingStore} class and its {@link MarkingPacker}.
+ */
+public class MarkingStoreTest {
+
+    private static final int BOUND = 7;
+    private static final int TOKENS = 5;
+    private static final int MANY_PLACES = 65;
+    private static final int STATES = 200_000;
+    private static final int STRIDE = 997;
+    private static final int PROBE = 123_456;
+
+    /**
+     * Tests that markings survive packing, and that fields are sized by the bounds.
+     */
+    @Test
+    void testPacking() {
+        MarkingPacker packer = new MarkingPacker(new int[] {1, BOUND, 0, MarkingPacker.UNBOUNDED});
+        assertEquals(1, packer.words());
+        long[] packed = new long[1];
+        int[] marking = {1, TOKENS, 0, Integer.MAX_VALUE};
+        packer.pack(marking, packed, 0);
+        int[] unpacked = new int[marking.length];
+        packer.unpack(packed, 0, unpacked);
+        assertArrayEquals(marking, unpacked);
+        assertEquals(TOKENS, packer.get(packed, 0, 1));
+
+        int[] safe = new int[MANY_PLACES];
+        Arrays.fill(safe, 1);
+        assertEquals(2, new MarkingPacker(safe).words());
+        assertEquals((MANY_PLACES + 1) / 2, MarkingPacker.unbounded(MANY_PLACES).words());
+
+        assertThrows(IllegalStateException.class, () -> packer.pack(new int[] {2, 0, 0, 0}, packed, 0));
+        assertThrows(IllegalArgumentException.class, () -> new MarkingPacker(new int[] {-1}));
+    }
+
+    /**
+     * Tests that the store numbers distinct markings in insertion order across table growths
+     * and pages, and recognizes duplicates.
+     */
+    @Test
+    void testDeduplication() {
+        MarkingStore store = new MarkingStore(2);
+        long[] key = new long[2];
+        for (int i = 0; i < STATES; ++i) {
+            key[0] = i;
+            key[1] = -i;
+            assertEquals(i, store.add(key, 0));
+        }
+        for (int i = 0; i < STATES; i += STRIDE) {
+            key[0] = i;
+            key[1] = -i;
+            assertEquals(-1 - i, store.add(key, 0));
+            assertEquals(i, store.indexOf(key, 0));
+        }
+        key[1] = 1;
+        assertEquals(-1, store.indexOf(key, 0));
+        assertEquals(STATES, store.size());
+
+        long[] copy = new long[key.length + 1];
+        store.get(PROBE, copy, 1);
+        assertArrayEquals(new long[] {0, PROBE, -PROBE}, copy);
+    }
+}
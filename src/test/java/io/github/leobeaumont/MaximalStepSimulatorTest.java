@@ -0,0 +1,142 @@
+package io.github.leobeaumont;
+
+import io.github.leobeaumont.Analysis.PetriNetFacade;
+import io.github.leobeaumont.Engine.CompiledNet;
+import io.github.leobeaumont.Engine.MaximalStepSimulator;
+import io.github.leobeaumont.Engine.RandomSource;
+import io.github.leobeaumont.Engine.SimulationRun;
+import io.github.leobeaumont.Nodes.Place;
+import io.github.leobeaumont.Nodes.Transition;
+import io.github.leobeaumont.PetriNET.PetriNet1;
+import io.github.leobeaumont.PetriNET.PetriNetBuilder;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for the {@link MaximalStepSimulator} class.
+ */
+public class MaximalStepSimulatorTest {
+
+    private static final int[] TARGETS = {2, 3};
+    private static final int SHARED_TOKENS = 3;
+    private static final int SHARING_TRANSITIONS = 3;
+    private static final int SEEDS = 20;
+    private static final int TOKENS = 4;
+    private static final int MAX_STEPS = 10;
+    private static final long SEED = 3L;
+
+    /**
+     * Tests that independent transitions fire in the same step.
+     */
+    @Test
+    void testIndependentTransitionsFireTogether() {
+        PetriNetBuilder builder = new PetriNetBuilder();
+        builder.addPlaces(new int[] {1, 1, 0, 0});
+        builder.addTransitions(2);
+        builder.addEdgesIn(new int[] {0, 1}, new int[] {0, 1}, new int[] {1, 1});
+        builder.addEdgesOut(new int[] {0, 1}, TARGETS, new int[] {1, 1});
+        CompiledNet engine = builder.buildCompiled();
+        int[] marking = engine.getMarking();
+
+        int[] fired = new MaximalStepSimulator(engine).step(marking, RandomSource.seeded(0));
+
+        assertEquals(2, fired.length);
+        assertArrayEquals(new int[] {0, 0, 1, 1}, marking);
+    }
+
+    /**
+     * Tests that transitions sharing a place only fire together if the place holds enough tokens
+     * for all of them, and that the step is maximal.
+     */
+    @Test
+    void testSharedTokensAreNotOverconsumed() {
+        PetriNetBuilder builder = new PetriNetBuilder();
+        builder.addPlaces(new int[] {SHARED_TOKENS, 0});
+        builder.addTransitions(SHARING_TRANSITIONS);
+        builder.addEdgesIn(new int[] {0, 0, 0}, new int[] {0, 1, 2}, new int[] {2, 1, 1});
+        builder.addEdgesOut(new int[] {0, 1, 2}, new int[] {1, 1, 1}, new int[] {1, 1, 1});
+        CompiledNet engine = builder.buildCompiled();
+        MaximalStepSimulator simulator = new MaximalStepSimulator(engine);
+
+        for (int seed = 0; seed < SEEDS; ++seed) {
+            int[] marking = engine.getMarking();
+            int[] fired = simulator.step(marking, RandomSource.seeded(seed));
+            assertTrue(marking[0] >= 0);
+            assertTrue(marking[0] <= 1, "the step must be maximal");
+            assertEquals(fired.length, marking[1]);
+        }
+    }
+
+    /**
+     * Tests that an empty arc claims its place, and that a zero arc prevents producing into its place.
+     */
+    @Test
+    void testEmptyAndZeroArcsConflict() {
+        PetriNetBuilder builder = new PetriNetBuilder();
+        builder.addPlaces(new int[] {2, 0});
+        builder.addTransitions(2);
+        // t0 empties p0, t1 takes one token from p0 and needs p1 empty while t0 fills it
+        builder.addEdgeEmpty(0, 0);
+        builder.addEdgeOut(0, 1, 1);
+        builder.addEdgeIn(0, 1, 1);
+        builder.addEdgeZero(1, 1);
+        CompiledNet engine = builder.buildCompiled();
+        MaximalStepSimulator simulator = new MaximalStepSimulator(engine);
+
+        for (int seed = 0; seed < SEEDS; ++seed) {
+            int[] marking = engine.getMarking();
+            assertEquals(1, simulator.step(marking, RandomSource.seeded(seed)).length);
+        }
+    }
+
+    /**
+     * Tests the maximal-step simulation of an object net, which stops when nothing can be drawn.
+     */
+    @Test
+    void testLaunchMaximalStepSimulation() {
+        PetriNet1 petriNet = new PetriNet1();
+        Place p1 = new Place(TOKENS);
+        Place p2 = new Place(0);
+        Transition t1 = new Transition();
+        petriNet.addPlace(p1);
+        petriNet.addPlace(p2);
+        petriNet.addTransition(t1);
+        petriNet.addEdge(1, p1, t1);
+        petriNet.addEdge(1, t1, p2);
+
+        SimulationRun run = new MaximalStepSimulator(petriNet.compile()).launchSimulation(MAX_STEPS, SEED);
+        assertEquals(TOKENS, run.getFired());
+        assertArrayEquals(new int[] {0, TOKENS}, run.getFinalMarking());
+
+        run = new PetriNetFacade(petriNet).launchMaximalStepSimulation(MAX_STEPS);
+        assertEquals(TOKENS, p2.getNbTokens());
+        assertTrue(run.isDeadlocked());
+    }
+
+    /**
+     * Tests that a step overflowing a place fails without changing the marking, and that the simulator
+     * can still be used: {@code t0} moves a token from {@code p1} to {@code p2}, {@code t1} produces two
+     * tokens in {@code p0}.
+     */
+    @Test
+    void testOverflowLeavesMarkingUnchanged() {
+        int[][] none = {{}, {}, {}};
+        CompiledNet engine = CompiledNet.fromArcs(new int[] {Integer.MAX_VALUE - 1, 1, 0}, 2,
+            new int[][] {{0}, {1}, {1}}, new int[][] {{0, 1}, {2, 0}, {1, 2}}, none, none);
+        MaximalStepSimulator simulator = new MaximalStepSimulator(engine);
+        int[] marking = engine.getMarking();
+
+        IllegalStateException overflow = assertThrows(IllegalStateException.class,
+            () -> simulator.step(marking, RandomSource.seeded(0)));
+        assertTrue(overflow.getMessage().startsWith("MaximalStepSimulator.step"));
+        assertArrayEquals(new int[] {Integer.MAX_VALUE - 1, 1, 0}, marking);
+
+        marking[0] = 0;
+        assertEquals(2, simulator.step(marking, RandomSource.seeded(0)).length);
+        assertArrayEquals(new int[] {2, 0, 1}, marking);
+    }
+}
@@ -0,0 +1,114 @@
+package io.github.leobeaumont;
+
+import io.github.leobeaumont.Engine.CompiledNet;
+import io.github.leobeaumont.Engine.MonteCarloResult;
+import io.github.leobeaumont.Engine.MonteCarloRunner;
+import io.github.leobeaumont.Nodes.Place;
+import io.github.leobeaumont.Nodes.Transition;
+import io.github.leobeaumont.PetriNET.PetriNet1;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for the {@link MonteCarloRunner} class.
+ */
+public class MonteCarloRunnerTest {
+
+    private static final int RING_TOKENS = 3;
+    private static final int TOKENS = 5;
+    private static final int RUNS = 100;
+    private static final int MAX_STEPS = 10;
+    private static final int BATCH_RUNS = 500;
+    private static final int BATCH_STEPS = 20;
+    private static final long SEED = 7L;
+
+    /**
+     * Builds a net where {@code t1} moves a token from {@code p1} to {@code p2} and {@code t2}
+     * moves it back, and where {@code t3} consumes every token of {@code p2}.
+     */
+    private CompiledNet buildNet() {
+        PetriNet1 petriNet = new PetriNet1();
+        Place p1 = new Place(RING_TOKENS);
+        Place p2 = new Place(0);
+        petriNet.addPlace(p1);
+        petriNet.addPlace(p2);
+        Transition t1 = new Transition();
+        Transition t2 = new Transition();
+        Transition t3 = new Transition();
+        petriNet.addTransition(t1);
+        petriNet.addTransition(t2);
+        petriNet.addTransition(t3);
+        petriNet.addEdge(1, p1, t1);
+        petriNet.addEdge(1, t1, p2);
+        petriNet.addEdge(1, p2, t2);
+        petriNet.addEdge(1, t2, p1);
+        petriNet.addEdgeEmpty(p2, t3);
+        return petriNet.compile();
+    }
+
+    /**
+     * Tests the statistics of a net whose runs all end the same way.
+     */
+    @Test
+    void testDeterministicStatistics() {
+        PetriNet1 petriNet = new PetriNet1();
+        Place p1 = new Place(TOKENS);
+        Place p2 = new Place(0);
+        Transition t1 = new Transition();
+        petriNet.addPlace(p1);
+        petriNet.addPlace(p2);
+        petriNet.addTransition(t1);
+        petriNet.addEdge(2, p1, t1);
+        petriNet.addEdge(1, t1, p2);
+        CompiledNet engine = petriNet.compile();
+
+        MonteCarloResult result = new MonteCarloRunner(engine).run(RUNS, MAX_STEPS, 1L);
+
+        assertEquals(RUNS, result.getRuns());
+        assertArrayEquals(new double[] {1, 2}, result.getMeans());
+        assertArrayEquals(new double[] {0, 0}, result.getVariances());
+        assertEquals(1.0, result.getDeadlockProbability());
+        assertEquals(2.0, result.getMeanStepsToDeadlock());
+        assertArrayEquals(new int[] {TOKENS, 0}, engine.getMarking());
+    }
+
+    /**
+     * Tests that a batch gives the same statistics on any executor with the same parallelism.
+     */
+    @Test
+    void testReproducibleAcrossExecutors() {
+        CompiledNet engine = buildNet();
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        ExecutorService single = Executors.newSingleThreadExecutor();
+        try {
+            MonteCarloResult pooled = new MonteCarloRunner(engine, pool, 2).run(BATCH_RUNS, BATCH_STEPS, SEED);
+            MonteCarloResult sequential = new MonteCarloRunner(engine, single, 2).run(BATCH_RUNS, BATCH_STEPS, SEED);
+
+            assertArrayEquals(pooled.getMeans(), sequential.getMeans());
+            assertArrayEquals(pooled.getVariances(), sequential.getVariances());
+            assertEquals(pooled.getDeadlocks(), sequential.getDeadlocks());
+            assertTrue(pooled.getDeadlockProbability() > 0);
+            assertTrue(pooled.getMean(0) + pooled.getMean(1) < RING_TOKENS);
+        } finally {
+            pool.shutdown();
+            single.shutdown();
+        }
+    }
+
+    /**
+     * Tests that invalid batch sizes are rejected.
+     */
+    @Test
+    void testInvalidArguments() {
+        CompiledNet engine = buildNet();
+
+        assertThrows(IllegalArgumentException.class, () -> new MonteCarloRunner(engine).run(0, MAX_STEPS, 1L));
+        assertThrows(IllegalArgumentException.class, () -> new MonteCarloRunner(engine).run(RUNS, -1, 1L));
+    }
+}
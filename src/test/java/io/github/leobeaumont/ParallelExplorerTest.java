@@ -0,0 +1,201 @@
+package io.github.leobeaumont;
+
+import io.github.leobeaumont.Analysis.ConcurrentMarkingSet;
+import io.github.leobeaumont.Analysis.ExplorationResult;
+import io.github.leobeaumont.Analysis.ParallelExplorer;
+import io.github.leobeaumont.Analysis.ReachabilityExplorer;
+import io.github.leobeaumont.Analysis.ReachabilityGraph;
+import io.github.leobeaumont.Engine.CompiledNet;
+import io.github.leobeaumont.PetriNET.PetriNetBuilder;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for the {@link ParallelExplorer} class and its {@link ConcurrentMarkingSet}.
+ */
+public class ParallelExplorerTest {
+
+    private static final int HUGE_CAPACITY = 256 * 1024 * 1024;
+    private static final int GROWN_STATES = 100_000;
+    private static final int INSERTED = 50_000;
+    private static final int THREADS = 4;
+    private static final int STRIDE = 10_000;
+    private static final int RANGE = 20_000;
+    private static final long PROBE = 123;
+    private static final int CYCLES = 8;
+    private static final int CYCLE_STATES = 6561;
+    private static final int MAX_STATES = 100_000;
+    private static final int TOKENS = 3;
+    private static final int LIMIT = 1000;
+    private static final int STRESS_THREADS = 32;
+    private static final int STRESS_MARKINGS = 20_000;
+    private static final int STRESS_OVERLAP = 4;
+    private static final int NOT_POWER_OF_TWO = 3;
+
+    /**
+     * Tests that many threads filling segments that start with a single slot neither stall nor lose
+     * a marking, even when their inserts fill a table before it grows.
+     */
+    @Test
+    void testConcurrentInsertsIntoTinySegments() throws Exception {
+        ConcurrentMarkingSet set = new ConcurrentMarkingSet(1, STRESS_MARKINGS, 1);
+        AtomicInteger created = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(STRESS_THREADS);
+        try {
+            Future<?>[] futures = new Future<?>[STRESS_THREADS];
+            for (int k = 0; k < STRESS_THREADS; ++k) {
+                int shift = k % STRESS_OVERLAP;
+                futures[k] = executor.submit(() -> {
+                    long[] key = new long[1];
+                    for (int i = 0; i < STRESS_MARKINGS; ++i) {
+                        key[0] = (i + shift * (STRESS_MARKINGS / STRESS_OVERLAP)) % STRESS_MARKINGS;
+                        if (set.add(key, 0) >= 0) {
+                            created.incrementAndGet();
+                        }
+                    }
+                });
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertEquals(STRESS_MARKINGS, created.get());
+        assertEquals(STRESS_MARKINGS, set.size());
+        long[] key = new long[1];
+        long[] copy = new long[1];
+        for (int i = 0; i < STRESS_MARKINGS; ++i) {
+            key[0] = i;
+            set.get(-1 - set.add(key, 0), copy, 0);
+            assertEquals(i, copy[0]);
+        }
+        assertThrows(IllegalArgumentException.class, () -> new ConcurrentMarkingSet(1, 1, NOT_POWER_OF_TWO));
+    }
+
+    /**
+     * Tests that threads inserting overlapping markings create every marking exactly once.
+     */
+    @Test
+    void testConcurrentInserts() throws Exception {
+        ConcurrentMarkingSet set = new ConcurrentMarkingSet(1, INSERTED);
+        AtomicInteger created = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            Future<?>[] futures = new Future<?>[THREADS];
+            for (int k = 0; k < THREADS; ++k) {
+                int first = k * STRIDE;
+                futures[k] = executor.submit(() -> {
+                    long[] key = new long[1];
+                    for (int i = first; i < first + RANGE; ++i) {
+                        key[0] = i;
+                        if (set.add(key, 0) >= 0) {
+                            created.incrementAndGet();
+                        }
+                    }
+                });
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertEquals(INSERTED, created.get());
+        assertEquals(INSERTED, set.size());
+        long[] key = {PROBE};
+        int id = -1 - set.add(key, 0);
+        long[] copy = new long[1];
+        set.get(id, copy, 0);
+        assertEquals(PROBE, copy[0]);
+        key[0] = -1;
+        assertEquals(ConcurrentMarkingSet.FULL, set.add(key, 0));
+        assertThrows(IllegalArgumentException.class, () -> new ConcurrentMarkingSet(1, 0));
+    }
+
+    /**
+     * Tests that a set whose capacity would need a table of gigabytes only allocates for the markings
+     * it holds, and still finds them after its segments have grown.
+     */
+    @Test
+    void testGrowsWithStates() {
+        ConcurrentMarkingSet set = new ConcurrentMarkingSet(1, HUGE_CAPACITY);
+        long[] key = new long[1];
+        for (int i = 0; i < GROWN_STATES; ++i) {
+            key[0] = i;
+            assertEquals(i, set.add(key, 0));
+        }
+        long[] copy = new long[1];
+        for (int i = 0; i < GROWN_STATES; ++i) {
+            key[0] = i;
+            int id = -1 - set.add(key, 0);
+            set.get(id, copy, 0);
+            assertEquals(i, copy[0]);
+        }
+        assertEquals(GROWN_STATES, set.size());
+        assertEquals(HUGE_CAPACITY, set.getCapacity());
+    }
+
+    /**
+     * Tests that a parallel exploration finds the same states and arcs as the sequential one.
+     */
+    @Test
+    void testMatchesSequentialExploration() {
+        CompiledNet engine = TestNets.buildCycles(CYCLES);
+        ReachabilityGraph graph = new ReachabilityExplorer(engine).explore(MAX_STATES);
+        ForkJoinPool pool = new ForkJoinPool(THREADS);
+        try {
+            int[] bounds = new int[engine.getPlaceCount()];
+            Arrays.fill(bounds, 1);
+            ExplorationResult result = new ParallelExplorer(engine, bounds, pool).explore(MAX_STATES);
+
+            assertEquals(CYCLE_STATES, result.getStateCount());
+            assertEquals(graph.getStateCount(), result.getStateCount());
+            assertEquals(graph.getArcCount(), result.getArcCount());
+            assertEquals(0, result.getDeadlockCount());
+            assertNull(result.getDeadlockMarking());
+            assertTrue(result.isComplete());
+            assertTrue(result.getStatesPerSecond() > 0);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Tests the deadlocks of a draining net and the state limit.
+     */
+    @Test
+    void testDeadlocksAndLimit() {
+        PetriNetBuilder builder = new PetriNetBuilder();
+        builder.addPlaces(new int[] {TOKENS, 0});
+        builder.addTransition();
+        builder.addEdgeIn(0, 0, 1);
+        builder.addEdgeOut(0, 1, 1);
+        CompiledNet engine = builder.buildCompiled();
+
+        ExplorationResult result = new ParallelExplorer(engine).explore(LIMIT);
+        assertEquals(TOKENS + 1, result.getStateCount());
+        assertEquals(1, result.getDeadlockCount());
+        assertArrayEquals(new int[] {0, TOKENS}, result.getDeadlockMarking());
+
+        ExplorationResult truncated = new ParallelExplorer(TestNets.buildCycles(CYCLES)).explore(LIMIT);
+        assertFalse(truncated.isComplete());
+        assertEquals(LIMIT, truncated.getStateCount());
+        assertThrows(IllegalArgumentException.class,
+            () -> new ParallelExplorer(engine, new int[] {1}, ForkJoinPool.commonPool()));
+    }
+}
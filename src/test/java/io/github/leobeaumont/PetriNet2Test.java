@@ -0,0 +1,181 @@
+package io.github.leobeaumont;
+
+import io.github.leobeaumont.Edges.Edge;
+import io.github.leobeaumont.Edges.EdgeIn;
+import io.github.leobeaumont.Edges.EdgeOut;
+import io.github.leobeaumont.Edges.WeightedEdgeIn;
+import io.github.leobeaumont.Nodes.Place;
+import io.github.leobeaumont.Nodes.Transition;
+import io.github.leobeaumont.PetriNET.PetriNet2;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Unit tests for the {@link PetriNet2} class.
+ * <p>
+ * These tests focus on what distinguishes {@link PetriNet2} from the permissive implementation:
+ * duplicate edges are rejected when they are added.
+ * </p>
+ */
+public class PetriNet2Test {
+
+    private PetriNet2 petriNet;
+
+    /**
+     * Tests that duplicate input, empty, zero and output edges are rejected.
+     */
+    @Test
+    void testAddDuplicateEdgesThrows() {
+        petriNet = new PetriNet2();
+        Place place = new Place(1);
+        Transition transition = new Transition();
+
+        petriNet.addEdge(1, place, transition);
+        petriNet.addEdge(1, transition, place);
+
+        assertThrows(IllegalArgumentException.class, () -> petriNet.addEdge(2, place, transition));
+        assertThrows(IllegalArgumentException.class, () -> petriNet.addEdgeEmpty(place, transition));
+        assertThrows(IllegalArgumentException.class, () -> petriNet.addEdgeZero(place, transition));
+        assertThrows(IllegalArgumentException.class, () -> petriNet.addEdge(2, transition, place));
+        assertEquals(2, petriNet.getEdges().size());
+    }
+
+    /**
+     * Tests that an edge can be added again once the previous one was removed.
+     */
+    @Test
+    void testRemoveEdgeFreesDuplicateIndex() {
+        petriNet = new PetriNet2();
+        Place place = new Place(1);
+        Transition transition = new Transition();
+
+        petriNet.addEdge(1, place, transition);
+        petriNet.removeEdge(petriNet.getEdges().get(0));
+
+        assertDoesNotThrow(() -> petriNet.addEdgeZero(place, transition));
+    }
+
+    /**
+     * Tests that the duplicate index follows the list given to {@link PetriNet2#setEdges(List)}.
+     */
+    @Test
+    void testSetEdgesRebuildsDuplicateIndex() {
+        petriNet = new PetriNet2();
+        Place place = new Place(1);
+        Place other = new Place(1);
+        Transition transition = new Transition();
+        petriNet.addEdge(1, place, transition);
+
+        List<Edge> edges = new ArrayList<Edge>();
+        edges.add(new WeightedEdgeIn(other, transition, 1));
+        petriNet.setEdges(edges);
+
+        assertDoesNotThrow(() -> petriNet.addEdge(1, place, transition));
+        assertThrows(IllegalArgumentException.class, () -> petriNet.addEdge(1, other, transition));
+    }
+
+    /**
+     * Tests that an input edge reconnected onto a pair is rejected again on that pair,
+     * and frees the pair it left.
+     */
+    @Test
+    void testReconnectedEdgeInIsRekeyed() {
+        petriNet = new PetriNet2();
+        Place place = new Place(1);
+        Place other = new Place(1);
+        Transition transition = new Transition();
+        petriNet.addEdge(1, other, transition);
+        EdgeIn edge = (EdgeIn) petriNet.getEdges().get(0);
+
+        edge.setOrigin(place);
+
+        assertThrows(IllegalArgumentException.class, () -> petriNet.addEdge(1, place, transition));
+        assertDoesNotThrow(() -> petriNet.addEdge(1, other, transition));
+    }
+
+    /**
+     * Tests that an output edge reconnected onto a pair is rejected again on that pair,
+     * and frees the pair it left.
+     */
+    @Test
+    void testReconnectedEdgeOutIsRekeyed() {
+        petriNet = new PetriNet2();
+        Place place = new Place(1);
+        Transition transition = new Transition();
+        Transition other = new Transition();
+        petriNet.addEdge(1, other, place);
+        EdgeOut edge = (EdgeOut) petriNet.getEdges().get(0);
+
+        edge.setOrigin(transition);
+
+        assertThrows(IllegalArgumentException.class, () -> petriNet.addEdge(1, transition, place));
+        assertDoesNotThrow(() -> petriNet.addEdge(1, other, place));
+    }
+
+    /**
+     * Tests that an edge added unconnected is indexed once both its endpoints are set.
+     */
+    @Test
+    void testEdgeConnectedLaterIsIndexed() {
+        petriNet = new PetriNet2();
+        Place place = new Place(1);
+        Transition transition = new Transition();
+        petriNet.addEdgeEmpty();
+        petriNet.addWeightedEdgeOut(1);
+        EdgeIn edgeIn = (EdgeIn) petriNet.getEdges().get(0);
+        EdgeOut edgeOut = (EdgeOut) petriNet.getEdges().get(1);
+
+        edgeIn.setOrigin(place);
+        edgeIn.setArrival(transition);
+        edgeOut.setOrigin(transition);
+        edgeOut.setArrival(place);
+
+        assertThrows(IllegalArgumentException.class, () -> petriNet.addEdgeZero(place, transition));
+        assertThrows(IllegalArgumentException.class, () -> petriNet.addEdge(1, transition, place));
+    }
+
+    /**
+     * Tests that a pair shared by two edges after a reconnection stays rejected when one of them leaves it.
+     */
+    @Test
+    void testPairSharedAfterReconnectStaysIndexed() {
+        petriNet = new PetriNet2();
+        Place place = new Place(1);
+        Place other = new Place(1);
+        Place third = new Place(1);
+        Transition transition = new Transition();
+        petriNet.addEdge(1, place, transition);
+        petriNet.addEdge(1, other, transition);
+        EdgeIn first = (EdgeIn) petriNet.getEdges().get(0);
+        EdgeIn second = (EdgeIn) petriNet.getEdges().get(1);
+
+        second.setOrigin(place);
+        first.setOrigin(third);
+
+        assertThrows(IllegalArgumentException.class, () -> petriNet.addEdge(1, place, transition));
+        assertDoesNotThrow(() -> petriNet.addEdge(1, other, transition));
+    }
+
+    /**
+     * Tests that an edge removed from the net no longer changes its index when reconnected.
+     */
+    @Test
+    void testRemovedEdgeIsNotRekeyed() {
+        petriNet = new PetriNet2();
+        Place place = new Place(1);
+        Transition transition = new Transition();
+        petriNet.addEdge(1, place, transition);
+        EdgeIn edge = (EdgeIn) petriNet.getEdges().get(0);
+        petriNet.removeEdge(edge);
+
+        edge.setOrigin(place);
+        edge.setArrival(transition);
+
+        assertDoesNotThrow(() -> petriNet.addEdge(1, place, transition));
+    }
+}
@@ -0,0 +1,110 @@
+package io.github.leobeaumont;
+
+import io.github.leobeaumont.Engine.CompiledNet;
+import io.github.leobeaumont.Nodes.Place;
+import io.github.leobeaumont.Nodes.Transition;
+import io.github.leobeaumont.PetriNET.PetriNet2;
+import io.github.leobeaumont.PetriNET.PetriNetBuilder;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for the {@link PetriNetBuilder} class.
+ * <p>
+ * These tests check that both outputs of the builder describe the same net, and that
+ * invalid structures are only reported when the net is built.
+ * </p>
+ */
+public class PetriNetBuilderTest {
+
+    private static final int TOKENS = 5;
+    private static final int PLACES = 3;
+    private static final int EDGES = 5;
+    private static final int FIRINGS = 3;
+    private static final int MAX_STEPS = 10;
+
+    /**
+     * Builds a chain {@code p0 -(2)-> t0 -> p1 -> t1 -> p2}, plus an inhibitor {@code p2 -o t1}.
+     */
+    private PetriNetBuilder chainBuilder() {
+        PetriNetBuilder builder = new PetriNetBuilder();
+        builder.addPlaces(new int[] {TOKENS, 0, 0});
+        builder.addTransitions(2);
+        builder.addEdgesIn(new int[] {0, 1}, new int[] {0, 1}, new int[] {2, 1});
+        builder.addEdgesOut(new int[] {0, 1}, new int[] {1, 2}, new int[] {1, 1});
+        builder.addEdgeZero(2, 1);
+        return builder;
+    }
+
+    /**
+     * Tests that the object net is wired with the identifiers given to the builder.
+     */
+    @Test
+    void testBuildPetriNet() {
+        PetriNet2 net = chainBuilder().build();
+
+        assertEquals(PLACES, net.getPlaces().size());
+        assertEquals(2, net.getTransitions().size());
+        assertEquals(EDGES, net.getEdges().size());
+        assertTrue(net.isValid());
+
+        Place p1 = net.getPlaces().get(1);
+        Transition t1 = net.getTransitions().get(1);
+        assertEquals(1, p1.getId());
+        assertEquals(1, p1.getEdgesIn().size());
+        assertEquals(1, p1.getEdgesOut().size());
+        assertEquals(2, t1.getEdgesIn().size());
+        assertEquals(EDGES - 1, net.getEdges().get(EDGES - 1).getId());
+
+        assertThrows(IllegalArgumentException.class, () -> net.addEdgeZero(p1, t1));
+    }
+
+    /**
+     * Tests that the compiled engine built from the arrays fires like the object net.
+     */
+    @Test
+    void testBuildCompiled() {
+        CompiledNet engine = chainBuilder().buildCompiled();
+
+        assertEquals(PLACES, engine.getPlaceCount());
+        assertEquals(2, engine.getTransitionCount());
+        assertNull(engine.getPlace(0));
+
+        assertEquals(FIRINGS, engine.launchSimulation(MAX_STEPS));
+        assertArrayEquals(new int[] {1, 1, 1}, engine.getMarking());
+        assertArrayEquals(new int[] {TOKENS, 0, 0}, chainBuilder().build().compile().getMarking());
+    }
+
+    /**
+     * Tests that mismatched arrays are rejected immediately, and structural errors at build time.
+     */
+    @Test
+    void testInvalidStructures() {
+        PetriNetBuilder builder = new PetriNetBuilder();
+        assertThrows(IllegalArgumentException.class,
+            () -> builder.addEdgesIn(new int[] {0}, new int[] {0, 1}, new int[] {1}));
+
+        PetriNetBuilder unknownPlace = new PetriNetBuilder();
+        unknownPlace.addTransition();
+        unknownPlace.addEdgeIn(0, 0, 1);
+        assertThrows(IllegalStateException.class, unknownPlace::build);
+
+        PetriNetBuilder duplicate = new PetriNetBuilder();
+        duplicate.addPlace(1);
+        duplicate.addTransition();
+        duplicate.addEdgeIn(0, 0, 1);
+        duplicate.addEdgeEmpty(0, 0);
+        assertThrows(IllegalStateException.class, duplicate::buildCompiled);
+
+        PetriNetBuilder isolated = new PetriNetBuilder();
+        isolated.addPlace(1);
+        isolated.addTransitions(2);
+        isolated.addEdgeOut(0, 0, 1);
+        assertThrows(IllegalStateException.class, isolated::build);
+    }
+}
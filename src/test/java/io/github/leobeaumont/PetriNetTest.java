@@ -14,6 +14,8 @@ import io.github.leobeaumont.PetriNET.PetriNet1;
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
@@ -169,6 +171,44 @@ public class PetriNetTest {
         assertTrue(petriNet.getEdges().isEmpty());
     }
 
+    /**
+     * Tests that removing a place or a transition also removes the edges connected to it,
+     * and keeps the edge lists of the remaining nodes and the identifiers consistent.
+     */
+    @Test
+    void testRemoveCascadesToEdges() {
+        petriNet = new PetriNet1();
+        petriNet.addPlace(1);
+        petriNet.addPlace(0);
+        petriNet.addTransition();
+        petriNet.addTransition();
+        Place p1 = petriNet.getPlaces().get(0);
+        Place p2 = petriNet.getPlaces().get(1);
+        Transition t1 = petriNet.getTransitions().get(0);
+        Transition t2 = petriNet.getTransitions().get(1);
+        petriNet.addEdge(1, p1, t1);
+        petriNet.addEdge(1, t1, p2);
+        petriNet.addEdgeZero(p2, t2);
+
+        petriNet.removePlace(p1);
+        assertEquals(1, petriNet.getPlaces().size());
+        assertEquals(0, p2.getId());
+        assertEquals(2, petriNet.getEdges().size());
+        assertTrue(t1.getEdgesIn().isEmpty());
+        assertEquals(1, t1.getEdgesOut().size());
+
+        petriNet.removeTransition(t1);
+        assertEquals(1, petriNet.getEdges().size());
+        assertEquals(0, petriNet.getEdges().get(0).getId());
+        assertTrue(p2.getEdgesOut().isEmpty());
+        assertEquals(0, t2.getId());
+
+        petriNet.removeEdge(petriNet.getEdges().get(0));
+        assertTrue(petriNet.getEdges().isEmpty());
+        assertTrue(p2.getEdgesIn().isEmpty());
+        assertTrue(t2.getEdgesIn().isEmpty());
+    }
+
     /**
      * Tests the {@link PetriNet1#setTokens(Place, int)} method.
      * Verifies that the token count of a place is updated correctly.
@@ -247,6 +287,33 @@ public class PetriNetTest {
         assertEquals(transitions, petriNet.getTransitions());
     }
 
+    /**
+     * Tests that places and transitions receive dense identifiers matching their position,
+     * and that removals and {@link PetriNet1#compactIds()} keep them dense.
+     */
+    @Test
+    void testNodeIdentifiers() {
+        petriNet = new PetriNet1();
+        petriNet.addPlace(0);
+        petriNet.addPlace(1);
+        Place place = new Place(2);
+        petriNet.addPlace(place);
+        petriNet.addTransition();
+
+        assertEquals(2, place.getId());
+        assertEquals(0, petriNet.getTransitions().get(0).getId());
+
+        // The last place takes the slot of the removed one
+        petriNet.removePlace(petriNet.getPlaces().get(0));
+        assertEquals(0, place.getId());
+
+        Place direct = new Place();
+        petriNet.getPlaces().add(direct);
+        assertEquals(-1, direct.getId());
+        petriNet.compactIds();
+        assertEquals(2, direct.getId());
+    }
+
     /**
      * Tests that the {@link PetriNet1#launchSimulation(int)} method
      * can run without throwing exceptions when valid transitions exist.
@@ -268,6 +335,58 @@ public class PetriNetTest {
         assertDoesNotThrow(() -> petriNet.launchSimulation(1));
     }
 
-    
+    /**
+     * Tests that the validity verdict is kept while the structure is unchanged, and checked again
+     * after adding an edge, reconnecting an edge, or changing a list directly.
+     */
+    @Test
+    void testValidityCacheInvalidation() {
+        petriNet = new PetriNet1();
+        Place place = new Place(1);
+        Place other = new Place(1);
+        Transition transition = new Transition();
+        petriNet.addPlace(place);
+        petriNet.addPlace(other);
+        petriNet.addTransition(transition);
+        assertEquals("transition 0 has no edge", petriNet.getValidityViolation());
+
+        petriNet.addEdge(1, place, transition);
+        assertTrue(petriNet.isValid());
+        petriNet.setTokens(place, 2);
+        assertTrue(petriNet.isValid());
+
+        petriNet.addEdge(1, other, transition);
+        WeightedEdgeIn second = (WeightedEdgeIn) petriNet.getEdges().get(1);
+        second.setOrigin(place);
+        assertEquals("two edges have the same origin and arrival", petriNet.getValidityViolation());
+        second.setOrigin(other);
+        assertTrue(petriNet.isValid());
+
+        petriNet.getEdges().add(new WeightedEdgeIn(1));
+        assertEquals("edge 2 is not connected at both ends", petriNet.getValidityViolation());
+        assertThrows(IllegalStateException.class, () -> petriNet.launchSimulation(1));
+    }
+
+    /**
+     * Tests that reconnecting an edge only invalidates the verdict of the net owning it.
+     */
+    @Test
+    void testValidityCacheIsPerNet() {
+        petriNet = new PetriNet1();
+        petriNet.addTransition();
+        String violation = petriNet.getValidityViolation();
 
+        PetriNet1 other = new PetriNet1();
+        Place place = new Place(1);
+        Transition transition = new Transition();
+        other.addPlace(place);
+        other.addTransition(transition);
+        other.addEdge(1, place, transition);
+        assertTrue(other.isValid());
+        ((WeightedEdgeIn) other.getEdges().get(0)).setOrigin(new Place(1));
+
+        assertSame(violation, petriNet.getValidityViolation());
+        petriNet.addEdgeEmpty();
+        assertNotSame(violation, petriNet.getValidityViolation());
+    }
 }
@@ -2,9 +2,16 @@ package io.github.leobeaumont;
 
 import org.junit.jupiter.api.Test;
 
+import io.github.leobeaumont.Edges.EdgeIn;
+import io.github.leobeaumont.Edges.EdgeOut;
+import io.github.leobeaumont.Edges.EdgeZero;
+import io.github.leobeaumont.Edges.WeightedEdgeIn;
+import io.github.leobeaumont.Edges.WeightedEdgeOut;
 import io.github.leobeaumont.Nodes.Place;
+import io.github.leobeaumont.Nodes.Transition;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
 /**
@@ -82,4 +89,39 @@ public class PlaceTest {
         place.addTokens(1);
         assertEquals(place.getNbTokens(), 1);
     }
+
+    /**
+     * Tests that the edges connected to a place are kept up to date by
+     * {@link EdgeIn#setOrigin(Place)} and {@link EdgeOut#setArrival(Place)}.
+     * <p>
+     * Verifies that:
+     * <ul>
+     *     <li>Creating edges registers them on their place.</li>
+     *     <li>Moving an edge to another place unregisters it from the previous one.</li>
+     * </ul>
+     * </p>
+     */
+    @Test
+    void edgesIndexTest() {
+        place = new Place();
+        Place other = new Place();
+        Transition transition = new Transition();
+
+        EdgeIn edgeIn = new WeightedEdgeIn(place, transition, 1);
+        EdgeIn zero = new EdgeZero(place, transition);
+        EdgeOut edgeOut = new WeightedEdgeOut(transition, place, 1);
+
+        assertEquals(place.getEdgesIn().size(), 2);
+        assertEquals(place.getEdgesOut().size(), 1);
+        assertSame(place.getEdgesIn().get(0).getArrival(), transition);
+        assertSame(place.getEdgesOut().get(0).getOrigin(), transition);
+
+        zero.setOrigin(other);
+        edgeOut.setArrival(other);
+        assertEquals(place.getEdgesIn().size(), 1);
+        assertSame(place.getEdgesIn().get(0), edgeIn);
+        assertEquals(place.getEdgesOut().size(), 0);
+        assertEquals(other.getEdgesIn().size(), 1);
+        assertEquals(other.getEdgesOut().size(), 1);
+    }
 }
@@ -0,0 +1,152 @@
+package io.github.leobeaumont;
+
+import io.github.leobeaumont.Engine.CompiledNet;
+import io.github.leobeaumont.Engine.EnabledSet;
+import io.github.leobeaumont.Engine.FenwickTree;
+import io.github.leobeaumont.Engine.PrioritySelector;
+import io.github.leobeaumont.Engine.RandomSource;
+import io.github.leobeaumont.Nodes.Place;
+import io.github.leobeaumont.Nodes.Transition;
+import io.github.leobeaumont.PetriNET.PetriNet2;
+import io.github.leobeaumont.PetriNET.PetriNetBuilder;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for the {@link PrioritySelector} class and its {@link FenwickTree}.
+ */
+public class PrioritySelectorTest {
+
+    private static final int SIZE = 5;
+    private static final int LAST = SIZE - 1;
+    private static final double HALF = 0.5;
+    private static final double EPSILON = 1e-12;
+    private static final double BEFORE_LAST = 2.9;
+    private static final double AFTER_LAST = 3.2;
+    private static final double BEYOND_TOTAL = 10;
+    private static final int UPDATES = 1000;
+    private static final int PERIOD = 7;
+    private static final double STEP = 0.1;
+    private static final double SUM_EPSILON = 1e-9;
+    private static final int[] PRIORITIES = {0, 5, 5, -2};
+    private static final double[] WEIGHTS = {1, 1, 3, 1};
+    private static final int LOWEST = 3;
+    private static final int SEED = 42;
+    private static final int DRAWS = 40000;
+    private static final double TOLERANCE = 0.01;
+    private static final int SOURCE_TOKENS = 10;
+    private static final double LAZY_WEIGHT = 100;
+    private static final int STEPS = 6;
+
+    /**
+     * Tests the prefix sums and the cumulative search of the tree, including after the rebuilds
+     * triggered by many updates.
+     */
+    @Test
+    void testFenwickTree() {
+        FenwickTree tree = new FenwickTree(SIZE);
+        tree.set(0, 1);
+        tree.set(2, 2);
+        tree.set(LAST, HALF);
+
+        assertEquals(1 + 2 + HALF, tree.total(), EPSILON);
+        assertEquals(1 + 2, tree.prefixSum(LAST - 1), EPSILON);
+        assertEquals(0, tree.find(0));
+        assertEquals(2, tree.find(1));
+        assertEquals(2, tree.find(BEFORE_LAST));
+        assertEquals(LAST, tree.find(AFTER_LAST));
+        assertEquals(LAST, tree.find(BEYOND_TOTAL));
+        assertEquals(-1, new FenwickTree(SIZE).find(0));
+
+        for (int i = 0; i < UPDATES; ++i) {
+            tree.set(i % SIZE, (i % PERIOD) * STEP);
+        }
+        double sum = 0;
+        for (int i = 0; i < SIZE; ++i) {
+            sum += tree.get(i);
+        }
+        assertEquals(sum, tree.total(), SUM_EPSILON);
+        assertThrows(IllegalArgumentException.class, () -> tree.set(0, -1));
+    }
+
+    /**
+     * Tests that the transitions of the highest enabled priority are drawn in proportion to
+     * their weights, and that lower priorities are drawn only once it is empty.
+     */
+    @Test
+    void testWeightedPriorityDraws() {
+        PrioritySelector selector = new PrioritySelector(PRIORITIES, WEIGHTS);
+        for (int t = 0; t < PRIORITIES.length; ++t) {
+            selector.set(t, true);
+        }
+        RandomSource random = RandomSource.seeded(SEED);
+
+        int[] counts = new int[PRIORITIES.length];
+        for (int i = 0; i < DRAWS; ++i) {
+            ++counts[selector.pick(random)];
+        }
+        assertEquals(0, counts[0]);
+        assertEquals(0, counts[LOWEST]);
+        assertEquals(WEIGHTS[2] / (WEIGHTS[1] + WEIGHTS[2]), (double) counts[2] / DRAWS, TOLERANCE);
+
+        selector.set(1, false);
+        selector.set(2, false);
+        assertEquals(0, selector.pick(random));
+        selector.set(0, false);
+        assertEquals(LOWEST, selector.pick(random));
+        selector.set(LOWEST, false);
+        assertTrue(selector.isEmpty());
+        assertThrows(IllegalStateException.class, () -> selector.pick(random));
+
+        selector.setWeight(1, 2);
+        assertEquals(2, selector.getWeight(1), 0);
+        assertThrows(IllegalArgumentException.class, () -> selector.setWeight(1, 0));
+        assertThrows(IllegalArgumentException.class,
+            () -> new PrioritySelector(new int[] {0}, new double[] {Double.NaN}));
+    }
+
+    /**
+     * Tests that a simulation never draws a low-priority transition while a higher one is drawable,
+     * and that uniform nets keep the constant-time selector.
+     */
+    @Test
+    void testStrictPriorityInSimulation() {
+        PetriNet2 net = new PetriNet2();
+        Place source = new Place(SOURCE_TOKENS);
+        Place fast = new Place(0);
+        Place slow = new Place(0);
+        Transition urgent = new Transition();
+        Transition lazy = new Transition();
+        urgent.setPriority(1);
+        lazy.setWeight(LAZY_WEIGHT);
+        net.addPlace(source);
+        net.addPlace(fast);
+        net.addPlace(slow);
+        net.addTransition(urgent);
+        net.addTransition(lazy);
+        net.addEdge(1, source, urgent);
+        net.addEdge(1, urgent, fast);
+        net.addEdge(1, source, lazy);
+        net.addEdge(1, lazy, slow);
+
+        assertFalse(net.compile().newSelector() instanceof EnabledSet);
+        net.launchSimulation(STEPS);
+
+        assertEquals(SOURCE_TOKENS - STEPS, source.getNbTokens());
+        assertEquals(STEPS, fast.getNbTokens());
+        assertEquals(0, slow.getNbTokens());
+
+        PetriNetBuilder builder = new PetriNetBuilder();
+        builder.addPlace(1);
+        builder.addTransitions(2);
+        builder.addEdgesIn(new int[] {0, 0}, new int[] {0, 1}, new int[] {1, 1});
+        CompiledNet uniform = builder.buildCompiled();
+        assertTrue(uniform.newSelector() instanceof EnabledSet);
+        assertThrows(IllegalArgumentException.class, () -> uniform.setWeight(0, -1));
+        assertThrows(IllegalArgumentException.class, () -> lazy.setWeight(Double.POSITIVE_INFINITY));
+    }
+}
@@ -0,0 +1,105 @@
+package io.github.leobeaumont;
+
+import io.github.leobeaumont.Analysis.PetriNetFacade;
+import io.github.leobeaumont.Analysis.ReachabilityExplorer;
+import io.github.leobeaumont.Analysis.ReachabilityGraph;
+import io.github.leobeaumont.Engine.CompiledNet;
+import io.github.leobeaumont.PetriNET.PetriNet2;
+import io.github.leobeaumont.PetriNET.PetriNetBuilder;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for the {@link ReachabilityExplorer} and {@link ReachabilityGraph} classes.
+ */
+public class ReachabilityExplorerTest {
+
+    private static final int[] CYCLE_NODES = {0, 1, 2, 3};
+    private static final int[] NEXT_PLACES = {1, 0, 3, 2};
+    private static final int CYCLE_STATES = 4;
+    private static final int CYCLE_ARCS = 8;
+    private static final int MAX_STATES = 100;
+    private static final int DRAINED_STATES = 3;
+    private static final int LIMIT = 10;
+
+    /**
+     * Builds two independent cycles {@code p0 -> t0 -> p1 -> t1 -> p0} and {@code p2 -> t2 -> p3 -> t3 -> p2},
+     * each holding one token.
+     */
+    private PetriNetBuilder twoCycles() {
+        PetriNetBuilder builder = new PetriNetBuilder();
+        builder.addPlaces(new int[] {1, 0, 1, 0});
+        builder.addTransitions(CYCLE_NODES.length);
+        builder.addEdgesIn(CYCLE_NODES, CYCLE_NODES, new int[] {1, 1, 1, 1});
+        builder.addEdgesOut(CYCLE_NODES, NEXT_PLACES, new int[] {1, 1, 1, 1});
+        return builder;
+    }
+
+    /**
+     * Tests the states and arcs of two interleaved cycles, with and without known bounds.
+     */
+    @Test
+    void testInterleavedCycles() {
+        CompiledNet engine = twoCycles().buildCompiled();
+        ReachabilityGraph graph = new ReachabilityExplorer(engine).explore(MAX_STATES);
+
+        assertEquals(CYCLE_STATES, graph.getStateCount());
+        assertEquals(CYCLE_ARCS, graph.getArcCount());
+        assertTrue(graph.isComplete());
+        assertEquals(0, graph.getDeadlocks().length);
+        assertArrayEquals(new int[] {1, 0, 1, 0}, graph.getMarking(0));
+        assertArrayEquals(new int[] {0, 2}, graph.getSuccessorTransitions(0));
+        int s = graph.getSuccessors(0)[0];
+        assertArrayEquals(new int[] {0, 1, 1, 0}, graph.getMarking(s));
+        assertEquals(s, graph.indexOf(new int[] {0, 1, 1, 0}));
+        assertEquals(-1, graph.indexOf(new int[] {1, 1, 1, 0}));
+        assertEquals(1, graph.getBound(CYCLE_NODES.length - 1));
+
+        ReachabilityGraph packed = new ReachabilityExplorer(engine, new int[] {1, 1, 1, 1}).explore(MAX_STATES);
+        assertEquals(CYCLE_STATES, packed.getStateCount());
+        assertEquals(-1, packed.indexOf(new int[] {2, 0, 0, 0}));
+        assertThrows(IllegalArgumentException.class, () -> new ReachabilityExplorer(engine, new int[] {1}));
+    }
+
+    /**
+     * Tests the deadlock of a draining net, the state limit, and bounds that are too small.
+     */
+    @Test
+    void testDeadlocksAndLimits() {
+        PetriNet2 net = new PetriNet2();
+        net.addPlace(2);
+        net.addPlace(0);
+        net.addTransition();
+        net.addEdge(1, net.getPlaces().get(0), net.getTransitions().get(0));
+        net.addEdge(1, net.getTransitions().get(0), net.getPlaces().get(1));
+
+        ReachabilityGraph graph = new PetriNetFacade(net).buildReachabilityGraph(LIMIT);
+        assertEquals(DRAINED_STATES, graph.getStateCount());
+        assertArrayEquals(new int[] {2}, graph.getDeadlocks());
+        assertArrayEquals(new int[] {0, 2}, graph.getMarking(2));
+
+        ReachabilityGraph truncated = new PetriNetFacade(net).buildReachabilityGraph(2);
+        assertFalse(truncated.isComplete());
+        assertEquals(2, truncated.getStateCount());
+        assertEquals(1, truncated.getArcCount());
+        assertEquals(0, truncated.getDeadlocks().length);
+
+        CompiledNet engine = net.compile();
+        assertThrows(IllegalStateException.class,
+            () -> new ReachabilityExplorer(engine, new int[] {2, 1}).explore(LIMIT));
+        assertThrows(IllegalArgumentException.class, () -> new ReachabilityExplorer(engine).explore(0));
+
+        PetriNetBuilder source = new PetriNetBuilder();
+        source.addPlace(0);
+        source.addTransition();
+        source.addEdgeOut(0, 0, 1);
+        ReachabilityGraph unbounded = new ReachabilityExplorer(source.buildCompiled()).explore(LIMIT);
+        assertEquals(LIMIT, unbounded.getStateCount());
+        assertFalse(unbounded.isComplete());
+    }
+}
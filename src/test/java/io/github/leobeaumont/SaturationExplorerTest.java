@@ -0,0 +1,99 @@
+package io.github.leobeaumont;
+
+import io.github.leobeaumont.Analysis.PetriNetFacade;
+import io.github.leobeaumont.Analysis.ReachabilityExplorer;
+import io.github.leobeaumont.Analysis.ReachabilityGraph;
+import io.github.leobeaumont.Analysis.SaturationExplorer;
+import io.github.leobeaumont.Analysis.SymbolicStateSpace;
+import io.github.leobeaumont.Engine.CompiledNet;
+import io.github.leobeaumont.PetriNET.PetriNet2;
+import java.math.BigInteger;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for the {@link SaturationExplorer} and {@link SymbolicStateSpace} classes.
+ */
+public class SaturationExplorerTest {
+
+    private static final int PHILOSOPHERS = 5;
+    private static final int MAX_STATES = 100_000;
+    private static final int STRIDE = 7;
+    private static final int RING = 100;
+    private static final int MAX_NODES = 10_000;
+    private static final int SMALL_MAX_STATES = 100;
+    private static final int TOKEN_LIMIT = 10;
+
+    /**
+     * Tests that the symbolic count and deadlock match an explicit exploration.
+     */
+    @Test
+    void testMatchesExplicitExploration() {
+        CompiledNet engine = TestNets.philosophers(PHILOSOPHERS).buildCompiled();
+        ReachabilityGraph graph = new ReachabilityExplorer(engine).explore(MAX_STATES);
+        SymbolicStateSpace space = new SaturationExplorer(engine).explore(1);
+
+        assertEquals(BigInteger.valueOf(graph.getStateCount()), space.getStateCount());
+        assertTrue(space.hasDeadlock());
+        assertEquals(BigInteger.ONE, space.getDeadlockCount());
+        assertArrayEquals(graph.getMarking(graph.getDeadlocks()[0]), space.getDeadlockMarking());
+        for (int s = 0; s < graph.getStateCount(); s += STRIDE) {
+            assertTrue(space.contains(graph.getMarking(s)));
+        }
+        int[] marking = engine.getMarking();
+        marking[0] = 0;
+        assertFalse(space.contains(marking));
+    }
+
+    /**
+     * Tests that a ring of philosophers far too large to enumerate is counted with few nodes.
+     */
+    @Test
+    void testLargeRing() {
+        PetriNet2 net = TestNets.philosophers(RING).build();
+        SymbolicStateSpace space = new PetriNetFacade(net).buildSymbolicStateSpace(1);
+
+        assertTrue(space.getStateCount().compareTo(BigInteger.ONE.shiftLeft(RING)) > 0);
+        assertTrue(space.getNodeCount() < MAX_NODES);
+        assertTrue(space.hasDeadlock());
+    }
+
+    /**
+     * Tests a net with zero and empty arcs and no deadlock: {@code t0} moves a token from {@code p0} to
+     * {@code p1}, {@code t1} empties {@code p1} into {@code p0} when {@code p2} is empty.
+     */
+    @Test
+    void testZeroAndEmptyArcs() {
+        CompiledNet engine = CompiledNet.fromArcs(new int[] {2, 0, 0}, 2,
+            new int[][] {{0}, {0}, {1}}, new int[][] {{0, 1}, {1, 0}, {1, 1}},
+            new int[][] {{1}, {1}}, new int[][] {{1}, {2}});
+        ReachabilityGraph graph = new ReachabilityExplorer(engine).explore(SMALL_MAX_STATES);
+        SymbolicStateSpace space = new SaturationExplorer(engine).explore(TOKEN_LIMIT);
+
+        assertEquals(BigInteger.valueOf(graph.getStateCount()), space.getStateCount());
+        assertEquals(graph.getDeadlocks().length > 0, space.hasDeadlock());
+        assertFalse(space.hasDeadlock());
+        assertNull(space.getDeadlockMarking());
+    }
+
+    /**
+     * Tests the token limit of unbounded nets and the invalid arguments.
+     */
+    @Test
+    void testTokenLimit() {
+        CompiledNet engine = CompiledNet.fromArcs(new int[] {0}, 1, new int[][] {{}, {}, {}},
+            new int[][] {{0}, {0}, {1}}, new int[][] {{}, {}}, new int[][] {{}, {}});
+        SaturationExplorer explorer = new SaturationExplorer(engine);
+
+        assertThrows(IllegalStateException.class, () -> explorer.explore(TOKEN_LIMIT));
+        assertThrows(IllegalArgumentException.class, () -> explorer.explore(-1));
+        SymbolicStateSpace space = new SaturationExplorer(TestNets.philosophers(2).buildCompiled()).explore(1);
+        assertThrows(IllegalArgumentException.class, () -> space.contains(new int[] {1}));
+    }
+}
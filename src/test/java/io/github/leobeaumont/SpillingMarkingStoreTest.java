@@ -0,0 +1,157 @@
+package io.github.leobeaumont;
+
+import io.github.leobeaumont.Analysis.ExplorationResult;
+import io.github.leobeaumont.Analysis.ReachabilityExplorer;
+import io.github.leobeaumont.Analysis.ReachabilityGraph;
+import io.github.leobeaumont.Analysis.SpillingMarkingStore;
+import io.github.leobeaumont.Engine.CompiledNet;
+import io.github.leobeaumont.PetriNET.PetriNetBuilder;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for the {@link SpillingMarkingStore} class.
+ */
+public class SpillingMarkingStoreTest {
+
+    private static final int TOKENS = 999;
+    private static final long HEAP_BUDGET = 4L * 1024 * 1024;
+    private static final int STATES = 300_000;
+    private static final long MULTIPLIER = 7L;
+    private static final int SPILLED_PAGES = 4;
+    private static final int STRIDE = 1009;
+    private static final int PROBE = 12_345;
+    private static final int MAX_STATES = 1_000_000;
+    private static final int LIMIT = 10;
+    private static final int GROWN_STATES = 1_600_000;
+    private static final long GROWN_TABLE_SLOTS = 4L * 1024 * 1024;
+
+    /**
+     * Tests that markings spilled to the file are still found and read back, and that closing
+     * the store deletes its file.
+     */
+    @Test
+    void testSpilledPages(@TempDir Path directory) throws IOException {
+        SpillingMarkingStore store = new SpillingMarkingStore(2, directory, 0);
+        long[] key = new long[2];
+        for (int i = 0; i < STATES; ++i) {
+            key[0] = i;
+            key[1] = MULTIPLIER * i;
+            assertEquals(i, store.add(key, 0));
+        }
+        assertEquals(SPILLED_PAGES, store.getSpilledPages());
+
+        for (int i = 0; i < STATES; i += STRIDE) {
+            key[0] = i;
+            key[1] = MULTIPLIER * i;
+            assertEquals(-1 - i, store.add(key, 0));
+            assertEquals(i, store.indexOf(key, 0));
+        }
+        key[1] = -1;
+        assertEquals(-1, store.indexOf(key, 0));
+        long[] copy = new long[2];
+        store.get(PROBE, copy, 0);
+        assertArrayEquals(new long[] {PROBE, MULTIPLIER * PROBE}, copy);
+        assertEquals(STATES, store.size());
+
+        store.close();
+        try (Stream<Path> files = Files.list(directory)) {
+            assertEquals(0, files.count());
+        }
+    }
+
+    /**
+     * Tests that an exploration with a spilling store finds the same graph as with the default store.
+     */
+    @Test
+    void testExploration(@TempDir Path directory) throws IOException {
+        PetriNetBuilder builder = new PetriNetBuilder();
+        builder.addPlaces(new int[] {STATES, 0});
+        builder.addTransitions(2);
+        builder.addEdgesIn(new int[] {0, 1}, new int[] {0, 1}, new int[] {1, 2});
+        builder.addEdgesOut(new int[] {0, 1}, new int[] {1, 0}, new int[] {1, 1});
+        CompiledNet engine = builder.buildCompiled();
+        ReachabilityExplorer explorer = new ReachabilityExplorer(engine);
+
+        ReachabilityGraph expected = explorer.explore(MAX_STATES);
+        try (SpillingMarkingStore store = new SpillingMarkingStore(explorer.getPacker().words(), directory, 1)) {
+            ReachabilityGraph graph = explorer.explore(engine.getMarking(), MAX_STATES, store);
+
+            assertTrue(store.getSpilledPages() > 0);
+            assertEquals(expected.getStateCount(), graph.getStateCount());
+            assertEquals(expected.getArcCount(), graph.getArcCount());
+            int last = graph.getStateCount() - 1;
+            assertArrayEquals(expected.getMarking(last), graph.getMarking(last));
+            assertThrows(IllegalArgumentException.class, () -> explorer.explore(engine.getMarking(), LIMIT, store));
+        }
+    }
+
+    /**
+     * Tests that streaming the arcs of an exploration keeps the markings and the hash table on the heap
+     * within a budget smaller than the state space: two places of {@code TOKENS} tokens, each emptied by
+     * its own transition, reach {@code (TOKENS + 1)^2} markings of one word.
+     */
+    @Test
+    void testPeakHeapUnderBudget(@TempDir Path directory) throws IOException {
+        PetriNetBuilder builder = new PetriNetBuilder();
+        builder.addPlaces(new int[] {TOKENS, TOKENS});
+        builder.addTransitions(2);
+        builder.addEdgesIn(new int[] {0, 1}, new int[] {0, 1}, new int[] {1, 1});
+        CompiledNet engine = builder.buildCompiled();
+        ReachabilityExplorer explorer = new ReachabilityExplorer(engine);
+        long states = (TOKENS + 1L) * (TOKENS + 1L);
+        assertTrue(states * Long.BYTES > HEAP_BUDGET);
+
+        long[] peak = new long[1];
+        long[] arcs = new long[1];
+        try (SpillingMarkingStore store = new SpillingMarkingStore(1, directory, HEAP_BUDGET)) {
+            ExplorationResult result = explorer.explore(engine.getMarking(), Integer.MAX_VALUE, store,
+                (source, transition, target) -> {
+                    peak[0] = Math.max(peak[0], store.getHeapBytes());
+                    ++arcs[0];
+                });
+
+            assertTrue(result.isComplete());
+            assertEquals(states, result.getStateCount());
+            assertEquals(2L * TOKENS * (TOKENS + 1), result.getArcCount());
+            assertEquals(result.getArcCount(), arcs[0]);
+            assertEquals(1, result.getDeadlockCount());
+            assertArrayEquals(new int[] {0, 0}, result.getDeadlockMarking());
+            assertTrue(store.getSpilledPages() > 0);
+            assertTrue(peak[0] > 0 && peak[0] <= HEAP_BUDGET);
+            assertTrue(store.getPeakHeapBytes() >= peak[0] && store.getPeakHeapBytes() <= HEAP_BUDGET);
+        }
+    }
+
+    /**
+     * Tests that the regions of the index file released by the former tables are mapped again:
+     * {@code GROWN_STATES} markings double the table up to {@code GROWN_TABLE_SLOTS} slots, and the
+     * index file stays smaller than this table and the one before, whereas the tables of all sizes
+     * add up to twice the last one.
+     */
+    @Test
+    void testIndexRegionsReused(@TempDir Path directory) throws IOException {
+        try (SpillingMarkingStore store = new SpillingMarkingStore(1, directory, 0)) {
+            long[] key = new long[1];
+            for (int i = 0; i < GROWN_STATES; ++i) {
+                key[0] = i;
+                assertEquals(i, store.add(key, 0));
+            }
+            for (int i = 0; i < GROWN_STATES; i += STRIDE) {
+                key[0] = i;
+                assertEquals(i, store.indexOf(key, 0));
+            }
+            assertTrue(store.getIndexBytes() >= GROWN_TABLE_SLOTS * Long.BYTES);
+            assertTrue(store.getIndexBytes() < (GROWN_TABLE_SLOTS + GROWN_TABLE_SLOTS / 2) * Long.BYTES);
+        }
+    }
+}
@@ -0,0 +1,166 @@
+package io.github.leobeaumont;
+
+import io.github.leobeaumont.Engine.CompiledNet;
+import io.github.leobeaumont.Engine.IndexedPriorityQueue;
+import io.github.leobeaumont.Engine.RandomSource;
+import io.github.leobeaumont.Engine.StochasticSimulator;
+import io.github.leobeaumont.Engine.TimeStatistics;
+import io.github.leobeaumont.Nodes.Place;
+import io.github.leobeaumont.Nodes.Transition;
+import io.github.leobeaumont.PetriNET.PetriNet1;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for the {@link StochasticSimulator} class and its {@link IndexedPriorityQueue}.
+ */
+public class StochasticSimulatorTest {
+
+    private static final int MAX_EVENTS = 100;
+    private static final int CUT_EVENTS = 10;
+    private static final int TIES = 4;
+    private static final double TIE_KEY = 5.0;
+    private static final double START_RATE = 3;
+    private static final double END_TIME = 20000;
+    private static final long SEED = 11L;
+    private static final double ON_SHARE = 0.75;
+    private static final double TOLERANCE = 0.02;
+    private static final double THROUGHPUT_TOLERANCE = 0.03;
+    private static final int QUEUE_SIZE = 5;
+    private static final int LAST = QUEUE_SIZE - 1;
+    private static final double LATE_KEY = 20;
+
+    private PetriNet1 petriNet;
+    private Place on;
+    private Place off;
+    private Transition stop;
+    private Transition start;
+
+    /**
+     * Builds a two-state machine: {@code stop} moves the token from {@code on} to {@code off}
+     * at rate 1, {@code start} moves it back at rate 3.
+     */
+    private void buildSwitch() {
+        petriNet = new PetriNet1();
+        on = new Place(1);
+        off = new Place(0);
+        stop = new Transition();
+        start = new Transition();
+        start.setRate(START_RATE);
+        petriNet.addPlace(on);
+        petriNet.addPlace(off);
+        petriNet.addTransition(stop);
+        petriNet.addTransition(start);
+        petriNet.addEdge(1, on, stop);
+        petriNet.addEdge(1, stop, off);
+        petriNet.addEdge(1, off, start);
+        petriNet.addEdge(1, start, on);
+    }
+
+    /**
+     * Tests that the time averages and throughputs match the stationary distribution of the switch:
+     * the token spends three quarters of the time in {@code on}, and each transition fires 0.75 times
+     * per unit of time.
+     */
+    @Test
+    void testStationaryAverages() {
+        buildSwitch();
+        CompiledNet engine = petriNet.compile();
+
+        TimeStatistics statistics = new StochasticSimulator(engine).launchSimulation(END_TIME, SEED);
+
+        assertEquals(END_TIME, statistics.getTime());
+        assertFalse(statistics.isDeadlocked());
+        assertEquals(ON_SHARE, statistics.getMeanTokens(0), TOLERANCE);
+        assertEquals(1 - ON_SHARE, statistics.getMeanTokens(1), TOLERANCE);
+        assertEquals(ON_SHARE, statistics.getThroughput(0), THROUGHPUT_TOLERANCE);
+        assertTrue(Math.abs(statistics.getFirings(0) - statistics.getFirings(1)) <= 1);
+        assertArrayEquals(statistics.getFinalMarking(), engine.getMarking());
+    }
+
+    /**
+     * Tests that the run stops when no transition can fire or after the maximum number of events, that
+     * a zero rate disables a transition without deadlocking the net, and that an unbounded run is rejected.
+     */
+    @Test
+    void testStopsAndZeroRate() {
+        buildSwitch();
+        start.setRate(0);
+        CompiledNet engine = petriNet.compile();
+        StochasticSimulator simulator = new StochasticSimulator(engine);
+
+        TimeStatistics stuck = simulator.simulate(engine.getMarking(), Double.POSITIVE_INFINITY, MAX_EVENTS,
+            RandomSource.seeded(1));
+        assertFalse(stuck.isDeadlocked());
+        assertEquals(1, stuck.getEvents());
+        assertArrayEquals(new int[] {0, 1}, stuck.getFinalMarking());
+
+        TimeStatistics deadlocked = simulator.simulate(new int[] {0, 0}, Double.POSITIVE_INFINITY, MAX_EVENTS,
+            RandomSource.seeded(1));
+        assertTrue(deadlocked.isDeadlocked());
+        assertEquals(0, deadlocked.getEvents());
+
+        engine.setRate(1, 1);
+        TimeStatistics cut = simulator.simulate(engine.getMarking(), Double.POSITIVE_INFINITY, CUT_EVENTS,
+            RandomSource.seeded(1));
+        assertEquals(CUT_EVENTS, cut.getEvents());
+        assertFalse(cut.isDeadlocked());
+        assertThrows(IllegalArgumentException.class, () -> simulator.simulate(engine.getMarking(),
+            Double.POSITIVE_INFINITY, Long.MAX_VALUE, RandomSource.seeded(1)));
+        assertThrows(IllegalArgumentException.class, () -> simulator.launchSimulation(Double.POSITIVE_INFINITY, 1));
+        assertThrows(IllegalArgumentException.class, () -> start.setRate(-1));
+        assertArrayEquals(new int[] {0, 1}, engine.getDependents(0));
+    }
+
+    /**
+     * Tests that the queue keeps its minimum when keys are changed and items removed.
+     */
+    @Test
+    void testIndexedPriorityQueue() {
+        IndexedPriorityQueue queue = new IndexedPriorityQueue(QUEUE_SIZE);
+        for (int i = 0; i < QUEUE_SIZE; ++i) {
+            queue.update(i, 2 * QUEUE_SIZE - i);
+        }
+        assertEquals(LAST, queue.peek());
+
+        queue.update(2, 1);
+        assertEquals(2, queue.peek());
+        queue.update(2, LATE_KEY);
+        queue.remove(LAST);
+        assertEquals(LAST - 1, queue.poll());
+        assertEquals(1, queue.poll());
+        assertEquals(0, queue.poll());
+        assertEquals(2, queue.poll());
+        assertTrue(queue.isEmpty());
+        assertThrows(IllegalStateException.class, queue::peek);
+    }
+
+    /**
+     * Tests that items with equal keys come out of the queue in increasing order, whatever the order
+     * of their insertion.
+     */
+    @Test
+    void testIndexedPriorityQueueTies() {
+        IndexedPriorityQueue queue = new IndexedPriorityQueue(TIES);
+        for (int i = TIES - 1; i >= 0; --i) {
+            queue.update(i, TIE_KEY);
+        }
+        for (int i = 0; i < TIES; ++i) {
+            assertEquals(i, queue.poll());
+        }
+
+        for (int i = 0; i < TIES; ++i) {
+            queue.update(i, TIE_KEY);
+        }
+        queue.update(2, 1);
+        queue.update(2, TIE_KEY);
+        for (int i = 0; i < TIES; ++i) {
+            assertEquals(i, queue.poll());
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package io.github.leobeaumont;
+
+import io.github.leobeaumont.Analysis.ReachabilityExplorer;
+import io.github.leobeaumont.Analysis.ReachabilityGraph;
+import io.github.leobeaumont.Analysis.StubbornSetExplorer;
+import io.github.leobeaumont.Engine.CompiledNet;
+import io.github.leobeaumont.PetriNET.PetriNetBuilder;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for the {@link StubbornSetExplorer} class.
+ */
+public class StubbornSetExplorerTest {
+
+    private static final int TRANSITIONS = 10;
+    private static final int PHILOSOPHERS = 6;
+    private static final int VISIBLE_TRANSITIONS = 8;
+    private static final int[] VISIBLE = {1, 3, 5};
+    private static final int MAX_STATES = 100_000;
+    private static final int SMALL_MAX_STATES = 100;
+    private static final int MISSING_PLACE = 4;
+    private static final int[][] ZERO_ARC_POST = {{0, 1}, {1, 3}, {1, 1}};
+
+    /**
+     * Builds {@code count} independent transitions, each moving the token of its own place {@code 2i}
+     * to place {@code 2i + 1}.
+     */
+    private CompiledNet independent(int count) {
+        PetriNetBuilder builder = new PetriNetBuilder();
+        for (int i = 0; i < count; ++i) {
+            builder.addPlaces(new int[] {1, 0});
+            builder.addTransition();
+            builder.addEdgeIn(2 * i, i, 1);
+            builder.addEdgeOut(i, 2 * i + 1, 1);
+        }
+        return builder.buildCompiled();
+    }
+
+    private static Set<String> deadlocks(ReachabilityGraph graph) {
+        Set<String> markings = new HashSet<>();
+        for (int s : graph.getDeadlocks()) {
+            markings.add(Arrays.toString(graph.getMarking(s)));
+        }
+        return markings;
+    }
+
+    private static Set<String> projections(ReachabilityGraph graph, int[] places) {
+        Set<String> projected = new HashSet<>();
+        for (int s = 0; s < graph.getStateCount(); ++s) {
+            int[] marking = graph.getMarking(s);
+            int[] values = new int[places.length];
+            for (int i = 0; i < places.length; ++i) {
+                values[i] = marking[places[i]];
+            }
+            projected.add(Arrays.toString(values));
+        }
+        return projected;
+    }
+
+    /**
+     * Tests that independent transitions are explored in a single order.
+     */
+    @Test
+    void testIndependentTransitions() {
+        CompiledNet engine = independent(TRANSITIONS);
+        ReachabilityGraph full = new ReachabilityExplorer(engine).explore(MAX_STATES);
+        ReachabilityGraph reduced = new StubbornSetExplorer(engine).explore(MAX_STATES);
+
+        assertEquals(1 << TRANSITIONS, full.getStateCount());
+        assertEquals(TRANSITIONS + 1, reduced.getStateCount());
+        assertTrue(reduced.isComplete());
+        assertEquals(deadlocks(full), deadlocks(reduced));
+    }
+
+    /**
+     * Tests that the deadlock of the dining philosophers is kept with fewer states.
+     */
+    @Test
+    void testPhilosophers() {
+        CompiledNet engine = TestNets.philosophers(PHILOSOPHERS).buildCompiled();
+        ReachabilityGraph full = new ReachabilityExplorer(engine).explore(MAX_STATES);
+        ReachabilityGraph reduced = new StubbornSetExplorer(engine).explore(MAX_STATES);
+
+        assertEquals(1, deadlocks(full).size());
+        assertEquals(deadlocks(full), deadlocks(reduced));
+        assertTrue(reduced.getStateCount() < full.getStateCount());
+    }
+
+    /**
+     * Tests that a zero arc makes a transition depend on the producers of the tested place: firing
+     * {@code t0} first disables {@code t1}, so both orders lead to different deadlocks.
+     */
+    @Test
+    void testZeroArcDependency() {
+        CompiledNet engine = CompiledNet.fromArcs(new int[] {1, 0, 1, 0}, 2,
+            new int[][] {{0, 1}, {0, 2}, {1, 1}}, ZERO_ARC_POST,
+            new int[][] {{}, {}}, new int[][] {{1}, {1}});
+        ReachabilityGraph full = new ReachabilityExplorer(engine).explore(SMALL_MAX_STATES);
+        ReachabilityGraph reduced = new StubbornSetExplorer(engine).explore(SMALL_MAX_STATES);
+
+        assertEquals(2, deadlocks(full).size());
+        assertEquals(deadlocks(full), deadlocks(reduced));
+    }
+
+    /**
+     * Tests that every reachable combination of the visible places is kept.
+     */
+    @Test
+    void testVisiblePlaces() {
+        CompiledNet engine = independent(VISIBLE_TRANSITIONS);
+        ReachabilityGraph full = new ReachabilityExplorer(engine).explore(MAX_STATES);
+        ReachabilityGraph reduced = new StubbornSetExplorer(engine).explore(MAX_STATES, VISIBLE);
+
+        assertEquals(1 << VISIBLE.length, projections(full, VISIBLE).size());
+        assertEquals(projections(full, VISIBLE), projections(reduced, VISIBLE));
+        assertEquals(deadlocks(full), deadlocks(reduced));
+        assertTrue(reduced.getStateCount() < full.getStateCount());
+    }
+
+    /**
+     * Tests the invalid arguments.
+     */
+    @Test
+    void testInvalidArguments() {
+        StubbornSetExplorer explorer = new StubbornSetExplorer(independent(2));
+
+        assertThrows(IllegalArgumentException.class, () -> explorer.explore(0));
+        assertThrows(IllegalArgumentException.class,
+            () -> explorer.explore(SMALL_MAX_STATES, new int[] {MISSING_PLACE}));
+    }
+}
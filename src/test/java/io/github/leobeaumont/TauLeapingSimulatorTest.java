@@ -0,0 +1,96 @@
+package io.github.leobeaumont;
+
+import io.github.leobeaumont.Engine.CompiledNet;
+import io.github.leobeaumont.Engine.RandomSource;
+import io.github.leobeaumont.Engine.TauLeapingSimulator;
+import io.github.leobeaumont.Engine.TimeStatistics;
+import io.github.leobeaumont.Nodes.Place;
+import io.github.leobeaumont.PetriNET.PetriNetBuilder;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for the {@link TauLeapingSimulator} class and the token overflow checks.
+ */
+public class TauLeapingSimulatorTest {
+
+    private static final int TOKENS = 1_000_000;
+    private static final double RATE = 1000;
+    private static final double END_TIME = 100;
+    private static final long SEED = 5L;
+    private static final double TRANSFER_TOLERANCE = 2_000;
+    private static final double THROUGHPUT_TOLERANCE = 20;
+    private static final int FEW_TOKENS = 5;
+    private static final double LONG_END_TIME = 1000;
+    private static final double SHORT_END_TIME = 10;
+
+    /**
+     * Tests that a transfer of a million tokens follows the rate of the transition, in far fewer
+     * leaps than events, without losing tokens.
+     */
+    @Test
+    void testLeapingFollowsRate() {
+        PetriNetBuilder builder = new PetriNetBuilder();
+        builder.addPlaces(new int[] {TOKENS, 0});
+        builder.addTransition();
+        builder.addEdgeIn(0, 0, 1);
+        builder.addEdgeOut(0, 1, 1);
+        CompiledNet engine = builder.buildCompiled();
+        engine.setRate(0, RATE);
+
+        TimeStatistics statistics = new TauLeapingSimulator(engine).launchSimulation(END_TIME, SEED);
+
+        int[] marking = engine.getMarking();
+        assertEquals(TOKENS, marking[0] + marking[1]);
+        assertEquals(RATE * END_TIME, marking[1], TRANSFER_TOLERANCE);
+        assertEquals(marking[1], statistics.getFirings(0));
+        assertEquals(RATE, statistics.getThroughput(0), THROUGHPUT_TOLERANCE);
+    }
+
+    /**
+     * Tests that low counts and empty arcs are simulated exactly: the place never goes negative, and
+     * the emptying transition fires only once the transfer has stopped.
+     */
+    @Test
+    void testCriticalTransitionsAreExact() {
+        PetriNetBuilder builder = new PetriNetBuilder();
+        builder.addPlaces(new int[] {FEW_TOKENS, 0, 1});
+        builder.addTransitions(2);
+        builder.addEdgeIn(0, 0, 1);
+        builder.addEdgeOut(0, 1, 1);
+        builder.addEdgeEmpty(2, 1);
+        builder.addEdgeZero(0, 1);
+        CompiledNet engine = builder.buildCompiled();
+
+        int[] marking = engine.getMarking();
+        TimeStatistics statistics = new TauLeapingSimulator(engine).simulate(marking, LONG_END_TIME,
+            RandomSource.seeded(2));
+
+        assertTrue(statistics.isDeadlocked());
+        assertEquals(FEW_TOKENS, marking[1]);
+        assertEquals(0, marking[2]);
+        assertEquals(1, statistics.getFirings(1));
+    }
+
+    /**
+     * Tests that token counts can't overflow silently.
+     */
+    @Test
+    void testOverflowIsDetected() {
+        Place place = new Place(Integer.MAX_VALUE - 1);
+        place.addTokens(1);
+        assertThrows(IllegalStateException.class, () -> place.addTokens(1));
+
+        PetriNetBuilder builder = new PetriNetBuilder();
+        builder.addPlaces(new int[] {Integer.MAX_VALUE});
+        builder.addTransition();
+        builder.addEdgeOut(0, 0, 1);
+        CompiledNet engine = builder.buildCompiled();
+        assertThrows(IllegalStateException.class, () -> engine.fire(0));
+        assertThrows(IllegalStateException.class,
+            () -> new TauLeapingSimulator(engine).launchSimulation(SHORT_END_TIME, 1L));
+    }
+}
@@ -0,0 +1,72 @@
+package io.github.leobeaumont;
+
+import io.github.leobeaumont.Engine.CompiledNet;
+import io.github.leobeaumont.PetriNET.PetriNetBuilder;
+
+/**
+ * Nets shared by the unit tests of the explorers and analyzers.
+ */
+final class TestNets {
+
+    private static final int CYCLE_LENGTH = 3;
+    private static final int PHILOSOPHER_PLACES = 4;
+    private static final int FORK = 1;
+    private static final int LEFT_FORK = 2;
+    private static final int EATING = 3;
+
+    private TestNets() {
+    }
+
+    /**
+     * Builds {@code cycles} independent cycles of three places, each holding one token,
+     * which have {@code 3^cycles} reachable markings.
+     *
+     * @param cycles the number of cycles
+     * @return the compiled net
+     */
+    static CompiledNet buildCycles(int cycles) {
+        PetriNetBuilder builder = new PetriNetBuilder();
+        for (int c = 0; c < cycles; ++c) {
+            builder.addPlaces(new int[] {1, 0, 0});
+        }
+        builder.addTransitions(CYCLE_LENGTH * cycles);
+        for (int c = 0; c < cycles; ++c) {
+            for (int i = 0; i < CYCLE_LENGTH; ++i) {
+                int t = CYCLE_LENGTH * c + i;
+                builder.addEdgeIn(t, t, 1);
+                builder.addEdgeOut(t, CYCLE_LENGTH * c + (i + 1) % CYCLE_LENGTH, 1);
+            }
+        }
+        return builder.buildCompiled();
+    }
+
+    /**
+     * Builds {@code count} dining philosophers, which deadlock when every one holds the left fork.
+     * Philosopher {@code i} has the places thinking {@code 4i}, fork {@code 4i + 1}, holding the left
+     * fork {@code 4i + 2} and eating {@code 4i + 3}, and the transitions taking the left fork, taking
+     * the right fork and releasing both.
+     *
+     * @param count the number of philosophers
+     * @return the builder holding the net
+     */
+    static PetriNetBuilder philosophers(int count) {
+        PetriNetBuilder builder = new PetriNetBuilder();
+        for (int i = 0; i < count; ++i) {
+            builder.addPlaces(new int[] {1, 1, 0, 0});
+        }
+        for (int i = 0; i < count; ++i) {
+            int thinking = PHILOSOPHER_PLACES * i;
+            int rightFork = PHILOSOPHER_PLACES * ((i + 1) % count) + FORK;
+            int take = builder.addTransitions(CYCLE_LENGTH);
+            builder.addEdgesIn(new int[] {thinking, thinking + FORK}, new int[] {take, take}, new int[] {1, 1});
+            builder.addEdgeOut(take, thinking + LEFT_FORK, 1);
+            builder.addEdgesIn(new int[] {thinking + LEFT_FORK, rightFork}, new int[] {take + 1, take + 1},
+                new int[] {1, 1});
+            builder.addEdgeOut(take + 1, thinking + EATING, 1);
+            builder.addEdgeIn(thinking + EATING, take + 2, 1);
+            builder.addEdgesOut(new int[] {take + 2, take + 2, take + 2},
+                new int[] {thinking, thinking + FORK, rightFork}, new int[] {1, 1, 1});
+        }
+        return builder;
+    }
+}
@@ -0,0 +1,164 @@
+package io.github.leobeaumont;
+
+import io.github.leobeaumont.Analysis.PetriNetFacade;
+import io.github.leobeaumont.Engine.CompiledNet;
+import io.github.leobeaumont.Engine.RandomSource;
+import io.github.leobeaumont.Engine.TimeStatistics;
+import io.github.leobeaumont.Engine.TimedScheduler;
+import io.github.leobeaumont.Nodes.Place;
+import io.github.leobeaumont.Nodes.Transition;
+import io.github.leobeaumont.PetriNET.PetriNet1;
+import io.github.leobeaumont.PetriNET.PetriNetBuilder;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests for the {@link TimedScheduler} class.
+ */
+public class TimedSchedulerTest {
+
+    private static final int MAX_EVENTS = 100;
+    private static final int TIES = 4;
+    private static final double START_DELAY = 3;
+    private static final double END_TIME = 10;
+    private static final int EVENTS = 5;
+    private static final int STOP_FIRINGS = 3;
+    private static final double ON_SHARE = 0.3;
+    private static final double EPSILON = 1e-12;
+    private static final double LATEST_DELAY = 3;
+    private static final int SEEDS = 20;
+    private static final double SHORT_END_TIME = 5;
+
+    /**
+     * Tests a two-state machine with deterministic delays: the token leaves {@code on} after 1 unit
+     * of time and comes back after 3, so the events happen at times 1, 4, 5, 8 and 9.
+     */
+    @Test
+    void testDeterministicDelays() {
+        PetriNet1 petriNet = new PetriNet1();
+        Place on = new Place(1);
+        Place off = new Place(0);
+        Transition stop = new Transition();
+        Transition start = new Transition();
+        stop.setDelay(1);
+        start.setDelay(START_DELAY);
+        petriNet.addPlace(on);
+        petriNet.addPlace(off);
+        petriNet.addTransition(stop);
+        petriNet.addTransition(start);
+        petriNet.addEdge(1, on, stop);
+        petriNet.addEdge(1, stop, off);
+        petriNet.addEdge(1, off, start);
+        petriNet.addEdge(1, start, on);
+
+        TimeStatistics statistics = new PetriNetFacade(petriNet).launchTimedSimulation(END_TIME, Long.MAX_VALUE);
+
+        assertEquals(END_TIME, statistics.getTime(), EPSILON);
+        assertEquals(EVENTS, statistics.getEvents());
+        assertFalse(statistics.isDeadlocked());
+        assertEquals(STOP_FIRINGS, statistics.getFirings(0));
+        assertEquals(ON_SHARE, statistics.getMeanTokens(0), EPSILON);
+        assertEquals(0, on.getNbTokens());
+        assertEquals(1, off.getNbTokens());
+    }
+
+    /**
+     * Tests that transitions scheduled at the same time fire in the order of their indices: the
+     * transition {@code i} moves a token from place {@code i} to place {@code TIES + i} after one unit
+     * of time, and a run cut after {@code k} events has fired the first {@code k} transitions.
+     */
+    @Test
+    void testEqualDeadlinesFireInIndexOrder() {
+        PetriNetBuilder builder = new PetriNetBuilder();
+        int[] tokens = new int[2 * TIES];
+        int[] sources = new int[TIES];
+        int[] targets = new int[TIES];
+        int[] transitions = new int[TIES];
+        int[] weights = new int[TIES];
+        for (int i = 0; i < TIES; ++i) {
+            tokens[i] = 1;
+            sources[i] = i;
+            targets[i] = TIES + i;
+            transitions[i] = i;
+            weights[i] = 1;
+        }
+        builder.addPlaces(tokens);
+        builder.addTransitions(TIES);
+        builder.addEdgesIn(sources, transitions, weights);
+        builder.addEdgesOut(transitions, targets, weights);
+        CompiledNet engine = builder.buildCompiled();
+        for (int t = 0; t < TIES; ++t) {
+            engine.setDelay(t, 1, 1);
+        }
+        TimedScheduler scheduler = new TimedScheduler(engine);
+
+        for (int events = 1; events <= TIES; ++events) {
+            TimeStatistics statistics = scheduler.simulate(
+                engine.getMarking(), Double.POSITIVE_INFINITY, events, RandomSource.seeded(0));
+            assertEquals(1, statistics.getTime(), 0);
+            for (int t = 0; t < TIES; ++t) {
+                assertEquals(t < events ? 1 : 0, statistics.getFirings(t));
+            }
+        }
+    }
+
+    /**
+     * Tests that the earliest of two conflicting transitions wins, and that the other one is
+     * cancelled when it is disabled.
+     */
+    @Test
+    void testConflictAndInterval() {
+        PetriNetBuilder builder = new PetriNetBuilder();
+        builder.addPlaces(new int[] {1, 0, 0});
+        builder.addTransitions(2);
+        builder.addEdgesIn(new int[] {0, 0}, new int[] {0, 1}, new int[] {1, 1});
+        builder.addEdgesOut(new int[] {0, 1}, new int[] {1, 2}, new int[] {1, 1});
+        CompiledNet engine = builder.buildCompiled();
+        engine.setDelay(0, 2, LATEST_DELAY);
+        engine.setDelay(1, 1, 2);
+
+        for (long seed = 0; seed < SEEDS; ++seed) {
+            int[] marking = engine.getMarking();
+            TimeStatistics statistics = new TimedScheduler(engine).simulate(
+                marking, Double.POSITIVE_INFINITY, MAX_EVENTS, RandomSource.seeded(seed));
+
+            assertArrayEquals(new int[] {0, 0, 1}, marking);
+            assertTrue(statistics.isDeadlocked());
+            assertEquals(1, statistics.getEvents());
+            assertTrue(statistics.getTime() >= 1 && statistics.getTime() <= 2);
+        }
+    }
+
+    /**
+     * Tests that a cycle of zero-delay transitions is bounded by the number of events, and that
+     * invalid delays and limits are rejected.
+     */
+    @Test
+    void testZeroDelayCycleAndInvalidArguments() {
+        PetriNetBuilder builder = new PetriNetBuilder();
+        builder.addPlaces(new int[] {1, 0});
+        builder.addTransitions(2);
+        builder.addEdgesIn(new int[] {0, 1}, new int[] {0, 1}, new int[] {1, 1});
+        builder.addEdgesOut(new int[] {0, 1}, new int[] {1, 0}, new int[] {1, 1});
+        CompiledNet engine = builder.buildCompiled();
+        TimedScheduler scheduler = new TimedScheduler(engine);
+
+        TimeStatistics statistics = scheduler.launchSimulation(SHORT_END_TIME, MAX_EVENTS, 0);
+
+        assertEquals(MAX_EVENTS, statistics.getEvents());
+        assertEquals(0, statistics.getTime(), 0);
+        assertArrayEquals(new int[] {1, 0}, engine.getMarking());
+
+        assertThrows(IllegalArgumentException.class, () -> scheduler.launchSimulation(-1, 1, 0));
+        assertThrows(IllegalArgumentException.class,
+            () -> scheduler.launchSimulation(Double.POSITIVE_INFINITY, Long.MAX_VALUE, 0));
+        assertThrows(IllegalArgumentException.class, () -> engine.setDelay(0, 2, 1));
+        assertThrows(IllegalArgumentException.class, () -> new Transition().setDelay(Double.NaN));
+        assertThrows(IllegalArgumentException.class, () -> new Transition().setDelay(0, Double.POSITIVE_INFINITY));
+    }
+}